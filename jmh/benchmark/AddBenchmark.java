@@ -0,0 +1,66 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import redBlackTree.RBTree;
+import redBlackTree.RBTreeMap;
+
+import java.util.Arrays;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Построение дерева добавлением всех ключей набора в сравнении с {@link TreeMap} (базовая линия).
+ */
+public class AddBenchmark extends WorkloadBenchmark {
+    /**
+     * Размер пакета при пакетном добавлении.
+     */
+    private static final int BATCH = 10_000;
+
+    @Benchmark
+    public int rbTreeAdd() {
+        return add(workload);
+    }
+
+    @Benchmark
+    public int rbTreeMapPut() {
+        return put(workload, new RBTreeMap<>());
+    }
+
+    @Benchmark
+    public int treeMapPut() {
+        return put(workload, new TreeMap<>());
+    }
+
+    @Benchmark
+    public int rbTreeAddAllBatches() {
+        return addAll(workload);
+    }
+
+    private static <K extends Comparable<K>> int add(Workload<K> workload) {
+        RBTree<K, Integer> tree = new RBTree<>();
+        for(K key : workload.getKeys()) {
+            tree.add(key, 0);
+        }
+        return tree.size();
+    }
+
+    private static <K extends Comparable<K>> int put(Workload<K> workload, NavigableMap<K, Integer> map) {
+        for(K key : workload.getKeys()) {
+            map.put(key, 0);
+        }
+        return map.size();
+    }
+
+    private static <K extends Comparable<K>> int addAll(Workload<K> workload) {
+        K[] keys = workload.getKeys();
+        RBTree<K, Integer> tree = new RBTree<>();
+        Integer[] values = new Integer[BATCH];
+        Arrays.fill(values, 0);
+        for(int from = 0; from < keys.length; from += BATCH) {
+            int to = Math.min(from + BATCH, keys.length);
+            tree.addAll(Arrays.copyOfRange(keys, from, to), Arrays.copyOfRange(values, 0, to - from));
+        }
+        return tree.size();
+    }
+}
@@ -0,0 +1,141 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import redBlackTree.RBTree;
+import redBlackTree.RBTreeCursor;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Поиск всех ключей набора: в случайном порядке, по возрастанию (последовательный поиск)
+ * и по возрастанию со случайными смещениями вперед (почти последовательный поиск) в сравнении с {@link TreeMap}.
+ * Дерево строится один раз на запуск: поиск его не изменяет.
+ */
+public class FindBenchmark extends WorkloadBenchmark {
+    /**
+     * Максимальное смещение ключа при почти последовательном поиске (в позициях упорядоченного набора ключей).
+     */
+    private static final int NEAR_DISTANCE = 16;
+
+    /**
+     * Структуры поиска.
+     */
+    private Fixture<?> fixture;
+
+    @Override
+    protected <K extends Comparable<K>> void prepare(Workload<K> workload) {
+        fixture = new Fixture<>(workload);
+    }
+
+    @Benchmark
+    public long rbTreeFindNode() {
+        return fixture.findNode(Order.RANDOM);
+    }
+
+    @Benchmark
+    public long treeMapGet() {
+        return fixture.get(Order.RANDOM);
+    }
+
+    @Benchmark
+    public long rbTreeFindNodeSequential() {
+        return fixture.findNode(Order.SEQUENTIAL);
+    }
+
+    @Benchmark
+    public long rbTreeCursorSeekSequential() {
+        return fixture.seek(Order.SEQUENTIAL);
+    }
+
+    @Benchmark
+    public long treeMapGetSequential() {
+        return fixture.get(Order.SEQUENTIAL);
+    }
+
+    @Benchmark
+    public long rbTreeFindNodeNear() {
+        return fixture.findNode(Order.NEAR);
+    }
+
+    @Benchmark
+    public long rbTreeCursorSeekNear() {
+        return fixture.seek(Order.NEAR);
+    }
+
+    @Benchmark
+    public long treeMapGetNear() {
+        return fixture.get(Order.NEAR);
+    }
+
+    /**
+     * Порядок поиска ключей.
+     */
+    private enum Order {
+        RANDOM, SEQUENTIAL, NEAR
+    }
+
+    /**
+     * Дерево, отображение TreeMap и порядки поиска ключей.
+     * @param <K> тип ключей.
+     */
+    private static final class Fixture<K extends Comparable<K>> {
+        private final RBTree<K, Integer> tree = new RBTree<>();
+        private final TreeMap<K, Integer> map = new TreeMap<>();
+        private final K[] random;
+        private final K[] sequential;
+        private final K[] near;
+
+        private Fixture(Workload<K> workload) {
+            for(K key : workload.getKeys()) {
+                tree.add(key, 0);
+                map.put(key, 0);
+            }
+            random = workload.getLookups();
+            sequential = workload.getKeys().clone();
+            Arrays.sort(sequential);
+            near = sequential.clone();
+            Random rnd = new Random(7);
+            for(int j = 0; j < near.length; ++j) {
+                int other = Math.min(j + rnd.nextInt(NEAR_DISTANCE + 1), near.length - 1);
+                K key = near[j];
+                near[j] = near[other];
+                near[other] = key;
+            }
+        }
+
+        private K[] getLookups(Order order) {
+            return switch(order) {
+                case RANDOM -> random;
+                case SEQUENTIAL -> sequential;
+                case NEAR -> near;
+            };
+        }
+
+        private long findNode(Order order) {
+            long found = 0;
+            for(K key : getLookups(order)) {
+                found += tree.findNode(key) != null ? 1 : 0;
+            }
+            return found;
+        }
+
+        private long seek(Order order) {
+            RBTreeCursor<K, Integer> cursor = tree.cursor();
+            long found = 0;
+            for(K key : getLookups(order)) {
+                found += cursor.seek(key) != null ? 1 : 0;
+            }
+            return found;
+        }
+
+        private long get(Order order) {
+            long found = 0;
+            for(K key : getLookups(order)) {
+                found += map.get(key) != null ? 1 : 0;
+            }
+            return found;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package benchmark;
+
+import binarySearchTree.BSNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import redBlackTree.RBTree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Объединение сегментов (деревьев с ключами набора, распределенными поочередно) в одно дерево:
+ * добавлением узлов, последовательным и параллельным объединением деревьев.
+ * Объединение изменяет сегменты, поэтому сегменты создаются заново перед каждым вызовом ({@link Level#Invocation}).
+ */
+public class MergeBenchmark extends WorkloadBenchmark {
+    /**
+     * Количество сегментов (деревьев), объединяемых в одно дерево.
+     */
+    private static final int SHARDS = 8;
+
+    /**
+     * Сегменты текущего вызова.
+     */
+    private Shards<?> shards;
+
+    @Setup(Level.Invocation)
+    public void createShards() {
+        shards = new Shards<>(workload);
+    }
+
+    @Benchmark
+    public int rbTreeAddShards() {
+        return shards.add();
+    }
+
+    @Benchmark
+    public int rbTreeUnionShards() {
+        return shards.union();
+    }
+
+    @Benchmark
+    public int rbTreeParallelUnionShards() {
+        return shards.parallelUnion();
+    }
+
+    /**
+     * Сегменты набора ключей.
+     * @param <K> тип ключей.
+     */
+    private static final class Shards<K extends Comparable<K>> {
+        private final List<RBTree<K, Integer>> trees = new ArrayList<>(SHARDS);
+
+        private Shards(Workload<K> workload) {
+            K[] keys = workload.getKeys();
+            for(int j = 0; j < SHARDS; ++j) {
+                trees.add(new RBTree<>());
+            }
+            for(int j = 0; j < keys.length; ++j) {
+                trees.get(j % SHARDS).add(keys[j], 1);
+            }
+        }
+
+        private int add() {
+            RBTree<K, Integer> tree = new RBTree<>();
+            for(RBTree<K, Integer> shard : trees) {
+                for(BSNode<K, Integer> node : shard) {
+                    tree.add(node.getKey(), node.getValue());
+                }
+            }
+            return tree.size();
+        }
+
+        private int union() {
+            RBTree<K, Integer> tree = trees.get(0);
+            for(int j = 1; j < trees.size(); ++j) {
+                tree.union(trees.get(j), Integer::sum);
+            }
+            return tree.size();
+        }
+
+        private int parallelUnion() {
+            return RBTree.parallelUnion(trees, Integer::sum).size();
+        }
+    }
+}
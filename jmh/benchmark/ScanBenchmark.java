@@ -0,0 +1,94 @@
+package benchmark;
+
+import binarySearchTree.BSNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import redBlackTree.RBTree;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Обход всех узлов и узлов диапазона [lo, hi) - средней половины ключей - в сравнении с {@link TreeMap}.
+ */
+public class ScanBenchmark extends WorkloadBenchmark {
+    /**
+     * Структуры обхода.
+     */
+    private Fixture<?> fixture;
+
+    @Override
+    protected <K extends Comparable<K>> void prepare(Workload<K> workload) {
+        fixture = new Fixture<>(workload);
+    }
+
+    @Benchmark
+    public long rbTreeIterator() {
+        return fixture.iterate();
+    }
+
+    @Benchmark
+    public long rbTreeForEachInRange() {
+        return fixture.forEachInRange();
+    }
+
+    @Benchmark
+    public long treeMapEntrySet() {
+        return fixture.entrySet();
+    }
+
+    @Benchmark
+    public long treeMapSubMapForEach() {
+        return fixture.subMapForEach();
+    }
+
+    /**
+     * Дерево, отображение TreeMap и границы диапазона.
+     * @param <K> тип ключей.
+     */
+    private static final class Fixture<K extends Comparable<K>> {
+        private final RBTree<K, Integer> tree = new RBTree<>();
+        private final TreeMap<K, Integer> map = new TreeMap<>();
+        private final K lo;
+        private final K hi;
+
+        private Fixture(Workload<K> workload) {
+            for(K key : workload.getKeys()) {
+                tree.add(key, 1);
+                map.put(key, 1);
+            }
+            K[] sorted = workload.getKeys().clone();
+            Arrays.sort(sorted);
+            lo = sorted[sorted.length / 4];
+            hi = sorted[sorted.length / 4 * 3];
+        }
+
+        private long iterate() {
+            long sum = 0;
+            for(BSNode<K, Integer> node : tree) {
+                sum += node.getValue();
+            }
+            return sum;
+        }
+
+        private long forEachInRange() {
+            long[] sum = new long[1];
+            tree.forEachInRange(lo, hi, (key, value) -> sum[0] += value);
+            return sum[0];
+        }
+
+        private long entrySet() {
+            long sum = 0;
+            for(Map.Entry<K, Integer> entry : map.entrySet()) {
+                sum += entry.getValue();
+            }
+            return sum;
+        }
+
+        private long subMapForEach() {
+            long[] sum = new long[1];
+            map.subMap(lo, hi).forEach((key, value) -> sum[0] += value);
+            return sum[0];
+        }
+    }
+}
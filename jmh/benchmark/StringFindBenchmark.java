@@ -0,0 +1,70 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import redBlackTree.RBTree;
+import redBlackTree.StringRBTree;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск строковых ключей (emoji, см. {@link Workload#emoji}) в случайном порядке:
+ * {@link StringRBTree} с кэшем префиксов в сравнении с {@link RBTree}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class StringFindBenchmark {
+    /**
+     * Количество ключей.
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private final RBTree<String, Integer> tree = new RBTree<>();
+
+    private final StringRBTree<Integer> stringTree = new StringRBTree<>();
+
+    private String[] lookups;
+
+    @Setup(Level.Trial)
+    public void createTrees() {
+        Workload<String> workload = Workload.emoji(size);
+        for(String key : workload.getKeys()) {
+            tree.add(key, 0);
+            stringTree.add(key, 0);
+        }
+        lookups = workload.getLookups();
+    }
+
+    @Benchmark
+    public long rbTreeFindNode() {
+        long found = 0;
+        for(String key : lookups) {
+            found += tree.findNode(key) != null ? 1 : 0;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public long stringRBTreeFindNode() {
+        long found = 0;
+        for(String key : lookups) {
+            found += stringTree.findNode(key) != null ? 1 : 0;
+        }
+        return found;
+    }
+}
@@ -0,0 +1,112 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.TearDown;
+import redBlackTree.RBTree;
+import utils.codec.Codec;
+import utils.codec.Codecs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Обход всего дерева с выводом или записью в файл: вывод дерева (полный и только существующих узлов),
+ * проверка свойств дерева, запись и чтение снимка дерева.
+ * Вывод выполняется в файл: время вывода в консоль определяется консолью.
+ */
+public class TreeFileBenchmark extends WorkloadBenchmark {
+    /**
+     * Дерево и файлы измерения.
+     */
+    private Fixture<?> fixture;
+
+    @Override
+    protected <K extends Comparable<K>> void prepare(Workload<K> workload) {
+        try {
+            fixture = new Fixture<>(workload);
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        fixture.delete();
+    }
+
+    @Benchmark
+    public long rbTreeDisplay() throws IOException {
+        return fixture.display(false);
+    }
+
+    @Benchmark
+    public long rbTreeDisplaySparse() throws IOException {
+        return fixture.display(true);
+    }
+
+    @Benchmark
+    public int rbTreeValidate() {
+        return fixture.tree.validate().nodeCount();
+    }
+
+    @Benchmark
+    public int rbTreeValidateParallel() {
+        return fixture.tree.validate(true).nodeCount();
+    }
+
+    @Benchmark
+    public long rbTreeWriteSnapshot() throws IOException {
+        return fixture.writeSnapshot();
+    }
+
+    @Benchmark
+    public int rbTreeReadSnapshot() throws IOException {
+        return fixture.readSnapshot();
+    }
+
+    /**
+     * Дерево, кодировщик ключей и файлы вывода и снимка.
+     * @param <K> тип ключей.
+     */
+    private static final class Fixture<K extends Comparable<K>> {
+        private final RBTree<K, Integer> tree = new RBTree<>();
+        private final Codec<K> keyCodec;
+        private final Path text;
+        private final Path snapshot;
+
+        @SuppressWarnings("unchecked")
+        private Fixture(Workload<K> workload) throws IOException {
+            K[] keys = workload.getKeys();
+            for(int j = 0; j < keys.length; ++j) {
+                tree.add(keys[j], j);
+            }
+            keyCodec = (Codec<K>) (keys.length > 0 && keys[0] instanceof String ? Codecs.ofString() : Codecs.ofInt());
+            text = Files.createTempFile("tree", ".txt");
+            snapshot = Files.createTempFile("tree", ".snapshot");
+            tree.writeSnapshot(snapshot, keyCodec, Codecs.ofInt());
+        }
+
+        private long display(boolean isSparse) throws IOException {
+            (isSparse ? tree.sparseOut : tree.out).display(0, text.toString());
+            return Files.size(text);
+        }
+
+        private long writeSnapshot() throws IOException {
+            tree.writeSnapshot(snapshot, keyCodec, Codecs.ofInt());
+            return Files.size(snapshot);
+        }
+
+        private int readSnapshot() throws IOException {
+            return RBTree.readSnapshot(snapshot, keyCodec, Codecs.ofInt()).size();
+        }
+
+        private void delete() throws IOException {
+            Files.deleteIfExists(text);
+            Files.deleteIfExists(snapshot);
+        }
+    }
+}
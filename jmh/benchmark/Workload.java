@@ -0,0 +1,165 @@
+package benchmark;
+
+import java.util.Random;
+
+/**
+ * Набор ключей для измерения: ключи в порядке добавления и те же ключи в случайном порядке поиска.
+ * Ключи создаются заранее, чтобы их создание не входило в замер.
+ * @param <K> тип ключей.
+ */
+public final class Workload<K extends Comparable<K>> {
+    /**
+     * Начальная кодовая точка строковых ключей (emoji).
+     */
+    private static final int EMOJI_CODE_POINT = 127900;
+
+    /**
+     * Количество различных emoji в начале строковых ключей.
+     */
+    private static final int EMOJI_COUNT = 256;
+
+    /**
+     * Начальное значение генератора случайных чисел (для воспроизводимости замеров).
+     */
+    private static final long SEED = 7;
+
+    /**
+     * Наименование распределения ключей.
+     */
+    private final String name;
+
+    /**
+     * Ключи в порядке добавления.
+     */
+    private final K[] keys;
+
+    /**
+     * Ключи в порядке поиска.
+     */
+    private final K[] lookups;
+
+    private Workload(String name, K[] keys) {
+        this.name = name;
+        this.keys = keys;
+        this.lookups = keys.clone();
+        shuffle(lookups, new Random(SEED + 1));
+    }
+
+    /**
+     * Создает набор ключей по наименованию распределения (параметр измерений JMH).
+     * @param name наименование распределения: increasing, decreasing, random или emoji.
+     * @param size количество ключей.
+     * @return набор ключей.
+     * @throws IllegalArgumentException если распределение неизвестно.
+     */
+    public static Workload<?> of(String name, int size) {
+        return switch(name) {
+            case "increasing" -> increasing(size);
+            case "decreasing" -> decreasing(size);
+            case "random" -> random(size);
+            case "emoji" -> emoji(size);
+            default -> throw new IllegalArgumentException("Неизвестное распределение ключей: " + name);
+        };
+    }
+
+    /**
+     * Возрастающие целочисленные ключи 1..size.
+     * @param size количество ключей.
+     * @return набор ключей.
+     */
+    public static Workload<Integer> increasing(int size) {
+        Integer[] keys = new Integer[size];
+        for(int j = 0; j < size; ++j) {
+            keys[j] = j + 1;
+        }
+        return new Workload<>("increasing", keys);
+    }
+
+    /**
+     * Убывающие целочисленные ключи size..1.
+     * @param size количество ключей.
+     * @return набор ключей.
+     */
+    public static Workload<Integer> decreasing(int size) {
+        Integer[] keys = new Integer[size];
+        for(int j = 0; j < size; ++j) {
+            keys[j] = size - j;
+        }
+        return new Workload<>("decreasing", keys);
+    }
+
+    /**
+     * Целочисленные ключи 1..size в случайном порядке.
+     * @param size количество ключей.
+     * @return набор ключей.
+     */
+    public static Workload<Integer> random(int size) {
+        Integer[] keys = increasing(size).keys;
+        shuffle(keys, new Random(SEED));
+        return new Workload<>("random", keys);
+    }
+
+    /**
+     * Строковые ключи: emoji (одна из {@link #EMOJI_COUNT} кодовых точек) и порядковый номер ключа.
+     * Ключи добавляются по возрастанию порядкового номера, т.е. чередованием возрастающих последовательностей
+     * с общим префиксом emoji.
+     * @param size количество ключей.
+     * @return набор ключей.
+     */
+    public static Workload<String> emoji(int size) {
+        String[] keys = new String[size];
+        StringBuilder sb = new StringBuilder(12);
+        for(int j = 0; j < size; ++j) {
+            sb.setLength(0);
+            sb.appendCodePoint(EMOJI_CODE_POINT + j % EMOJI_COUNT).append(j);
+            keys[j] = sb.toString();
+        }
+        return new Workload<>("emoji", keys);
+    }
+
+    /**
+     * Получает наименование распределения ключей.
+     * @return наименование.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Получает количество ключей.
+     * @return количество ключей.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Получает ключи в порядке добавления (массив не копируется и не должен изменяться).
+     * @return ключи.
+     */
+    public K[] getKeys() {
+        return keys;
+    }
+
+    /**
+     * Получает ключи в порядке поиска (массив не копируется и не должен изменяться).
+     * @return ключи.
+     */
+    public K[] getLookups() {
+        return lookups;
+    }
+
+    /**
+     * Перемешивает массив (алгоритм Фишера-Йетса).
+     * @param array массив.
+     * @param rnd генератор случайных чисел.
+     */
+    private static <T> void shuffle(T[] array, Random rnd) {
+        for(int j = array.length - 1; j > 0; --j) {
+            int k = rnd.nextInt(j + 1);
+            T tmp = array[j];
+            array[j] = array[k];
+            array[k] = tmp;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Общие параметры измерений JMH: размер и распределение набора ключей (см. {@link Workload}).
+ * Набор ключей и структуры, не изменяемые измерениями, создаются один раз на запуск ({@link Level#Trial}),
+ * поэтому их создание не входит в замер. Результат измерения - среднее время одного вызова (всего набора ключей).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public abstract class WorkloadBenchmark {
+    /**
+     * Количество ключей.
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    /**
+     * Распределение ключей.
+     */
+    @Param({"increasing", "decreasing", "random", "emoji"})
+    public String distribution;
+
+    /**
+     * Набор ключей.
+     */
+    protected Workload<?> workload;
+
+    /**
+     * Создает набор ключей и подготавливает структуры измерения.
+     */
+    @Setup(Level.Trial)
+    public void createWorkload() {
+        workload = Workload.of(distribution, size);
+        prepare(workload);
+    }
+
+    /**
+     * Подготавливает структуры, не изменяемые измерениями (по умолчанию не требуются).
+     * @param workload набор ключей.
+     */
+    protected <K extends Comparable<K>> void prepare(Workload<K> workload) {
+    }
+}
@@ -1,11 +1,22 @@
+import binarySearchTree.BSNode;
+import redBlackTree.ArrayRBTree;
+import redBlackTree.ConcurrentRBTree;
+import redBlackTree.DepthHistogram;
+import redBlackTree.IntRBTree;
+import redBlackTree.MappedRBTree;
 import redBlackTree.RBTree;
+import redBlackTree.ValidationReport;
+import utils.codec.Codecs;
 import utils.constants.AppConstants;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 
 // Пример использования деревьев
@@ -135,10 +146,376 @@ class TestDebug {
 
         return tree;
     }
+
+    // V - объем памяти на один узел дерева
+    public static void NodeFootprint(int count) {
+        System.out.println("\nОбъем памяти узла дерева BSNode<Integer, String>:");
+
+        // Ключи создаются заранее, чтобы в замер попали только узлы
+        Integer[] keys = new Integer[count];
+        for(int j = 0; j < count; ++j) {
+            keys[j] = j;
+        }
+        Object[] nodes = new Object[count];
+        Runtime runtime = Runtime.getRuntime();
+
+        long before = getUsedMemory(runtime);
+        for(int j = 0; j < count; ++j) {
+            nodes[j] = new BSNode<Integer, String>(keys[j]);
+        }
+        long after = getUsedMemory(runtime);
+
+        // Замер на JVM x64 со сжатыми ссылками:
+        // до упаковки (узел + Display + лямбда, два признака boolean) - 80 байт на узел;
+        // после упаковки (признаки в одном байте, вывод в поток без поля в узле) - 32 байта на узел.
+        System.out.println("Nodes: " + nodes.length + "; Heap per node: " + (after - before) / count + " байт");
+    }
+
+    // Получает объем используемой памяти после сборки мусора
+    private static long getUsedMemory(Runtime runtime) {
+        for(int j = 0; j < 3; ++j) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // VII - построение дерева из упорядоченных целочисленных ключей за O(n)
+    public static RBTree<Integer, String> SortedIntKey(int count) {
+        System.out.println("\nКрасно-черное дерево, построенное из упорядоченных целочисленных ключей:");
+
+        Integer[] keys = new Integer[count];
+        for(int j = 0; j < count; ++j) {
+            keys[j] = j + 1;
+        }
+
+        // Время начала обработки
+        long start = System.nanoTime();
+
+        // Построить дерево без добавления отдельных узлов и поворотов
+        RBTree<Integer, String> tree = RBTree.buildFromSortedArray(keys, null);
+
+        // Время окончания обработки
+        long finish = System.nanoTime();
+
+        TestDebug.Info(1, count, start, finish, tree.getRoot().getKey().toString(), tree.size());
+
+        return tree;
+    }
+
+    // VIII - на возрастание ключей примитивного типа int (без упаковки в Integer)
+    public static IntRBTree<String> IncreasingPrimitiveIntKey(int count) {
+        System.out.println("\nКрасно-черное дерево с ключами int на возрастание:");
+
+        IntRBTree<String> tree = new IntRBTree<>();
+
+        // Время начала обработки
+        long start = System.nanoTime();
+
+        for(int j = 1; j <= count; ++j) {
+            // Добавить ключ
+            tree.add(j);
+        }
+
+        // Время окончания обработки
+        long finish = System.nanoTime();
+
+        TestDebug.Info(1, count, start, finish, Integer.toString(tree.getKey(tree.getRoot())), tree.size());
+
+        return tree;
+    }
+
+    // IX - сравнение дерева на объектах узлов и дерева в параллельных массивах (память, добавление, поиск)
+    public static void ArrayTreeBenchmark(int count) {
+        System.out.println("\nДерево на объектах узлов RBTree и дерево в параллельных массивах ArrayRBTree:");
+
+        // Случайные ключи создаются заранее, чтобы в замер памяти попала только структура дерева
+        Integer[] keys = new Integer[count];
+        for(int j = 0; j < count; ++j) {
+            keys[j] = j + 1;
+        }
+        Random rnd = new Random(7);
+        for(int j = count - 1; j > 0; --j) {
+            int k = rnd.nextInt(j + 1);
+            Integer tmp = keys[j];
+            keys[j] = keys[k];
+            keys[k] = tmp;
+        }
+        Runtime runtime = Runtime.getRuntime();
+
+        long before = getUsedMemory(runtime);
+        long start = System.nanoTime();
+        RBTree<Integer, String> tree = new RBTree<>();
+        for(Integer key : keys) {
+            tree.add(key);
+        }
+        long finish = System.nanoTime();
+        long after = getUsedMemory(runtime);
+        long found = 0;
+        long startFind = System.nanoTime();
+        for(Integer key : keys) {
+            found += tree.findNode(key) != null ? 1 : 0;
+        }
+        long finishFind = System.nanoTime();
+        System.out.println("RBTree: heap per node = " + (after - before) / count + " байт; add = " + (finish - start) / 1_000_000
+                + " мс; findNode = " + (finishFind - startFind) / 1_000_000 + " мс; found = " + found);
+        tree = null;
+
+        before = getUsedMemory(runtime);
+        start = System.nanoTime();
+        ArrayRBTree<Integer, String> arrayTree = new ArrayRBTree<>();
+        for(Integer key : keys) {
+            arrayTree.add(key);
+        }
+        finish = System.nanoTime();
+        after = getUsedMemory(runtime);
+        found = 0;
+        startFind = System.nanoTime();
+        for(Integer key : keys) {
+            found += arrayTree.findNode(key) != ArrayRBTree.NIL ? 1 : 0;
+        }
+        finishFind = System.nanoTime();
+        System.out.println("ArrayRBTree: heap per node = " + (after - before) / count + " байт; add = " + (finish - start) / 1_000_000
+                + " мс; findNode = " + (finishFind - startFind) / 1_000_000 + " мс; found = " + found + "; size = " + arrayTree.size());
+    }
+
+    // X - на возрастание ключей long в файле, отображенном в память (дерево сохраняется между запусками)
+    public static void MappedLongKey(String fileName, int count) throws IOException {
+        System.out.println("\nКрасно-черное дерево в файле, отображенном в память:");
+
+        // Время начала обработки
+        long start = System.nanoTime();
+
+        try(MappedRBTree<Long, String> tree = MappedRBTree.open(Path.of(fileName), Codecs.ofLong(), Codecs.ofString(16))) {
+            System.out.println("Opened: " + (System.nanoTime() - start) / 1_000_000 + " мс; size = " + tree.size());
+            // Продолжить добавление ключей после ранее сохраненных
+            long first = tree.size() + 1;
+            for(long j = first; j < first + count; ++j) {
+                // Добавить ключ
+                tree.add(j, "value " + j);
+            }
+
+            // Время окончания обработки
+            long finish = System.nanoTime();
+
+            TestDebug.Info((int) first, (int) (first + count - 1), start, finish, tree.getKey(tree.getRoot()).toString(), tree.size());
+        }
+    }
+
+    // XI - многопоточная нагрузка на потокобезопасное дерево с проверкой свойств красно-черного дерева после каждого прогона
+    public static void ConcurrentStress(int threads, int range, int operations, int runs) throws InterruptedException {
+        System.out.println("\nМногопоточная нагрузка на ConcurrentRBTree:");
+
+        for(int run = 1; run <= runs; ++run) {
+            ConcurrentRBTree<Integer, String> tree = new ConcurrentRBTree<>();
+            // Четные ключи не изменяются во время прогона и всегда должны находиться читателями
+            for(int key = 0; key < range; key += 2) {
+                tree.add(key, "value " + key);
+            }
+            AtomicLong misses = new AtomicLong();
+            Thread[] workers = new Thread[threads];
+            long start = System.nanoTime();
+            for(int t = 0; t < threads; ++t) {
+                // Половина потоков изменяет нечетные ключи, остальные потоки ищут ключи
+                boolean isWriter = t % 2 == 0;
+                Random rnd = new Random(run * 31L + t);
+                workers[t] = new Thread(() -> {
+                    for(int j = 0; j < operations; ++j) {
+                        int key = rnd.nextInt(range);
+                        if(isWriter) {
+                            key |= 1;
+                            if(rnd.nextBoolean()) {
+                                tree.add(key, "value " + key);
+                            }
+                            else {
+                                tree.remove(key);
+                            }
+                        }
+                        else if((key & 1) == 0 && !("value " + key).equals(tree.get(key))) {
+                            misses.incrementAndGet();
+                        }
+                    }
+                });
+                workers[t].start();
+            }
+            for(Thread worker : workers) {
+                worker.join();
+            }
+            long finish = System.nanoTime();
+
+            ValidationReport<?>[] report = new ValidationReport<?>[1];
+            tree.read(rbTree -> report[0] = rbTree.validate());
+            boolean isValid = report[0].isValid() && misses.get() == 0;
+            System.out.println("run " + run + ": " + (finish - start) / 1_000_000 + " мс; size = " + tree.size()
+                    + "; black height = " + report[0].blackHeight() + "; misses = " + misses.get() + (isValid ? "; OK" : "; INVALID"));
+        }
+    }
+
+    // XII - порядковые статистики: процентили и количество ключей в диапазоне за O(log n)
+    public static RBTree<Integer, String> OrderStatistic(int count) {
+        System.out.println("\nКрасно-черное дерево с порядковыми статистиками (случайные ключи):");
+
+        RBTree<Integer, String> tree = new RBTree<>(true);
+        Random rnd = new Random(7);
+        long start = System.nanoTime();
+        while(tree.size() < count) {
+            // Добавить ключ (повторяющиеся ключи не увеличивают размер дерева)
+            tree.add(rnd.nextInt(count * 10) + 1);
+        }
+        long finish = System.nanoTime();
+        TestDebug.Info(1, count * 10, start, finish, tree.getRoot().getKey().toString(), tree.size());
+
+        // Размер поддерева корневого узла совпадает с размером дерева
+        System.out.println("Subtree size of the root: " + tree.getSubtreeSize(tree.getRoot()) + "; size: " + tree.size());
+
+        // Процентили по порядковому номеру ключа
+        for(int percent : new int[] {50, 90, 99}) {
+            System.out.println("p" + percent + " = " + tree.select((int) ((long) (tree.size() - 1) * percent / 100)).getKey());
+        }
+        System.out.println("median = " + tree.median().getKey());
+
+        // Количество ключей в диапазоне: O(log n) и полный обход диапазона
+        int lo = count * 2;
+        int hi = count * 7;
+        start = System.nanoTime();
+        int counted = tree.countInRange(lo, hi);
+        long countTime = System.nanoTime() - start;
+        int[] walked = new int[1];
+        start = System.nanoTime();
+        tree.forEachInRange(lo, hi, (key, value) -> walked[0]++);
+        long walkTime = System.nanoTime() - start;
+        System.out.println("countInRange(" + lo + ", " + hi + ") = " + counted + " (" + countTime / 1_000 + " мкс); walk = "
+                + walked[0] + " (" + walkTime / 1_000 + " мкс); rank(" + hi + ") = " + tree.rank(hi));
+        return tree;
+    }
+
+    // XIII - объединение двух деревьев (сегментов данных): union и поэлементное добавление
+    public static RBTree<Integer, String> MergeShards(int count) {
+        System.out.println("\nОбъединение двух красно-черных деревьев:");
+
+        // Сегменты с частично пересекающимися ключами: четные ключи и ключи, кратные трем
+        Integer[] evenKeys = new Integer[count];
+        Integer[] tripleKeys = new Integer[count];
+        String[] evenValues = new String[count];
+        String[] tripleValues = new String[count];
+        for(int j = 0; j < count; ++j) {
+            evenKeys[j] = j * 2;
+            tripleKeys[j] = j * 3;
+            evenValues[j] = "even";
+            tripleValues[j] = "triple";
+        }
+
+        RBTree<Integer, String> tree = RBTree.buildFromSortedArray(evenKeys, evenValues);
+        RBTree<Integer, String> other = RBTree.buildFromSortedArray(tripleKeys, tripleValues);
+        long start = System.nanoTime();
+        for(BSNode<Integer, String> node : other) {
+            tree.add(node.getKey(), node.getValue());
+        }
+        long finish = System.nanoTime();
+        System.out.println("add: " + (finish - start) / 1_000_000 + " мс; size = " + tree.size());
+
+        tree = RBTree.buildFromSortedArray(evenKeys, evenValues);
+        other = RBTree.buildFromSortedArray(tripleKeys, tripleValues);
+        start = System.nanoTime();
+        // Данные узлов с равными ключами объединяются
+        tree.union(other, (value, otherValue) -> value + "+" + otherValue);
+        finish = System.nanoTime();
+        System.out.println("union: " + (finish - start) / 1_000_000 + " мс; size = " + tree.size() + "; key 6 = " + tree.findNode(6).getValue());
+
+        // Разделение по ключу и обратное соединение
+        RBTree<Integer, String> high = tree.split(count);
+        System.out.println("split(" + count + "): " + tree.size() + " + " + high.size());
+        BSNode<Integer, String> first = high.findFirstNode();
+        high.remove(first.getKey());
+        tree = RBTree.join(tree, first.getKey(), first.getValue(), high);
+        System.out.println("join: size = " + tree.size());
+        return tree;
+    }
+
+    // Ключ с подсчетом количества сравнений
+    static final class CountedKey implements Comparable<CountedKey> {
+        // Общее количество сравнений ключей
+        static long comparisons;
+
+        private final int value;
+
+        CountedKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int compareTo(CountedKey other) {
+            comparisons++;
+            return Integer.compare(value, other.value);
+        }
+
+        @Override
+        public String toString() {
+            return Integer.toString(value);
+        }
+    }
+
+    // VI - количество сравнений ключей на одно добавление для возрастающих, убывающих и случайных ключей
+    public static void ComparisonsPerInsert(int count) {
+        System.out.println("\nКоличество сравнений ключей на одно добавление узла:");
+
+        // Замер для count = 100_000:
+        // до однопроходного добавления (повторный спуск в correctOppositeSide) - 65.3 (возрастание, убывание) и 45.5 (случайные);
+        // после - 22.8 (возрастание, убывание) и 15.6 (случайные).
+        int[] increasing = new int[count];
+        int[] decreasing = new int[count];
+        for(int j = 0; j < count; ++j) {
+            increasing[j] = j + 1;
+            decreasing[j] = count - j;
+        }
+        int[] random = increasing.clone();
+        Random rnd = new Random(7);
+        for(int j = count - 1; j > 0; --j) {
+            int k = rnd.nextInt(j + 1);
+            int tmp = random[j];
+            random[j] = random[k];
+            random[k] = tmp;
+        }
+        String[] names = {"increasing", "decreasing", "random"};
+        int[][] workloads = {increasing, decreasing, random};
+        for(int w = 0; w < workloads.length; ++w) {
+            RBTree<CountedKey, String> tree = new RBTree<>();
+            CountedKey.comparisons = 0;
+            for(int key : workloads[w]) {
+                tree.add(new CountedKey(key));
+            }
+            System.out.printf("%s: %.2f comparisons/insert; size = %d%n", names[w], (double) CountedKey.comparisons / count, tree.size());
+        }
+    }
+
+    // XIV - распределение глубин узлов (гистограмма) для возрастающих, убывающих и случайных ключей
+    public static void DepthDistribution(int count) {
+        System.out.println("\nРаспределение глубин узлов и длины путей поиска:");
+
+        RBTree<Integer, String> increasing = new RBTree<>();
+        RBTree<Integer, String> decreasing = new RBTree<>();
+        RBTree<Integer, String> random = new RBTree<>();
+        Random rnd = new Random(7);
+        for(int j = 1; j <= count; ++j) {
+            increasing.add(j);
+            decreasing.add(count - j + 1);
+        }
+        while(random.size() < count) {
+            random.add(rnd.nextInt(count * 10) + 1);
+        }
+        String[] names = {"increasing", "decreasing", "random"};
+        RBTree<?, ?>[] trees = {increasing, decreasing, random};
+        for(int w = 0; w < trees.length; ++w) {
+            DepthHistogram histogram = trees[w].getDepthHistogram(true);
+            System.out.println(names[w] + ": " + histogram);
+        }
+        // Экспорт для сопоставления с измеренным временем поиска (findNode)
+        System.out.println(random.getDepthHistogram().toCsv());
+        // System.out.println(random.getDepthHistogram().toJson());
+    }
 }
 
 public class Main {
-    public static void main(String[] args) throws IOException {
+    public static void main(String[] args) throws IOException, InterruptedException {
         // Пример обработки параметризованных деревьев RBTree<K, V>
 
         // I - возрастание строковых ключей.
@@ -154,6 +531,7 @@ public class Main {
         // Проверить на наличие красных линий (их не должно быть).
         // Не рекомендуется использовать этот рекурсивный метод для огромных деревьев, чтобы не получить ошибку переполнения стека.
         // tree.alarmRedLines(tree.getRoot(), 0);
+        // Нерекурсивная проверка всех свойств дерева (для огромных деревьев - параллельная): tree.validate(true)
 
         // II - возрастание целочисленных ключей.
         RBTree<Integer, String> tree2 = TestDebug.IncreasingIntKey(35);
@@ -161,6 +539,9 @@ public class Main {
         // tree2.out.display(0, "file2.txt");
         // tree2.findNodeExt(2);
 
+        // Удаление узла по ключу с сохранением свойств красно-черного дерева
+        // tree2.remove(2);
+
         // III - убывание целочисленных ключей.
         RBTree<Integer, String> tree3 = TestDebug.DecreasingIntKey(35);
         tree3.out.display(0);
@@ -173,5 +554,37 @@ public class Main {
         // tree4.out.display(0, "file4.txt");
         // tree4.findNodeExt(2);
 
+        // V - объем памяти на один узел дерева
+        // TestDebug.NodeFootprint(2_000_000);
+
+        // VI - количество сравнений ключей на одно добавление узла
+        // TestDebug.ComparisonsPerInsert(100_000);
+
+        // VII - построение дерева из упорядоченных ключей за O(n)
+        // RBTree<Integer, String> tree5 = TestDebug.SortedIntKey(35);
+        // tree5.out.display(0);
+
+        // VIII - возрастание ключей примитивного типа int
+        // IntRBTree<String> tree6 = TestDebug.IncreasingPrimitiveIntKey(35);
+        // tree6.out.display(0);
+
+        // IX - дерево на объектах узлов и дерево в параллельных массивах
+        // TestDebug.ArrayTreeBenchmark(2_000_000);
+
+        // X - дерево в файле, отображенном в память (при повторном запуске дерево продолжает заполняться)
+        // TestDebug.MappedLongKey("tree.bin", 1_000_000);
+
+        // XI - многопоточная нагрузка на потокобезопасное дерево (4 потока, ключи 0..9999, 1_000_000 операций на поток, 5 прогонов)
+        // TestDebug.ConcurrentStress(4, 10_000, 1_000_000, 5);
+
+        // XII - порядковые статистики (rank, select, countInRange, median)
+        // RBTree<Integer, String> tree7 = TestDebug.OrderStatistic(1_000_000);
+
+        // XIII - объединение, разделение и соединение деревьев
+        // RBTree<Integer, String> tree8 = TestDebug.MergeShards(5_000_000);
+
+        // XIV - распределение глубин узлов (гистограмма, экспорт в CSV и JSON)
+        // TestDebug.DepthDistribution(1_000_000);
+
     }
 }
\ No newline at end of file
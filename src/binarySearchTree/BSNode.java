@@ -4,6 +4,7 @@ import utils.output.Display;
 import utils.output.DualOutput;
 import utils.output.Output;
 
+import java.util.Comparator;
 import java.util.Objects;
 
 /**
@@ -23,14 +24,29 @@ public class BSNode<K extends Comparable<K>, V> implements Output {
     private V value;
 
     /**
-     * Признак объединенного узла.
+     * Битовая маска признака красного узла.
      */
-    private boolean isMerge;
+    private static final byte FLAG_RED = 0x01;
 
     /**
-     * Признак красного узла.
+     * Битовая маска признака объединенного узла.
      */
-    private boolean isRed;
+    private static final byte FLAG_MERGE = 0x02;
+
+    /**
+     * Верхнее оформление сообщения вывода в поток узла двоичного дерева.
+     */
+    private static final String HEADER = "<<<Tree node: ";
+
+    /**
+     * Нижнее оформление сообщения вывода в поток узла двоичного дерева.
+     */
+    private static final String FOOTER = ">>>";
+
+    /**
+     * Признаки узла, упакованные в один байт (красный узел, объединенный узел).
+     */
+    private byte flags;
 
     /**
      * Ссылка на левый дочерний узел.
@@ -42,11 +58,6 @@ public class BSNode<K extends Comparable<K>, V> implements Output {
      */
     private BSNode<K, V> rightChild;
 
-    /**
-     * Интерфейс вывода в поток узла двоичного дерева.
-     */
-    public final Display out = new Display(this::display, "<<<Tree node: ", ">>>");
-
     /**
      * Создает узел с заданным значением ключа (без данных).
      * @param key значение ключа.
@@ -54,8 +65,7 @@ public class BSNode<K extends Comparable<K>, V> implements Output {
     public BSNode(K key) {
         this.key = Objects.requireNonNull(key, "Значение ключа не должно быть null");
         this.value = null;
-        this.isMerge = false;
-        this.isRed = true;
+        this.flags = FLAG_RED;
     }
 
     /**
@@ -66,8 +76,7 @@ public class BSNode<K extends Comparable<K>, V> implements Output {
     public BSNode(K key, V value) {
         this.key = Objects.requireNonNull(key, "Значение ключа не должно быть null");
         this.value = value;
-        this.isMerge = false;
-        this.isRed = true;
+        this.flags = FLAG_RED;
     }
 
     /**
@@ -96,6 +105,16 @@ public class BSNode<K extends Comparable<K>, V> implements Output {
         return key.compareTo(other);
     }
 
+    /**
+     * Сравнивает значения ключа текущего узла и заданного ключа в заданном порядке.
+     * @param other заданное значение ключа.
+     * @param comparator порядок ключей или null (естественный порядок).
+     * @return значение сравнения ключей: отрицательное - текущий ключ меньше, 0 - ключи равны, положительное - больше.
+     */
+    public int compareToOther(K other, Comparator<? super K> comparator) {
+        return comparator == null ? key.compareTo(other) : comparator.compare(key, other);
+    }
+
     /**
      * Устанавливает значение ключа узла.
      * @param key значение ключа узла.
@@ -133,7 +152,7 @@ public class BSNode<K extends Comparable<K>, V> implements Output {
      * @param isMerge значение признака объединенного узла.
      */
     public void setIsMerge(boolean isMerge) {
-        this.isMerge = isMerge;
+        setFlag(FLAG_MERGE, isMerge);
     }
 
     /**
@@ -141,7 +160,7 @@ public class BSNode<K extends Comparable<K>, V> implements Output {
      * @return значение признака объединенного узла.
      */
     public boolean getIsMerge() {
-        return isMerge;
+        return (flags & FLAG_MERGE) != 0;
     }
 
     /**
@@ -149,7 +168,7 @@ public class BSNode<K extends Comparable<K>, V> implements Output {
      * @return значение признака красного узла.
      */
     public boolean getIsRed() {
-        return isRed;
+        return (flags & FLAG_RED) != 0;
     }
 
     /**
@@ -157,7 +176,21 @@ public class BSNode<K extends Comparable<K>, V> implements Output {
      * @param isRed значение признака красного узла.
      */
     public void setIsRed(boolean isRed) {
-        this.isRed = isRed;
+        setFlag(FLAG_RED, isRed);
+    }
+
+    /**
+     * Устанавливает или сбрасывает заданный признак узла.
+     * @param mask битовая маска признака.
+     * @param isSet значение признака.
+     */
+    private void setFlag(byte mask, boolean isSet) {
+        if(isSet) {
+            flags |= mask;
+        }
+        else {
+            flags &= (byte) ~mask;
+        }
     }
 
     /**
@@ -195,6 +228,15 @@ public class BSNode<K extends Comparable<K>, V> implements Output {
 
     // DISPLAY
 
+    /**
+     * Получает интерфейс вывода в поток узла двоичного дерева.
+     * Интерфейс создается по запросу и не хранится в узле, чтобы не увеличивать объем памяти каждого узла дерева.
+     * @return интерфейс вывода в поток узла.
+     */
+    public Display out() {
+        return new Display(this, HEADER, FOOTER);
+    }
+
     @Override
     public String toString() {
         return getKey().toString() + (getValue() != null ? "/" + getValue().toString() : "") + " ";
@@ -203,8 +245,8 @@ public class BSNode<K extends Comparable<K>, V> implements Output {
     @Override
     public void display(DualOutput out) {
         // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
-        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
-        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+        String header = out.getHeader() != null ? out.getHeaderOnce() : HEADER;
+        String footer = out.getFooter() != null ? out.getFooterOnce() : FOOTER;
 
         out.print(header);
         out.print(this.toString());
@@ -0,0 +1,41 @@
+package binarySearchTree;
+
+import utils.output.TreeRenderer;
+
+/**
+ * Вывод в поток двоичного дерева, построенного на узлах {@code BSNode}.
+ */
+public class BSNodeRenderer extends TreeRenderer<BSNode<?, ?>> {
+    /**
+     * Создает вывод в поток двоичного дерева.
+     * @param isColored признак вывода цвета узлов красно-черного дерева.
+     */
+    public BSNodeRenderer(boolean isColored) {
+        super(isColored);
+    }
+
+    @Override
+    protected BSNode<?, ?> getLeftChild(BSNode<?, ?> node) {
+        return node.getLeftChild();
+    }
+
+    @Override
+    protected BSNode<?, ?> getRightChild(BSNode<?, ?> node) {
+        return node.getRightChild();
+    }
+
+    @Override
+    protected boolean getIsRed(BSNode<?, ?> node) {
+        return node.getIsRed();
+    }
+
+    @Override
+    protected String getKeyText(BSNode<?, ?> node) {
+        return node.getKey().toString();
+    }
+
+    @Override
+    protected Object getValue(BSNode<?, ?> node) {
+        return node.getValue();
+    }
+}
@@ -0,0 +1,58 @@
+package binarySearchTree;
+
+/**
+ * Узел двоичного дерева с размером поддерева (order statistic node).
+ * Размер поддерева (количество узлов поддерева, включая сам узел) позволяет находить
+ * порядковый номер ключа и ключ по порядковому номеру за O(log n).
+ * Используется только деревьями, поддерживающими порядковые статистики, чтобы не увеличивать размер обычных узлов.
+ * @param <K> тип ключей, поддерживаемых этим узлом дерева.
+ * @param <V> тип соответствующих ключам данных.
+ */
+public class BSOrderNode<K extends Comparable<K>, V> extends BSNode<K, V> {
+    /**
+     * Размер поддерева с верхним узлом в этом узле.
+     */
+    private int subtreeSize;
+
+    /**
+     * Создает узел с заданными значением ключа и данными (поддерево из одного узла).
+     * @param key значение ключа узла.
+     * @param value данные узла.
+     */
+    public BSOrderNode(K key, V value) {
+        super(key, value);
+        this.subtreeSize = 1;
+    }
+
+    /**
+     * Получает размер поддерева заданного узла.
+     * @param node узел с размером поддерева или null.
+     * @return количество узлов поддерева (0 для отсутствующего узла).
+     */
+    public static int sizeOf(BSNode<?, ?> node) {
+        return node == null ? 0 : ((BSOrderNode<?, ?>) node).subtreeSize;
+    }
+
+    /**
+     * Получает размер поддерева узла.
+     * @return количество узлов поддерева, включая узел.
+     */
+    public int getSubtreeSize() {
+        return subtreeSize;
+    }
+
+    /**
+     * Устанавливает размер поддерева узла.
+     * @param subtreeSize количество узлов поддерева, включая узел.
+     */
+    public void setSubtreeSize(int subtreeSize) {
+        this.subtreeSize = subtreeSize;
+    }
+
+    /**
+     * Пересчитывает размер поддерева по размерам поддеревьев потомков.
+     */
+    public void updateSubtreeSize() {
+        subtreeSize = 1 + sizeOf(getLeftChild()) + sizeOf(getRightChild());
+    }
+}
@@ -0,0 +1,64 @@
+package binarySearchTree;
+
+/**
+ * Узел двоичного дерева со строковым ключом и кэшем префикса ключа.
+ * Первые четыре символа ключа (8 байт UTF-16) упакованы в число long так, что беззнаковое сравнение префиксов
+ * совпадает с естественным порядком строк, если префиксы различны. Поэтому большинство сравнений при поиске
+ * выполняется без обращения к объекту строки узла (и без промахов кэша процессора при чтении строки).
+ * Короткие ключи (например, символ emoji - суррогатная пара из двух символов) полностью различаются по префиксу.
+ * @param <V> тип соответствующих ключам данных.
+ */
+public class BSStringNode<V> extends BSNode<String, V> {
+    /**
+     * Количество символов ключа в префиксе.
+     */
+    private static final int PREFIX_CHARS = Long.BYTES / Character.BYTES;
+
+    /**
+     * Префикс ключа узла.
+     */
+    private long prefix;
+
+    /**
+     * Создает узел с заданными значением ключа и данными.
+     * @param key значение ключа узла.
+     * @param value данные узла.
+     */
+    public BSStringNode(String key, V value) {
+        super(key, value);
+        this.prefix = prefixOf(key);
+    }
+
+    /**
+     * Получает префикс строки: первые символы строки в старших разрядах, недостающие символы - нули.
+     * Если префиксы строк различны, их беззнаковое сравнение совпадает со сравнением строк {@link String#compareTo}.
+     * @param key строка.
+     * @return префикс строки.
+     */
+    public static long prefixOf(String key) {
+        long prefix = 0;
+        int length = Math.min(key.length(), PREFIX_CHARS);
+        for(int j = 0; j < PREFIX_CHARS; ++j) {
+            prefix = (prefix << Character.SIZE) | (j < length ? key.charAt(j) : 0);
+        }
+        return prefix;
+    }
+
+    /**
+     * Сравнивает значения ключа текущего узла и заданного ключа с известным префиксом.
+     * Строки сравниваются только при равных префиксах.
+     * @param other заданное значение ключа.
+     * @param otherPrefix префикс заданного ключа (см. {@link #prefixOf(String)}).
+     * @return значение сравнения ключей: отрицательное - текущий ключ меньше, 0 - ключи равны, положительное - больше.
+     */
+    public int compareToOther(String other, long otherPrefix) {
+        int cmp = Long.compareUnsigned(prefix, otherPrefix);
+        return cmp != 0 ? cmp : getKey().compareTo(other);
+    }
+
+    @Override
+    public void setKey(String key) {
+        super.setKey(key);
+        this.prefix = prefixOf(key);
+    }
+}
@@ -1,21 +1,25 @@
 package binarySearchTree;
 
-import utils.calculations.MathUtils;
-import utils.constants.AppConstants;
 import utils.output.DualOutput;
 import utils.output.IntDisplay;
 import utils.output.IntOutput;
+import utils.output.TreeRenderer;
 
-import java.util.Stack;
+import java.util.Comparator;
 
 /**
  * Двоичное дерево поиска (Binary search tree, BST).
- * Узлы упорядочены в соответствии с естественным порядком их ключей {@code K}.
+ * Узлы упорядочены в соответствии с естественным порядком их ключей {@code K} или заданным порядком (Comparator).
  * Уникальность узлов по ключу {@code K} поддерживается.
  * @param <K> тип ключей, поддерживаемых этим деревом.
  * @param <V> тип соответствующих ключам данных.
  */
 public class BSTree<K extends Comparable<K>, V> implements IntOutput {
+    /**
+     * Вывод в поток узлов двоичного дерева поиска (общий для всех деревьев).
+     */
+    private static final TreeRenderer<BSNode<?, ?>> RENDERER = new BSNodeRenderer(false);
+
     /**
      * Корневой узел дерева.
      */
@@ -26,17 +30,56 @@ public class BSTree<K extends Comparable<K>, V> implements IntOutput {
      */
     private int size;
 
+    /**
+     * Счетчик структурных изменений дерева (добавление, удаление узлов, замена корня).
+     */
+    private int modCount;
+
+    /**
+     * Максимальная длина выводимого значения узлов (ключ и данные) или -1, если длина не измерена.
+     * Длина измеряется обходом всех узлов при первом запросе, затем поддерживается при добавлении узлов
+     * и измеряется повторно только после удаления узла максимальной длины или перестроения дерева.
+     */
+    private int maxValue = -1;
+
+    /**
+     * Порядок ключей дерева или null (естественный порядок).
+     */
+    private final Comparator<? super K> comparator;
+
     /**
      * Интерфейс вывода в поток двоичного дерева поиска.
      */
     public final IntDisplay out = new IntDisplay(this::display, "<<< BS tree: ", ">>>");
 
+    /**
+     * Интерфейс вывода в поток только существующих узлов двоичного дерева поиска (значение int - количество выводимых уровней).
+     */
+    public final IntDisplay sparseOut = new IntDisplay(this::displaySparse, "<<< BS tree nodes: ", ">>>");
+
     /**
      * Создает пустое двоичное дерево поиска.
      */
     public BSTree() {
+        this(null);
+    }
+
+    /**
+     * Создает пустое двоичное дерево поиска с заданным порядком ключей.
+     * @param comparator порядок ключей или null (естественный порядок).
+     */
+    public BSTree(Comparator<? super K> comparator) {
         root = null;
         size = 0;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Получает порядок ключей дерева.
+     * @return порядок ключей или null (естественный порядок).
+     */
+    public Comparator<? super K> comparator() {
+        return comparator;
     }
 
     /**
@@ -53,6 +96,8 @@ public class BSTree<K extends Comparable<K>, V> implements IntOutput {
      */
     public void setRoot(BSNode<K, V> root) {
         this.root = root;
+        maxValue = -1;
+        modCount++;
     }
 
     /**
@@ -63,11 +108,62 @@ public class BSTree<K extends Comparable<K>, V> implements IntOutput {
         return size;
     }
 
+    /**
+     * Устанавливает размер дерева.
+     * Используется при построении дерева целиком, минуя добавление отдельных узлов.
+     * @param size количество узлов дерева.
+     */
+    protected void setSize(int size) {
+        this.size = size;
+        maxValue = -1;
+        modCount++;
+    }
+
     /**
      * Инкрементирует размер дерева.
      */
     public void incSize() {
         size++;
+        modCount++;
+    }
+
+    /**
+     * Декрементирует размер дерева.
+     */
+    public void decSize() {
+        size--;
+        modCount++;
+    }
+
+    /**
+     * Учитывает длину выводимого значения добавленного узла или узла с замененными данными
+     * в максимальной длине выводимого значения узлов (если она уже измерена).
+     * @param node добавленный узел или узел с замененными данными.
+     */
+    protected void incMaxValue(BSNode<K, V> node) {
+        if(maxValue >= 0) {
+            maxValue = Math.max(maxValue, RENDERER.getNodeLength(node));
+        }
+    }
+
+    /**
+     * Учитывает удаление узла или замену его данных в максимальной длине выводимого значения узлов:
+     * при удалении узла максимальной длины длина будет измерена повторно при следующем запросе.
+     * @param node удаленный узел или узел до замены данных.
+     */
+    protected void decMaxValue(BSNode<K, V> node) {
+        if(maxValue >= 0 && RENDERER.getNodeLength(node) >= maxValue) {
+            maxValue = -1;
+        }
+    }
+
+    /**
+     * Получает счетчик структурных изменений дерева.
+     * Позволяет курсорам и итераторам определить, что сохраненный путь в дереве устарел.
+     * @return счетчик структурных изменений.
+     */
+    public int getModCount() {
+        return modCount;
     }
 
     /**
@@ -90,26 +186,29 @@ public class BSTree<K extends Comparable<K>, V> implements IntOutput {
      * @return добавленный узел.
      */
     public BSNode<K, V> add(K key, V value, boolean isMerge) {
-        BSNode<K, V> newNode = new BSNode<>(key, value);
+        BSNode<K, V> newNode = createNode(key, value);
         newNode.setValue(value);
         if(isMerge) {
             newNode.setIsMerge(true);
         }
         if(root == null) {
             root = newNode;
-            size++;
+            incSize();
+            incMaxValue(newNode);
             return newNode;
         }
         else {
             BSNode<K, V> current = root;
             BSNode<K, V> parent;
-            while(current.getKey() != key) {
+            int cmp;
+            while((cmp = newNode.compareToOther(current.getKey(), comparator)) != 0) {
                 parent = current;
-                if(newNode.compareToOther(current) < 0) {
+                if(cmp < 0) {
                     current = current.getLeftChild();
                     if(current == null) {
                         parent.setLeftChild(newNode);
-                        size++;
+                        incSize();
+                        incMaxValue(newNode);
                         return newNode;
                     }
                 }
@@ -117,19 +216,29 @@ public class BSTree<K extends Comparable<K>, V> implements IntOutput {
                     current = current.getRightChild();
                     if(current == null) {
                         parent.setRightChild(newNode);
-                        size++;
+                        incSize();
+                        incMaxValue(newNode);
                         return newNode;
                     }
                 }
             }
-            // Обнаружен узел с заданным ключом
-            if(current.getKey() == key) {
-                // Переписать данные узла
-                current.setValue(value);
-                return current;
-            }
+            // Обнаружен узел с заданным ключом: переписать данные узла
+            decMaxValue(current);
+            current.setValue(value);
+            incMaxValue(current);
+            return current;
         }
-        return null;
+    }
+
+    /**
+     * Создает новый узел дерева.
+     * Наследники переопределяют метод для создания узлов с дополнительными сведениями.
+     * @param key значение ключа узла.
+     * @param value данные узла.
+     * @return новый узел.
+     */
+    protected BSNode<K, V> createNode(K key, V value) {
+        return new BSNode<>(key, value);
     }
 
     /**
@@ -149,19 +258,196 @@ public class BSTree<K extends Comparable<K>, V> implements IntOutput {
      */
     public BSNode<K, V> findNode(K key) {
         BSNode<K, V> current = getRoot();
-        while(current != null && current.compareToOther(key) != 0) {
-            if(current.compareToOther(key) > 0) {
+        // Одно сравнение на уровень: результат определяет и совпадение, и направление спуска
+        while(current != null) {
+            int cmp = current.compareToOther(key, comparator);
+            if(cmp == 0) {
+                return current;
+            }
+            current = cmp > 0 ? current.getLeftChild() : current.getRightChild();
+        }
+        return null;
+    }
+
+    /**
+     * Находит узел с минимальным ключом.
+     * @return найденный узел или null для пустого дерева.
+     */
+    public BSNode<K, V> findFirstNode() {
+        BSNode<K, V> current = root;
+        if(current != null) {
+            while(current.getLeftChild() != null) {
+                current = current.getLeftChild();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Находит узел с максимальным ключом.
+     * @return найденный узел или null для пустого дерева.
+     */
+    public BSNode<K, V> findLastNode() {
+        BSNode<K, V> current = root;
+        if(current != null) {
+            while(current.getRightChild() != null) {
+                current = current.getRightChild();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Находит узел с наибольшим ключом, меньшим или равным заданному ключу.
+     * @param key значение ключа.
+     * @return найденный узел или null.
+     */
+    public BSNode<K, V> findFloorNode(K key) {
+        return findNearestNode(key, true, true);
+    }
+
+    /**
+     * Находит узел с наименьшим ключом, большим или равным заданному ключу.
+     * @param key значение ключа.
+     * @return найденный узел или null.
+     */
+    public BSNode<K, V> findCeilingNode(K key) {
+        return findNearestNode(key, false, true);
+    }
+
+    /**
+     * Находит узел с наибольшим ключом, строго меньшим заданного ключа.
+     * @param key значение ключа.
+     * @return найденный узел или null.
+     */
+    public BSNode<K, V> findLowerNode(K key) {
+        return findNearestNode(key, true, false);
+    }
+
+    /**
+     * Находит узел с наименьшим ключом, строго большим заданного ключа.
+     * @param key значение ключа.
+     * @return найденный узел или null.
+     */
+    public BSNode<K, V> findHigherNode(K key) {
+        return findNearestNode(key, false, false);
+    }
+
+    /**
+     * Находит ближайший к заданному ключу узел за один спуск от корня (одно сравнение на уровень).
+     * @param key значение ключа.
+     * @param isLower true - искать узел с меньшим ключом; false - с большим ключом.
+     * @param isInclusive true - узел с заданным ключом является результатом.
+     * @return найденный узел или null.
+     */
+    private BSNode<K, V> findNearestNode(K key, boolean isLower, boolean isInclusive) {
+        BSNode<K, V> result = null;
+        BSNode<K, V> current = root;
+        while(current != null) {
+            int cmp = current.compareToOther(key, comparator);
+            if(cmp == 0 && isInclusive) {
+                return current;
+            }
+            if(isLower ? cmp < 0 : cmp > 0) {
+                // Текущий узел - кандидат, ближайший узел может находиться только ближе к заданному ключу
+                result = current;
+                current = isLower ? current.getRightChild() : current.getLeftChild();
+            }
+            else {
+                current = isLower ? current.getLeftChild() : current.getRightChild();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Удаляет все узлы дерева.
+     */
+    public void clear() {
+        root = null;
+        size = 0;
+        maxValue = -1;
+        modCount++;
+    }
+
+    /**
+     * Удаляет узел дерева по заданному ключу.
+     * Узел с двумя потомками замещается своим преемником (узлом с минимальным ключом правого поддерева),
+     * поэтому удаленный узел - это всегда узел с заданным ключом.
+     * @param key значение ключа.
+     * @return удаленный узел или null, если узел с заданным ключом не найден.
+     */
+    public BSNode<K, V> removeNode(K key) {
+        BSNode<K, V> parent = null;
+        BSNode<K, V> current = root;
+        int cmp;
+        while(current != null && (cmp = current.compareToOther(key, comparator)) != 0) {
+            parent = current;
+            if(cmp > 0) {
                 current = current.getLeftChild();
             }
             else {
                 current = current.getRightChild();
             }
         }
-        if(current != null && current.compareToOther(key) == 0) {
-            return current;
+        if(current == null) {
+            return null;
+        }
+
+        if(current.getLeftChild() != null && current.getRightChild() != null) {
+            // Найти преемника и его родителя
+            BSNode<K, V> successorParent = current;
+            BSNode<K, V> successor = current.getRightChild();
+            while(successor.getLeftChild() != null) {
+                successorParent = successor;
+                successor = successor.getLeftChild();
+            }
+            // Преемник замещает удаляемый узел
+            if(successorParent != current) {
+                successorParent.setLeftChild(successor.getRightChild());
+                successor.setRightChild(current.getRightChild());
+            }
+            successor.setLeftChild(current.getLeftChild());
+            replaceChild(parent, current, successor);
         }
         else {
-            return null;
+            replaceChild(parent, current, current.getLeftChild() != null ? current.getLeftChild() : current.getRightChild());
+        }
+        current.setLeftChild(null);
+        current.setRightChild(null);
+        decSize();
+        decMaxValue(current);
+        return current;
+    }
+
+    /**
+     * Удаляет узел дерева по заданному ключу.
+     * @param key значение ключа.
+     * @return данные удаленного узла или null, если узел с заданным ключом не найден.
+     */
+    public V remove(K key) {
+        BSNode<K, V> node = removeNode(key);
+        return node != null ? node.getValue() : null;
+    }
+
+    /**
+     * Заменяет дочерний узел заданного родителя.
+     * При отсутствии родителя заменяется корневой узел дерева.
+     * Замена (в том числе при повороте) считается структурным изменением дерева.
+     * @param parent родительский узел или null.
+     * @param child заменяемый дочерний узел.
+     * @param replacement замещающий узел.
+     */
+    protected void replaceChild(BSNode<K, V> parent, BSNode<K, V> child, BSNode<K, V> replacement) {
+        modCount++;
+        if(parent == null) {
+            root = replacement;
+        }
+        else if(parent.getLeftChild() == child) {
+            parent.setLeftChild(replacement);
+        }
+        else {
+            parent.setRightChild(replacement);
         }
     }
 
@@ -188,36 +474,29 @@ public class BSTree<K extends Comparable<K>, V> implements IntOutput {
     }
 
     /**
-     * Получает оценочную максимальную длину выводимого значения узлов дерева.
+     * Получает максимальную длину выводимого значения узлов дерева (ключ и данные).
+     * Длина измеряется обходом всех узлов - O(n) - при первом запросе, после удаления узла максимальной длины
+     * и после перестроения дерева (соединение, разделение, построение из упорядоченных элементов),
+     * а при добавлении узлов и замене данных через дерево поддерживается за O(1).
+     * Данные, замененные непосредственно в узле ({@link BSNode#setValue}), учитываются при следующем измерении.
      * @return максимальную длину выводимого значения узлов.
      */
     public int getEstimateMaxValue() {
-        BSNode<K, V> current = root;
-        int nMax = 0;
-        while(current != null) {
-            String str = current.getKey().toString().replace("\n", AppConstants.PRINT_NEW_ROW)
-                    + "/" + (current.getValue() != null ? current.getValue().toString().replace("\n", AppConstants.PRINT_NEW_ROW) : "");
-            int len = str.length();
-            if(nMax < len) {
-                nMax = len;
-            }
-            current = current.getRightChild();
+        if(maxValue < 0) {
+            maxValue = RENDERER.measure(root).maxValue();
         }
-        return nMax;
+        return maxValue;
     }
 
     /**
-     * Получает количество уровней дерева.
-     * @return количество уровней дерева.
+     * Измеряет дерево обходом всех узлов - O(n): количество уровней (высоту дерева по всем ветвям)
+     * и максимальную длину выводимого значения узлов. Используется выводом дерева, стоимость которого не меньше.
+     * Для мониторинга высоты красно-черного дерева без обхода узлов используется черная высота
+     * ({@code RBTree.getBlackHeight()}, O(log n)): количество уровней не больше удвоенной черной высоты.
+     * @return размеры дерева.
      */
-    public int getNLevelTree() {
-        BSNode<K, V> current = root;
-        int nLevel = 0;
-        while(current != null) {
-            nLevel++;
-            current = current.getRightChild();
-        }
-        return nLevel;
+    public TreeRenderer.Shape measureShape() {
+        return RENDERER.measure(root);
     }
 
 
@@ -229,72 +508,46 @@ public class BSTree<K extends Comparable<K>, V> implements IntOutput {
         String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
         String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
 
-        Stack<BSNode<K, V>> global = new Stack<>();
-        global.push(root);
-        int nBlank;
-        if(blanks > 0) {
-            nBlank = MathUtils.getBinaryRound(blanks);
-        } else {
-            int nLevel = getNLevelTree();
-            int nMax = getEstimateMaxValue();
-            nLevel = nLevel + (nMax) - 1;
-            nBlank = (int) Math.pow(2, nLevel);
+        if(blanks <= 0) {
+            // Расчет позиционирования по измеренным размерам дерева
+            TreeRenderer.Shape shape = measureShape();
+            blanks = RENDERER.getCalcBlanks(shape.nLevel(), shape.maxValue(), out);
         }
-        if(AppConstants.MAX_BLANKS > 0 && nBlank > AppConstants.MAX_BLANKS) {
-            nBlank = MathUtils.getBinaryRound(AppConstants.MAX_BLANKS);
-        }
-        boolean isNewRow = true;
+        RENDERER.display(root, blanks, header, footer, out);
+    }
 
-        // header
-        out.println(header + "(blanks = " + nBlank + "): ");
+    /**
+     * Выводит в заданный поток только существующие узлы дерева, по одному узлу в строке с отступом по уровню узла.
+     * Объем вывода пропорционален количеству выводимых узлов (см. {@link TreeRenderer#displaySparse}).
+     * @param levels количество выводимых уровней, начиная с корневого узла (0 или меньше 0 - все уровни).
+     * @param out заданный поток вывода.
+     */
+    public void displaySparse(int levels, DualOutput out) {
+        displaySparse(root, levels, out);
+    }
 
-        while(isNewRow) {
-            isNewRow = false;
-            Stack<BSNode<K, V>> local = new Stack<>();
-            for(int j = 0; j < nBlank; ++j) {
-                out.print(" ");
-            }
-            while(!global.isEmpty()) {
-                BSNode<K, V> current = global.pop();
-                int len;
-                if(current != null) {
-                    String value = "";
-                    int valLenght = 0;
-                    if (current.getValue() != null) {
-                        value = current.getValue().toString();
-                        if(value.equals(AppConstants.UNIX_NEW_ROW)) {
-                            value = AppConstants.PRINT_NEW_ROW;
-                        }
-                        else {
-                            value = "/" + value;
-                        }
-                        valLenght = value.length();
-                    }
-                    out.print(current.getKey().toString() + value);
-                    len = current.getKey().toString().length() + valLenght;
-                    local.push(current.getLeftChild());
-                    local.push(current.getRightChild());
-                    if (current.getLeftChild() != null || current.getRightChild() != null) {
-                        isNewRow = true;
-                    }
-                }
-                else {
-                    out.print("--");
-                    len = 2;
-                    local.push(null);
-                    local.push(null);
-                }
-                for(int j = 0; j < nBlank * 2 - (len); ++j) {
-                    out.print(" ");
-                }
-            }
-            out.println("");
-            nBlank /= 2;
-            while(!local.isEmpty()) {
-                global.push(local.pop());
-            }
-        }
-        // footer
-        out.println(footer);
+    /**
+     * Выводит в заданный поток только существующие узлы поддерева с корнем в узле с заданным ключом.
+     * Если узел не найден, выводится отсутствующее поддерево "--".
+     * @param key значение ключа корневого узла поддерева.
+     * @param levels количество выводимых уровней, начиная с корневого узла поддерева (0 или меньше 0 - все уровни).
+     * @param out заданный поток вывода.
+     */
+    public void displaySparse(K key, int levels, DualOutput out) {
+        displaySparse(findNode(key), levels, out);
+    }
+
+    /**
+     * Выводит в заданный поток только существующие узлы поддерева с заданным корневым узлом.
+     * @param node корневой узел поддерева или null.
+     * @param levels количество выводимых уровней (0 или меньше 0 - все уровни).
+     * @param out заданный поток вывода.
+     */
+    private void displaySparse(BSNode<K, V> node, int levels, DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.sparseOut.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.sparseOut.getFooter();
+
+        RENDERER.displaySparse(node, levels, header, footer, out);
     }
 }
@@ -0,0 +1,234 @@
+package redBlackTree;
+
+import java.util.Arrays;
+
+/**
+ * Красно-чёрное дерево в параллельных массивах (structure of arrays).
+ * Вместо объекта на каждый узел данные, индексы потомков и цвета узлов хранятся в отдельных массивах,
+ * что уменьшает объем памяти дерева и нагрузку на сборщик мусора, а обход дерева обращается к памяти предсказуемо.
+ * Массивы увеличиваются порциями, места удаленных узлов повторно используются через список свободных мест.
+ * Массив ключей хранят наследники: ключи-объекты ({@link ArrayRBTree}) или ключи примитивного типа
+ * без упаковки ни при хранении, ни при сравнении ({@link IntRBTree}, {@link LongRBTree}).
+ * @param <V> тип соответствующих ключам данных.
+ */
+public abstract class ArrayRBEngine<V> extends IndexRBEngine<V> {
+    /**
+     * Минимальная порция увеличения массивов (количество узлов).
+     */
+    protected static final int CHUNK_SIZE = 1024;
+
+    /**
+     * Данные узлов.
+     */
+    private V[] values;
+
+    /**
+     * Индексы левых дочерних узлов (для свободных мест - индекс следующего свободного места).
+     */
+    private int[] leftChildren;
+
+    /**
+     * Индексы правых дочерних узлов.
+     */
+    private int[] rightChildren;
+
+    /**
+     * Признаки красных узлов (по одному биту на узел).
+     */
+    private long[] redBits;
+
+    /**
+     * Количество использованных мест массивов (включая свободные места удаленных узлов).
+     */
+    private int used;
+
+    /**
+     * Индекс первого свободного места удаленного узла или {@link #NIL}.
+     */
+    private int freeHead;
+
+    /**
+     * Индекс корневого узла дерева.
+     */
+    private int root;
+
+    /**
+     * Размер дерева (количество узлов).
+     */
+    private int size;
+
+    /**
+     * Создает пустое красно-черное дерево с заданной начальной емкостью массивов.
+     * Наследник создает массив ключей емкостью {@link #capacity()}.
+     * @param header верхнее оформление сообщения вывода дерева в поток.
+     * @param capacity начальная емкость (количество узлов).
+     */
+    @SuppressWarnings("unchecked")
+    protected ArrayRBEngine(String header, int capacity) {
+        super(header);
+        capacity = Math.max(capacity, 1);
+        values = (V[]) new Object[capacity];
+        leftChildren = new int[capacity];
+        rightChildren = new int[capacity];
+        redBits = new long[(capacity + 63) >>> 6];
+        used = 0;
+        freeHead = NIL;
+        root = NIL;
+        size = 0;
+    }
+
+    /**
+     * Изменяет емкость массива ключей.
+     * @param capacity новая емкость (количество узлов).
+     */
+    protected abstract void resizeKeys(int capacity);
+
+    @Override
+    public int getRoot() {
+        return root;
+    }
+
+    @Override
+    protected void setRoot(int root) {
+        this.root = root;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    protected void setSize(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Получает емкость массивов дерева.
+     * @return количество узлов, размещаемых без увеличения массивов.
+     */
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * Выделяет место для нового красного узла без потомков. Ключ узла записывает наследник.
+     * @param value данные узла.
+     * @return индекс нового узла.
+     */
+    protected int allocateNode(V value) {
+        int node;
+        if(freeHead != NIL) {
+            node = freeHead;
+            freeHead = leftChildren[node];
+        }
+        else {
+            if(used == values.length) {
+                grow();
+            }
+            node = used++;
+        }
+        values[node] = value;
+        leftChildren[node] = NIL;
+        rightChildren[node] = NIL;
+        setIsRed(node, true);
+        return node;
+    }
+
+    @Override
+    protected void freeNode(int node) {
+        values[node] = null;
+        leftChildren[node] = freeHead;
+        rightChildren[node] = NIL;
+        freeHead = node;
+    }
+
+    /**
+     * Увеличивает емкость массивов на порцию, не меньшую половины текущей емкости.
+     */
+    private void grow() {
+        int capacity = values.length + Math.max(CHUNK_SIZE, values.length >> 1);
+        resizeKeys(capacity);
+        values = Arrays.copyOf(values, capacity);
+        leftChildren = Arrays.copyOf(leftChildren, capacity);
+        rightChildren = Arrays.copyOf(rightChildren, capacity);
+        redBits = Arrays.copyOf(redBits, (capacity + 63) >>> 6);
+    }
+
+    @Override
+    public V getValue(int node) {
+        return values[node];
+    }
+
+    @Override
+    protected void setValue(int node, V value) {
+        values[node] = value;
+    }
+
+    @Override
+    public int getLeftChild(int node) {
+        return leftChildren[node];
+    }
+
+    @Override
+    protected void setLeftChild(int node, int child) {
+        leftChildren[node] = child;
+    }
+
+    @Override
+    public int getRightChild(int node) {
+        return rightChildren[node];
+    }
+
+    @Override
+    protected void setRightChild(int node, int child) {
+        rightChildren[node] = child;
+    }
+
+    @Override
+    public boolean getIsRed(int node) {
+        return (redBits[node >>> 6] & (1L << node)) != 0;
+    }
+
+    @Override
+    protected void setIsRed(int node, boolean isRed) {
+        if(isRed) {
+            redBits[node >>> 6] |= 1L << node;
+        }
+        else {
+            redBits[node >>> 6] &= ~(1L << node);
+        }
+    }
+
+    /**
+     * Выводит результат поиска узла: найденный узел и его потомков.
+     * @param node индекс найденного узла или {@link #NIL}.
+     * @param key текст искомого ключа.
+     */
+    protected void printFound(int node, String key) {
+        if (node != NIL) {
+            System.out.print("Node is found: " + toString(node) + "; ");
+            int child = getLeftChild(node);
+            if (child != NIL) {
+                System.out.print("Left: " + toString(child) + "; ");
+            }
+            child = getRightChild(node);
+            if (child != NIL) {
+                System.out.println("Right: " + toString(child) + "; ");
+            }
+        }
+        else {
+            System.out.println("Node is not found: key = " + key + "; ");
+        }
+    }
+
+    /**
+     * Получает текстовое представление узла: ключ и данные.
+     * @param node индекс узла.
+     * @return текстовое представление узла.
+     */
+    private String toString(int node) {
+        V value = getValue(node);
+        return getKeyText(node) + (value != null ? "/" + value : "") + " ";
+    }
+}
@@ -0,0 +1,77 @@
+package redBlackTree;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Красно-чёрное дерево в параллельных массивах (structure of arrays) с ключами-объектами.
+ * Данные, индексы потомков и цвета узлов хранятся в массивах {@link ArrayRBEngine}, ключи - в массиве этого класса.
+ * @param <K> тип ключей, поддерживаемых этим деревом.
+ * @param <V> тип соответствующих ключам данных.
+ */
+public class ArrayRBTree<K extends Comparable<K>, V> extends ArrayRBEngine<V> implements IndexRBTree<K, V> {
+    /**
+     * Ключи узлов.
+     */
+    private K[] keys;
+
+    /**
+     * Создает пустое красно-черное дерево.
+     */
+    public ArrayRBTree() {
+        this(CHUNK_SIZE);
+    }
+
+    /**
+     * Создает пустое красно-черное дерево с заданной начальной емкостью массивов.
+     * @param capacity начальная емкость (количество узлов).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ArrayRBTree(int capacity) {
+        super("<<< Array Red-Black tree: ", capacity);
+        keys = (K[]) new Comparable[capacity()];
+    }
+
+    @Override
+    public int add(K key, V value) {
+        Objects.requireNonNull(key);
+        return insertNode(node -> key.compareTo(keys[node]), value, () -> {
+            int node = allocateNode(value);
+            keys[node] = key;
+            return node;
+        });
+    }
+
+    @Override
+    public int findNode(K key) {
+        Objects.requireNonNull(key);
+        return searchNode(node -> key.compareTo(keys[node]));
+    }
+
+    @Override
+    public V remove(K key) {
+        Objects.requireNonNull(key);
+        return deleteNode(node -> key.compareTo(keys[node]));
+    }
+
+    @Override
+    public K getKey(int node) {
+        return keys[node];
+    }
+
+    @Override
+    protected void freeNode(int node) {
+        keys[node] = null;
+        super.freeNode(node);
+    }
+
+    @Override
+    protected void resizeKeys(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+    }
+
+    @Override
+    protected String getKeyText(int node) {
+        return keys[node].toString();
+    }
+}
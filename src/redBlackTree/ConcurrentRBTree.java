@@ -0,0 +1,257 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+import utils.output.DualOutput;
+import utils.output.IntDisplay;
+import utils.output.IntOutput;
+
+import java.util.Comparator;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Потокобезопасное красно-чёрное дерево.
+ * Оборачивает {@link RBTree} и синхронизирует доступ к нему блокировкой {@code StampedLock}:
+ *      - изменение дерева (добавление и удаление узлов, повороты) выполняется под исключительной блокировкой записи;
+ *      - поиск узла сначала выполняется без блокировки (оптимистичное чтение) с последующей проверкой
+ *        отсутствия изменений дерева за время поиска и только при их наличии повторяется под блокировкой чтения.
+ * Поэтому поиск не блокирует другие поиски и в отсутствие изменений не обращается к общей памяти блокировки для записи.
+ * @param <K> тип ключей, поддерживаемых этим деревом.
+ * @param <V> тип соответствующих ключам данных.
+ */
+public class ConcurrentRBTree<K extends Comparable<K>, V> implements IntOutput {
+    /**
+     * Максимальное количество шагов оптимистичного поиска.
+     * Высота красно-черного дерева размера int не превышает 2 * 31 уровней, поэтому превышение
+     * возможно только при одновременном изменении дерева (например, при чтении незавершенного поворота).
+     */
+    private static final int MAX_OPTIMISTIC_STEPS = 128;
+
+    /**
+     * Красно-черное дерево.
+     */
+    private final RBTree<K, V> tree;
+
+    /**
+     * Блокировка доступа к дереву.
+     */
+    private final StampedLock lock;
+
+    /**
+     * Интерфейс вывода в поток красно-черного дерева.
+     */
+    public final IntDisplay out = new IntDisplay(this::display, "<<< Concurrent Red-Black tree: ", ">>>");
+
+    /**
+     * Создает пустое потокобезопасное красно-черное дерево.
+     */
+    public ConcurrentRBTree() {
+        this((Comparator<? super K>) null);
+    }
+
+    /**
+     * Создает пустое потокобезопасное красно-черное дерево с заданным порядком ключей.
+     * @param comparator порядок ключей или null (естественный порядок).
+     */
+    public ConcurrentRBTree(Comparator<? super K> comparator) {
+        this(new RBTree<K, V>(comparator));
+    }
+
+    /**
+     * Создает потокобезопасное красно-черное дерево, оборачивающее заданное дерево
+     * (например, восстановленное из файла). Заданное дерево не должно использоваться в обход обертки.
+     * @param tree красно-черное дерево.
+     */
+    protected ConcurrentRBTree(RBTree<K, V> tree) {
+        this.tree = tree;
+        lock = new StampedLock();
+    }
+
+    /**
+     * Получает размер дерева.
+     * @return количество узлов дерева.
+     */
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int size = tree.size();
+        if(lock.validate(stamp)) {
+            return size;
+        }
+        stamp = lock.readLock();
+        try {
+            return tree.size();
+        }
+        finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Добавляет узел в дерево без данных.
+     * @param key значение ключа.
+     * @return добавленный узел.
+     */
+    public BSNode<K, V> add(K key) {
+        return add(key, null);
+    }
+
+    /**
+     * Добавляет узел в дерево под блокировкой записи.
+     * @param key ключ узла дерева.
+     * @param value данные узла дерева.
+     * @return добавленный узел.
+     */
+    public BSNode<K, V> add(K key, V value) {
+        return write(rbTree -> rbTree.add(key, value));
+    }
+
+    /**
+     * Удаляет узел дерева по заданному ключу под блокировкой записи.
+     * @param key значение ключа.
+     * @return удаленный узел или null, если узел с заданным ключом не найден.
+     */
+    public BSNode<K, V> removeNode(K key) {
+        return write(rbTree -> rbTree.removeNode(key));
+    }
+
+    /**
+     * Удаляет узел дерева по заданному ключу под блокировкой записи.
+     * @param key значение ключа.
+     * @return данные удаленного узла или null, если узел с заданным ключом не найден.
+     */
+    public V remove(K key) {
+        BSNode<K, V> node = removeNode(key);
+        return node != null ? node.getValue() : null;
+    }
+
+    /**
+     * Находит узел дерева по заданному ключу без блокировки (при отсутствии одновременных изменений дерева).
+     * Найденный узел не следует изменять: он остается частью дерева.
+     * @param key значение ключа.
+     * @return найденный узел или null.
+     */
+    public BSNode<K, V> findNode(K key) {
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0) {
+            try {
+                BSNode<K, V> node = findOptimistic(key);
+                if(lock.validate(stamp)) {
+                    return node;
+                }
+            }
+            catch(RuntimeException e) {
+                // Несогласованное состояние дерева при одновременном изменении: повторить под блокировкой
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return tree.findNode(key);
+        }
+        finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Получает данные узла по заданному ключу без блокировки (при отсутствии одновременных изменений дерева).
+     * @param key значение ключа.
+     * @return данные узла или null, если узел с заданным ключом не найден.
+     */
+    public V get(K key) {
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0) {
+            try {
+                BSNode<K, V> node = findOptimistic(key);
+                V value = node != null ? node.getValue() : null;
+                if(lock.validate(stamp)) {
+                    return value;
+                }
+            }
+            catch(RuntimeException e) {
+                // Несогласованное состояние дерева при одновременном изменении: повторить под блокировкой
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            BSNode<K, V> node = tree.findNode(key);
+            return node != null ? node.getValue() : null;
+        }
+        finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Проверяет наличие узла с заданным ключом.
+     * @param key значение ключа.
+     * @return true - узел с заданным ключом найден.
+     */
+    public boolean containsKey(K key) {
+        return findNode(key) != null;
+    }
+
+    /**
+     * Выполняет действие с деревом под блокировкой чтения (например, проверку структуры дерева).
+     * Дерево не должно изменяться действием.
+     * @param action действие с деревом.
+     */
+    public void read(Consumer<RBTree<K, V>> action) {
+        long stamp = lock.readLock();
+        try {
+            action.accept(tree);
+        }
+        finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Выполняет изменение дерева под блокировкой записи.
+     * Наследники дополняют изменение действиями, упорядоченными вместе с изменениями дерева (например, записью в журнал).
+     * @param action изменение дерева.
+     * @return результат изменения.
+     * @param <R> тип результата изменения.
+     */
+    protected <R> R write(Function<RBTree<K, V>, R> action) {
+        long stamp = lock.writeLock();
+        try {
+            return action.apply(tree);
+        }
+        finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Находит узел дерева по заданному ключу без блокировки.
+     * Результат действителен только после успешной проверки отметки оптимистичного чтения.
+     * @param key значение ключа.
+     * @return найденный узел или null (также при превышении количества шагов поиска).
+     */
+    private BSNode<K, V> findOptimistic(K key) {
+        BSNode<K, V> current = tree.getRoot();
+        for(int step = 0; current != null && step < MAX_OPTIMISTIC_STEPS; ++step) {
+            int cmp = current.compareToOther(key, tree.comparator());
+            if(cmp == 0) {
+                return current;
+            }
+            current = cmp > 0 ? current.getLeftChild() : current.getRightChild();
+        }
+        return null;
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public void display(int blanks, DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
+        out.setHeader(header);
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+        out.setFooter(footer);
+
+        read(rbTree -> rbTree.display(blanks, out));
+    }
+}
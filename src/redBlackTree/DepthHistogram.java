@@ -0,0 +1,310 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Распределение глубин узлов дерева (гистограмма) и длины путей поиска.
+ * Глубина узла - количество узлов на пути от корня до узла (корень - 1), то есть количество сравнений ключей
+ * при успешном поиске узла. Неуспешный поиск заканчивается в пустом потомке и требует столько сравнений,
+ * какова глубина родителя пустого потомка; дерево из n узлов имеет n + 1 пустых потомков.
+ * Гистограмма строится за один обход узлов с явным стеком; верхние уровни большого дерева обходятся параллельно.
+ * Экспортируется в CSV ({@link #toCsv()}) и JSON ({@link #toJson()}) для сопоставления формы дерева
+ * с измеренным временем поиска.
+ */
+public final class DepthHistogram {
+    /**
+     * Начальная емкость стека обхода и гистограммы (см. {@link RBTreeIterator}).
+     */
+    private static final int STACK_CAPACITY = 64;
+
+    /**
+     * Минимальный размер дерева, при котором гистограмма строится параллельно.
+     */
+    private static final int PARALLEL_SIZE = 1 << 16;
+
+    /**
+     * Количество верхних уровней дерева, поддеревья которых обходятся в отдельных задачах (до 2^6 задач).
+     */
+    private static final int PARALLEL_LEVELS = 6;
+
+    /**
+     * Количество узлов на каждой глубине (индекс - глубина, элемент 0 не используется).
+     */
+    private final long[] counts;
+
+    /**
+     * Количество узлов.
+     */
+    private final long nodeCount;
+
+    /**
+     * Сумма глубин узлов (внутренняя длина путей).
+     */
+    private final long pathLength;
+
+    /**
+     * Сумма глубин родителей пустых потомков (длина путей неуспешного поиска).
+     */
+    private final long missPathLength;
+
+    /**
+     * Черная высота дерева.
+     */
+    private final int blackHeight;
+
+    /**
+     * Создает гистограмму.
+     * @param counts количество узлов на каждой глубине.
+     * @param pathLength сумма глубин узлов.
+     * @param missPathLength сумма глубин родителей пустых потомков.
+     * @param blackHeight черная высота дерева.
+     */
+    private DepthHistogram(long[] counts, long pathLength, long missPathLength, int blackHeight) {
+        int maxDepth = counts.length - 1;
+        while(maxDepth > 0 && counts[maxDepth] == 0) {
+            maxDepth--;
+        }
+        this.counts = Arrays.copyOf(counts, maxDepth + 1);
+        this.nodeCount = Arrays.stream(this.counts).sum();
+        this.pathLength = pathLength;
+        this.missPathLength = missPathLength;
+        this.blackHeight = blackHeight;
+    }
+
+    /**
+     * Строит гистограмму глубин узлов дерева.
+     * @param tree дерево.
+     * @param isParallel параллельный обход в пуле ForkJoinPool (общем пуле) для большого дерева.
+     * @return гистограмма.
+     */
+    static DepthHistogram of(RBTree<?, ?> tree, boolean isParallel) {
+        BSNode<?, ?> root = tree.getRoot();
+        Part part;
+        if(isParallel && tree.size() >= PARALLEL_SIZE) {
+            part = ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> collectParallel(root, 1)));
+        }
+        else {
+            part = collect(root, 1);
+        }
+        return new DepthHistogram(part.counts, part.pathLength, part.missPathLength, tree.getBlackHeight());
+    }
+
+    /**
+     * Обходит поддерево: поддеревья верхних уровней обходятся в отдельных задачах.
+     * Должен вызываться из задачи пула ForkJoinPool.
+     * @param node корневой узел поддерева или null.
+     * @param depth глубина корневого узла поддерева.
+     * @return результат обхода поддерева.
+     */
+    private static Part collectParallel(BSNode<?, ?> node, int depth) {
+        if(node == null || depth > PARALLEL_LEVELS) {
+            return collect(node, depth);
+        }
+        ForkJoinTask<Part> rightTask = ForkJoinTask.adapt(() -> collectParallel(node.getRightChild(), depth + 1)).fork();
+        Part part = collectParallel(node.getLeftChild(), depth + 1);
+        part.add(node, depth);
+        part.merge(rightTask.join());
+        return part;
+    }
+
+    /**
+     * Обходит поддерево последовательно (прямой обход с явным стеком).
+     * @param root корневой узел поддерева или null.
+     * @param rootDepth глубина корневого узла поддерева.
+     * @return результат обхода поддерева.
+     */
+    private static Part collect(BSNode<?, ?> root, int rootDepth) {
+        Part part = new Part();
+        if(root == null) {
+            return part;
+        }
+        BSNode<?, ?>[] nodes = new BSNode<?, ?>[STACK_CAPACITY];
+        int[] depths = new int[STACK_CAPACITY];
+        nodes[0] = root;
+        depths[0] = rootDepth;
+        int top = 1;
+        while(top > 0) {
+            top--;
+            BSNode<?, ?> node = nodes[top];
+            int depth = depths[top];
+            nodes[top] = null;
+            part.add(node, depth);
+            if(top + 2 > nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                depths = Arrays.copyOf(depths, depths.length * 2);
+            }
+            if(node.getRightChild() != null) {
+                nodes[top] = node.getRightChild();
+                depths[top++] = depth + 1;
+            }
+            if(node.getLeftChild() != null) {
+                nodes[top] = node.getLeftChild();
+                depths[top++] = depth + 1;
+            }
+        }
+        return part;
+    }
+
+    /**
+     * Получает количество узлов на заданной глубине.
+     * @param depth глубина (корень - 1).
+     * @return количество узлов.
+     */
+    public long getCount(int depth) {
+        return depth > 0 && depth < counts.length ? counts[depth] : 0;
+    }
+
+    /**
+     * Получает максимальную глубину узлов (количество уровней дерева).
+     * @return максимальная глубина (0 - пустое дерево).
+     */
+    public int getMaxDepth() {
+        return counts.length - 1;
+    }
+
+    /**
+     * Получает количество узлов дерева.
+     * @return количество узлов.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Получает черную высоту дерева.
+     * @return черная высота.
+     */
+    public int getBlackHeight() {
+        return blackHeight;
+    }
+
+    /**
+     * Получает среднюю длину пути успешного поиска (среднюю глубину узлов).
+     * @return средняя длина пути (0 - пустое дерево).
+     */
+    public double getAveragePathLength() {
+        return nodeCount > 0 ? (double) pathLength / nodeCount : 0;
+    }
+
+    /**
+     * Получает среднюю длину пути неуспешного поиска (по всем n + 1 пустым потомкам).
+     * @return средняя длина пути.
+     */
+    public double getAverageMissPathLength() {
+        return (double) missPathLength / (nodeCount + 1);
+    }
+
+    /**
+     * Экспортирует гистограмму в CSV: строка заголовка и строка на каждую глубину
+     * (глубина, количество узлов, доля узлов и накопленная доля узлов в процентах).
+     * @return текст CSV.
+     */
+    public String toCsv() {
+        StringBuilder csv = new StringBuilder("depth,count,percent,cumulative_percent\n");
+        long cumulative = 0;
+        for(int depth = 1; depth < counts.length; ++depth) {
+            cumulative += counts[depth];
+            csv.append(depth).append(',').append(counts[depth]).append(',')
+                    .append(formatPercent(counts[depth])).append(',').append(formatPercent(cumulative)).append('\n');
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Экспортирует гистограмму и длины путей поиска в JSON.
+     * @return текст JSON.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"nodes\": ").append(nodeCount)
+                .append(", \"maxDepth\": ").append(getMaxDepth())
+                .append(", \"blackHeight\": ").append(blackHeight)
+                .append(", \"averagePathLength\": ").append(format(getAveragePathLength()))
+                .append(", \"averageMissPathLength\": ").append(format(getAverageMissPathLength()))
+                .append(", \"histogram\": [");
+        for(int depth = 1; depth < counts.length; ++depth) {
+            json.append(depth > 1 ? ", " : "").append("{\"depth\": ").append(depth)
+                    .append(", \"count\": ").append(counts[depth]).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Форматирует долю узлов в процентах.
+     * @param count количество узлов.
+     * @return доля узлов в процентах.
+     */
+    private String formatPercent(long count) {
+        return format(nodeCount > 0 ? 100.0 * count / nodeCount : 0);
+    }
+
+    /**
+     * Форматирует число с четырьмя знаками после точки (независимо от локали).
+     * @param value число.
+     * @return строковое значение числа.
+     */
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+
+    @Override
+    public String toString() {
+        return "nodes = " + nodeCount + "; max depth = " + getMaxDepth() + "; black height = " + blackHeight
+                + "; average path = " + format(getAveragePathLength())
+                + "; average miss path = " + format(getAverageMissPathLength());
+    }
+
+    /**
+     * Результат обхода поддерева.
+     */
+    private static final class Part {
+        /**
+         * Количество узлов на каждой глубине.
+         */
+        private long[] counts = new long[STACK_CAPACITY];
+
+        /**
+         * Сумма глубин узлов.
+         */
+        private long pathLength;
+
+        /**
+         * Сумма глубин родителей пустых потомков.
+         */
+        private long missPathLength;
+
+        /**
+         * Учитывает узел.
+         * @param node узел дерева.
+         * @param depth глубина узла.
+         */
+        private void add(BSNode<?, ?> node, int depth) {
+            if(depth >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(counts.length * 2, depth + 1));
+            }
+            counts[depth]++;
+            pathLength += depth;
+            missPathLength += (long) depth * ((node.getLeftChild() == null ? 1 : 0) + (node.getRightChild() == null ? 1 : 0));
+        }
+
+        /**
+         * Присоединяет результат обхода другого поддерева.
+         * @param other результат обхода другого поддерева.
+         */
+        private void merge(Part other) {
+            if(other.counts.length > counts.length) {
+                counts = Arrays.copyOf(counts, other.counts.length);
+            }
+            for(int depth = 0; depth < other.counts.length; ++depth) {
+                counts[depth] += other.counts[depth];
+            }
+            pathLength += other.pathLength;
+            missPathLength += other.missPathLength;
+        }
+    }
+}
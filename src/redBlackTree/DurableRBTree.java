@@ -0,0 +1,252 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+import utils.codec.Codec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.function.Consumer;
+
+/**
+ * Потокобезопасное красно-чёрное дерево с журналом изменений (write-ahead log) в каталоге файлов.
+ * Каждое добавление, перезапись данных и удаление узла записывается в журнал (см. {@link RBTreeLog})
+ * с контрольной суммой, поэтому после сбоя дерево восстанавливается {@link #open}: читается последний снимок
+ * и применяются записи журнала после него. Сегменты журнала закрываются по размеру и объединяются
+ * в новый снимок в фоновом потоке.
+ * Режимы фиксации изменений:
+ *      - синхронный: изменение возвращается после сброса записи на диск; одновременные изменения разных потоков
+ *        фиксируются одним вызовом {@code fsync} (групповая фиксация), поэтому пропускная способность
+ *        не ограничена временем сброса на диск каждой записи;
+ *      - асинхронный: записи накапливаются в буфере и записываются на диск при заполнении буфера
+ *        и вызовах {@link #sync()}; при сбое теряются изменения после последней фиксации.
+ * Запись изменения добавляется в журнал под блокировкой записи до изменения дерева: если журнал закрыт
+ * или недоступен, дерево не изменяется. Изменение видно другим потокам с момента применения, до сброса записи
+ * на диск. Если сброс на диск завершился ошибкой, дерево в памяти содержит изменения, отсутствующие в журнале,
+ * поэтому дерево становится недоступным и для чтения (исключение {@link UncheckedIOException});
+ * состояние, сохраненное на диске, восстанавливается повторным открытием.
+ * При работе с {@code DurableRBTree}, реализующим AutoCloseable, рекомендуется
+ * использовать try-with-resources для фиксации изменений и закрытия журнала.
+ * @param <K> тип ключей, поддерживаемых этим деревом.
+ * @param <V> тип соответствующих ключам данных.
+ */
+public class DurableRBTree<K extends Comparable<K>, V> extends ConcurrentRBTree<K, V> implements AutoCloseable {
+    /**
+     * Размер сегмента журнала по умолчанию.
+     */
+    public static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+
+    /**
+     * Размер буфера записей, при превышении которого записи асинхронного журнала записываются на диск.
+     */
+    private static final int ASYNC_FLUSH_SIZE = 1 << 20;
+
+    /**
+     * Журнал изменений.
+     */
+    private final RBTreeLog<K, V> log;
+
+    /**
+     * Синхронная фиксация изменений.
+     */
+    private final boolean isSync;
+
+    /**
+     * Создает дерево с журналом изменений.
+     * @param tree восстановленное дерево.
+     * @param log журнал изменений.
+     * @param isSync синхронная фиксация изменений.
+     */
+    private DurableRBTree(RBTree<K, V> tree, RBTreeLog<K, V> log, boolean isSync) {
+        super(tree);
+        this.log = log;
+        this.isSync = isSync;
+    }
+
+    /**
+     * Открывает дерево с естественным порядком ключей и синхронной фиксацией изменений
+     * (см. {@link #open(Path, Codec, Codec, Comparator, boolean, long)}).
+     * @param directory каталог журнала.
+     * @param keyCodec кодировщик ключей.
+     * @param valueCodec кодировщик данных.
+     * @return восстановленное дерево.
+     * @param <K> тип ключей дерева.
+     * @param <V> тип соответствующих ключам данных.
+     * @throws IOException если при восстановлении произошла ошибка ввода-вывода или файлы журнала повреждены.
+     */
+    public static <K extends Comparable<K>, V> DurableRBTree<K, V> open(Path directory, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        return open(directory, keyCodec, valueCodec, null, true, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Открывает дерево: восстанавливает его из последнего снимка и записей журнала в каталоге
+     * (пустой или отсутствующий каталог - пустое дерево) и начинает новый сегмент журнала.
+     * Неполная запись в конце журнала (прерванная сбоем) отбрасывается.
+     * @param directory каталог журнала.
+     * @param keyCodec кодировщик ключей.
+     * @param valueCodec кодировщик данных.
+     * @param comparator порядок ключей или null (естественный порядок).
+     * @param isSync true - синхронная фиксация изменений; false - асинхронная.
+     * @param segmentSize размер сегмента журнала, при превышении которого сегмент объединяется в снимок.
+     * @return восстановленное дерево.
+     * @param <K> тип ключей дерева.
+     * @param <V> тип соответствующих ключам данных.
+     * @throws IOException если при восстановлении произошла ошибка ввода-вывода или файлы журнала повреждены.
+     */
+    public static <K extends Comparable<K>, V> DurableRBTree<K, V> open(Path directory, Codec<K> keyCodec, Codec<V> valueCodec,
+                                                                      Comparator<? super K> comparator, boolean isSync,
+                                                                      long segmentSize) throws IOException {
+        RBTree<K, V> tree = RBTreeLog.recover(directory, keyCodec, valueCodec, comparator);
+        return new DurableRBTree<>(tree, new RBTreeLog<>(directory, keyCodec, valueCodec, comparator, segmentSize), isSync);
+    }
+
+    /**
+     * Добавляет узел в дерево и записывает изменение в журнал.
+     * @param key ключ узла дерева.
+     * @param value данные узла дерева.
+     * @return добавленный узел.
+     * @throws UncheckedIOException если при записи журнала произошла ошибка ввода-вывода.
+     * @throws IllegalStateException если дерево закрыто.
+     */
+    @Override
+    public BSNode<K, V> add(K key, V value) {
+        byte[] record = log.encode(RBTreeLog.PUT, key, value);
+        long[] position = new long[1];
+        BSNode<K, V> node = write(rbTree -> {
+            // Добавление и перезапись записываются одним видом изменения, поэтому поиск узла до записи не нужен
+            position[0] = log.append(record);
+            return rbTree.add(key, value);
+        });
+        commit(position[0]);
+        return node;
+    }
+
+    /**
+     * Удаляет узел дерева по заданному ключу и записывает изменение в журнал.
+     * @param key значение ключа.
+     * @return удаленный узел или null, если узел с заданным ключом не найден.
+     * @throws UncheckedIOException если при записи журнала произошла ошибка ввода-вывода.
+     * @throws IllegalStateException если дерево закрыто.
+     */
+    @Override
+    public BSNode<K, V> removeNode(K key) {
+        byte[] record = log.encode(RBTreeLog.REMOVE, key, null);
+        long[] position = new long[1];
+        BSNode<K, V> node = write(rbTree -> {
+            log.checkWritable();
+            if(rbTree.findNode(key) == null) {
+                return null;
+            }
+            position[0] = log.append(record);
+            return rbTree.removeNode(key);
+        });
+        if(node != null) {
+            commit(position[0]);
+        }
+        return node;
+    }
+
+    /**
+     * Получает размер дерева.
+     * @return количество узлов дерева.
+     * @throws UncheckedIOException если запись журнала на диск завершилась ошибкой.
+     */
+    @Override
+    public int size() {
+        checkReadable();
+        return super.size();
+    }
+
+    /**
+     * Находит узел дерева по заданному ключу (см. {@link ConcurrentRBTree#findNode}).
+     * @param key значение ключа.
+     * @return найденный узел или null.
+     * @throws UncheckedIOException если запись журнала на диск завершилась ошибкой.
+     */
+    @Override
+    public BSNode<K, V> findNode(K key) {
+        checkReadable();
+        return super.findNode(key);
+    }
+
+    /**
+     * Получает данные узла по заданному ключу (см. {@link ConcurrentRBTree#get}).
+     * @param key значение ключа.
+     * @return данные узла или null, если узел с заданным ключом не найден.
+     * @throws UncheckedIOException если запись журнала на диск завершилась ошибкой.
+     */
+    @Override
+    public V get(K key) {
+        checkReadable();
+        return super.get(key);
+    }
+
+    /**
+     * Выполняет действие с деревом под блокировкой чтения (см. {@link ConcurrentRBTree#read}).
+     * @param action действие с деревом.
+     * @throws UncheckedIOException если запись журнала на диск завершилась ошибкой.
+     */
+    @Override
+    public void read(Consumer<RBTree<K, V>> action) {
+        checkReadable();
+        super.read(action);
+    }
+
+    /**
+     * Проверяет, что дерево в памяти не содержит изменений, потерянных при ошибке записи журнала на диск.
+     * @throws UncheckedIOException если запись журнала на диск завершилась ошибкой.
+     */
+    private void checkReadable() {
+        try {
+            log.checkFailure();
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Фиксирует изменение: в синхронном режиме ожидает сброса записи на диск,
+     * в асинхронном - записывает заполненный буфер записей.
+     * @param position позиция конца записи изменения.
+     * @throws UncheckedIOException если при записи журнала произошла ошибка ввода-вывода.
+     */
+    private void commit(long position) {
+        try {
+            if(isSync || log.getPendingBytes() >= ASYNC_FLUSH_SIZE) {
+                log.sync(position);
+            }
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Сбрасывает на диск все записанные в журнал изменения.
+     * @throws IOException если при записи журнала произошла ошибка ввода-вывода.
+     */
+    public void sync() throws IOException {
+        log.sync(log.getAppended());
+    }
+
+    /**
+     * Сбрасывает журнал на диск и объединяет его с последним снимком в новый снимок, ожидая завершения объединения.
+     * Восстановление дерева после объединения читает только снимок.
+     * @throws IOException если при записи журнала или снимка произошла ошибка ввода-вывода.
+     */
+    public void checkpoint() throws IOException {
+        log.checkpoint();
+    }
+
+    /**
+     * Сбрасывает журнал на диск, ожидает завершения фонового объединения и закрывает журнал.
+     * После закрытия дерево не изменяется.
+     * @throws IOException если при записи журнала или объединении произошла ошибка ввода-вывода.
+     */
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+}
@@ -0,0 +1,535 @@
+package redBlackTree;
+
+import utils.output.DualOutput;
+import utils.output.IntDisplay;
+import utils.output.IntOutput;
+import utils.output.TreeRenderer;
+
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Алгоритмы красно-чёрного дерева на индексах узлов вместо объектов узлов.
+ * Класс реализует добавление, поиск и удаление узлов (те же, что и {@link RBTree}) независимо от типа ключей:
+ * искомый ключ передается операции функцией сравнения с ключом узла, а алгоритмы только вызывают ее.
+ * Поэтому один набор алгоритмов используется и деревьями с ключами-объектами ({@link IndexRBTree}),
+ * и деревьями с ключами примитивных типов без упаковки ({@link IntRBTree}, {@link LongRBTree}),
+ * а поиск не изменяет состояние дерева и может выполняться несколькими потоками одновременно.
+ * Хранение ключей, данных, ссылок на потомков и цвета узлов определяют наследники.
+ * Узел идентифицируется целочисленным индексом, отсутствующий узел - значением {@link #NIL}.
+ * @param <V> тип соответствующих ключам данных.
+ */
+public abstract class IndexRBEngine<V> implements IntOutput {
+    /**
+     * Индекс отсутствующего узла.
+     */
+    public static final int NIL = -1;
+
+    /**
+     * Начальная емкость пути предков узла.
+     */
+    private static final int ANCESTORS_CAPACITY = 64;
+
+    /**
+     * Путь предков узла от корня дерева (используется при удалении узла вместо ссылок на родителя).
+     */
+    private int[] ancestors = new int[ANCESTORS_CAPACITY];
+
+    /**
+     * Вывод в поток узлов дерева с цветом узлов.
+     */
+    private final TreeRenderer<Integer> renderer = new TreeRenderer<>(true) {
+        @Override
+        protected Integer getLeftChild(Integer node) {
+            int child = IndexRBEngine.this.getLeftChild(node);
+            return child != NIL ? child : null;
+        }
+
+        @Override
+        protected Integer getRightChild(Integer node) {
+            int child = IndexRBEngine.this.getRightChild(node);
+            return child != NIL ? child : null;
+        }
+
+        @Override
+        protected boolean getIsRed(Integer node) {
+            return IndexRBEngine.this.getIsRed(node);
+        }
+
+        @Override
+        protected String getKeyText(Integer node) {
+            return IndexRBEngine.this.getKeyText(node);
+        }
+
+        @Override
+        protected Object getValue(Integer node) {
+            return IndexRBEngine.this.getValue(node);
+        }
+    };
+
+    /**
+     * Интерфейс вывода в поток красно-черного дерева.
+     */
+    public final IntDisplay out;
+
+    /**
+     * Создает пустое красно-черное дерево.
+     * @param header верхнее оформление сообщения вывода дерева в поток.
+     */
+    protected IndexRBEngine(String header) {
+        out = new IntDisplay(this::display, header, ">>>");
+    }
+
+    /**
+     * Получает индекс корневого узла дерева.
+     * @return индекс корневого узла или {@link #NIL}.
+     */
+    public abstract int getRoot();
+
+    /**
+     * Устанавливает индекс корневого узла дерева.
+     * @param root индекс корневого узла или {@link #NIL}.
+     */
+    protected abstract void setRoot(int root);
+
+    /**
+     * Получает размер дерева.
+     * @return количество узлов дерева.
+     */
+    public abstract int size();
+
+    /**
+     * Устанавливает размер дерева.
+     * @param size количество узлов дерева.
+     */
+    protected abstract void setSize(int size);
+
+    /**
+     * Освобождает место удаленного узла для повторного использования.
+     * @param node индекс удаленного узла.
+     */
+    protected abstract void freeNode(int node);
+
+    /**
+     * Получает текст ключа узла для вывода дерева.
+     * @param node индекс узла.
+     * @return текст ключа узла.
+     */
+    protected abstract String getKeyText(int node);
+
+    /**
+     * Получает данные узла.
+     * @param node индекс узла.
+     * @return данные узла.
+     */
+    public abstract V getValue(int node);
+
+    /**
+     * Устанавливает данные узла.
+     * @param node индекс узла.
+     * @param value данные узла.
+     */
+    protected abstract void setValue(int node, V value);
+
+    /**
+     * Получает индекс левого дочернего узла.
+     * @param node индекс узла.
+     * @return индекс левого дочернего узла или {@link #NIL}.
+     */
+    public abstract int getLeftChild(int node);
+
+    /**
+     * Устанавливает левый дочерний узел.
+     * @param node индекс узла.
+     * @param child индекс левого дочернего узла или {@link #NIL}.
+     */
+    protected abstract void setLeftChild(int node, int child);
+
+    /**
+     * Получает индекс правого дочернего узла.
+     * @param node индекс узла.
+     * @return индекс правого дочернего узла или {@link #NIL}.
+     */
+    public abstract int getRightChild(int node);
+
+    /**
+     * Устанавливает правый дочерний узел.
+     * @param node индекс узла.
+     * @param child индекс правого дочернего узла или {@link #NIL}.
+     */
+    protected abstract void setRightChild(int node, int child);
+
+    /**
+     * Получает значение признака красного узла.
+     * @param node индекс узла.
+     * @return значение признака красного узла.
+     */
+    public abstract boolean getIsRed(int node);
+
+    /**
+     * Устанавливает признак красного узла.
+     * @param node индекс узла.
+     * @param isRed значение признака красного узла.
+     */
+    protected abstract void setIsRed(int node, boolean isRed);
+
+    /**
+     * Добавляет узел с искомым ключом в дерево за один спуск от корня (см. {@link RBTree#add(Comparable, Object)}).
+     * Уникальность элементов по ключу поддерживается: данные существующего узла переписываются.
+     * @param compare сравнение искомого ключа с ключом узла: отрицательное значение, 0 или положительное значение,
+     *                если искомый ключ меньше, равен или больше ключа узла.
+     * @param value данные узла дерева.
+     * @param allocate выделение места для нового красного узла без потомков с искомым ключом и данными value.
+     * @return индекс добавленного узла.
+     */
+    protected int insertNode(IntUnaryOperator compare, V value, IntSupplier allocate) {
+        int current = getRoot();
+        if(current == NIL) {
+            // Добавление корневого узла
+            int result = allocate.getAsInt();
+            setIsRed(result, false);
+            setRoot(result);
+            setSize(1);
+            return result;
+        }
+        int parent = NIL;
+        int grand = NIL;
+        int grand2 = NIL;
+        int grand3 = NIL;
+        int cmp;
+        while(true) {
+            cmp = compare.applyAsInt(current);
+            if(cmp == 0) {
+                // Обнаружен узел с заданным ключом: переписать данные узла
+                setValue(current, value);
+                return current;
+            }
+            // Обработка ДО добавления узла
+            setColorsTriangle(current);
+            int top = turnRedLine(current, parent, grand, grand2);
+            if(top == current) {
+                // Двойной поворот: текущий узел занял место grand
+                parent = grand2;
+                grand = grand3;
+                grand2 = NIL;
+            }
+            else if(top != NIL) {
+                // Одиночный поворот: родитель текущего узла занял место grand
+                grand = grand2;
+                grand2 = grand3;
+            }
+            grand3 = NIL;
+
+            int next = cmp < 0 ? getLeftChild(current) : getRightChild(current);
+            if(next == NIL) {
+                break;
+            }
+            grand3 = grand2;
+            grand2 = grand;
+            grand = parent;
+            parent = current;
+            current = next;
+        }
+
+        // Добавление узла
+        int result = allocate.getAsInt();
+        if(cmp < 0) {
+            setLeftChild(current, result);
+        }
+        else {
+            setRightChild(current, result);
+        }
+        setSize(size() + 1);
+
+        // Обработка ПОСЛЕ добавления узла
+        turnRedLine(result, current, parent, grand);
+        setIsRed(getRoot(), false);
+        return result;
+    }
+
+    /**
+     * Находит узел дерева с искомым ключом.
+     * @param compare сравнение искомого ключа с ключом узла (см. {@link #insertNode}).
+     * @return индекс найденного узла или {@link #NIL}.
+     */
+    protected int searchNode(IntUnaryOperator compare) {
+        int current = getRoot();
+        while(current != NIL) {
+            int cmp = compare.applyAsInt(current);
+            if(cmp == 0) {
+                return current;
+            }
+            current = cmp < 0 ? getLeftChild(current) : getRightChild(current);
+        }
+        return NIL;
+    }
+
+    /**
+     * Удаляет узел дерева с искомым ключом (см. {@link RBTree#removeNode(Comparable)}).
+     * Место удаленного узла освобождается для повторного использования.
+     * @param compare сравнение искомого ключа с ключом узла (см. {@link #insertNode}).
+     * @return данные удаленного узла или null, если узел с искомым ключом не найден.
+     */
+    protected V deleteNode(IntUnaryOperator compare) {
+        int depth = 0;
+        int node = getRoot();
+        int cmp;
+        while(node != NIL && (cmp = compare.applyAsInt(node)) != 0) {
+            depth = pushAncestor(node, depth);
+            node = cmp < 0 ? getLeftChild(node) : getRightChild(node);
+        }
+        if(node == NIL) {
+            return null;
+        }
+
+        int parent = depth > 0 ? ancestors[depth - 1] : NIL;
+        // Узел, занявший место физически удаленного узла, и сторона, на которой он находится
+        int child;
+        boolean isLeft;
+        boolean isRemovedRed;
+        if(getLeftChild(node) != NIL && getRightChild(node) != NIL) {
+            // Удаляемый узел замещается преемником, который получает его цвет
+            int nodeDepth = depth;
+            depth = pushAncestor(node, depth);
+            int successor = getRightChild(node);
+            while(getLeftChild(successor) != NIL) {
+                depth = pushAncestor(successor, depth);
+                successor = getLeftChild(successor);
+            }
+            child = getRightChild(successor);
+            isRemovedRed = getIsRed(successor);
+            if(successor == getRightChild(node)) {
+                isLeft = false;
+            }
+            else {
+                isLeft = true;
+                setLeftChild(ancestors[depth - 1], child);
+                setRightChild(successor, getRightChild(node));
+            }
+            setLeftChild(successor, getLeftChild(node));
+            setIsRed(successor, getIsRed(node));
+            replaceChild(parent, node, successor);
+            ancestors[nodeDepth] = successor;
+        }
+        else {
+            child = getLeftChild(node) != NIL ? getLeftChild(node) : getRightChild(node);
+            isLeft = parent != NIL && getLeftChild(parent) == node;
+            isRemovedRed = getIsRed(node);
+            replaceChild(parent, node, child);
+        }
+        V value = getValue(node);
+        freeNode(node);
+        setSize(size() - 1);
+
+        // Удаление красного узла не меняет черную высоту
+        if(!isRemovedRed) {
+            checkColorsAfterRemove(child, isLeft, depth);
+        }
+        return value;
+    }
+
+    /**
+     * Переключает цвета узлов в треугольнике для исправления "красных линий".
+     * @param parent верхний узел треугольника.
+     */
+    private void setColorsTriangle(int parent) {
+        int childLeft = getLeftChild(parent);
+        int childRight = getRightChild(parent);
+
+        // Цвета переключаются только для треугольника с двумя красными нижними вершинами
+        if(!isRed(childLeft) || !isRed(childRight)) {
+            return;
+        }
+        // Корневой верхний всегда черный, некорневой верхний - красный (случаи 1, 2 wiki)
+        setIsRed(parent, parent != getRoot());
+        // Потомки всегда черные (случай 3 wiki)
+        setIsRed(childLeft, false);
+        setIsRed(childRight, false);
+    }
+
+    /**
+     * Поворачивает "красную линию" (node + parent) при ее наличии (случаи 4, 5 wiki).
+     * @param node узел, который, возможно, входит в "красную линию".
+     * @param parent ближайший родственник узла node.
+     * @param grand родственник предыдущего родственника.
+     * @param grand2 родственник предыдущего родственника ({@link #NIL}, если grand - корневой узел).
+     * @return новый верхний узел повернутого поддерева (parent или node) или {@link #NIL}, если "красной линии" нет.
+     */
+    private int turnRedLine(int node, int parent, int grand, int grand2) {
+        if(grand == NIL || !getIsRed(node) || !getIsRed(parent)) {
+            return NIL;
+        }
+        int top;
+        if(parent == getLeftChild(grand)) {
+            if(node != getLeftChild(parent)) {
+                // Поворот влево внутреннего внука (случай 4 wiki)
+                rotate(parent, grand, true);
+            }
+            // Поворот вправо "красной линии" (случай 5 wiki)
+            top = rotate(grand, grand2, false);
+        }
+        else {
+            if(node != getRightChild(parent)) {
+                // Поворот вправо внутреннего внука (случай 4 wiki)
+                rotate(parent, grand, false);
+            }
+            // Поворот влево "красной линии" (случай 5 wiki)
+            top = rotate(grand, grand2, true);
+        }
+        setIsRed(grand, true);
+        setIsRed(top, false);
+        return top;
+    }
+
+    /**
+     * Восстанавливает черную высоту дерева ПОСЛЕ удаления черного узла (случаи 2-6 wiki).
+     * @param node узел, занявший место удаленного узла (может быть {@link #NIL}).
+     * @param isLeft признак расположения узла слева от родителя.
+     * @param depth количество предков узла в пути предков (последний из них - родитель узла).
+     */
+    private void checkColorsAfterRemove(int node, boolean isLeft, int depth) {
+        while(depth > 0 && !isRed(node)) {
+            int parent = ancestors[depth - 1];
+            int grand = depth > 1 ? ancestors[depth - 2] : NIL;
+            int sibling = isLeft ? getRightChild(parent) : getLeftChild(parent);
+
+            // Красный брат поворачивается к вершине (случай 2 wiki)
+            if(isRed(sibling)) {
+                setIsRed(sibling, false);
+                setIsRed(parent, true);
+                rotate(parent, grand, isLeft);
+                ancestors[depth - 1] = sibling;
+                depth = pushAncestor(parent, depth);
+                grand = sibling;
+                sibling = isLeft ? getRightChild(parent) : getLeftChild(parent);
+            }
+            if(sibling == NIL) {
+                // Недостижимо для корректного дерева: перейти к родителю
+                node = parent;
+                isLeft = grand != NIL && getLeftChild(grand) == parent;
+                depth--;
+                continue;
+            }
+
+            int near = isLeft ? getLeftChild(sibling) : getRightChild(sibling);
+            int far = isLeft ? getRightChild(sibling) : getLeftChild(sibling);
+            if(!isRed(near) && !isRed(far)) {
+                setIsRed(sibling, true);
+                // Красный родитель перекрашивается в черный (случай 4 wiki)
+                if(getIsRed(parent)) {
+                    setIsRed(parent, false);
+                    return;
+                }
+                // Нехватка черного узла переходит на уровень выше (случай 3 wiki)
+                node = parent;
+                isLeft = grand != NIL && getLeftChild(grand) == parent;
+                depth--;
+                continue;
+            }
+
+            // Ближний красный племянник поворачивается на место брата (случай 5 wiki)
+            if(!isRed(far)) {
+                setIsRed(near, false);
+                setIsRed(sibling, true);
+                rotate(sibling, parent, !isLeft);
+                far = sibling;
+                sibling = near;
+            }
+
+            // Брат поворачивается к вершине (случай 6 wiki)
+            setIsRed(sibling, getIsRed(parent));
+            setIsRed(parent, false);
+            setIsRed(far, false);
+            rotate(parent, grand, isLeft);
+            return;
+        }
+        if(node != NIL) {
+            setIsRed(node, false);
+        }
+    }
+
+    /**
+     * Поворачивает поддерево вокруг заданного узла.
+     * @param node верхний узел поворачиваемого поддерева.
+     * @param parent родитель верхнего узла или {@link #NIL} для корневого узла.
+     * @param isLeft признак поворота влево (иначе - вправо).
+     * @return новый верхний узел поддерева.
+     */
+    private int rotate(int node, int parent, boolean isLeft) {
+        int top;
+        if(isLeft) {
+            top = getRightChild(node);
+            setRightChild(node, getLeftChild(top));
+            setLeftChild(top, node);
+        }
+        else {
+            top = getLeftChild(node);
+            setLeftChild(node, getRightChild(top));
+            setRightChild(top, node);
+        }
+        replaceChild(parent, node, top);
+        return top;
+    }
+
+    /**
+     * Заменяет дочерний узел заданного родителя (при отсутствии родителя - корневой узел).
+     * @param parent родительский узел или {@link #NIL}.
+     * @param child заменяемый дочерний узел.
+     * @param replacement замещающий узел.
+     */
+    private void replaceChild(int parent, int child, int replacement) {
+        if(parent == NIL) {
+            setRoot(replacement);
+        }
+        else if(getLeftChild(parent) == child) {
+            setLeftChild(parent, replacement);
+        }
+        else {
+            setRightChild(parent, replacement);
+        }
+    }
+
+    /**
+     * Добавляет узел в путь предков, при необходимости увеличивая его емкость.
+     * @param node узел-предок.
+     * @param depth текущее количество предков в пути.
+     * @return новое количество предков в пути.
+     */
+    private int pushAncestor(int node, int depth) {
+        if(depth == ancestors.length) {
+            ancestors = Arrays.copyOf(ancestors, depth * 2);
+        }
+        ancestors[depth] = node;
+        return depth + 1;
+    }
+
+    /**
+     * Проверяет, что узел красный (отсутствующий узел считается черным).
+     * @param node индекс узла или {@link #NIL}.
+     * @return true - узел красный.
+     */
+    private boolean isRed(int node) {
+        return node != NIL && getIsRed(node);
+    }
+
+    /**
+     * Измеряет дерево обходом всех узлов - O(n): количество уровней и максимальную длину выводимого значения узлов.
+     * @return размеры дерева.
+     */
+    public TreeRenderer.Shape measureShape() {
+        return renderer.measure(getRoot() != NIL ? getRoot() : null);
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public void display(int blanks, DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+
+        renderer.display(getRoot() != NIL ? getRoot() : null, blanks, header, footer, out);
+    }
+}
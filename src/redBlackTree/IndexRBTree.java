@@ -0,0 +1,72 @@
+package redBlackTree;
+
+/**
+ * Красно-чёрное дерево на индексах узлов вместо объектов узлов с ключами-объектами.
+ * Алгоритмы добавления, поиска и удаления узлов реализует {@link IndexRBEngine},
+ * а хранение ключей, данных, ссылок на потомков и цвета узлов определяют реализации:
+ * параллельные массивы ({@link ArrayRBTree}) или файл, отображенный в память ({@link MappedRBTree}).
+ * Узел идентифицируется целочисленным индексом, отсутствующий узел - значением {@link IndexRBEngine#NIL}.
+ * @param <K> тип ключей, поддерживаемых этим деревом.
+ * @param <V> тип соответствующих ключам данных.
+ */
+public interface IndexRBTree<K extends Comparable<K>, V> {
+    /**
+     * Добавляет узел в дерево без данных.
+     * @param key значение ключа.
+     * @return индекс добавленного узла.
+     */
+    default int add(K key) {
+        return add(key, null);
+    }
+
+    /**
+     * Добавляет узел в дерево за один спуск от корня (см. {@link RBTree#add(Comparable, Object)}).
+     * Уникальность элементов по ключу {@code K} поддерживается: данные существующего узла переписываются.
+     * @param key ключ узла дерева.
+     * @param value данные узла дерева.
+     * @return индекс добавленного узла.
+     * @throws NullPointerException если ключ равен null.
+     */
+    int add(K key, V value);
+
+    /**
+     * Находит узел дерева по заданному ключу.
+     * @param key значение ключа.
+     * @return индекс найденного узла или {@link IndexRBEngine#NIL}.
+     * @throws NullPointerException если ключ равен null.
+     */
+    int findNode(K key);
+
+    /**
+     * Получает данные узла по заданному ключу.
+     * @param key значение ключа.
+     * @return данные узла или null, если узел с заданным ключом не найден.
+     */
+    default V get(K key) {
+        int node = findNode(key);
+        return node != IndexRBEngine.NIL ? getValue(node) : null;
+    }
+
+    /**
+     * Удаляет узел дерева по заданному ключу (см. {@link RBTree#removeNode(Comparable)}).
+     * Место удаленного узла освобождается для повторного использования.
+     * @param key значение ключа.
+     * @return данные удаленного узла или null, если узел с заданным ключом не найден.
+     * @throws NullPointerException если ключ равен null.
+     */
+    V remove(K key);
+
+    /**
+     * Получает значение ключа узла.
+     * @param node индекс узла.
+     * @return значение ключа узла.
+     */
+    K getKey(int node);
+
+    /**
+     * Получает данные узла.
+     * @param node индекс узла.
+     * @return данные узла.
+     */
+    V getValue(int node);
+}
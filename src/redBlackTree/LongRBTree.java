@@ -0,0 +1,113 @@
+package redBlackTree;
+
+import java.util.Arrays;
+
+/**
+ * Красно-чёрное дерево с ключами примитивного типа long.
+ * Ключи хранятся в массиве без упаковки в {@code Long} и сравниваются без вызова {@code Comparable.compareTo}.
+ * Алгоритмы добавления, поиска и удаления узлов реализует {@link IndexRBEngine} (те же, что и {@link RBTree}),
+ * данные, индексы потомков и цвета узлов хранятся в параллельных массивах {@link ArrayRBEngine}.
+ * @param <V> тип соответствующих ключам данных.
+ */
+public class LongRBTree<V> extends ArrayRBEngine<V> {
+    /**
+     * Ключи узлов.
+     */
+    private long[] keys;
+
+    /**
+     * Создает пустое красно-черное дерево.
+     */
+    public LongRBTree() {
+        this(CHUNK_SIZE);
+    }
+
+    /**
+     * Создает пустое красно-черное дерево с заданной начальной емкостью массивов.
+     * @param capacity начальная емкость (количество узлов).
+     */
+    public LongRBTree(int capacity) {
+        super("<<< Long Red-Black tree: ", capacity);
+        keys = new long[capacity()];
+    }
+
+    /**
+     * Добавляет узел в дерево без данных.
+     * @param key значение ключа.
+     * @return индекс добавленного узла.
+     */
+    public int add(long key) {
+        return add(key, null);
+    }
+
+    /**
+     * Добавляет узел в дерево за один спуск от корня (см. {@link RBTree#add(Comparable, Object)}).
+     * Уникальность элементов по ключу поддерживается: данные существующего узла переписываются.
+     * @param key ключ узла дерева.
+     * @param value данные узла дерева.
+     * @return индекс добавленного узла.
+     */
+    public int add(long key, V value) {
+        return insertNode(node -> Long.compare(key, keys[node]), value, () -> {
+            int node = allocateNode(value);
+            keys[node] = key;
+            return node;
+        });
+    }
+
+    /**
+     * Находит узел дерева по заданному ключу.
+     * @param key значение ключа.
+     * @return индекс найденного узла или {@link #NIL}.
+     */
+    public int findNode(long key) {
+        return searchNode(node -> Long.compare(key, keys[node]));
+    }
+
+    /**
+     * Находит узел дерева по заданному ключу с выводом результата поиска.
+     * @param key значение ключа узла.
+     */
+    public void findNodeExt(long key) {
+        printFound(findNode(key), Long.toString(key));
+    }
+
+    /**
+     * Получает данные узла по заданному ключу.
+     * @param key значение ключа.
+     * @return данные узла или null, если узел с заданным ключом не найден.
+     */
+    public V get(long key) {
+        int node = findNode(key);
+        return node != NIL ? getValue(node) : null;
+    }
+
+    /**
+     * Удаляет узел дерева по заданному ключу (см. {@link RBTree#removeNode(Comparable)}).
+     * Место удаленного узла освобождается для повторного использования.
+     * @param key значение ключа.
+     * @return данные удаленного узла или null, если узел с заданным ключом не найден.
+     */
+    public V remove(long key) {
+        return deleteNode(node -> Long.compare(key, keys[node]));
+    }
+
+    /**
+     * Получает значение ключа узла.
+     * @param node индекс узла.
+     * @return значение ключа узла.
+     */
+    public long getKey(int node) {
+        return keys[node];
+    }
+
+    @Override
+    protected void resizeKeys(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+    }
+
+    @Override
+    protected String getKeyText(int node) {
+        return Long.toString(keys[node]);
+    }
+}
@@ -0,0 +1,440 @@
+package redBlackTree;
+
+import utils.codec.Codec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Красно-чёрное дерево вне кучи Java в файле, отображенном в память ({@code MappedByteBuffer}).
+ * Узлы хранятся в слотах фиксированной ширины: индексы потомков, признаки узла, ключ и данные.
+ * Дерево сохраняется между запусками приложения без перестроения, повторно открывается без чтения файла
+ * целиком и не нагружает сборщик мусора. Ключи и данные преобразуются кодировщиками фиксированного размера;
+ * при поиске ключ сравнивается с двоичным представлением ключа узла ({@link Codec#compare}) без его чтения.
+ * Структура файла:
+ *      заголовок ({@value #HEADER_SIZE} байт): сигнатура, версия, размеры ключа и данных,
+ *      корневой узел, размер дерева, количество использованных слотов, первый свободный слот;
+ *      сегменты по 2^{@value #SEGMENT_SHIFT} слотов узлов, отображаемые в память по мере роста дерева.
+ * При работе с {@code MappedRBTree}, реализующим AutoCloseable, рекомендуется
+ * использовать try-with-resources для сброса изменений на диск и закрытия файла.
+ * @param <K> тип ключей, поддерживаемых этим деревом.
+ * @param <V> тип соответствующих ключам данных.
+ */
+public class MappedRBTree<K extends Comparable<K>, V> extends IndexRBEngine<V> implements IndexRBTree<K, V>, AutoCloseable {
+    /**
+     * Сигнатура файла дерева ("RBT1").
+     */
+    private static final int MAGIC = 0x52425431;
+
+    /**
+     * Версия формата файла дерева.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Размер заголовка файла в байтах.
+     */
+    private static final int HEADER_SIZE = 64;
+
+    // Смещения полей заголовка
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_KEY_SIZE = 8;
+    private static final int HEADER_VALUE_SIZE = 12;
+    private static final int HEADER_ROOT = 16;
+    private static final int HEADER_SIZE_TREE = 20;
+    private static final int HEADER_USED = 24;
+    private static final int HEADER_FREE_HEAD = 28;
+
+    // Смещения полей слота узла
+    private static final int NODE_LEFT = 0;
+    private static final int NODE_RIGHT = 4;
+    private static final int NODE_FLAGS = 8;
+    private static final int NODE_KEY = 9;
+
+    /**
+     * Битовая маска признака красного узла.
+     */
+    private static final byte FLAG_RED = 0x01;
+
+    /**
+     * Битовая маска признака наличия данных узла (данные null не записываются).
+     */
+    private static final byte FLAG_VALUE = 0x02;
+
+    /**
+     * Двоичный логарифм количества слотов узлов в сегменте.
+     */
+    private static final int SEGMENT_SHIFT = 20;
+
+    /**
+     * Маска номера слота в сегменте.
+     */
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+    /**
+     * Канал файла дерева.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Заголовок файла, отображенный в память.
+     */
+    private final MappedByteBuffer header;
+
+    /**
+     * Сегменты слотов узлов, отображенные в память.
+     */
+    private MappedByteBuffer[] segments;
+
+    /**
+     * Количество отображенных сегментов.
+     */
+    private int nSegments;
+
+    /**
+     * Кодировщик ключей.
+     */
+    private final Codec<K> keyCodec;
+
+    /**
+     * Кодировщик данных.
+     */
+    private final Codec<V> valueCodec;
+
+    /**
+     * Размер ключа в байтах.
+     */
+    private final int keySize;
+
+    /**
+     * Размер данных в байтах.
+     */
+    private final int valueSize;
+
+    /**
+     * Размер слота узла в байтах.
+     */
+    private final int slotSize;
+
+    /**
+     * Буфер кодирования ключа: ключ кодируется до записи в слот, поэтому ошибка кодирования не изменяет файл.
+     */
+    private final ByteBuffer keyBuffer;
+
+    /**
+     * Буфер кодирования данных (см. {@link #keyBuffer}).
+     */
+    private final ByteBuffer valueBuffer;
+
+    /**
+     * Создает дерево в открытом файле.
+     * @param channel канал файла дерева.
+     * @param keyCodec кодировщик ключей фиксированного размера.
+     * @param valueCodec кодировщик данных фиксированного размера.
+     * @throws IOException если при отображении файла в память произошла ошибка ввода-вывода
+     *                     или файл имеет несовместимый формат.
+     */
+    private MappedRBTree(FileChannel channel, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        super("<<< Mapped Red-Black tree: ");
+        this.channel = channel;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        keySize = keyCodec.getFixedSize();
+        valueSize = valueCodec.getFixedSize();
+        if(keySize <= 0 || valueSize <= 0) {
+            throw new IllegalArgumentException("Кодировщики ключей и данных должны иметь фиксированный размер");
+        }
+        slotSize = NODE_KEY + keySize + valueSize;
+        if(slotSize > Integer.MAX_VALUE >> SEGMENT_SHIFT) {
+            throw new IllegalArgumentException("Размер слота узла слишком большой: " + slotSize);
+        }
+        keyBuffer = ByteBuffer.allocate(keySize);
+        valueBuffer = ByteBuffer.allocate(valueSize);
+
+        boolean isNew = channel.size() == 0;
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        if(isNew) {
+            header.putInt(HEADER_MAGIC, MAGIC);
+            header.putInt(HEADER_VERSION, VERSION);
+            header.putInt(HEADER_KEY_SIZE, keySize);
+            header.putInt(HEADER_VALUE_SIZE, valueSize);
+            header.putInt(HEADER_ROOT, NIL);
+            header.putInt(HEADER_SIZE_TREE, 0);
+            header.putInt(HEADER_USED, 0);
+            header.putInt(HEADER_FREE_HEAD, NIL);
+        }
+        else if(header.getInt(HEADER_MAGIC) != MAGIC || header.getInt(HEADER_VERSION) != VERSION) {
+            throw new IOException("Файл не является файлом красно-черного дерева версии " + VERSION);
+        }
+        else if(header.getInt(HEADER_KEY_SIZE) != keySize || header.getInt(HEADER_VALUE_SIZE) != valueSize) {
+            throw new IOException("Размеры ключа и данных файла (" + header.getInt(HEADER_KEY_SIZE) + ", "
+                    + header.getInt(HEADER_VALUE_SIZE) + ") не совпадают с размерами кодировщиков");
+        }
+
+        segments = new MappedByteBuffer[8];
+        nSegments = 0;
+        int used = header.getInt(HEADER_USED);
+        while(((long) nSegments << SEGMENT_SHIFT) < used) {
+            mapSegment();
+        }
+    }
+
+    /**
+     * Открывает дерево в заданном файле или создает новое дерево, если файл не существует или пуст.
+     * @param path путь к файлу дерева.
+     * @param keyCodec кодировщик ключей фиксированного размера.
+     * @param valueCodec кодировщик данных фиксированного размера.
+     * @return открытое дерево.
+     * @param <K> тип ключей дерева.
+     * @param <V> тип соответствующих ключам данных.
+     * @throws IOException если при открытии файла произошла ошибка ввода-вывода или файл имеет несовместимый формат.
+     * @throws IllegalArgumentException если кодировщики не имеют фиксированного размера.
+     */
+    public static <K extends Comparable<K>, V> MappedRBTree<K, V> open(Path path, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new MappedRBTree<>(channel, keyCodec, valueCodec);
+        }
+        catch(IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Отображает в память следующий сегмент слотов узлов (файл при этом увеличивается).
+     * @throws IOException если при отображении файла в память произошла ошибка ввода-вывода.
+     */
+    private void mapSegment() throws IOException {
+        if(nSegments == segments.length) {
+            segments = Arrays.copyOf(segments, nSegments * 2);
+        }
+        long segmentBytes = (long) slotSize << SEGMENT_SHIFT;
+        segments[nSegments] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + nSegments * segmentBytes, segmentBytes);
+        nSegments++;
+    }
+
+    /**
+     * Сбрасывает изменения дерева на диск.
+     */
+    public void force() {
+        for(int j = 0; j < nSegments; ++j) {
+            segments[j].force();
+        }
+        header.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    /**
+     * Получает сегмент слота узла.
+     * @param node индекс узла.
+     * @return сегмент, содержащий слот узла.
+     */
+    private ByteBuffer segment(int node) {
+        return segments[node >>> SEGMENT_SHIFT];
+    }
+
+    /**
+     * Получает смещение слота узла в сегменте.
+     * @param node индекс узла.
+     * @return смещение слота в байтах.
+     */
+    private int offset(int node) {
+        return (node & SEGMENT_MASK) * slotSize;
+    }
+
+    @Override
+    public int getRoot() {
+        return header.getInt(HEADER_ROOT);
+    }
+
+    @Override
+    protected void setRoot(int root) {
+        header.putInt(HEADER_ROOT, root);
+    }
+
+    @Override
+    public int size() {
+        return header.getInt(HEADER_SIZE_TREE);
+    }
+
+    @Override
+    protected void setSize(int size) {
+        header.putInt(HEADER_SIZE_TREE, size);
+    }
+
+    @Override
+    public int add(K key, V value) {
+        Objects.requireNonNull(key);
+        return insertNode(node -> compareToNode(key, node), value, () -> allocateNode(key, value));
+    }
+
+    @Override
+    public int findNode(K key) {
+        Objects.requireNonNull(key);
+        return searchNode(node -> compareToNode(key, node));
+    }
+
+    @Override
+    public V remove(K key) {
+        Objects.requireNonNull(key);
+        return deleteNode(node -> compareToNode(key, node));
+    }
+
+    /**
+     * Выделяет слот для нового красного узла без потомков.
+     * @param key значение ключа узла.
+     * @param value данные узла.
+     * @return индекс нового узла.
+     */
+    private int allocateNode(K key, V value) {
+        // Ключ и данные кодируются до выделения слота: при ошибке кодирования (например, строка длиннее размера ключа)
+        // слот не занимается
+        encode(key, keyCodec, keyBuffer);
+        if(value != null) {
+            encode(value, valueCodec, valueBuffer);
+        }
+        int node = header.getInt(HEADER_FREE_HEAD);
+        if(node != NIL) {
+            header.putInt(HEADER_FREE_HEAD, getLeftChild(node));
+        }
+        else {
+            node = header.getInt(HEADER_USED);
+            if(node == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Превышено максимальное количество узлов дерева");
+            }
+            if(node >>> SEGMENT_SHIFT == nSegments) {
+                try {
+                    mapSegment();
+                }
+                catch(IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            header.putInt(HEADER_USED, node + 1);
+        }
+        ByteBuffer buffer = segment(node);
+        int offset = offset(node);
+        buffer.putInt(offset + NODE_LEFT, NIL);
+        buffer.putInt(offset + NODE_RIGHT, NIL);
+        buffer.put(offset + NODE_KEY, keyBuffer, 0, keySize);
+        if(value != null) {
+            buffer.put(offset + NODE_KEY + keySize, valueBuffer, 0, valueSize);
+        }
+        buffer.put(offset + NODE_FLAGS, value != null ? FLAG_RED | FLAG_VALUE : FLAG_RED);
+        return node;
+    }
+
+    /**
+     * Кодирует значение в буфер кодирования.
+     * @param value значение (не null).
+     * @param codec кодировщик значения.
+     * @param target буфер кодирования.
+     * @throws IllegalArgumentException если значение не помещается в фиксированный размер.
+     */
+    private static <T> void encode(T value, Codec<T> codec, ByteBuffer target) {
+        target.clear();
+        codec.write(value, target);
+    }
+
+    @Override
+    protected void freeNode(int node) {
+        ByteBuffer buffer = segment(node);
+        int offset = offset(node);
+        buffer.putInt(offset + NODE_LEFT, header.getInt(HEADER_FREE_HEAD));
+        buffer.putInt(offset + NODE_RIGHT, NIL);
+        buffer.put(offset + NODE_FLAGS, (byte) 0);
+        header.putInt(HEADER_FREE_HEAD, node);
+    }
+
+    /**
+     * Сравнивает заданный ключ с двоичным представлением ключа узла.
+     * @param key заданное значение ключа.
+     * @param node индекс узла.
+     * @return отрицательное значение, 0 или положительное значение,
+     *         если заданный ключ меньше, равен или больше ключа узла.
+     */
+    private int compareToNode(K key, int node) {
+        return keyCodec.compare(key, segment(node), offset(node) + NODE_KEY, keySize);
+    }
+
+    @Override
+    public K getKey(int node) {
+        return keyCodec.read(segment(node), offset(node) + NODE_KEY, keySize);
+    }
+
+    @Override
+    protected String getKeyText(int node) {
+        return getKey(node).toString();
+    }
+
+    @Override
+    public V getValue(int node) {
+        ByteBuffer buffer = segment(node);
+        int offset = offset(node);
+        if((buffer.get(offset + NODE_FLAGS) & FLAG_VALUE) == 0) {
+            return null;
+        }
+        return valueCodec.read(buffer, offset + NODE_KEY + keySize, valueSize);
+    }
+
+    @Override
+    protected void setValue(int node, V value) {
+        ByteBuffer buffer = segment(node);
+        int offset = offset(node);
+        byte flags = buffer.get(offset + NODE_FLAGS);
+        if(value == null) {
+            buffer.put(offset + NODE_FLAGS, (byte) (flags & ~FLAG_VALUE));
+            return;
+        }
+        encode(value, valueCodec, valueBuffer);
+        buffer.put(offset + NODE_KEY + keySize, valueBuffer, 0, valueSize);
+        buffer.put(offset + NODE_FLAGS, (byte) (flags | FLAG_VALUE));
+    }
+
+    @Override
+    public int getLeftChild(int node) {
+        return segment(node).getInt(offset(node) + NODE_LEFT);
+    }
+
+    @Override
+    protected void setLeftChild(int node, int child) {
+        segment(node).putInt(offset(node) + NODE_LEFT, child);
+    }
+
+    @Override
+    public int getRightChild(int node) {
+        return segment(node).getInt(offset(node) + NODE_RIGHT);
+    }
+
+    @Override
+    protected void setRightChild(int node, int child) {
+        segment(node).putInt(offset(node) + NODE_RIGHT, child);
+    }
+
+    @Override
+    public boolean getIsRed(int node) {
+        return (segment(node).get(offset(node) + NODE_FLAGS) & FLAG_RED) != 0;
+    }
+
+    @Override
+    protected void setIsRed(int node, boolean isRed) {
+        ByteBuffer buffer = segment(node);
+        int offset = offset(node);
+        byte flags = buffer.get(offset + NODE_FLAGS);
+        buffer.put(offset + NODE_FLAGS, (byte) (isRed ? flags | FLAG_RED : flags & ~FLAG_RED));
+    }
+}
@@ -1,13 +1,29 @@
 package redBlackTree;
 
 import binarySearchTree.BSNode;
+import binarySearchTree.BSNodeRenderer;
+import binarySearchTree.BSOrderNode;
 import binarySearchTree.BSTree;
-import utils.calculations.MathUtils;
+import utils.codec.Codec;
 import utils.constants.AppConstants;
 import utils.output.DualOutput;
 import utils.output.IntDisplay;
+import utils.output.TreeRenderer;
 
-import java.util.Stack;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
 
 /**
  * Красно-чёрное дерево (red-black tree, RB tree).
@@ -20,7 +36,7 @@ import java.util.Stack;
  * @param <K> тип ключей, поддерживаемых этим деревом.
  * @param <V> тип соответствующих ключам данных.
  */
-public class RBTree<K extends Comparable<K>, V> extends BSTree<K, V> {
+public class RBTree<K extends Comparable<K>, V> extends BSTree<K, V> implements Iterable<BSNode<K, V>> {
     /**
      * Перечисление цвета.
      */
@@ -53,16 +69,271 @@ public class RBTree<K extends Comparable<K>, V> extends BSTree<K, V> {
         }
     }
 
+    /**
+     * Вывод в поток узлов красно-черного дерева с цветом узлов (общий для всех деревьев).
+     */
+    private static final TreeRenderer<BSNode<?, ?>> RENDERER = new BSNodeRenderer(true);
+
+    /**
+     * Начальная емкость пути предков узла.
+     * Высота красно-черного дерева не превышает 2 * log2(n + 1), поэтому для размера int емкость достаточна.
+     */
+    private static final int ANCESTORS_CAPACITY = 64;
+
+    /**
+     * Путь предков узла от корня дерева (используется при удалении узла вместо ссылок на родителя).
+     */
+    private BSNode<K, V>[] ancestors;
+
+    /**
+     * Признак поддержки порядковых статистик (узлы хранят размеры своих поддеревьев).
+     */
+    private final boolean isOrderStatistic;
+
+    /**
+     * Счетчики операций дерева или null, если счетчики отключены (см. {@link RBTreeStats#IS_ENABLED}).
+     */
+    private final RBTreeStats stats = RBTreeStats.IS_ENABLED ? new RBTreeStats() : null;
+
     /**
      * Интерфейс вывода в поток красно-черного дерева.
      */
     public final IntDisplay out = new IntDisplay(this::display, "<<< Red-Black tree: ", ">>>");
 
+    /**
+     * Интерфейс вывода в поток только существующих узлов красно-черного дерева (значение int - количество выводимых уровней).
+     */
+    public final IntDisplay sparseOut = new IntDisplay(this::displaySparse, "<<< Red-Black tree nodes: ", ">>>");
+
     /**
      * Создает пустое красно-черное дерево.
      */
     public RBTree() {
+        this(null, false);
+    }
+
+    /**
+     * Создает пустое красно-черное дерево с поддержкой порядковых статистик или без нее.
+     * Для порядковых статистик ({@link #rank}, {@link #select}, {@link #countInRange}, {@link #median})
+     * каждый узел хранит размер своего поддерева, который поддерживается при добавлении, удалении и поворотах.
+     * @param isOrderStatistic true - поддерживать порядковые статистики.
+     */
+    public RBTree(boolean isOrderStatistic) {
+        this(null, isOrderStatistic);
+    }
+
+    /**
+     * Создает пустое красно-черное дерево с заданным порядком ключей.
+     * @param comparator порядок ключей или null (естественный порядок).
+     */
+    public RBTree(Comparator<? super K> comparator) {
+        this(comparator, false);
+    }
+
+    /**
+     * Создает пустое красно-черное дерево с заданным порядком ключей, с поддержкой порядковых статистик или без нее.
+     * @param comparator порядок ключей или null (естественный порядок).
+     * @param isOrderStatistic true - поддерживать порядковые статистики.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public RBTree(Comparator<? super K> comparator, boolean isOrderStatistic) {
+        super(comparator);
+        this.isOrderStatistic = isOrderStatistic;
+        ancestors = (BSNode<K, V>[]) new BSNode[ANCESTORS_CAPACITY];
+    }
+
+    /**
+     * Проверяет поддержку порядковых статистик.
+     * @return true - узлы дерева хранят размеры своих поддеревьев.
+     */
+    public boolean isOrderStatistic() {
+        return isOrderStatistic;
+    }
+
+    /**
+     * Получает счетчики операций дерева (сравнения ключей, спуски, повороты, перекрашивания).
+     * @return счетчики операций или null, если счетчики отключены (см. {@link RBTreeStats#IS_ENABLED}).
+     */
+    public RBTreeStats getStats() {
+        return stats;
+    }
+
+    @Override
+    protected BSNode<K, V> createNode(K key, V value) {
+        return isOrderStatistic ? new BSOrderNode<>(key, value) : new BSNode<>(key, value);
+    }
+
+    /**
+     * Создает красно-черное дерево из последовательности элементов, упорядоченной по возрастанию ключей.
+     * Дерево строится за O(n) без поворотов (см. {@link #buildFromSortedArray(Comparable[], Object[])}).
+     * @param entries итератор упорядоченных элементов.
+     * @param size количество элементов, читаемых из итератора.
+     * @return построенное дерево.
+     * @param <K> тип ключей дерева.
+     * @param <V> тип соответствующих ключам данных.
+     * @throws IllegalArgumentException если ключи не упорядочены по возрастанию.
+     * @throws java.util.NoSuchElementException если итератор содержит меньше {@code size} элементов.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <K extends Comparable<K>, V> RBTree<K, V> fromSorted(Iterator<? extends Map.Entry<K, V>> entries, int size) {
+        K[] keys = (K[]) new Comparable[size];
+        V[] values = (V[]) new Object[size];
+        for(int j = 0; j < size; ++j) {
+            Map.Entry<K, V> entry = entries.next();
+            keys[j] = entry.getKey();
+            values[j] = entry.getValue();
+        }
+        return buildTree(keys, values, mergeDuplicates(keys, values, null), new RBTree<>());
+    }
+
+    /**
+     * Создает красно-черное дерево из массива ключей, упорядоченного по возрастанию, за O(n) без поворотов.
+     * Дерево идеально сбалансировано: черными окрашены все узлы, кроме узлов нижнего уровня.
+     * Повторяющиеся ключи объединяются как при {@link #add(Comparable, Object)}: сохраняются данные последнего из них.
+     * Заданные массивы не изменяются.
+     * @param keys упорядоченные по возрастанию ключи.
+     * @param values данные ключей (null - дерево без данных).
+     * @return построенное дерево.
+     * @param <K> тип ключей дерева.
+     * @param <V> тип соответствующих ключам данных.
+     * @throws IllegalArgumentException если ключи не упорядочены по возрастанию или размеры массивов различны.
+     */
+    public static <K extends Comparable<K>, V> RBTree<K, V> buildFromSortedArray(K[] keys, V[] values) {
+        if(values != null && values.length != keys.length) {
+            throw new IllegalArgumentException("Количество данных не совпадает с количеством ключей");
+        }
+        if(countDistinct(keys, keys.length, null) == keys.length) {
+            return buildTree(keys, values, keys.length, new RBTree<>());
+        }
+        K[] mergedKeys = keys.clone();
+        V[] mergedValues = values != null ? values.clone() : null;
+        return buildTree(mergedKeys, mergedValues, mergeDuplicates(mergedKeys, mergedValues, null), new RBTree<>());
+    }
+
+    /**
+     * Подсчитывает количество различных ключей упорядоченного массива с проверкой порядка.
+     * @param keys упорядоченные по возрастанию ключи.
+     * @param size количество проверяемых ключей.
+     * @param comparator порядок ключей или null (естественный порядок).
+     * @return количество различных ключей.
+     * @param <K> тип ключей.
+     * @throws IllegalArgumentException если ключи не упорядочены по возрастанию.
+     */
+    private static <K extends Comparable<K>> int countDistinct(K[] keys, int size, Comparator<? super K> comparator) {
+        int count = 0;
+        for(int j = 0; j < size; ++j) {
+            Objects.requireNonNull(keys[j], "Значение ключа не должно быть null");
+            if(j == 0) {
+                count++;
+                continue;
+            }
+            int cmp = compareKeys(keys[j - 1], keys[j], comparator);
+            if(cmp > 0) {
+                throw new IllegalArgumentException("Ключи не упорядочены по возрастанию: " + keys[j - 1] + ", " + keys[j]);
+            }
+            if(cmp < 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Сравнивает ключи в заданном порядке.
+     * @param key первый ключ.
+     * @param other второй ключ.
+     * @param comparator порядок ключей или null (естественный порядок).
+     * @return значение сравнения ключей.
+     * @param <K> тип ключей.
+     */
+    private static <K extends Comparable<K>> int compareKeys(K key, K other, Comparator<? super K> comparator) {
+        return comparator == null ? key.compareTo(other) : comparator.compare(key, other);
+    }
+
+    /**
+     * Объединяет повторяющиеся ключи упорядоченного массива на месте (сохраняются данные последнего из них).
+     * @param keys упорядоченные по возрастанию ключи.
+     * @param values данные ключей или null.
+     * @param comparator порядок ключей или null (естественный порядок).
+     * @return количество различных ключей в начале массивов.
+     * @param <K> тип ключей.
+     * @param <V> тип данных.
+     * @throws IllegalArgumentException если ключи не упорядочены по возрастанию.
+     */
+    private static <K extends Comparable<K>, V> int mergeDuplicates(K[] keys, V[] values, Comparator<? super K> comparator) {
+        if(countDistinct(keys, keys.length, comparator) == keys.length) {
+            return keys.length;
+        }
+        int count = 0;
+        for(int j = 0; j < keys.length; ++j) {
+            if(count > 0 && compareKeys(keys[count - 1], keys[j], comparator) == 0) {
+                count--;
+            }
+            keys[count] = keys[j];
+            if(values != null) {
+                values[count] = values[j];
+            }
+            count++;
+        }
+        Arrays.fill(keys, count, keys.length, null);
+        if(values != null) {
+            Arrays.fill(values, count, values.length, null);
+        }
+        return count;
+    }
 
+    /**
+     * Создает дерево из первых {@code size} элементов упорядоченных массивов без повторяющихся ключей.
+     * @param keys упорядоченные по возрастанию различные ключи.
+     * @param values данные ключей или null.
+     * @param size количество элементов.
+     * @param kind дерево, определяющее порядок ключей, поддержку порядковых статистик и вид узлов построенного дерева.
+     * @return построенное дерево.
+     * @param <K> тип ключей дерева.
+     * @param <V> тип соответствующих ключам данных.
+     */
+    private static <K extends Comparable<K>, V> RBTree<K, V> buildTree(K[] keys, V[] values, int size, RBTree<K, V> kind) {
+        RBTree<K, V> tree = new RBTree<K, V>(kind.comparator(), kind.isOrderStatistic);
+        if(size == 0) {
+            return tree;
+        }
+        // Красными окрашиваются узлы нижнего (возможно, неполного) уровня
+        int redLevel = 31 - Integer.numberOfLeadingZeros(size);
+        BSNode<K, V> root = buildSubtree(keys, values, 0, size - 1, 0, redLevel, kind);
+        root.setIsRed(false);
+        tree.setRoot(root);
+        tree.setSize(size);
+        return tree;
+    }
+
+    /**
+     * Рекурсивно строит сбалансированное поддерево из диапазона упорядоченных массивов.
+     * Средний элемент диапазона становится верхним узлом поддерева.
+     * @param keys упорядоченные ключи.
+     * @param values данные ключей или null.
+     * @param low нижняя граница диапазона (включительно).
+     * @param high верхняя граница диапазона (включительно).
+     * @param level уровень верхнего узла поддерева (0 - корневой узел).
+     * @param redLevel уровень красных узлов.
+     * @param kind дерево, создающее узлы (см. {@link #createNode}).
+     * @return верхний узел поддерева или null для пустого диапазона.
+     * @param <K> тип ключей.
+     * @param <V> тип данных.
+     */
+    private static <K extends Comparable<K>, V> BSNode<K, V> buildSubtree(K[] keys, V[] values, int low, int high, int level, int redLevel,
+                                                                        RBTree<K, V> kind) {
+        if(low > high) {
+            return null;
+        }
+        int middle = (low + high) >>> 1;
+        BSNode<K, V> node = kind.createNode(keys[middle], values != null ? values[middle] : null);
+        if(kind.isOrderStatistic) {
+            ((BSOrderNode<K, V>) node).setSubtreeSize(high - low + 1);
+        }
+        node.setIsRed(level == redLevel);
+        node.setLeftChild(buildSubtree(keys, values, low, middle - 1, level + 1, redLevel, kind));
+        node.setRightChild(buildSubtree(keys, values, middle + 1, high, level + 1, redLevel, kind));
+        return node;
     }
 
     /**
@@ -95,6 +366,7 @@ public class RBTree<K extends Comparable<K>, V> extends BSTree<K, V> {
      * Рекурсивно выводит информацию с пометкой "red:" узлов дерева, входящих в "красные линии".
      * Наличие "красных линий" свидетельствует о некорректной структуре дерева.
      * При правильной структуре дерева этот метод не должен выводить информацию с пометкой "red:".
+     * Для больших деревьев предназначена нерекурсивная проверка всех свойств дерева {@link #validate(boolean)}.
      * @param node узел, с которого начинается рекурсивный поиск "красных линий".
      * @param nRed значение, в котором аккумулируется количество непрерывно найденных красных соседних узлов.
      */
@@ -114,136 +386,198 @@ public class RBTree<K extends Comparable<K>, V> extends BSTree<K, V> {
         alarmRedLines(node.getRightChild(), nRed);
     }
 
+    /**
+     * Проверяет свойства красно-черного дерева последовательно (см. {@link #validate(boolean)}).
+     * @return отчет о проверке.
+     */
+    public ValidationReport<K> validate() {
+        return validate(false);
+    }
+
+    /**
+     * Проверяет свойства красно-черного дерева за один обход узлов с явным стеком: порядок ключей,
+     * отсутствие "красных линий", равенство черных высот всех путей, черный корень и размер дерева.
+     * Дерево не изменяется; параллельное изменение дерева во время проверки не допускается.
+     * @param isParallel параллельная проверка поддеревьев верхних уровней в пуле ForkJoinPool (для большого дерева).
+     * @return отчет о проверке со структурированным списком нарушений.
+     */
+    public ValidationReport<K> validate(boolean isParallel) {
+        return new RBTreeValidator<K, V>(comparator(), size()).validate(getRoot(), isParallel);
+    }
+
     /**
      * Добавляет узел в дерево.
+     * Дерево балансируется за один спуск от корня (сверху вниз): на спуске переключаются цвета треугольников
+     * и поворачиваются "красные линии", а окно предков текущего узла (parent, grand, grand2, grand3)
+     * сохраняется и исправляется после поворотов, поэтому повторный спуск от корня не требуется.
+     * Уникальность элементов по ключу {@code K} поддерживается: данные существующего узла переписываются.
      * @param key ключ узла дерева.
      * @param value данные узла дерева.
      * @return добавленный узел.
      */
     @Override
-    public BSNode<K, V> add(K key, V value ) {
-        BSNode<K, V> result;
-        BSNode<K, V> current;
-        BSNode<K, V> parent;
-        BSNode<K, V> grand;
-        BSNode<K, V> grand2;
-        BSNode<K, V> grand3;
-
-        int nRed;
-        current = getRoot();
-        parent = null;
-        grand = null;
-        grand2 = null;
-        nRed = 0;
-        Boolean isLeft = null;
-        while (current != null && current.compareToOther(key) != 0) {
-            grand3 = grand2;
-            grand2 = grand;
-            grand = parent;
-            parent = current;
-            setColorsTriangle(current);
-            if (current.getIsRed()) {
-                nRed++;
-            } else {
-                nRed = 0;
+    public BSNode<K, V> add(K key, V value) {
+        return insert(key, value, true);
+    }
+
+    /**
+     * Добавляет узел в дерево, если узла с заданным ключом нет (см. {@link #add(Comparable, Object)}).
+     * Данные существующего узла не изменяются; добавление узла определяется по изменению размера дерева.
+     * @param key ключ узла дерева.
+     * @param value данные узла дерева.
+     * @return добавленный узел или существующий узел с заданным ключом.
+     */
+    public BSNode<K, V> addIfAbsent(K key, V value) {
+        return insert(key, value, false);
+    }
+
+    /**
+     * Добавляет узел в дерево за один спуск от корня.
+     * @param key ключ узла дерева.
+     * @param value данные узла дерева.
+     * @param isOverwrite переписать данные существующего узла с заданным ключом.
+     * @return добавленный или существующий узел.
+     */
+    private BSNode<K, V> insert(K key, V value, boolean isOverwrite) {
+        BSNode<K, V> current = getRoot();
+        if(current == null) {
+            // Добавление корневого узла
+            BSNode<K, V> result = super.add(key, value);
+            result.setIsRed(false);
+            if(RBTreeStats.IS_ENABLED) {
+                stats.addDescent(0);
             }
-            if (nRed == 2) {
-                // Обработка ДО добавления узла
-                checkColorsBeforeInsert(parent, grand, grand2, grand3);
+            return result;
+        }
+        BSNode<K, V> parent = null;
+        BSNode<K, V> grand = null;
+        BSNode<K, V> grand2 = null;
+        BSNode<K, V> grand3 = null;
+        long prefix = prefixOf(key);
+        // Путь от корня до текущего узла (только для порядковых статистик, см. passSubtreeSize)
+        int depth = 0;
+        int cmp;
+        int comparisons = 0;
+        while(true) {
+            cmp = compareToNode(key, prefix, current);
+            comparisons++;
+            if(cmp == 0) {
+                // Обнаружен узел с заданным ключом: переписать данные узла
+                if(isOverwrite) {
+                    decMaxValue(current);
+                    current.setValue(value);
+                    incMaxValue(current);
+                }
+                if(isOrderStatistic) {
+                    // Узел не добавлен: размеры поддеревьев пути, увеличенные на спуске, уменьшаются обратно
+                    revertSubtreeSizes(depth);
+                }
+                if(RBTreeStats.IS_ENABLED) {
+                    stats.addDescent(comparisons);
+                }
+                return current;
             }
-            if (current.compareToOther(key) > 0) {
-                isLeft = true;
-                current = current.getLeftChild();
-            } else {
-                isLeft = false;
-                current = current.getRightChild();
+            // Обработка ДО добавления узла
+            BSNode<K, V> top = checkColorsBeforeInsert(current, parent, grand, grand2);
+            if(top == current) {
+                // Двойной поворот: текущий узел занял место grand
+                parent = grand2;
+                grand = grand3;
+                grand2 = null;
             }
-        }
-
-        if(parent != null) {
-            result = new BSNode<>(key, value);
-            incSize();
-            if(isLeft) {
-                parent.setLeftChild(result);
+            else if(top != null) {
+                // Одиночный поворот: родитель текущего узла занял место grand
+                grand = grand2;
+                grand2 = grand3;
             }
-            else {
-                parent.setRightChild(result);
+            grand3 = null;
+            if(isOrderStatistic) {
+                depth = passSubtreeSize(current, top, depth);
             }
+
+            BSNode<K, V> next = cmp > 0 ? current.getLeftChild() : current.getRightChild();
+            if(next == null) {
+                break;
+            }
+            grand3 = grand2;
+            grand2 = grand;
+            grand = parent;
+            parent = current;
+            current = next;
         }
-        else if(current == null) {
-            // Добавление узла
-            result = super.add(key, value);
+
+        // Добавление узла
+        BSNode<K, V> result = createNode(key, value);
+        if(cmp > 0) {
+            current.setLeftChild(result);
         }
         else {
-            result = current;
+            current.setRightChild(result);
+        }
+        incSize();
+        incMaxValue(result);
+        if(RBTreeStats.IS_ENABLED) {
+            stats.addDescent(comparisons);
         }
-        // Обработка ПОСЛЕ добавления узла
-        checkColorsAfterInsert(result, parent, grand, grand2);
 
+        // Обработка ПОСЛЕ добавления узла (повороты пересчитывают размеры поддеревьев своих узлов)
+        checkColorsAfterInsert(result, current, parent, grand);
+        if(isOrderStatistic) {
+            Arrays.fill(ancestors, 0, depth, null);
+        }
         return result;
     }
 
+    /**
+     * Вычисляет префикс ключа для сравнений с узлами на спусках поиска, добавления и удаления узла ({@link #compareToNode}).
+     * Префикс вычисляется один раз за спуск; по умолчанию префикс не используется.
+     * @param key значение ключа.
+     * @return префикс ключа.
+     */
+    protected long prefixOf(K key) {
+        return 0;
+    }
+
+    /**
+     * Сравнивает ключ узла с заданным ключом на спусках поиска, добавления и удаления узла
+     * (например, сначала по префиксам ключей, см. {@link StringRBTree}).
+     * @param key значение ключа.
+     * @param prefix префикс ключа ({@link #prefixOf}).
+     * @param node узел дерева.
+     * @return результат сравнения ключа узла с заданным ключом (см. {@link BSNode#compareToOther(Comparable, Comparator)}).
+     */
+    protected int compareToNode(K key, long prefix, BSNode<K, V> node) {
+        return node.compareToOther(key, comparator());
+    }
+
     /**
      * Проверяет и при необходимости вносит изменения в окраску узлов дерева ДО добавления узла.
+     * Переключает цвета треугольника с верхней вершиной в текущем узле и поворачивает
+     * образовавшуюся "красную линию" (текущий узел + родитель).
+     * @param node текущий узел спуска.
      * @param parent узел - ближайший родственник узла.
      * @param grand узел - родственник предыдущего родственника.
      * @param grand2 узел - родственник предыдущего родственника.
-     * @param grand3 узел - родственник предыдущего родственника.
+     * @return новый верхний узел повернутого поддерева или null, если поворот не выполнялся.
      */
-    public void checkColorsBeforeInsert(BSNode<K, V> parent, BSNode<K, V> grand, BSNode<K, V> grand2, BSNode<K, V> grand3) {
-        turnRedLine(parent, grand, grand2, grand3);
+    public BSNode<K, V> checkColorsBeforeInsert(BSNode<K, V> node, BSNode<K, V> parent, BSNode<K, V> grand, BSNode<K, V> grand2) {
+        setColorsTriangle(node);
+        return turnRedLine(node, parent, grand, grand2);
     }
 
     /**
      * Проверяет и при необходимости вносит изменения в окраску узлов дерева ПОСЛЕ добавления узла.
+     * @param node добавленный узел.
      * @param parent узел - ближайший родственник узла.
      * @param grand узел - родственник предыдущего родственника.
      * @param grand2 узел - родственник предыдущего родственника.
-     * @param grand3 узел - родственник предыдущего родственника.
      */
-    public void checkColorsAfterInsert(BSNode<K, V> parent, BSNode<K, V> grand, BSNode<K, V> grand2, BSNode<K, V> grand3) {
-        turnRedLine(parent, grand, grand2, grand3);
-        setColorsTriangle(grand);
-        correctOppositeSide(grand);
+    public void checkColorsAfterInsert(BSNode<K, V> node, BSNode<K, V> parent, BSNode<K, V> grand, BSNode<K, V> grand2) {
+        turnRedLine(node, parent, grand, grand2);
+        // Корневой узел всегда черный
+        getRoot().setIsRed(false);
     }
 
-    /**
-     * Проверить и при необходимости внести изменения в окраску узлов на стороне дерева
-     * противоположной стороне поворота "красной линии" относительно корневой вершины.
-     * @param node узел, который может образовать "красную линию".
-     */
-    public void correctOppositeSide(BSNode<K, V> node) {
-        if(node == null) {
-            return;
-
-        }
-        K key = node.getKey();
-        BSNode<K, V> current;
-        BSNode<K, V> parent;
-        BSNode<K, V> grand;
-        BSNode<K, V> grand2;
-        BSNode<K, V> grand3;
-
-        current = getRoot();
-        parent = null;
-        grand = null;
-        grand2 = null;
-        while (current != null) {
-            grand3 = grand2;
-            grand2 = grand;
-            grand = parent;
-            parent = current;
-            if(current.getKey() == key) {
-                turnRedLine(current, grand, grand2, grand3);
-                break;
-            }
-            if (current.compareToOther(key) > 0) {
-                current = current.getLeftChild();
-            } else {
-                current = current.getRightChild();
-            }
-        }
-    }
     /**
      * Переключает цвета узлов в треугольнике для исправления "красных линий".
      * Треугольник представлен верхним узлом (верхней вершиной) и двумя его потомками (нижними вершинами).
@@ -273,6 +607,9 @@ public class RBTree<K extends Comparable<K>, V> extends BSTree<K, V> {
         // Потомки всегда черные (случай 3 wiki)
         childLeft.setIsRed(false);
         childRight.setIsRed(false);
+        if(RBTreeStats.IS_ENABLED) {
+            stats.addColorFlip();
+        }
     }
 
     /**
@@ -280,246 +617,1169 @@ public class RBTree<K extends Comparable<K>, V> extends BSTree<K, V> {
      * @param node узел, который, возможно, входит в "красную линию".
      * @param parent узел - ближайший родственник узла node, который, возможно, также входит в "красную линию".
      * @param grand узел - родственник предыдущего родственника.
-     * @param grand2 узел - родственник предыдущего родственника.
+     * @param grand2 узел - родственник предыдущего родственника (null, если grand - корневой узел).
+     * @return новый верхний узел повернутого поддерева (parent или node) или null, если "красной линии" нет.
      */
-    public void turnRedLine(BSNode<K, V> node, BSNode<K, V> parent, BSNode<K, V> grand, BSNode<K, V> grand2) {
+    public BSNode<K, V> turnRedLine(BSNode<K, V> node, BSNode<K, V> parent, BSNode<K, V> grand, BSNode<K, V> grand2) {
         if(grand == null || node == null) {
-            return;
+            return null;
         }
 
         // Красный узел принадлежит красному родителю
-        if(node.getIsRed() && parent.getIsRed()) {
-            // Родитель левый
-            if(parent == grand.getLeftChild()) {
+        if(!node.getIsRed() || !parent.getIsRed()) {
+            return null;
+        }
+        BSNode<K, V> top;
 
-                // Правый поворот левой "красной линии' (N + P) с внешним внуком (N)
+        // Родитель левый
+        if(parent == grand.getLeftChild()) {
 
-                // ---- G
-                // -- P
-                // N
+            // Правый поворот левой "красной линии" (N + P) с внешним внуком (N)
 
-                // Связь красных узлов обнаружена как левая
-                if(node == parent.getLeftChild()){
+            // ---- G
+            // -- P
+            // N
 
-                    // <<< Поворот вправо "красной линии" (N + P) (случай 5 wiki)
-                    grand.setLeftChild(parent.getRightChild());
-                    if(grand == getRoot()) {
-                        setRoot(parent);
-                    }
-                    if(grand2 != null) {
-                        if (grand == grand2.getRightChild()) {
-                            grand2.setRightChild(parent);
-                        } else {
-                            grand2.setLeftChild(parent);
-                        }
-                    }
-                    parent.setRightChild(grand);
-                    grand.setIsRed(true);
-                    parent.setIsRed(false);
-                    // >>>
+            // Связь красных узлов обнаружена как левая
+            if(node == parent.getLeftChild()) {
+                // Поворот вправо "красной линии" (N + P) (случай 5 wiki)
+                top = rotate(grand, grand2, false);
+            }
+
+            // Правый поворот левой "красной линии" (N + P) с внутренним внуком (N)
+
+            //  ------ G
+            //  -- P
+            //  ---- N
+
+            // Связь красных узлов обнаружена как правая
+            else {
+                // Поворот влево "красной линии" (N + P) (случай 4 wiki)
+                rotate(parent, grand, true);
+                // Поворот вправо "красной линии" (P + N) (случай 5 wiki)
+                top = rotate(grand, grand2, false);
+                if(RBTreeStats.IS_ENABLED) {
+                    stats.addDoubleRotation();
                 }
+            }
+        }
 
-                // Правый поворот левой "красной линии" (N + P) с внутренним внуком (N)
+        // Родитель правый
+        else {
 
-                //  ------ G
-                //  -- P
-                //  ---- N
+            // Левый поворот правой "красной линии" (N + P) с внешним внуком (N)
 
-                // Связь красных узлов обнаружена как правая
-                else {
+            // G
+            // ---- P
+            // ------ N
 
-                    // <<< Поворот влево "красной линии" (N + P) (случай 4 wiki)
-                    grand.setLeftChild(node);
-                    parent.setRightChild(node.getLeftChild());
-                    node.setLeftChild(parent);
-                    // >>>
+            // Связь красных узлов обнаружена как правая
+            if(node == parent.getRightChild()) {
+                // Поворот влево "красной линии" (P + N) (случай 5 wiki)
+                top = rotate(grand, grand2, true);
+            }
 
-                    // <<< Поворот вправо "красной линии" (P + N) (случай 5 wiki)
-                    grand.setLeftChild(node.getRightChild());
-                    if(grand == getRoot()) {
-                        setRoot(node);
-                    }
-                    if(grand2 != null) {
-                        if (grand == grand2.getRightChild()) {
-                            grand2.setRightChild(node);
-                        } else {
-                            grand2.setLeftChild(node);
-                        }
-                    }
-                    node.setRightChild(grand);
-                    grand.setIsRed(true);
-                    node.setIsRed(false);
-                    // >>>
+            // Левый поворот правой "красной линии" (N + P) с внутренним внуком (N)
+
+            // G
+            // ---- P
+            // -- N
+
+            // Связь красных узлов обнаружена как левая
+            else {
+                // Поворот вправо "красной линии" (N + P) (случай 4 wiki)
+                rotate(parent, grand, false);
+                // Поворот влево "красной линии" (P + N) (случай 5 wiki)
+                top = rotate(grand, grand2, true);
+                if(RBTreeStats.IS_ENABLED) {
+                    stats.addDoubleRotation();
                 }
             }
+        }
+        grand.setIsRed(true);
+        top.setIsRed(false);
+        return top;
+    }
 
-            // Родитель правый
+    /**
+     * Находит узел дерева по заданному ключу (одно сравнение {@link #compareToNode} на уровень).
+     * @param key значение ключа.
+     * @return найденный узел или null.
+     */
+    @Override
+    public BSNode<K, V> findNode(K key) {
+        long prefix = prefixOf(key);
+        BSNode<K, V> current = getRoot();
+        int comparisons = 0;
+        while(current != null) {
+            int cmp = compareToNode(key, prefix, current);
+            comparisons++;
+            if(cmp == 0) {
+                break;
+            }
+            current = cmp > 0 ? current.getLeftChild() : current.getRightChild();
+        }
+        if(RBTreeStats.IS_ENABLED) {
+            stats.addLookup(comparisons);
+        }
+        return current;
+    }
+
+    /**
+     * Удаляет узел дерева по заданному ключу с восстановлением свойств красно-черного дерева.
+     * Путь предков удаляемого узла запоминается при спуске, поэтому балансировка выполняется
+     * без повторного поиска за O(log n).
+     * @param key значение ключа.
+     * @return удаленный узел или null, если узел с заданным ключом не найден.
+     */
+    @Override
+    public BSNode<K, V> removeNode(K key) {
+        int depth = 0;
+        BSNode<K, V> node = getRoot();
+        long prefix = prefixOf(key);
+        int cmp;
+        int comparisons = 0;
+        while(node != null && (cmp = compareToNode(key, prefix, node)) != 0) {
+            comparisons++;
+            depth = pushAncestor(node, depth);
+            if(cmp > 0) {
+                node = node.getLeftChild();
+            }
             else {
+                node = node.getRightChild();
+            }
+        }
+        if(RBTreeStats.IS_ENABLED) {
+            stats.addDescent(node != null ? comparisons + 1 : comparisons);
+        }
+        if(node == null) {
+            return null;
+        }
 
-                // Левый поворот правой "красной линии" (N + P) с внешним внуком (N)
+        BSNode<K, V> parent = depth > 0 ? ancestors[depth - 1] : null;
+        // Узел, занявший место физически удаленного узла, и сторона, на которой он находится
+        BSNode<K, V> child;
+        boolean isLeft;
+        boolean isRemovedRed;
+        if(node.getLeftChild() != null && node.getRightChild() != null) {
+            // Удаляемый узел замещается преемником, который получает его цвет
+            int nodeDepth = depth;
+            depth = pushAncestor(node, depth);
+            BSNode<K, V> successor = node.getRightChild();
+            while(successor.getLeftChild() != null) {
+                depth = pushAncestor(successor, depth);
+                successor = successor.getLeftChild();
+            }
+            child = successor.getRightChild();
+            isRemovedRed = successor.getIsRed();
+            if(successor == node.getRightChild()) {
+                isLeft = false;
+            }
+            else {
+                isLeft = true;
+                ancestors[depth - 1].setLeftChild(child);
+                successor.setRightChild(node.getRightChild());
+            }
+            successor.setLeftChild(node.getLeftChild());
+            successor.setIsRed(node.getIsRed());
+            if(isOrderStatistic) {
+                ((BSOrderNode<K, V>) successor).setSubtreeSize(BSOrderNode.sizeOf(node));
+            }
+            replaceChild(parent, node, successor);
+            ancestors[nodeDepth] = successor;
+        }
+        else {
+            child = node.getLeftChild() != null ? node.getLeftChild() : node.getRightChild();
+            isLeft = parent != null && parent.getLeftChild() == node;
+            isRemovedRed = node.getIsRed();
+            replaceChild(parent, node, child);
+        }
+        node.setLeftChild(null);
+        node.setRightChild(null);
+        decSize();
+        decMaxValue(node);
+        if(isOrderStatistic) {
+            // Поддеревья всех предков уменьшились на один узел (до поворотов балансировки)
+            for(int j = 0; j < depth; ++j) {
+                BSOrderNode<K, V> ancestor = (BSOrderNode<K, V>) ancestors[j];
+                ancestor.setSubtreeSize(ancestor.getSubtreeSize() - 1);
+            }
+        }
 
-                // G
-                // ---- P
-                // ------ N
+        // Удаление красного узла не меняет черную высоту
+        if(!isRemovedRed) {
+            checkColorsAfterRemove(child, isLeft, depth);
+        }
+        Arrays.fill(ancestors, 0, depth, null);
+        return node;
+    }
 
-                // Связь красных узлов обнаружена как правая
-                if(node == parent.getRightChild()){
+    /**
+     * Восстанавливает черную высоту дерева ПОСЛЕ удаления черного узла.
+     * @param node узел, занявший место удаленного узла (может быть null), на пути которого не хватает черного узла.
+     * @param isLeft признак расположения узла слева от родителя.
+     * @param depth количество предков узла в пути предков (последний из них - родитель узла).
+     */
+    private void checkColorsAfterRemove(BSNode<K, V> node, boolean isLeft, int depth) {
+        while(depth > 0 && !isRed(node)) {
+            BSNode<K, V> parent = ancestors[depth - 1];
+            BSNode<K, V> grand = depth > 1 ? ancestors[depth - 2] : null;
+            BSNode<K, V> sibling = isLeft ? parent.getRightChild() : parent.getLeftChild();
 
-                    // <<< Поворот влево "красной линии" (P + N) (случай 5 wiki)
-                    grand.setRightChild(parent.getLeftChild());
-                    if(grand == getRoot()) {
-                        setRoot(parent);
-                    }
-                    if(grand2 != null) {
-                        if (grand == grand2.getRightChild()) {
-                            grand2.setRightChild(parent);
-                        } else {
-                            grand2.setLeftChild(parent);
-                        }
-                    }
-                    parent.setLeftChild(grand);
-                    grand.setIsRed(true);
+            // Красный брат поворачивается к вершине, новый брат - черный (случай 2 wiki)
+            if(isRed(sibling)) {
+                sibling.setIsRed(false);
+                parent.setIsRed(true);
+                rotate(parent, grand, isLeft);
+                ancestors[depth - 1] = sibling;
+                depth = pushAncestor(parent, depth);
+                grand = sibling;
+                sibling = isLeft ? parent.getRightChild() : parent.getLeftChild();
+            }
+            if(sibling == null) {
+                // Недостижимо для корректного дерева: перейти к родителю
+                node = parent;
+                isLeft = grand != null && grand.getLeftChild() == parent;
+                depth--;
+                continue;
+            }
+
+            BSNode<K, V> near = isLeft ? sibling.getLeftChild() : sibling.getRightChild();
+            BSNode<K, V> far = isLeft ? sibling.getRightChild() : sibling.getLeftChild();
+            if(!isRed(near) && !isRed(far)) {
+                sibling.setIsRed(true);
+                if(RBTreeStats.IS_ENABLED) {
+                    stats.addRecolor();
+                }
+                // Красный родитель перекрашивается в черный (случай 4 wiki)
+                if(parent.getIsRed()) {
                     parent.setIsRed(false);
-                    // >>>
+                    return;
                 }
-                // Связь красных узлов обнаружена как левая
-                else {
+                // Черный родитель: нехватка черного узла переходит на уровень выше (случай 3 wiki)
+                node = parent;
+                isLeft = grand != null && grand.getLeftChild() == parent;
+                depth--;
+                continue;
+            }
 
-                    // Левый поворот правой "красной линии" (N + P) с внутренним внуком (N)
+            // Ближний красный племянник поворачивается на место брата (случай 5 wiki)
+            if(!isRed(far)) {
+                near.setIsRed(false);
+                sibling.setIsRed(true);
+                rotate(sibling, parent, !isLeft);
+                far = sibling;
+                sibling = near;
+            }
 
-                    // G
-                    // ---- P
-                    // -- N
+            // Брат поворачивается к вершине, дальний племянник - черный (случай 6 wiki)
+            sibling.setIsRed(parent.getIsRed());
+            parent.setIsRed(false);
+            far.setIsRed(false);
+            rotate(parent, grand, isLeft);
+            return;
+        }
+        if(node != null) {
+            node.setIsRed(false);
+        }
+    }
+
+    /**
+     * Поворачивает поддерево вокруг заданного узла.
+     * @param node верхний узел поворачиваемого поддерева.
+     * @param parent родитель верхнего узла или null для корневого узла.
+     * @param isLeft признак поворота влево (иначе - вправо).
+     * @return новый верхний узел поддерева.
+     */
+    private BSNode<K, V> rotate(BSNode<K, V> node, BSNode<K, V> parent, boolean isLeft) {
+        BSNode<K, V> top;
+        if(isLeft) {
+            top = node.getRightChild();
+            node.setRightChild(top.getLeftChild());
+            top.setLeftChild(node);
+        }
+        else {
+            top = node.getLeftChild();
+            node.setLeftChild(top.getRightChild());
+            top.setRightChild(node);
+        }
+        replaceChild(parent, node, top);
+        if(RBTreeStats.IS_ENABLED) {
+            stats.addRotation(isLeft);
+        }
+        if(isOrderStatistic) {
+            // Новый верхний узел получает размер всего поддерева, прежний верхний - пересчитывается
+            int subtreeSize = BSOrderNode.sizeOf(node);
+            ((BSOrderNode<K, V>) node).updateSubtreeSize();
+            ((BSOrderNode<K, V>) top).setSubtreeSize(subtreeSize);
+        }
+        return top;
+    }
 
-                    // <<< Поворот вправо "красной линии" (N + P) (случай 4 wiki)
-                    grand.setRightChild(node);
-                    parent.setLeftChild(node.getRightChild());
-                    node.setRightChild(parent);
-                    // >>>
+    /**
+     * Учитывает в размерах поддеревьев добавляемый узел при проходе узла спуска добавления.
+     * Размер поддерева увеличивается на один узел у каждого узла пути до добавления узла, поэтому повторный спуск
+     * для пересчета размеров не требуется. Повороты спуска ({@link #rotate}) передают новому верхнему узлу
+     * увеличенный размер прежнего верхнего узла, а опустившемуся узлу пересчитывают точный размер по потомкам.
+     * Путь от корня (массив {@code ancestors}) исправляется после поворотов, чтобы при перезаписи данных
+     * существующего узла уменьшить размеры поддеревьев именно тех узлов, которые их содержат.
+     * @param current пройденный узел спуска.
+     * @param top новый верхний узел поворота спуска в текущем узле или null, если поворота не было.
+     * @param depth количество узлов пути до текущего узла (последний из них - родитель узла).
+     * @return количество узлов пути, включая текущий узел.
+     */
+    private int passSubtreeSize(BSNode<K, V> current, BSNode<K, V> top, int depth) {
+        if(top == current) {
+            // Двойной поворот: родитель и grand опустились ниже текущего узла, текущий узел получил
+            // увеличенный размер поддерева grand
+            depth -= 2;
+        }
+        else {
+            if(top != null) {
+                // Одиночный поворот: grand опустился из пути, родитель занял его место
+                ancestors[depth - 2] = ancestors[depth - 1];
+                depth--;
+            }
+            BSOrderNode<K, V> node = (BSOrderNode<K, V>) current;
+            node.setSubtreeSize(node.getSubtreeSize() + 1);
+        }
+        return pushAncestor(current, depth);
+    }
 
-                    // <<< Поворот влево "красной линии" (P + N) (случай 5 wiki)
-                    grand.setRightChild(node.getLeftChild());
-                    if (grand == getRoot()) {
-                        setRoot(node);
-                    }
-                    if(grand2 != null) {
-                        if (grand == grand2.getRightChild()) {
-                            grand2.setRightChild(node);
-                        } else {
-                            grand2.setLeftChild(node);
-                        }
-                    }
-                    node.setLeftChild(grand);
-                    grand.setIsRed(true);
-                    node.setIsRed(false);
-                    // >>>
+    /**
+     * Уменьшает на один узел размеры поддеревьев узлов пути от корня, увеличенные на спуске добавления
+     * (см. {@link #passSubtreeSize}), и очищает путь.
+     * @param depth количество узлов пути.
+     */
+    private void revertSubtreeSizes(int depth) {
+        for(int j = 0; j < depth; ++j) {
+            BSOrderNode<K, V> ancestor = (BSOrderNode<K, V>) ancestors[j];
+            ancestor.setSubtreeSize(ancestor.getSubtreeSize() - 1);
+        }
+        Arrays.fill(ancestors, 0, depth, null);
+    }
+
+    /**
+     * Добавляет узел в путь предков, при необходимости увеличивая его емкость.
+     * @param node узел-предок.
+     * @param depth текущее количество предков в пути.
+     * @return новое количество предков в пути.
+     */
+    private int pushAncestor(BSNode<K, V> node, int depth) {
+        if(depth == ancestors.length) {
+            ancestors = Arrays.copyOf(ancestors, depth * 2);
+        }
+        ancestors[depth] = node;
+        return depth + 1;
+    }
+
+    /**
+     * Проверяет, что узел красный (отсутствующий узел считается черным).
+     * @param node узел дерева или null.
+     * @return true - узел красный.
+     */
+    private static boolean isRed(BSNode<?, ?> node) {
+        return node != null && node.getIsRed();
+    }
+
+    /**
+     * Получает черную высоту дерева: количество черных узлов на пути от корневого узла до любого листа.
+     * Все пути содержат одинаковое количество черных узлов, поэтому считается только левая ветвь - O(log n)
+     * без сравнения ключей. Количество уровней дерева не меньше черной высоты и не больше удвоенной черной высоты.
+     * @return черная высота дерева (0 - пустое дерево).
+     */
+    public int getBlackHeight() {
+        int blackHeight = 0;
+        for(BSNode<K, V> node = getRoot(); node != null; node = node.getLeftChild()) {
+            if(!node.getIsRed()) {
+                blackHeight++;
+            }
+        }
+        return blackHeight;
+    }
+
+    /**
+     * Получает распределение глубин узлов и длины путей поиска последовательным обходом (см. {@link #getDepthHistogram(boolean)}).
+     * @return гистограмма глубин узлов.
+     */
+    public DepthHistogram getDepthHistogram() {
+        return getDepthHistogram(false);
+    }
+
+    /**
+     * Получает распределение глубин узлов (гистограмму), среднюю и максимальную длину путей поиска и черную высоту
+     * за один обход узлов с явным стеком. Дерево не изменяется; параллельное изменение дерева не допускается.
+     * @param isParallel параллельный обход поддеревьев верхних уровней в пуле ForkJoinPool (для большого дерева).
+     * @return гистограмма глубин узлов (экспорт в CSV и JSON).
+     */
+    public DepthHistogram getDepthHistogram(boolean isParallel) {
+        return DepthHistogram.of(this, isParallel);
+    }
+
+
+    // ORDER STATISTICS
+
+    /**
+     * Получает размер поддерева с верхним узлом в заданном узле.
+     * Для корневого узла размер совпадает с размером дерева {@link #size()}.
+     * @param node узел дерева или null.
+     * @return количество узлов поддерева.
+     * @throws UnsupportedOperationException если дерево не поддерживает порядковые статистики.
+     */
+    public int getSubtreeSize(BSNode<K, V> node) {
+        checkOrderStatistic();
+        return BSOrderNode.sizeOf(node);
+    }
+
+    /**
+     * Получает порядковый номер ключа: количество ключей дерева, меньших заданного ключа, за O(log n).
+     * @param key значение ключа (может отсутствовать в дереве).
+     * @return количество меньших ключей.
+     * @throws UnsupportedOperationException если дерево не поддерживает порядковые статистики.
+     */
+    public int rank(K key) {
+        checkOrderStatistic();
+        return countLess(Objects.requireNonNull(key), false);
+    }
+
+    /**
+     * Находит узел по порядковому номеру ключа (0 - минимальный ключ) за O(log n).
+     * @param index порядковый номер ключа.
+     * @return найденный узел.
+     * @throws UnsupportedOperationException если дерево не поддерживает порядковые статистики.
+     * @throws IndexOutOfBoundsException если порядковый номер вне диапазона [0, size).
+     */
+    public BSNode<K, V> select(int index) {
+        checkOrderStatistic();
+        Objects.checkIndex(index, size());
+        BSNode<K, V> current = getRoot();
+        while(true) {
+            int leftSize = BSOrderNode.sizeOf(current.getLeftChild());
+            if(index < leftSize) {
+                current = current.getLeftChild();
+            }
+            else if(index == leftSize) {
+                return current;
+            }
+            else {
+                index -= leftSize + 1;
+                current = current.getRightChild();
+            }
+        }
+    }
+
+    /**
+     * Получает количество ключей в диапазоне [lo, hi) за O(log n).
+     * @param lo нижняя граница диапазона (включается).
+     * @param hi верхняя граница диапазона (не включается).
+     * @return количество ключей.
+     * @throws UnsupportedOperationException если дерево не поддерживает порядковые статистики.
+     */
+    public int countInRange(K lo, K hi) {
+        return countInRange(Objects.requireNonNull(lo), true, Objects.requireNonNull(hi), false);
+    }
+
+    /**
+     * Получает количество ключей в заданном диапазоне за O(log n).
+     * @param low нижняя граница диапазона или null (без границы).
+     * @param isLowInclusive включение нижней границы.
+     * @param high верхняя граница диапазона или null (без границы).
+     * @param isHighInclusive включение верхней границы.
+     * @return количество ключей.
+     * @throws UnsupportedOperationException если дерево не поддерживает порядковые статистики.
+     */
+    public int countInRange(K low, boolean isLowInclusive, K high, boolean isHighInclusive) {
+        checkOrderStatistic();
+        int below = low != null ? countLess(low, !isLowInclusive) : 0;
+        int upTo = high != null ? countLess(high, isHighInclusive) : size();
+        return Math.max(upTo - below, 0);
+    }
+
+    /**
+     * Находит узел с медианой ключей (нижней медианой при четном размере дерева) за O(log n).
+     * @return найденный узел или null для пустого дерева.
+     * @throws UnsupportedOperationException если дерево не поддерживает порядковые статистики.
+     */
+    public BSNode<K, V> median() {
+        checkOrderStatistic();
+        return size() == 0 ? null : select((size() - 1) / 2);
+    }
+
+    /**
+     * Получает количество ключей, меньших (или не больших) заданного ключа.
+     * @param key значение ключа.
+     * @param isInclusive true - учитывать и равный ключ.
+     * @return количество ключей.
+     */
+    private int countLess(K key, boolean isInclusive) {
+        int count = 0;
+        BSNode<K, V> current = getRoot();
+        while(current != null) {
+            int cmp = current.compareToOther(key, comparator());
+            if(cmp < 0 || (cmp == 0 && isInclusive)) {
+                count += BSOrderNode.sizeOf(current.getLeftChild()) + 1;
+                if(cmp == 0) {
+                    break;
                 }
+                current = current.getRightChild();
             }
+            else {
+                current = current.getLeftChild();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Проверяет поддержку порядковых статистик.
+     * @throws UnsupportedOperationException если дерево не поддерживает порядковые статистики.
+     */
+    private void checkOrderStatistic() {
+        if(!isOrderStatistic) {
+            throw new UnsupportedOperationException("Дерево создано без поддержки порядковых статистик");
+        }
+    }
+
+
+    // JOIN AND SPLIT
+
+    /**
+     * Соединяет два дерева и узел между ними за O(log n): все ключи левого дерева должны быть меньше заданного ключа,
+     * все ключи правого дерева - больше. Узлы исходных деревьев переходят в новое дерево, исходные деревья очищаются.
+     * @param left левое дерево.
+     * @param key ключ узла соединения.
+     * @param value данные узла соединения.
+     * @param right правое дерево.
+     * @return соединенное дерево.
+     * @param <K> тип ключей дерева.
+     * @param <V> тип соответствующих ключам данных.
+     * @throws IllegalArgumentException если ключи деревьев не упорядочены относительно заданного ключа
+     *         или деревья различаются поддержкой порядковых статистик.
+     */
+    public static <K extends Comparable<K>, V> RBTree<K, V> join(RBTree<K, V> left, K key, V value, RBTree<K, V> right) {
+        Objects.requireNonNull(key);
+        checkSameKind(left, right);
+        BSNode<K, V> leftLast = left.findLastNode();
+        BSNode<K, V> rightFirst = right.findFirstNode();
+        if((leftLast != null && leftLast.compareToOther(key, left.comparator()) >= 0)
+                || (rightFirst != null && rightFirst.compareToOther(key, left.comparator()) <= 0)) {
+            throw new IllegalArgumentException("Ключи деревьев не упорядочены относительно ключа соединения: " + key);
         }
+        RBTree<K, V> tree = new RBTree<K, V>(left.comparator(), left.isOrderStatistic);
+        RBTreeJoin<K, V> joiner = tree.createJoiner(null);
+        RBTreeJoin.Subtree<K, V> joined = joiner.join(RBTreeJoin.of(left.getRoot()), tree.createNode(key, value), RBTreeJoin.of(right.getRoot()));
+        tree.setRoot(joined.root());
+        tree.setSize(left.size() + 1 + right.size());
+        left.clear();
+        right.clear();
+        return tree;
     }
 
     /**
-     * Рассчитывает позиционирование дерева, влияющее на получение оптимальной ширины вывода дерева.
-     * @return количество пробелов позиционирования дерева.
+     * Разделяет дерево по ключу за O(log n) (без порядковых статистик - дополнительно за время обхода меньшей части
+     * для определения размеров частей): в дереве остаются узлы с ключами, меньшими заданного ключа,
+     * остальные узлы (с ключами, большими или равными заданному) переходят в новое дерево.
+     * @param key значение ключа.
+     * @return дерево узлов с ключами, большими или равными заданному ключу.
      */
-    private int getCalcBlanks(DualOutput out) {
-        int nLevel = getNLevelTree();
-        int nMax = getEstimateMaxValue();
-        if(out.getUseFile()) {
-            nMax = nMax + AppConstants.SYMBOL_RED.length();
+    public RBTree<K, V> split(K key) {
+        Objects.requireNonNull(key);
+        RBTreeJoin<K, V> joiner = createJoiner(null);
+        RBTreeJoin.Split<K, V> split = joiner.split(RBTreeJoin.of(getRoot()), key);
+        RBTreeJoin.Subtree<K, V> high = split.right();
+        if(split.node() != null) {
+            // Узел с заданным ключом присоединяется к большим ключам как минимальный
+            high = joiner.join(new RBTreeJoin.Subtree<>(null, 0), split.node(), high);
         }
-        if(out.getUseFile()) {
-            // при выводе в файл
-            nLevel = nLevel + (nMax) / 3 - 1;
+        RBTree<K, V> tree = new RBTree<K, V>(comparator(), isOrderStatistic);
+        setRoot(blackenRoot(split.left().root()));
+        tree.setRoot(blackenRoot(high.root()));
+        int highSize;
+        if(isOrderStatistic) {
+            highSize = BSOrderNode.sizeOf(tree.getRoot());
         }
         else {
-            // при выводе в консоль
-            nLevel = nLevel + (nMax) / 2 - 1;
+            // Без порядковых статистик части обходятся поочередно до окончания меньшей из них
+            RBTreeIterator<K, V> lowIterator = iterator();
+            RBTreeIterator<K, V> highIterator = tree.iterator();
+            int count = 0;
+            while(lowIterator.hasNext() && highIterator.hasNext()) {
+                lowIterator.next();
+                highIterator.next();
+                count++;
+            }
+            highSize = highIterator.hasNext() ? size() - count : count;
         }
-        return (int) Math.pow(2, nLevel);
+        tree.setSize(highSize);
+        setSize(size() - highSize);
+        return tree;
     }
 
+    /**
+     * Объединяет дерево с другим деревом за O(m log(n / m + 1)), где m и n - размеры меньшего и большего деревьев.
+     * Данные узлов с равными ключами объединяются заданной функцией, узел помечается как объединенный.
+     * Узлы другого дерева переходят в это дерево, другое дерево очищается.
+     * @param other другое дерево.
+     * @param merge функция объединения данных этого и другого дерева или null (сохраняются данные этого дерева).
+     * @throws IllegalArgumentException если деревья различаются поддержкой порядковых статистик.
+     */
+    public void union(RBTree<K, V> other, BinaryOperator<V> merge) {
+        checkSameKind(this, other);
+        if(other == this) {
+            return;
+        }
+        int[] matches = new int[1];
+        RBTreeJoin.Subtree<K, V> result = createJoiner(merge)
+                .union(RBTreeJoin.of(getRoot()), RBTreeJoin.of(other.getRoot()), matches);
+        setRoot(blackenRoot(result.root()));
+        setSize(size() + other.size() - matches[0]);
+        other.clear();
+    }
 
-    // DISPLAY
+    /**
+     * Объединяет деревья параллельно в пуле ForkJoinPool (общем пуле).
+     * Деревья объединяются попарно (параллельно для независимых пар), а каждое объединение пары
+     * параллельно объединяет левые и правые части поддеревьев после разделения по ключу корня.
+     * Данные узлов с равными ключами объединяются заданной функцией в порядке следования деревьев в коллекции.
+     * Узлы деревьев коллекции переходят в новое дерево, деревья коллекции очищаются.
+     * @param trees объединяемые деревья (различные экземпляры).
+     * @param merge функция объединения данных предшествующего и последующего дерева или null
+     *              (сохраняются данные первого из деревьев с равным ключом).
+     * @return объединенное дерево.
+     * @param <K> тип ключей дерева.
+     * @param <V> тип соответствующих ключам данных.
+     * @throws IllegalArgumentException если деревья различаются поддержкой порядковых статистик.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <K extends Comparable<K>, V> RBTree<K, V> parallelUnion(Collection<RBTree<K, V>> trees, BinaryOperator<V> merge) {
+        RBTree<K, V>[] shards = trees.toArray(new RBTree[0]);
+        if(shards.length == 0) {
+            return new RBTree<>();
+        }
+        int size = 0;
+        for(RBTree<K, V> shard : shards) {
+            checkSameKind(shards[0], shard);
+            size += shard.size();
+        }
+        RBTreeJoin<K, V> joiner = shards[0].createJoiner(merge);
+        int[] matches = new int[1];
+        RBTreeJoin.Subtree<K, V> result = ForkJoinPool.commonPool().invoke(
+                ForkJoinTask.adapt(() -> unionShards(joiner, shards, 0, shards.length, matches)));
 
-    @Override
-    public void display(int blanks, DualOutput out) {
-        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
-        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
-        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+        RBTree<K, V> tree = new RBTree<K, V>(shards[0].comparator(), shards[0].isOrderStatistic);
+        tree.setRoot(blackenRoot(result.root()));
+        tree.setSize(size - matches[0]);
+        for(RBTree<K, V> shard : shards) {
+            shard.clear();
+        }
+        return tree;
+    }
 
-        Stack<BSNode<K, V>> global = new Stack<>();
-        global.push(getRoot());
-        int nBlank;
-        if(blanks > 0) {
-            nBlank = MathUtils.getBinaryRound(blanks);
-        } else {
-            // Расчет позиционирования
-            nBlank = getCalcBlanks(out);
-        }
-        if(AppConstants.MAX_BLANKS > 0 && nBlank > AppConstants.MAX_BLANKS) {
-            nBlank = MathUtils.getBinaryRound(AppConstants.MAX_BLANKS);
-        }
-        boolean isNewRow = true;
-
-        // header
-        out.println(header + "(blanks = " + nBlank + "): ");
-
-        while(isNewRow) {
-            isNewRow = false;
-            Stack<BSNode<K, V>> local = new Stack<>();
-            for(int j = 0; j < nBlank; ++j) {
-                out.print(" ");
-            }
-            while(!global.isEmpty()) {
-                BSNode<K, V> current = global.pop();
-                int len;
-                if(current != null) {
-                    String value = "";
-                    int valLenght = 0;
-                    if (current.getValue() != null) {
-                        value = current.getValue().toString();
-                        if(value.equals(AppConstants.UNIX_NEW_ROW)) {
-                            value = AppConstants.PRINT_NEW_ROW;
-                        }
-                        else {
-                            value = "/" + value;
-                        }
-                        valLenght = value.length();
-                    }
-                    String sRed = "";
-                    if(out.getUseFile()) {
-                        sRed = getRedSymbolNode(current);
-                        out.print(sRed + current.getKey().toString() + value);
+    /**
+     * Рекурсивно объединяет деревья диапазона массива: половины диапазона объединяются параллельно.
+     * @param joiner операции над поддеревьями.
+     * @param shards деревья.
+     * @param from начало диапазона (включительно).
+     * @param to конец диапазона (не включительно).
+     * @param matches счетчик узлов с равными ключами (matches[0]).
+     * @return объединенное поддерево.
+     */
+    private static <K extends Comparable<K>, V> RBTreeJoin.Subtree<K, V> unionShards(RBTreeJoin<K, V> joiner, RBTree<K, V>[] shards,
+                                                                                  int from, int to, int[] matches) {
+        if(to - from == 1) {
+            return RBTreeJoin.of(shards[from].getRoot());
+        }
+        int middle = (from + to) >>> 1;
+        int[] rightMatches = new int[1];
+        ForkJoinTask<RBTreeJoin.Subtree<K, V>> rightTask = ForkJoinTask.adapt(() -> unionShards(joiner, shards, middle, to, rightMatches)).fork();
+        RBTreeJoin.Subtree<K, V> left = unionShards(joiner, shards, from, middle, matches);
+        RBTreeJoin.Subtree<K, V> right = rightTask.join();
+        matches[0] += rightMatches[0];
+        return joiner.parallelUnion(left, right, matches);
+    }
+
+    /**
+     * Пересекает дерево с другим деревом за O(m log(n / m + 1)): остаются узлы с ключами, присутствующими в обоих деревьях.
+     * Данные узлов объединяются заданной функцией, узел помечается как объединенный. Другое дерево очищается.
+     * @param other другое дерево.
+     * @param merge функция объединения данных этого и другого дерева или null (сохраняются данные этого дерева).
+     * @throws IllegalArgumentException если деревья различаются поддержкой порядковых статистик.
+     */
+    public void intersection(RBTree<K, V> other, BinaryOperator<V> merge) {
+        checkSameKind(this, other);
+        if(other == this) {
+            return;
+        }
+        int[] matches = new int[1];
+        RBTreeJoin.Subtree<K, V> result = createJoiner(merge)
+                .intersection(RBTreeJoin.of(getRoot()), RBTreeJoin.of(other.getRoot()), matches);
+        setRoot(blackenRoot(result.root()));
+        setSize(matches[0]);
+        other.clear();
+    }
+
+    /**
+     * Вычитает из дерева другое дерево за O(m log(n / m + 1)): остаются узлы с ключами, отсутствующими в другом дереве.
+     * Другое дерево очищается.
+     * @param other другое дерево.
+     * @throws IllegalArgumentException если деревья различаются поддержкой порядковых статистик.
+     */
+    public void difference(RBTree<K, V> other) {
+        checkSameKind(this, other);
+        if(other == this) {
+            clear();
+            return;
+        }
+        int[] matches = new int[1];
+        RBTreeJoin.Subtree<K, V> result = createJoiner(null)
+                .difference(RBTreeJoin.of(getRoot()), RBTreeJoin.of(other.getRoot()), matches);
+        setRoot(blackenRoot(result.root()));
+        setSize(size() - matches[0]);
+        other.clear();
+    }
+
+    /**
+     * Проверяет, что деревья одинаково поддерживают порядковые статистики (узлы одного вида) и упорядочивают ключи.
+     * @param tree первое дерево.
+     * @param other второе дерево.
+     * @throws IllegalArgumentException если деревья различаются поддержкой порядковых статистик или порядком ключей.
+     */
+    private static void checkSameKind(RBTree<?, ?> tree, RBTree<?, ?> other) {
+        if(tree.isOrderStatistic != other.isOrderStatistic) {
+            throw new IllegalArgumentException("Деревья различаются поддержкой порядковых статистик");
+        }
+        if(!Objects.equals(tree.comparator(), other.comparator())) {
+            throw new IllegalArgumentException("Деревья различаются порядком ключей");
+        }
+    }
+
+    /**
+     * Создает операции соединения и разделения для узлов и порядка ключей дерева.
+     * @param merge функция объединения данных узлов с равными ключами или null.
+     * @return операции над поддеревьями.
+     */
+    private RBTreeJoin<K, V> createJoiner(BinaryOperator<V> merge) {
+        return new RBTreeJoin<K, V>(isOrderStatistic, comparator(), merge);
+    }
+
+    /**
+     * Перекрашивает корневой узел в черный.
+     * @param root корневой узел или null.
+     * @return корневой узел.
+     */
+    private static <K extends Comparable<K>, V> BSNode<K, V> blackenRoot(BSNode<K, V> root) {
+        if(root != null) {
+            root.setIsRed(false);
+        }
+        return root;
+    }
+
+
+    // BATCH INSERT
+
+    /**
+     * Добавляет пакет элементов. Пакет сортируется по ключам (параллельно для большого пакета),
+     * повторяющиеся ключи пакета объединяются, как при {@link #add(Comparable, Object)}: сохраняются данные последнего из них.
+     * Пакет не меньше дерева строится как дерево за O(m) и объединяется с деревом за O(m log(n / m + 1))
+     * (узлы с ключами, уже имеющимися в дереве, получают данные пакета и помечаются как объединенные, см. {@link #union}).
+     * Пакет меньше дерева добавляется по одному элементу в порядке возрастания ключей поиском от позиции
+     * предыдущего элемента (см. {@link #addSortedFromFinger}), а не спуском от корня для каждого ключа.
+     * Заданные массивы не изменяются.
+     * @param keys ключи пакета.
+     * @param values данные ключей (null - элементы без данных).
+     * @throws IllegalArgumentException если размеры массивов различны.
+     * @throws NullPointerException если ключ равен null.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void addAll(K[] keys, V[] values) {
+        if(values != null && values.length != keys.length) {
+            throw new IllegalArgumentException("Количество данных не совпадает с количеством ключей");
+        }
+        Map.Entry<K, V>[] entries = new Map.Entry[keys.length];
+        for(int j = 0; j < keys.length; ++j) {
+            Objects.requireNonNull(keys[j], "Значение ключа не должно быть null");
+            entries[j] = new AbstractMap.SimpleImmutableEntry<>(keys[j], values != null ? values[j] : null);
+        }
+        // Сортировка устойчива (данные последнего из равных ключей остаются последними)
+        // и выполняется параллельно только для массивов, превышающих порог разбиения Arrays.parallelSort
+        Arrays.parallelSort(entries, comparator() == null ? Map.Entry.comparingByKey() : Map.Entry.comparingByKey(comparator()));
+        addSorted(entries);
+    }
+
+    /**
+     * Добавляет элементы отображения (см. {@link #addAll(Comparable[], Object[])}).
+     * Элементы отображения {@link SortedMap} с порядком ключей дерева не сортируются.
+     * @param map отображение.
+     * @throws NullPointerException если ключ равен null.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void addAll(Map<? extends K, ? extends V> map) {
+        if(map instanceof SortedMap<?, ?> sorted && Objects.equals(sorted.comparator(), comparator())) {
+            Map.Entry<K, V>[] entries = new Map.Entry[map.size()];
+            int j = 0;
+            for(Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+                entries[j++] = new AbstractMap.SimpleImmutableEntry<>(
+                        Objects.requireNonNull(entry.getKey(), "Значение ключа не должно быть null"), entry.getValue());
+            }
+            addSorted(entries);
+            return;
+        }
+        K[] keys = (K[]) new Comparable[map.size()];
+        V[] values = (V[]) new Object[map.size()];
+        int j = 0;
+        for(Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            keys[j] = entry.getKey();
+            values[j] = entry.getValue();
+            j++;
+        }
+        addAll(keys, values);
+    }
+
+    /**
+     * Добавляет пакет элементов, упорядоченный по возрастанию ключей.
+     * @param entries упорядоченные элементы пакета (повторяющиеся ключи допускаются).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void addSorted(Map.Entry<K, V>[] entries) {
+        if(entries.length == 0) {
+            return;
+        }
+        // Для пакета меньше дерева объединение медленнее последовательного добавления из-за разделения дерева
+        if(entries.length < size()) {
+            addSortedFromFinger(entries);
+            return;
+        }
+        K[] keys = (K[]) new Comparable[entries.length];
+        V[] values = (V[]) new Object[entries.length];
+        for(int j = 0; j < entries.length; ++j) {
+            keys[j] = entries[j].getKey();
+            values[j] = entries[j].getValue();
+        }
+        RBTree<K, V> batch = buildTree(keys, values, mergeDuplicates(keys, values, comparator()), this);
+        if(getRoot() == null) {
+            setRoot(batch.getRoot());
+            setSize(batch.size());
+            return;
+        }
+        union(batch, (value, other) -> other);
+    }
+
+    /**
+     * Добавляет упорядоченные элементы по одному поиском от позиции предыдущего элемента (finger search).
+     * Сохраняется путь от корня до последнего найденного или добавленного узла и верхние границы ключей
+     * поддеревьев узлов пути (ближайшие большие предки). Ключ не меньше предыдущего принадлежит поддереву
+     * узла пути, если меньше его верхней границы: путь сокращается до ближайшего такого узла, и спуск продолжается
+     * от него - O(log d) сравнений для ключа на расстоянии d от предыдущего вместо O(log n) от корня.
+     * Добавленный узел балансируется снизу вверх по сохраненному пути: перекрашивание и не более двух поворотов.
+     * Поворот изменяет только поддерево своего верхнего узла, границы которого сохраняются, поэтому путь
+     * сокращается до нового верхнего узла и остается верным для следующего ключа.
+     * Размеры поддеревьев порядковых статистик увеличиваются по пути до балансировки без повторного спуска.
+     * @param entries упорядоченные элементы (повторяющиеся ключи допускаются: сохраняются данные последнего).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void addSortedFromFinger(Map.Entry<K, V>[] entries) {
+        BSNode<K, V>[] highs = new BSNode[ancestors.length];
+        int depth = 0;
+        for(Map.Entry<K, V> entry : entries) {
+            K key = entry.getKey();
+            long prefix = prefixOf(key);
+            int comparisons = 0;
+            // Подъем до поддерева, содержащего ключ: граница сравнивается один раз для всех узлов, которые она ограничивает
+            while(depth > 0 && highs[depth - 1] != null) {
+                BSNode<K, V> high = highs[depth - 1];
+                comparisons++;
+                if(compareToNode(key, prefix, high) > 0) {
+                    break;
+                }
+                do {
+                    ancestors[--depth] = null;
+                } while(depth > 0 && highs[depth - 1] == high);
+            }
+            if(depth == 0) {
+                if(getRoot() == null) {
+                    add(key, entry.getValue());
+                    continue;
+                }
+                highs = ensureCapacity(highs, depth);
+                highs[depth] = null;
+                depth = pushAncestor(getRoot(), depth);
+            }
+
+            // Спуск от последнего узла пути
+            BSNode<K, V> current = ancestors[depth - 1];
+            BSNode<K, V> result = null;
+            while(true) {
+                int cmp = compareToNode(key, prefix, current);
+                comparisons++;
+                if(cmp == 0) {
+                    decMaxValue(current);
+                    current.setValue(entry.getValue());
+                    incMaxValue(current);
+                    break;
+                }
+                BSNode<K, V> next = cmp > 0 ? current.getLeftChild() : current.getRightChild();
+                BSNode<K, V> high = cmp > 0 ? current : highs[depth - 1];
+                if(next == null) {
+                    result = createNode(key, entry.getValue());
+                    if(cmp > 0) {
+                        current.setLeftChild(result);
                     }
                     else {
-                        out.print(getTextColorNode(current) + current.getKey().toString() + value + getTextColorDefault());
-                    }
-                    len = current.getKey().toString().length() + valLenght + sRed.length();
-                    local.push(current.getLeftChild());
-                    local.push(current.getRightChild());
-                    if (current.getLeftChild() != null || current.getRightChild() != null) {
-                        isNewRow = true;
+                        current.setRightChild(result);
                     }
+                    next = result;
                 }
-                else {
-                    out.print("--");
-                    len = 2;
-                    local.push(null);
-                    local.push(null);
+                highs = ensureCapacity(highs, depth);
+                highs[depth] = high;
+                depth = pushAncestor(next, depth);
+                if(result != null) {
+                    break;
                 }
-                for(int j = 0; j < nBlank * 2 - (len); ++j) {
-                    out.print(" ");
+                current = next;
+            }
+            if(RBTreeStats.IS_ENABLED) {
+                stats.addDescent(comparisons);
+            }
+            if(result == null) {
+                continue;
+            }
+            incSize();
+            incMaxValue(result);
+            if(isOrderStatistic) {
+                for(int j = 0; j < depth - 1; ++j) {
+                    BSOrderNode<K, V> ancestor = (BSOrderNode<K, V>) ancestors[j];
+                    ancestor.setSubtreeSize(ancestor.getSubtreeSize() + 1);
                 }
             }
-            out.println("");
-            nBlank /= 2;
-            while(!local.isEmpty()) {
-                global.push(local.pop());
+            depth = balanceAfterInsert(depth);
+        }
+        Arrays.fill(ancestors, 0, depth, null);
+    }
+
+    /**
+     * Восстанавливает свойства красно-черного дерева снизу вверх после добавления красного узла - последнего узла
+     * пути предков {@code ancestors}.
+     * @param depth количество узлов пути, включая добавленный узел.
+     * @return количество узлов пути, остающегося верным после поворотов (последний из них - верхний узел поворота).
+     */
+    private int balanceAfterInsert(int depth) {
+        int n = depth - 1;
+        while(n > 0 && ancestors[n - 1].getIsRed()) {
+            // Красный родитель не является корнем, поэтому grand существует
+            BSNode<K, V> node = ancestors[n];
+            BSNode<K, V> parent = ancestors[n - 1];
+            BSNode<K, V> grand = ancestors[n - 2];
+            boolean isParentLeft = grand.getLeftChild() == parent;
+            BSNode<K, V> uncle = isParentLeft ? grand.getRightChild() : grand.getLeftChild();
+            if(isRed(uncle)) {
+                // Красный дядя: перекрашивание, нарушение переходит к grand
+                parent.setIsRed(false);
+                uncle.setIsRed(false);
+                grand.setIsRed(true);
+                if(RBTreeStats.IS_ENABLED) {
+                    stats.addColorFlip();
+                }
+                n -= 2;
+                continue;
+            }
+            BSNode<K, V> top = parent;
+            if((parent.getLeftChild() == node) != isParentLeft) {
+                // Внутренний внук поворачивается на место родителя
+                top = rotate(parent, grand, isParentLeft);
+                if(RBTreeStats.IS_ENABLED) {
+                    stats.addDoubleRotation();
+                }
             }
+            rotate(grand, n > 2 ? ancestors[n - 3] : null, !isParentLeft);
+            top.setIsRed(false);
+            grand.setIsRed(true);
+            // Поддерево grand повернуто: путь продолжается его новым верхним узлом с теми же границами
+            ancestors[n - 2] = top;
+            Arrays.fill(ancestors, n - 1, depth, null);
+            depth = n - 1;
+            break;
         }
-        // footer
-        out.println(footer);
+        getRoot().setIsRed(false);
+        return depth;
+    }
+
+    /**
+     * Увеличивает емкость массива, если он заполнен.
+     * @param array массив.
+     * @param length количество заполненных элементов.
+     * @return массив с емкостью больше количества элементов.
+     */
+    private static <T> T[] ensureCapacity(T[] array, int length) {
+        return length < array.length ? array : Arrays.copyOf(array, length * 2);
+    }
+
+
+    // SNAPSHOT
+
+    /**
+     * Записывает снимок дерева в файл: элементы в порядке возрастания ключей в компактном двоичном формате
+     * (см. {@link RBTreeSnapshot}). Снимок записывается во временный файл и атомарно заменяет прежний файл.
+     * Дерево не должно изменяться во время записи.
+     * @param path путь к файлу снимка.
+     * @param keyCodec кодировщик ключей.
+     * @param valueCodec кодировщик данных (не используется, если данные всех узлов равны null).
+     * @throws IOException если при записи файла произошла ошибка ввода-вывода.
+     */
+    public void writeSnapshot(Path path, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        RBTreeSnapshot.write(this, path, keyCodec, valueCodec);
+    }
+
+    /**
+     * Восстанавливает дерево с естественным порядком ключей из файла снимка
+     * (см. {@link #readSnapshot(Path, Codec, Codec, Comparator)}).
+     * @param path путь к файлу снимка.
+     * @param keyCodec кодировщик ключей.
+     * @param valueCodec кодировщик данных.
+     * @return восстановленное дерево.
+     * @param <K> тип ключей дерева.
+     * @param <V> тип соответствующих ключам данных.
+     * @throws IOException если при чтении файла произошла ошибка ввода-вывода или файл имеет несовместимый формат.
+     */
+    public static <K extends Comparable<K>, V> RBTree<K, V> readSnapshot(Path path, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        return readSnapshot(path, keyCodec, valueCodec, null);
+    }
+
+    /**
+     * Восстанавливает дерево из файла снимка, записанного {@link #writeSnapshot}.
+     * Элементы снимка упорядочены, поэтому дерево строится за O(n) без поворотов
+     * (см. {@link #buildFromSortedArray(Comparable[], Object[])}); поддержка порядковых статистик сохраняется.
+     * @param path путь к файлу снимка.
+     * @param keyCodec кодировщик ключей.
+     * @param valueCodec кодировщик данных.
+     * @param comparator порядок ключей записанного дерева или null (естественный порядок).
+     * @return восстановленное дерево.
+     * @param <K> тип ключей дерева.
+     * @param <V> тип соответствующих ключам данных.
+     * @throws IOException если при чтении файла произошла ошибка ввода-вывода, файл имеет несовместимый формат
+     * или ключи снимка не упорядочены в заданном порядке.
+     */
+    public static <K extends Comparable<K>, V> RBTree<K, V> readSnapshot(Path path, Codec<K> keyCodec, Codec<V> valueCodec,
+                                                                       Comparator<? super K> comparator) throws IOException {
+        RBTreeSnapshot.Entries<K, V> entries = RBTreeSnapshot.read(path, keyCodec, valueCodec);
+        K[] keys = entries.keys();
+        int count;
+        try {
+            count = countDistinct(keys, keys.length, comparator);
+        }
+        catch(IllegalArgumentException | NullPointerException e) {
+            throw new IOException("Снимок красно-черного дерева поврежден: " + e.getMessage(), e);
+        }
+        if(count != keys.length) {
+            throw new IOException("Снимок красно-черного дерева поврежден: ключи повторяются");
+        }
+        return buildTree(keys, entries.values(), keys.length, new RBTree<K, V>(comparator, entries.isOrderStatistic()));
+    }
+
+
+    // ITERATION
+
+    /**
+     * Создает итератор узлов в порядке возрастания ключей.
+     * @return итератор узлов.
+     */
+    @Override
+    public RBTreeIterator<K, V> iterator() {
+        return new RBTreeIterator<>(getRoot(), comparator(), null, false, null, false, false);
+    }
+
+    /**
+     * Создает итератор узлов в порядке убывания ключей.
+     * @return итератор узлов.
+     */
+    public RBTreeIterator<K, V> descendingIterator() {
+        return new RBTreeIterator<>(getRoot(), comparator(), null, false, null, false, true);
+    }
+
+    /**
+     * Создает итератор узлов с ключами в диапазоне [from, to) в порядке возрастания ключей.
+     * @param from нижняя граница диапазона (включается).
+     * @param to верхняя граница диапазона (не включается).
+     * @return итератор узлов.
+     */
+    public RBTreeIterator<K, V> rangeIterator(K from, K to) {
+        return rangeIterator(Objects.requireNonNull(from), true, Objects.requireNonNull(to), false, false);
+    }
+
+    /**
+     * Создает итератор узлов с ключами в заданном диапазоне.
+     * @param low нижняя граница диапазона или null (без границы).
+     * @param isLowInclusive включение нижней границы.
+     * @param high верхняя граница диапазона или null (без границы).
+     * @param isHighInclusive включение верхней границы.
+     * @param isDescending true - в порядке убывания ключей; false - в порядке возрастания.
+     * @return итератор узлов.
+     */
+    public RBTreeIterator<K, V> rangeIterator(K low, boolean isLowInclusive, K high, boolean isHighInclusive, boolean isDescending) {
+        return new RBTreeIterator<>(getRoot(), comparator(), low, isLowInclusive, high, isHighInclusive, isDescending);
+    }
+
+    /**
+     * Создает курсор дерева, продолжающий поиск и обход от последней позиции (см. {@link RBTreeCursor}).
+     * В отличие от итератора, курсор допускает изменение дерева: после изменения путь курсора восстанавливается поиском.
+     * @return неустановленный курсор.
+     */
+    public RBTreeCursor<K, V> cursor() {
+        return new RBTreeCursor<>(this);
+    }
+
+    /**
+     * Выполняет действие для ключей и данных узлов с ключами в диапазоне [lo, hi) в порядке возрастания ключей.
+     * @param lo нижняя граница диапазона (включается).
+     * @param hi верхняя граница диапазона (не включается).
+     * @param action действие с ключом и данными узла.
+     */
+    public void forEachInRange(K lo, K hi, BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        RBTreeIterator<K, V> iterator = rangeIterator(lo, hi);
+        while(iterator.hasNext()) {
+            BSNode<K, V> node = iterator.next();
+            action.accept(node.getKey(), node.getValue());
+        }
+    }
+
+
+    // DISPLAY
+
+    @Override
+    public void display(int blanks, DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.out.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.out.getFooter();
+
+        if(blanks <= 0) {
+            // Расчет позиционирования по измеренным размерам дерева
+            TreeRenderer.Shape shape = measureShape();
+            blanks = RENDERER.getCalcBlanks(shape.nLevel(), shape.maxValue(), out);
+        }
+        RENDERER.display(getRoot(), blanks, header, footer, out);
+    }
+
+    @Override
+    public void displaySparse(int levels, DualOutput out) {
+        displaySparse(getRoot(), levels, out);
+    }
+
+    @Override
+    public void displaySparse(K key, int levels, DualOutput out) {
+        displaySparse(findNode(key), levels, out);
+    }
+
+    /**
+     * Выводит в заданный поток только существующие узлы поддерева с заданным корневым узлом.
+     * @param node корневой узел поддерева или null.
+     * @param levels количество выводимых уровней (0 или меньше 0 - все уровни).
+     * @param out заданный поток вывода.
+     */
+    private void displaySparse(BSNode<K, V> node, int levels, DualOutput out) {
+        // Инициатор выводит свои верхнее и нижнее оформления сообщения и отключает их вывод в цепочке объектов.
+        String header = out.getHeader() != null ? out.getHeaderOnce() : this.sparseOut.getHeader();
+        String footer = out.getFooter() != null ? out.getFooterOnce() : this.sparseOut.getFooter();
 
+        RENDERER.displaySparse(node, levels, header, footer, out);
     }
 }
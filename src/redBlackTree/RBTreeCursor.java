@@ -0,0 +1,332 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Курсор (finger) красно-чёрного дерева: позиция в дереве, от которой продолжается поиск следующего ключа.
+ * Курсор хранит путь от корня до текущего узла и для каждого узла пути - ближайшие меньший и больший узлы-предки,
+ * ограничивающие ключи его поддерева. Поиск поднимается по пути только до поддерева, содержащего искомый ключ,
+ * и спускается от него, поэтому поиск ключа на расстоянии d от текущего (по количеству узлов) требует O(log d)
+ * сравнений в типичном случае вместо O(log n) при поиске от корня; переход к соседнему узлу - O(1) в среднем.
+ * После структурного изменения дерева (см. {@link binarySearchTree.BSTree#getModCount()})
+ * сохраненный путь устаревает: поиск выполняется от корня, а переход к соседнему узлу - после повторного поиска
+ * ключа текущего узла (или искомого ключа, если курсор установлен между узлами поиском отсутствующего ключа).
+ * Курсор не поддерживает параллельное использование несколькими потоками.
+ * @param <K> тип ключей дерева.
+ * @param <V> тип соответствующих ключам данных.
+ */
+public final class RBTreeCursor<K extends Comparable<K>, V> {
+    /**
+     * Начальная емкость пути (см. {@link RBTreeIterator}).
+     */
+    private static final int PATH_CAPACITY = 64;
+
+    /**
+     * Дерево курсора.
+     */
+    private final RBTree<K, V> tree;
+
+    /**
+     * Порядок ключей дерева или null (естественный порядок).
+     */
+    private final Comparator<? super K> comparator;
+
+    /**
+     * Путь от корня до текущего узла.
+     */
+    private BSNode<K, V>[] path;
+
+    /**
+     * Ближайшие меньшие предки узлов пути (нижние границы ключей поддеревьев) или null.
+     */
+    private BSNode<K, V>[] lows;
+
+    /**
+     * Ближайшие большие предки узлов пути (верхние границы ключей поддеревьев) или null.
+     */
+    private BSNode<K, V>[] highs;
+
+    /**
+     * Количество узлов пути (0 - курсор не установлен).
+     */
+    private int depth;
+
+    /**
+     * Положение курсора относительно последнего узла пути:
+     * -1 - между предыдущим узлом и узлом, 0 - на узле, 1 - между узлом и следующим узлом.
+     */
+    private int offset;
+
+    /**
+     * Искомый ключ, если курсор установлен между узлами поиском отсутствующего ключа, иначе null.
+     * Последний узел пути в этом случае - только сосед промежутка (в пустом дереве путь пуст), и после изменения дерева промежуток
+     * восстанавливается повторным поиском искомого ключа.
+     */
+    private K gapKey;
+
+    /**
+     * Счетчик структурных изменений дерева, соответствующий сохраненному пути.
+     */
+    private int modCount;
+
+    /**
+     * Создает неустановленный курсор дерева.
+     * @param tree дерево.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    RBTreeCursor(RBTree<K, V> tree) {
+        this.tree = tree;
+        this.comparator = tree.comparator();
+        this.path = (BSNode<K, V>[]) new BSNode[PATH_CAPACITY];
+        this.lows = (BSNode<K, V>[]) new BSNode[PATH_CAPACITY];
+        this.highs = (BSNode<K, V>[]) new BSNode[PATH_CAPACITY];
+    }
+
+    /**
+     * Получает текущий узел курсора.
+     * @return текущий узел или null, если курсор не установлен или находится между узлами.
+     */
+    public BSNode<K, V> getNode() {
+        return depth > 0 && offset == 0 && modCount == tree.getModCount() ? path[depth - 1] : null;
+    }
+
+    /**
+     * Устанавливает курсор на узел с заданным ключом, а при его отсутствии - между узлами с ближайшими
+     * меньшим и большим ключами (их возвращают {@link #prev()} и {@link #next()}).
+     * Поиск продолжается от текущей позиции курсора.
+     * @param key значение ключа.
+     * @return узел с заданным ключом или null, если узел не найден.
+     */
+    public BSNode<K, V> seek(K key) {
+        if(!isValid()) {
+            reset();
+            if(tree.getRoot() == null) {
+                // Курсор в промежутке пустого дерева
+                gapKey = key;
+                return null;
+            }
+            push(tree.getRoot(), null, null);
+        }
+        else {
+            ascend(key);
+        }
+        offset = 0;
+        gapKey = null;
+        BSNode<K, V> current = path[depth - 1];
+        while(true) {
+            int cmp = current.compareToOther(key, comparator);
+            if(cmp == 0) {
+                return current;
+            }
+            BSNode<K, V> next = cmp > 0 ? current.getLeftChild() : current.getRightChild();
+            if(next == null) {
+                // Курсор между узлами: перед ближайшим большим узлом - текущим или верхней границей поддерева
+                gapKey = key;
+                offset = -1;
+                if(cmp < 0) {
+                    if(highs[depth - 1] == null) {
+                        offset = 1;
+                    }
+                    else {
+                        moveUpTo(highs[depth - 1]);
+                    }
+                }
+                return null;
+            }
+            if(cmp > 0) {
+                push(next, lows[depth - 1], current);
+            }
+            else {
+                push(next, current, highs[depth - 1]);
+            }
+            current = next;
+        }
+    }
+
+    /**
+     * Перемещает курсор на следующий узел в порядке возрастания ключей.
+     * Неустановленный курсор перемещается на первый узел дерева.
+     * @return следующий узел или null, если следующего узла нет (курсор остается после последнего узла).
+     */
+    public BSNode<K, V> next() {
+        return move(false);
+    }
+
+    /**
+     * Перемещает курсор на предыдущий узел в порядке возрастания ключей.
+     * Неустановленный курсор перемещается на последний узел дерева.
+     * @return предыдущий узел или null, если предыдущего узла нет (курсор остается перед первым узлом).
+     */
+    public BSNode<K, V> prev() {
+        return move(true);
+    }
+
+    /**
+     * Перемещает курсор на соседний узел.
+     * @param isBackward перемещение к предыдущему узлу.
+     * @return соседний узел или null, если курсор вышел за пределы дерева.
+     */
+    private BSNode<K, V> move(boolean isBackward) {
+        int direction = isBackward ? -1 : 1;
+        if(!isValid()) {
+            if(depth == 0 && gapKey == null) {
+                // Курсор не установлен: перемещение к крайнему узлу
+                reset();
+                if(tree.getRoot() == null) {
+                    return null;
+                }
+                push(tree.getRoot(), null, null);
+                pushSpine(isBackward);
+                return path[depth - 1];
+            }
+            if(gapKey != null) {
+                // Путь устарел, курсор в промежутке: повторный поиск искомого ключа; добавленный в промежуток узел
+                // с этим ключом оказывается после курсора
+                if(seek(gapKey) != null) {
+                    offset = -1;
+                }
+                else if(depth == 0) {
+                    return null;
+                }
+            }
+            else {
+                // Путь устарел: повторный поиск ключа последнего узла пути (удаленный узел заменяется промежутком)
+                int previousOffset = offset;
+                if(seek(path[depth - 1].getKey()) != null) {
+                    offset = previousOffset;
+                }
+                else if(depth == 0) {
+                    return null;
+                }
+            }
+        }
+        gapKey = null;
+        if(offset == -direction) {
+            offset = 0;
+            return path[depth - 1];
+        }
+        BSNode<K, V> node = path[depth - 1];
+        BSNode<K, V> child = isBackward ? node.getLeftChild() : node.getRightChild();
+        if(child != null) {
+            // Соседний узел - крайний узел поддерева потомка
+            if(isBackward) {
+                push(child, lows[depth - 1], node);
+            }
+            else {
+                push(child, node, highs[depth - 1]);
+            }
+            pushSpine(isBackward);
+            offset = 0;
+            return path[depth - 1];
+        }
+        // Соседний узел - граница поддерева (ближайший предок)
+        BSNode<K, V> bound = isBackward ? lows[depth - 1] : highs[depth - 1];
+        if(bound == null) {
+            offset = direction;
+            return null;
+        }
+        moveUpTo(bound);
+        offset = 0;
+        return bound;
+    }
+
+    /**
+     * Проверяет, что сохраненный путь соответствует дереву.
+     * @return true - путь не устарел.
+     */
+    private boolean isValid() {
+        return depth > 0 && modCount == tree.getModCount();
+    }
+
+    /**
+     * Сокращает путь до поддерева, содержащего заданный ключ (корневое поддерево содержит любой ключ).
+     * Ключ больше последнего узла пути больше и всех нижних границ пути, поэтому проверяется только верхняя граница
+     * (и наоборот); граница сравнивается один раз для всех узлов пути, которые она ограничивает.
+     * @param key значение ключа.
+     */
+    private void ascend(K key) {
+        int cmp = path[depth - 1].compareToOther(key, comparator);
+        BSNode<K, V>[] bounds = cmp < 0 ? highs : lows;
+        while(depth > 1) {
+            BSNode<K, V> bound = bounds[depth - 1];
+            if(bound == null || (cmp < 0 ? bound.compareToOther(key, comparator) > 0 : bound.compareToOther(key, comparator) < 0)) {
+                return;
+            }
+            do {
+                pop();
+            } while(depth > 1 && bounds[depth - 1] == bound);
+        }
+    }
+
+    /**
+     * Сокращает путь до заданного предка последнего узла пути.
+     * @param ancestor предок последнего узла пути.
+     */
+    private void moveUpTo(BSNode<K, V> ancestor) {
+        while(path[depth - 1] != ancestor) {
+            pop();
+        }
+    }
+
+    /**
+     * Продолжает путь крайними потомками последнего узла.
+     * @param isRight продолжение правыми потомками (к максимальному ключу).
+     */
+    private void pushSpine(boolean isRight) {
+        BSNode<K, V> node = path[depth - 1];
+        BSNode<K, V> child;
+        while((child = isRight ? node.getRightChild() : node.getLeftChild()) != null) {
+            if(isRight) {
+                push(child, node, highs[depth - 1]);
+            }
+            else {
+                push(child, lows[depth - 1], node);
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Добавляет узел в путь, при необходимости увеличивая емкость.
+     * @param node узел.
+     * @param low ближайший меньший предок узла или null.
+     * @param high ближайший больший предок узла или null.
+     */
+    private void push(BSNode<K, V> node, BSNode<K, V> low, BSNode<K, V> high) {
+        if(depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
+            lows = Arrays.copyOf(lows, depth * 2);
+            highs = Arrays.copyOf(highs, depth * 2);
+        }
+        path[depth] = node;
+        lows[depth] = low;
+        highs[depth] = high;
+        depth++;
+    }
+
+    /**
+     * Удаляет последний узел пути.
+     */
+    private void pop() {
+        depth--;
+        path[depth] = null;
+        lows[depth] = null;
+        highs[depth] = null;
+    }
+
+    /**
+     * Очищает путь и запоминает текущий счетчик структурных изменений дерева.
+     */
+    private void reset() {
+        Arrays.fill(path, 0, depth, null);
+        Arrays.fill(lows, 0, depth, null);
+        Arrays.fill(highs, 0, depth, null);
+        depth = 0;
+        offset = 0;
+        gapKey = null;
+        modCount = tree.getModCount();
+    }
+}
@@ -0,0 +1,169 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Итератор узлов красно-чёрного дерева в порядке ключей (прямом или обратном) в заданном диапазоне.
+ * Вместо ссылок на родителя используется явный стек предков, емкость которого ограничена высотой дерева,
+ * поэтому при обходе узлы не создаются: память выделяется только для стека при создании итератора.
+ * Итератор не поддерживает изменение дерева во время обхода (в том числе удаление через итератор).
+ * @param <K> тип ключей дерева.
+ * @param <V> тип соответствующих ключам данных.
+ */
+public final class RBTreeIterator<K extends Comparable<K>, V> implements Iterator<BSNode<K, V>> {
+    /**
+     * Начальная емкость стека предков.
+     * Высота красно-черного дерева не превышает 2 * log2(n + 1), поэтому для размера int емкость достаточна.
+     */
+    private static final int STACK_CAPACITY = 64;
+
+    /**
+     * Стек предков следующего узла (вершина стека - следующий узел).
+     */
+    private BSNode<K, V>[] stack;
+
+    /**
+     * Количество узлов в стеке.
+     */
+    private int depth;
+
+    /**
+     * Обратный порядок обхода.
+     */
+    private final boolean isDescending;
+
+    /**
+     * Конечная граница обхода (верхняя при прямом, нижняя при обратном порядке) или null.
+     */
+    private final K end;
+
+    /**
+     * Включение конечной границы в обход.
+     */
+    private final boolean isEndInclusive;
+
+    /**
+     * Порядок ключей дерева или null (естественный порядок).
+     */
+    private final Comparator<? super K> comparator;
+
+    /**
+     * Создает итератор узлов в заданном диапазоне.
+     * @param root корневой узел дерева.
+     * @param comparator порядок ключей дерева или null (естественный порядок).
+     * @param low нижняя граница диапазона или null.
+     * @param isLowInclusive включение нижней границы.
+     * @param high верхняя граница диапазона или null.
+     * @param isHighInclusive включение верхней границы.
+     * @param isDescending обратный порядок обхода.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    RBTreeIterator(BSNode<K, V> root, Comparator<? super K> comparator, K low, boolean isLowInclusive,
+                   K high, boolean isHighInclusive, boolean isDescending) {
+        this.stack = (BSNode<K, V>[]) new BSNode[STACK_CAPACITY];
+        this.comparator = comparator;
+        this.isDescending = isDescending;
+        this.end = isDescending ? low : high;
+        this.isEndInclusive = isDescending ? isLowInclusive : isHighInclusive;
+        seek(root, isDescending ? high : low, isDescending ? isHighInclusive : isLowInclusive);
+        if(depth > 0 && isBeyondEnd(stack[depth - 1])) {
+            depth = 0;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return depth > 0;
+    }
+
+    @Override
+    public BSNode<K, V> next() {
+        if(depth == 0) {
+            throw new NoSuchElementException();
+        }
+        BSNode<K, V> node = stack[--depth];
+        stack[depth] = null;
+        // Следующий узел - крайний узел поддерева по направлению обхода, иначе - ближайший предок в стеке
+        pushSpine(isDescending ? node.getLeftChild() : node.getRightChild());
+        if(depth > 0 && isBeyondEnd(stack[depth - 1])) {
+            Arrays.fill(stack, 0, depth, null);
+            depth = 0;
+        }
+        return node;
+    }
+
+    /**
+     * Заполняет стек предками первого узла обхода от начальной границы.
+     * Узел помещается в стек, если он не предшествует начальной границе; далее спуск продолжается
+     * к начальной границе, поэтому в стеке остаются только предки, следующие за ней в порядке обхода.
+     * @param root корневой узел дерева.
+     * @param start начальная граница обхода или null.
+     * @param isStartInclusive включение начальной границы.
+     */
+    private void seek(BSNode<K, V> root, K start, boolean isStartInclusive) {
+        if(start == null) {
+            pushSpine(root);
+            return;
+        }
+        BSNode<K, V> current = root;
+        while(current != null) {
+            int cmp = current.compareToOther(start, comparator);
+            if(isDescending) {
+                cmp = -cmp;
+            }
+            if(cmp > 0 || (cmp == 0 && isStartInclusive)) {
+                push(current);
+                if(cmp == 0) {
+                    break;
+                }
+                current = isDescending ? current.getRightChild() : current.getLeftChild();
+            }
+            else {
+                current = isDescending ? current.getLeftChild() : current.getRightChild();
+            }
+        }
+    }
+
+    /**
+     * Помещает в стек узел и его крайних потомков по направлению, противоположному обходу.
+     * @param node узел или null.
+     */
+    private void pushSpine(BSNode<K, V> node) {
+        while(node != null) {
+            push(node);
+            node = isDescending ? node.getRightChild() : node.getLeftChild();
+        }
+    }
+
+    /**
+     * Помещает узел в стек, при необходимости увеличивая его емкость.
+     * @param node узел.
+     */
+    private void push(BSNode<K, V> node) {
+        if(depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = node;
+    }
+
+    /**
+     * Проверяет выход узла за конечную границу обхода.
+     * @param node узел.
+     * @return true - узел за конечной границей.
+     */
+    private boolean isBeyondEnd(BSNode<K, V> node) {
+        if(end == null) {
+            return false;
+        }
+        int cmp = node.compareToOther(end, comparator);
+        if(isDescending) {
+            cmp = -cmp;
+        }
+        return cmp > 0 || (cmp == 0 && !isEndInclusive);
+    }
+}
@@ -0,0 +1,432 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+import binarySearchTree.BSOrderNode;
+
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Операции соединения (join) и разделения (split) красно-чёрных поддеревьев и основанные на них
+ * операции над множествами ключей (объединение, пересечение, разность).
+ * @see <a href="https://en.wikipedia.org/wiki/Join-based_tree_algorithms">Join-based tree algorithms</a>
+ * Соединение двух поддеревьев и узла между ними выполняется за O(|h1 - h2| + 1), где h1, h2 - черные высоты поддеревьев,
+ * поэтому разделение выполняется за O(log n), а операции над множествами размеров m <= n - за O(m log(n / m + 1)).
+ * Операции переиспользуют узлы исходных поддеревьев (не создают новых узлов) и разрушают исходные поддеревья.
+ * Корень результата любой операции - черный узел, черная высота поддерева передается вместе с его корнем.
+ * Экземпляр не хранит изменяемого состояния, поэтому независимые поддеревья можно обрабатывать параллельно.
+ * @param <K> тип ключей.
+ * @param <V> тип соответствующих ключам данных.
+ */
+final class RBTreeJoin<K extends Comparable<K>, V> {
+    /**
+     * Поддерево и его черная высота (количество черных узлов на пути от корня поддерева до пустого потомка).
+     * @param root корневой узел или null.
+     * @param blackHeight черная высота.
+     */
+    record Subtree<K extends Comparable<K>, V>(BSNode<K, V> root, int blackHeight) {
+    }
+
+    /**
+     * Результат разделения поддерева по ключу.
+     * @param left поддерево ключей, меньших заданного.
+     * @param node узел с заданным ключом или null.
+     * @param right поддерево ключей, больших заданного.
+     */
+    record Split<K extends Comparable<K>, V>(Subtree<K, V> left, BSNode<K, V> node, Subtree<K, V> right) {
+    }
+
+    /**
+     * Минимальная черная высота первого поддерева, при которой объединение поддеревьев потомков выполняется параллельно.
+     * Поддерево с черной высотой h содержит не менее 2^h - 1 узлов, поэтому параллельные задачи не слишком малы.
+     */
+    private static final int PARALLEL_BLACK_HEIGHT = 12;
+
+    /**
+     * Признак поддержки порядковых статистик (узлы хранят размеры своих поддеревьев).
+     */
+    private final boolean isOrderStatistic;
+
+    /**
+     * Порядок ключей или null (естественный порядок).
+     */
+    private final Comparator<? super K> comparator;
+
+    /**
+     * Функция объединения данных узлов с равными ключами (данные первого и второго поддерева) или null.
+     */
+    private final BinaryOperator<V> merge;
+
+    /**
+     * Создает операции над поддеревьями.
+     * @param isOrderStatistic true - узлы хранят размеры своих поддеревьев.
+     * @param comparator порядок ключей или null (естественный порядок).
+     * @param merge функция объединения данных узлов с равными ключами или null (сохраняются данные первого поддерева).
+     */
+    RBTreeJoin(boolean isOrderStatistic, Comparator<? super K> comparator, BinaryOperator<V> merge) {
+        this.isOrderStatistic = isOrderStatistic;
+        this.comparator = comparator;
+        this.merge = merge;
+    }
+
+    /**
+     * Создает поддерево из корневого узла красно-черного дерева с вычислением черной высоты.
+     * @param root корневой узел дерева или null.
+     * @return поддерево.
+     */
+    static <K extends Comparable<K>, V> Subtree<K, V> of(BSNode<K, V> root) {
+        int blackHeight = 0;
+        for(BSNode<K, V> node = root; node != null; node = node.getLeftChild()) {
+            if(!node.getIsRed()) {
+                blackHeight++;
+            }
+        }
+        return new Subtree<>(root, blackHeight);
+    }
+
+
+    // JOIN
+
+    /**
+     * Соединяет поддеревья и узел между ними: все ключи левого поддерева меньше ключа узла,
+     * все ключи правого поддерева больше ключа узла.
+     * @param left левое поддерево.
+     * @param node узел (его потомки заменяются).
+     * @param right правое поддерево.
+     * @return соединенное поддерево.
+     */
+    Subtree<K, V> join(Subtree<K, V> left, BSNode<K, V> node, Subtree<K, V> right) {
+        // Красные корни перекрашиваются в черные: черная высота увеличивается, свойства дерева сохраняются
+        int leftHeight = blacken(left);
+        int rightHeight = blacken(right);
+        BSNode<K, V> root;
+        if(leftHeight > rightHeight) {
+            root = joinRight(left.root(), leftHeight, node, right.root(), rightHeight);
+        }
+        else if(leftHeight < rightHeight) {
+            root = joinLeft(left.root(), leftHeight, node, right.root(), rightHeight);
+        }
+        else {
+            root = link(left.root(), node, right.root(), true);
+        }
+        int blackHeight = Math.max(leftHeight, rightHeight);
+        if(root.getIsRed()) {
+            root.setIsRed(false);
+            blackHeight++;
+        }
+        return new Subtree<>(root, blackHeight);
+    }
+
+    /**
+     * Соединяет поддеревья без узла между ними: все ключи левого поддерева меньше ключей правого поддерева.
+     * @param left левое поддерево.
+     * @param right правое поддерево.
+     * @return соединенное поддерево.
+     */
+    Subtree<K, V> join2(Subtree<K, V> left, Subtree<K, V> right) {
+        if(left.root() == null) {
+            return right;
+        }
+        if(right.root() == null) {
+            return left;
+        }
+        // Узел с минимальным ключом правого поддерева становится узлом соединения
+        Subtree<K, V>[] rest = splitFirst(right);
+        return join(left, rest[1].root(), rest[0]);
+    }
+
+    /**
+     * Спускается по правой ветви левого (более высокого) поддерева до черного узла с черной высотой правого поддерева.
+     * @param left левое поддерево с черным корнем.
+     * @param leftHeight черная высота левого поддерева.
+     * @param node узел соединения.
+     * @param right правое поддерево с черным корнем.
+     * @param rightHeight черная высота правого поддерева.
+     * @return корень соединенного поддерева (может быть красным).
+     */
+    private BSNode<K, V> joinRight(BSNode<K, V> left, int leftHeight, BSNode<K, V> node, BSNode<K, V> right, int rightHeight) {
+        if(!isRed(left) && leftHeight == rightHeight) {
+            return link(left, node, right, true);
+        }
+        boolean isLeftBlack = !left.getIsRed();
+        left.setRightChild(joinRight(left.getRightChild(), leftHeight - (isLeftBlack ? 1 : 0), node, right, rightHeight));
+        updateSubtreeSize(left);
+        BSNode<K, V> child = left.getRightChild();
+        if(isLeftBlack && isRed(child) && isRed(child.getRightChild())) {
+            // "Красная линия" под черным узлом устраняется поворотом влево
+            child.getRightChild().setIsRed(false);
+            return rotate(left, true);
+        }
+        return left;
+    }
+
+    /**
+     * Спускается по левой ветви правого (более высокого) поддерева до черного узла с черной высотой левого поддерева.
+     * @param left левое поддерево с черным корнем.
+     * @param leftHeight черная высота левого поддерева.
+     * @param node узел соединения.
+     * @param right правое поддерево с черным корнем.
+     * @param rightHeight черная высота правого поддерева.
+     * @return корень соединенного поддерева (может быть красным).
+     */
+    private BSNode<K, V> joinLeft(BSNode<K, V> left, int leftHeight, BSNode<K, V> node, BSNode<K, V> right, int rightHeight) {
+        if(!isRed(right) && leftHeight == rightHeight) {
+            return link(left, node, right, true);
+        }
+        boolean isRightBlack = !right.getIsRed();
+        right.setLeftChild(joinLeft(left, leftHeight, node, right.getLeftChild(), rightHeight - (isRightBlack ? 1 : 0)));
+        updateSubtreeSize(right);
+        BSNode<K, V> child = right.getLeftChild();
+        if(isRightBlack && isRed(child) && isRed(child.getLeftChild())) {
+            // "Красная линия" под черным узлом устраняется поворотом вправо
+            child.getLeftChild().setIsRed(false);
+            return rotate(right, false);
+        }
+        return right;
+    }
+
+
+    // SPLIT
+
+    /**
+     * Разделяет поддерево по ключу на поддеревья меньших и больших ключей и узел с заданным ключом.
+     * @param tree поддерево.
+     * @param key значение ключа.
+     * @return результат разделения.
+     */
+    Split<K, V> split(Subtree<K, V> tree, K key) {
+        BSNode<K, V> root = tree.root();
+        if(root == null) {
+            Subtree<K, V> empty = new Subtree<>(null, 0);
+            return new Split<>(empty, null, empty);
+        }
+        int childHeight = tree.blackHeight() - (root.getIsRed() ? 0 : 1);
+        Subtree<K, V> leftChild = new Subtree<>(root.getLeftChild(), childHeight);
+        Subtree<K, V> rightChild = new Subtree<>(root.getRightChild(), childHeight);
+        int cmp = root.compareToOther(key, comparator);
+        if(cmp == 0) {
+            root.setLeftChild(null);
+            root.setRightChild(null);
+            updateSubtreeSize(root);
+            return new Split<>(leftChild, root, rightChild);
+        }
+        if(cmp > 0) {
+            Split<K, V> split = split(leftChild, key);
+            return new Split<>(split.left(), split.node(), join(split.right(), root, rightChild));
+        }
+        Split<K, V> split = split(rightChild, key);
+        return new Split<>(join(leftChild, root, split.left()), split.node(), split.right());
+    }
+
+    /**
+     * Отделяет от поддерева узел с минимальным ключом.
+     * @param tree непустое поддерево.
+     * @return массив из двух поддеревьев: [0] - оставшееся поддерево, [1] - отделенный узел (без потомков).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Subtree<K, V>[] splitFirst(Subtree<K, V> tree) {
+        BSNode<K, V> root = tree.root();
+        int childHeight = tree.blackHeight() - (root.getIsRed() ? 0 : 1);
+        Subtree<K, V> rightChild = new Subtree<>(root.getRightChild(), childHeight);
+        if(root.getLeftChild() == null) {
+            root.setRightChild(null);
+            updateSubtreeSize(root);
+            return new Subtree[] {rightChild, new Subtree<>(root, 0)};
+        }
+        Subtree<K, V>[] rest = splitFirst(new Subtree<>(root.getLeftChild(), childHeight));
+        rest[0] = join(rest[0], root, rightChild);
+        return rest;
+    }
+
+
+    // SET OPERATIONS
+
+    /**
+     * Объединяет поддеревья. Данные узлов с равными ключами объединяются функцией объединения.
+     * @param first первое поддерево.
+     * @param second второе поддерево.
+     * @param matches счетчик узлов с равными ключами (matches[0]).
+     * @return объединенное поддерево.
+     */
+    Subtree<K, V> union(Subtree<K, V> first, Subtree<K, V> second, int[] matches) {
+        if(first.root() == null) {
+            return second;
+        }
+        if(second.root() == null) {
+            return first;
+        }
+        BSNode<K, V> root = first.root();
+        int childHeight = first.blackHeight() - (root.getIsRed() ? 0 : 1);
+        Split<K, V> split = split(second, root.getKey());
+        Subtree<K, V> left = union(new Subtree<>(root.getLeftChild(), childHeight), split.left(), matches);
+        Subtree<K, V> right = union(new Subtree<>(root.getRightChild(), childHeight), split.right(), matches);
+        if(split.node() != null) {
+            mergeValue(root, split.node());
+            matches[0]++;
+        }
+        return join(left, root, right);
+    }
+
+    /**
+     * Объединяет поддеревья параллельно (fork-join): объединения левых и правых частей независимы.
+     * Должен вызываться из задачи пула ForkJoinPool. Небольшие поддеревья объединяются последовательно.
+     * @param first первое поддерево.
+     * @param second второе поддерево.
+     * @param matches счетчик узлов с равными ключами (matches[0]).
+     * @return объединенное поддерево.
+     */
+    Subtree<K, V> parallelUnion(Subtree<K, V> first, Subtree<K, V> second, int[] matches) {
+        if(first.blackHeight() < PARALLEL_BLACK_HEIGHT || second.root() == null) {
+            return union(first, second, matches);
+        }
+        BSNode<K, V> root = first.root();
+        int childHeight = first.blackHeight() - (root.getIsRed() ? 0 : 1);
+        Split<K, V> split = split(second, root.getKey());
+        // Правые части объединяются в отдельной задаче со своим счетчиком
+        int[] rightMatches = new int[1];
+        Subtree<K, V> rightFirst = new Subtree<>(root.getRightChild(), childHeight);
+        ForkJoinTask<Subtree<K, V>> rightTask = ForkJoinTask.adapt(() -> parallelUnion(rightFirst, split.right(), rightMatches)).fork();
+        Subtree<K, V> left = parallelUnion(new Subtree<>(root.getLeftChild(), childHeight), split.left(), matches);
+        Subtree<K, V> right = rightTask.join();
+        matches[0] += rightMatches[0];
+        if(split.node() != null) {
+            mergeValue(root, split.node());
+            matches[0]++;
+        }
+        return join(left, root, right);
+    }
+
+    /**
+     * Пересекает поддеревья: остаются узлы первого поддерева, ключи которых есть во втором поддереве.
+     * Данные узлов объединяются функцией объединения.
+     * @param first первое поддерево.
+     * @param second второе поддерево.
+     * @param matches счетчик оставшихся узлов (matches[0]).
+     * @return поддерево пересечения.
+     */
+    Subtree<K, V> intersection(Subtree<K, V> first, Subtree<K, V> second, int[] matches) {
+        if(first.root() == null || second.root() == null) {
+            return new Subtree<>(null, 0);
+        }
+        BSNode<K, V> root = first.root();
+        int childHeight = first.blackHeight() - (root.getIsRed() ? 0 : 1);
+        Split<K, V> split = split(second, root.getKey());
+        Subtree<K, V> left = intersection(new Subtree<>(root.getLeftChild(), childHeight), split.left(), matches);
+        Subtree<K, V> right = intersection(new Subtree<>(root.getRightChild(), childHeight), split.right(), matches);
+        if(split.node() == null) {
+            return join2(left, right);
+        }
+        mergeValue(root, split.node());
+        matches[0]++;
+        return join(left, root, right);
+    }
+
+    /**
+     * Вычитает поддеревья: остаются узлы первого поддерева, ключей которых нет во втором поддереве.
+     * @param first первое поддерево.
+     * @param second второе поддерево.
+     * @param matches счетчик удаленных узлов (matches[0]).
+     * @return поддерево разности.
+     */
+    Subtree<K, V> difference(Subtree<K, V> first, Subtree<K, V> second, int[] matches) {
+        if(first.root() == null || second.root() == null) {
+            return first;
+        }
+        BSNode<K, V> root = second.root();
+        int childHeight = second.blackHeight() - (root.getIsRed() ? 0 : 1);
+        Split<K, V> split = split(first, root.getKey());
+        Subtree<K, V> left = difference(split.left(), new Subtree<>(root.getLeftChild(), childHeight), matches);
+        Subtree<K, V> right = difference(split.right(), new Subtree<>(root.getRightChild(), childHeight), matches);
+        if(split.node() != null) {
+            matches[0]++;
+        }
+        return join2(left, right);
+    }
+
+
+    // NODES
+
+    /**
+     * Объединяет данные узла первого поддерева с данными узла второго поддерева с равным ключом.
+     * @param node узел первого поддерева (остается в результате).
+     * @param other узел второго поддерева.
+     */
+    private void mergeValue(BSNode<K, V> node, BSNode<K, V> other) {
+        if(merge != null) {
+            node.setValue(merge.apply(node.getValue(), other.getValue()));
+        }
+        node.setIsMerge(true);
+    }
+
+    /**
+     * Связывает узел с потомками.
+     * @param left левый потомок или null.
+     * @param node узел.
+     * @param right правый потомок или null.
+     * @param isRed цвет узла.
+     * @return узел.
+     */
+    private BSNode<K, V> link(BSNode<K, V> left, BSNode<K, V> node, BSNode<K, V> right, boolean isRed) {
+        node.setLeftChild(left);
+        node.setRightChild(right);
+        node.setIsRed(isRed);
+        updateSubtreeSize(node);
+        return node;
+    }
+
+    /**
+     * Поворачивает поддерево вокруг заданного узла (без связи с родителем).
+     * @param node верхний узел поддерева.
+     * @param isLeft признак поворота влево (иначе - вправо).
+     * @return новый верхний узел поддерева (цвета узлов не меняются).
+     */
+    private BSNode<K, V> rotate(BSNode<K, V> node, boolean isLeft) {
+        BSNode<K, V> top;
+        if(isLeft) {
+            top = node.getRightChild();
+            node.setRightChild(top.getLeftChild());
+            top.setLeftChild(node);
+        }
+        else {
+            top = node.getLeftChild();
+            node.setLeftChild(top.getRightChild());
+            top.setRightChild(node);
+        }
+        updateSubtreeSize(node);
+        updateSubtreeSize(top);
+        return top;
+    }
+
+    /**
+     * Перекрашивает красный корень поддерева в черный.
+     * @param tree поддерево.
+     * @return черная высота поддерева после перекрашивания.
+     */
+    private static int blacken(Subtree<?, ?> tree) {
+        if(isRed(tree.root())) {
+            tree.root().setIsRed(false);
+            return tree.blackHeight() + 1;
+        }
+        return tree.blackHeight();
+    }
+
+    /**
+     * Пересчитывает размер поддерева узла при поддержке порядковых статистик.
+     * @param node узел.
+     */
+    private void updateSubtreeSize(BSNode<K, V> node) {
+        if(isOrderStatistic) {
+            ((BSOrderNode<K, V>) node).updateSubtreeSize();
+        }
+    }
+
+    /**
+     * Проверяет, что узел красный (отсутствующий узел считается черным).
+     * @param node узел или null.
+     * @return true - узел красный.
+     */
+    private static boolean isRed(BSNode<?, ?> node) {
+        return node != null && node.getIsRed();
+    }
+}
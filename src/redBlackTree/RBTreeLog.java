@@ -0,0 +1,717 @@
+package redBlackTree;
+
+import utils.codec.Codec;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Журнал изменений красно-черного дерева (write-ahead log) в каталоге файлов.
+ * Каталог содержит снимок дерева {@code snapshot-N} (см. {@link RBTreeSnapshot}), включающий все изменения
+ * сегментов журнала с номерами меньше N, и сегменты журнала {@code log-M} (M >= N).
+ * Сегмент журнала - заголовок (признак формата, версия) и записи изменений:
+ *      длина тела записи (int), контрольная сумма CRC32C тела записи (int),
+ *      тело записи: вид изменения (byte), ключ, для добавления или перезаписи - признак наличия данных (byte) и данные.
+ * Ключ и данные записываются кодировщиками, как в снимке дерева.
+ * Записи добавляются в буфер памяти под блокировкой записи дерева, поэтому порядок записей совпадает
+ * с порядком изменений дерева. Буфер записывается в сегмент и сбрасывается на диск (fsync) групповой фиксацией:
+ * первый ожидающий поток записывает все накопленные записи одним вызовом {@code force},
+ * а потоки, добавившие записи во время записи на диск, фиксируются следующим вызовом.
+ * Сегмент, превысивший заданный размер, закрывается, а закрытые сегменты объединяются с последним снимком
+ * в новый снимок в фоновом потоке: снимок восстанавливается и дополняется записями сегментов,
+ * поэтому изменяемое дерево при этом не блокируется.
+ * @param <K> тип ключей дерева.
+ * @param <V> тип соответствующих ключам данных.
+ */
+final class RBTreeLog<K extends Comparable<K>, V> implements AutoCloseable {
+    /**
+     * Признак формата сегмента журнала ("RBL1").
+     */
+    private static final int MAGIC = 0x52424C31;
+
+    /**
+     * Версия формата сегмента журнала.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Размер заголовка сегмента в байтах.
+     */
+    private static final int SEGMENT_HEADER_SIZE = 2 * Integer.BYTES;
+
+    /**
+     * Размер заголовка записи (длина и контрольная сумма тела записи) в байтах.
+     */
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+    /**
+     * Вид изменения: добавление узла или перезапись данных существующего узла.
+     */
+    static final byte PUT = 1;
+
+    /**
+     * Вид изменения: перезапись данных существующего узла в журналах прежних версий.
+     * Применяется так же, как {@link #PUT}, и больше не записывается.
+     */
+    private static final byte LEGACY_OVERWRITE = 2;
+
+    /**
+     * Вид изменения: удаление узла.
+     */
+    static final byte REMOVE = 3;
+
+    /**
+     * Начальная емкость буфера записи.
+     */
+    private static final int BUFFER_CAPACITY = 1 << 16;
+
+    /**
+     * Начальная емкость буфера кодирования записи.
+     */
+    private static final int RECORD_CAPACITY = 64;
+
+    /**
+     * Префикс имени файла снимка.
+     */
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    /**
+     * Префикс имени файла сегмента журнала.
+     */
+    private static final String SEGMENT_PREFIX = "log-";
+
+    /**
+     * Каталог журнала.
+     */
+    private final Path directory;
+
+    /**
+     * Кодировщик ключей.
+     */
+    private final Codec<K> keyCodec;
+
+    /**
+     * Кодировщик данных.
+     */
+    private final Codec<V> valueCodec;
+
+    /**
+     * Порядок ключей или null (естественный порядок).
+     */
+    private final Comparator<? super K> comparator;
+
+    /**
+     * Размер сегмента, при превышении которого сегмент закрывается.
+     */
+    private final long segmentSize;
+
+    /**
+     * Фоновый поток объединения закрытых сегментов со снимком.
+     */
+    private final ExecutorService compactor;
+
+    /**
+     * Контрольная сумма записей (используется под монитором журнала).
+     */
+    private final CRC32C crc = new CRC32C();
+
+    /**
+     * Канал текущего сегмента (используется только потоком, записывающим буфер).
+     */
+    private FileChannel channel;
+
+    /**
+     * Номер текущего сегмента.
+     */
+    private long segment;
+
+    /**
+     * Размер текущего сегмента в байтах.
+     */
+    private long segmentBytes;
+
+    /**
+     * Номер сегмента последнего снимка (снимок включает сегменты с меньшими номерами).
+     */
+    private volatile long snapshotSegment;
+
+    /**
+     * Буфер добавляемых записей.
+     */
+    private ByteBuffer pending = ByteBuffer.allocate(BUFFER_CAPACITY);
+
+    /**
+     * Свободный буфер для обмена с буфером добавляемых записей (null во время записи на диск).
+     */
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER_CAPACITY);
+
+    /**
+     * Позиция конца добавленных записей (количество байт всех добавленных записей).
+     */
+    private long appended;
+
+    /**
+     * Позиция конца записей, сброшенных на диск.
+     */
+    private long durable;
+
+    /**
+     * Признак записи буфера на диск одним из потоков.
+     */
+    private boolean isFlushing;
+
+    /**
+     * Признак закрытого журнала.
+     */
+    private boolean isClosed;
+
+    /**
+     * Ошибка записи на диск: после нее журнал не принимает изменения.
+     */
+    private volatile IOException failure;
+
+    /**
+     * Ошибка последнего фонового объединения сегментов со снимком или null.
+     */
+    private volatile IOException compactionFailure;
+
+    /**
+     * Открывает журнал для записи в новый сегмент (после восстановления дерева, см. {@link #recover}).
+     * @param directory каталог журнала.
+     * @param keyCodec кодировщик ключей.
+     * @param valueCodec кодировщик данных.
+     * @param comparator порядок ключей или null (естественный порядок).
+     * @param segmentSize размер сегмента, при превышении которого сегмент закрывается.
+     * @throws IOException если при создании сегмента произошла ошибка ввода-вывода.
+     */
+    RBTreeLog(Path directory, Codec<K> keyCodec, Codec<V> valueCodec, Comparator<? super K> comparator, long segmentSize) throws IOException {
+        if(segmentSize <= 0) {
+            throw new IllegalArgumentException("Размер сегмента журнала должен быть положительным: " + segmentSize);
+        }
+        this.directory = directory;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.comparator = comparator;
+        this.segmentSize = segmentSize;
+        long[] snapshots = list(directory, SNAPSHOT_PREFIX);
+        long[] segments = list(directory, SEGMENT_PREFIX);
+        snapshotSegment = snapshots.length > 0 ? snapshots[snapshots.length - 1] : 0;
+        segment = Math.max(snapshotSegment, segments.length > 0 ? segments[segments.length - 1] + 1 : 0);
+        channel = openSegment(segment);
+        segmentBytes = SEGMENT_HEADER_SIZE;
+        compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "RBTreeLog-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Восстанавливает дерево из каталога журнала: читает последний снимок и применяет записи последующих сегментов.
+     * Неполная или поврежденная запись в конце последнего сегмента (прерванная запись при сбое) отбрасывается,
+     * и сегмент усекается до последней целой записи. Устаревшие снимки, сегменты и временные файлы удаляются.
+     * @param directory каталог журнала (создается при отсутствии).
+     * @param keyCodec кодировщик ключей.
+     * @param valueCodec кодировщик данных.
+     * @param comparator порядок ключей или null (естественный порядок).
+     * @return восстановленное дерево.
+     * @param <K> тип ключей дерева.
+     * @param <V> тип соответствующих ключам данных.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода или поврежден снимок либо не последний сегмент.
+     */
+    static <K extends Comparable<K>, V> RBTree<K, V> recover(Path directory, Codec<K> keyCodec, Codec<V> valueCodec,
+                                                            Comparator<? super K> comparator) throws IOException {
+        Files.createDirectories(directory);
+        try(Stream<Path> files = Files.list(directory)) {
+            for(Path file : (Iterable<Path>) files::iterator) {
+                if(file.getFileName().toString().endsWith(".tmp")) {
+                    Files.delete(file);
+                }
+            }
+        }
+        long[] snapshots = list(directory, SNAPSHOT_PREFIX);
+        long snapshotSegment = snapshots.length > 0 ? snapshots[snapshots.length - 1] : 0;
+        RBTree<K, V> tree = snapshots.length > 0
+                ? RBTree.readSnapshot(getPath(directory, SNAPSHOT_PREFIX, snapshotSegment), keyCodec, valueCodec, comparator)
+                : new RBTree<K, V>(comparator);
+        deleteBefore(directory, snapshotSegment);
+        long[] segments = list(directory, SEGMENT_PREFIX);
+        for(int j = 0; j < segments.length; ++j) {
+            replay(getPath(directory, SEGMENT_PREFIX, segments[j]), tree, keyCodec, valueCodec, j == segments.length - 1);
+        }
+        return tree;
+    }
+
+    /**
+     * Применяет записи сегмента к дереву.
+     * @param path путь к файлу сегмента.
+     * @param tree дерево.
+     * @param keyCodec кодировщик ключей.
+     * @param valueCodec кодировщик данных.
+     * @param isLast последний сегмент: неполные записи в конце сегмента отбрасываются.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода или сегмент поврежден.
+     */
+    private static <K extends Comparable<K>, V> void replay(Path path, RBTree<K, V> tree, Codec<K> keyCodec, Codec<V> valueCodec,
+                                                           boolean isLast) throws IOException {
+        ByteBuffer buffer;
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size > Integer.MAX_VALUE) {
+                throw new IOException("Сегмент журнала слишком велик: " + path);
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while(buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Чтение сегмента целиком
+            }
+            buffer.flip();
+        }
+        if(buffer.remaining() < SEGMENT_HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            if(!isLast) {
+                throw new IOException("Файл не является сегментом журнала красно-черного дерева версии " + VERSION + ": " + path);
+            }
+            // Сегмент создан, но заголовок не записан до сбоя
+            Files.delete(path);
+            return;
+        }
+        CRC32C crc = new CRC32C();
+        int valid = buffer.position();
+        while(buffer.remaining() >= RECORD_HEADER_SIZE) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if(length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.slice(buffer.position(), length));
+            if((int) crc.getValue() != checksum) {
+                break;
+            }
+            ByteBuffer body = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            try {
+                apply(body, tree, keyCodec, valueCodec);
+            }
+            catch(RuntimeException e) {
+                throw new IOException("Запись журнала не декодируется: " + path + ", позиция " + valid, e);
+            }
+            valid = buffer.position();
+        }
+        if(isLast && valid == SEGMENT_HEADER_SIZE) {
+            // Последний сегмент без целых записей: новый сегмент создается с тем же номером
+            Files.delete(path);
+            return;
+        }
+        if(valid < buffer.limit()) {
+            if(!isLast) {
+                throw new IOException("Сегмент журнала красно-черного дерева поврежден: " + path + ", позиция " + valid);
+            }
+            try(FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * Применяет запись к дереву.
+     * @param body тело записи.
+     * @param tree дерево.
+     * @param keyCodec кодировщик ключей.
+     * @param valueCodec кодировщик данных.
+     * @throws IllegalArgumentException если запись имеет неизвестный вид изменения.
+     */
+    private static <K extends Comparable<K>, V> void apply(ByteBuffer body, RBTree<K, V> tree, Codec<K> keyCodec, Codec<V> valueCodec) {
+        byte type = body.get();
+        K key = readValue(body, keyCodec);
+        if(type == REMOVE) {
+            tree.removeNode(key);
+        }
+        else if(type == PUT || type == LEGACY_OVERWRITE) {
+            tree.add(key, body.get() != 0 ? readValue(body, valueCodec) : null);
+        }
+        else {
+            throw new IllegalArgumentException("Неизвестный вид изменения: " + type);
+        }
+    }
+
+    /**
+     * Читает значение из тела записи: значение переменного размера - после его длины.
+     * @param body тело записи.
+     * @param codec кодировщик значений.
+     * @return прочитанное значение.
+     */
+    private static <T> T readValue(ByteBuffer body, Codec<T> codec) {
+        int length = codec.getFixedSize();
+        if(length == 0) {
+            length = body.getInt();
+        }
+        if(length < 0 || length > body.remaining()) {
+            throw new IllegalArgumentException("Некорректная длина значения: " + length);
+        }
+        return codec.read(body, length);
+    }
+
+    /**
+     * Кодирует запись изменения (контрольная сумма вычисляется при добавлении записи).
+     * Вызывается до изменения дерева: ошибка кодирования не оставляет изменение без записи в журнале.
+     * @param type вид изменения.
+     * @param key ключ.
+     * @param value данные (не записываются для удаления).
+     * @return запись изменения.
+     */
+    byte[] encode(byte type, K key, V value) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_CAPACITY);
+        while(true) {
+            try {
+                buffer.position(RECORD_HEADER_SIZE);
+                buffer.put(type);
+                RBTreeSnapshot.writeValue(buffer, key, keyCodec);
+                if(type != REMOVE) {
+                    buffer.put((byte) (value != null ? 1 : 0));
+                    if(value != null) {
+                        RBTreeSnapshot.writeValue(buffer, value, valueCodec);
+                    }
+                }
+                break;
+            }
+            catch(BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+        buffer.putInt(0, buffer.position() - RECORD_HEADER_SIZE);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Добавляет запись в буфер журнала без записи на диск.
+     * Вызывается под блокировкой записи дерева до изменения дерева: если журнал не принимает записи,
+     * дерево не изменяется.
+     * @param record кодированная запись (см. {@link #encode}).
+     * @return позиция конца записи для ожидания фиксации (см. {@link #sync(long)}).
+     * @throws IllegalStateException если журнал закрыт.
+     * @throws UncheckedIOException если запись журнала на диск завершилась ошибкой.
+     */
+    synchronized long append(byte[] record) {
+        checkWritable();
+        crc.reset();
+        crc.update(record, RECORD_HEADER_SIZE, record.length - RECORD_HEADER_SIZE);
+        ByteBuffer.wrap(record).putInt(Integer.BYTES, (int) crc.getValue());
+        if(pending.remaining() < record.length) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + record.length));
+            pending.flip();
+            pending = larger.put(pending);
+        }
+        pending.put(record);
+        appended += record.length;
+        return appended;
+    }
+
+    /**
+     * Получает позицию конца добавленных записей.
+     * @return позиция конца добавленных записей.
+     */
+    synchronized long getAppended() {
+        return appended;
+    }
+
+    /**
+     * Получает размер записей, не записанных на диск.
+     * @return размер записей в байтах.
+     */
+    synchronized int getPendingBytes() {
+        return pending.position();
+    }
+
+    /**
+     * Проверяет отсутствие ошибки записи журнала на диск.
+     * @throws IOException если запись журнала на диск завершилась ошибкой.
+     */
+    void checkFailure() throws IOException {
+        IOException error = failure;
+        if(error != null) {
+            throw new IOException("Журнал красно-черного дерева недоступен после ошибки записи", error);
+        }
+    }
+
+    /**
+     * Проверяет, что журнал принимает записи.
+     * Вызывается под блокировкой записи дерева до изменения дерева (также при добавлении записи, см. {@link #append}),
+     * чтобы изменение не было выполнено без записи в журнал.
+     * @throws IllegalStateException если журнал закрыт.
+     * @throws UncheckedIOException если запись журнала на диск завершилась ошибкой.
+     */
+    synchronized void checkWritable() {
+        if(isClosed) {
+            throw new IllegalStateException("Журнал красно-черного дерева закрыт");
+        }
+        try {
+            checkFailure();
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ожидает сброса на диск записей до заданной позиции (групповая фиксация).
+     * Если буфер не записывается другим потоком, текущий поток записывает все накопленные записи и вызывает
+     * {@code force}; иначе ожидает завершения записи и при необходимости повторяет ее для новых записей.
+     * @param position позиция конца записей (см. {@link #append}).
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    void sync(long position) throws IOException {
+        flush(position, false);
+    }
+
+    /**
+     * Сбрасывает на диск все записи, закрывает текущий сегмент и объединяет закрытые сегменты
+     * с последним снимком в новый снимок, ожидая завершения объединения.
+     * @throws IOException если при записи или объединении произошла ошибка ввода-вывода.
+     */
+    void checkpoint() throws IOException {
+        Future<?> compaction = flush(getAppended(), true);
+        try {
+            compaction.get();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Ожидание объединения журнала прервано");
+        }
+        catch(ExecutionException e) {
+            throw e.getCause() instanceof IOException ioException ? ioException : new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Записывает буфер на диск, если записи до заданной позиции не сброшены на диск.
+     * @param position позиция конца записей.
+     * @param isRotate закрыть текущий сегмент независимо от его размера.
+     * @return задача объединения сегментов со снимком (при закрытии сегмента) или null.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    private Future<?> flush(long position, boolean isRotate) throws IOException {
+        ByteBuffer batch;
+        long target;
+        synchronized(this) {
+            while(true) {
+                checkFailure();
+                if(durable >= position && !isRotate) {
+                    return null;
+                }
+                if(!isFlushing) {
+                    break;
+                }
+                try {
+                    wait();
+                }
+                catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Ожидание записи журнала прервано");
+                }
+            }
+            if(isClosed) {
+                throw new IOException("Журнал красно-черного дерева закрыт");
+            }
+            isFlushing = true;
+            batch = pending;
+            pending = spare;
+            spare = null;
+            target = appended;
+        }
+        IOException error = null;
+        Future<?> compaction = null;
+        try {
+            batch.flip();
+            segmentBytes += batch.remaining();
+            while(batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            channel.force(false);
+            if(isRotate || segmentBytes >= segmentSize) {
+                channel.close();
+                segment++;
+                channel = openSegment(segment);
+                segmentBytes = SEGMENT_HEADER_SIZE;
+                long boundary = segment;
+                compaction = compactor.submit(() -> {
+                    compact(boundary);
+                    return null;
+                });
+            }
+        }
+        catch(IOException e) {
+            error = e;
+        }
+        synchronized(this) {
+            batch.clear();
+            spare = batch;
+            isFlushing = false;
+            if(error != null) {
+                failure = error;
+            }
+            else {
+                durable = target;
+            }
+            notifyAll();
+        }
+        if(error != null) {
+            throw error;
+        }
+        return compaction;
+    }
+
+    /**
+     * Объединяет последний снимок и закрытые сегменты с номерами меньше заданного в новый снимок,
+     * затем удаляет прежний снимок и объединенные сегменты (после сброса на диск нового снимка и каталога).
+     * Выполняется в фоновом потоке.
+     * @param boundary номер первого незакрытого сегмента.
+     * @throws IOException если при объединении произошла ошибка ввода-вывода.
+     */
+    private void compact(long boundary) throws IOException {
+        long base = snapshotSegment;
+        if(base >= boundary) {
+            return;
+        }
+        try {
+            RBTree<K, V> tree = base > 0
+                    ? RBTree.readSnapshot(getPath(directory, SNAPSHOT_PREFIX, base), keyCodec, valueCodec, comparator)
+                    : new RBTree<K, V>(comparator);
+            for(long number : list(directory, SEGMENT_PREFIX)) {
+                if(number >= base && number < boundary) {
+                    replay(getPath(directory, SEGMENT_PREFIX, number), tree, keyCodec, valueCodec, false);
+                }
+            }
+            tree.writeSnapshot(getPath(directory, SNAPSHOT_PREFIX, boundary), keyCodec, valueCodec);
+            snapshotSegment = boundary;
+            deleteBefore(directory, boundary);
+            compactionFailure = null;
+        }
+        catch(IOException | RuntimeException e) {
+            IOException error = e instanceof IOException ioException ? ioException : new IOException(e);
+            compactionFailure = error;
+            throw error;
+        }
+    }
+
+    /**
+     * Создает сегмент журнала, записывает его заголовок и сбрасывает на диск сегмент и каталог.
+     * @param number номер сегмента.
+     * @return канал сегмента.
+     * @throws IOException если при создании сегмента произошла ошибка ввода-вывода.
+     */
+    private FileChannel openSegment(long number) throws IOException {
+        Path path = getPath(directory, SEGMENT_PREFIX, number);
+        FileChannel segmentChannel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+            while(header.hasRemaining()) {
+                segmentChannel.write(header);
+            }
+            // Записи сегмента сбрасываются без метаданных (force(false)): имя сегмента сохраняется сбросом каталога
+            segmentChannel.force(true);
+            RBTreeSnapshot.forceDirectory(path);
+            return segmentChannel;
+        }
+        catch(IOException | RuntimeException e) {
+            segmentChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Сбрасывает на диск все записи, ожидает завершения фонового объединения и закрывает журнал.
+     * @throws IOException если при записи произошла ошибка ввода-вывода или последнее объединение завершилось ошибкой.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            sync(getAppended());
+        }
+        finally {
+            synchronized(this) {
+                while(isFlushing) {
+                    try {
+                        wait();
+                    }
+                    catch(InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                isClosed = true;
+            }
+            compactor.shutdown();
+            try {
+                compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channel.close();
+        }
+        if(compactionFailure != null) {
+            throw compactionFailure;
+        }
+    }
+
+    /**
+     * Удаляет снимки и сегменты с номерами меньше заданного.
+     * @param directory каталог журнала.
+     * @param number номер сегмента действующего снимка.
+     * @throws IOException если при удалении произошла ошибка ввода-вывода.
+     */
+    private static void deleteBefore(Path directory, long number) throws IOException {
+        for(String prefix : new String[] {SNAPSHOT_PREFIX, SEGMENT_PREFIX}) {
+            for(long other : list(directory, prefix)) {
+                if(other < number) {
+                    Files.deleteIfExists(getPath(directory, prefix, other));
+                }
+            }
+        }
+    }
+
+    /**
+     * Получает упорядоченные номера файлов каталога с заданным префиксом имени.
+     * @param directory каталог журнала.
+     * @param prefix префикс имени файла.
+     * @return номера файлов по возрастанию.
+     * @throws IOException если при чтении каталога произошла ошибка ввода-вывода.
+     */
+    private static long[] list(Path directory, String prefix) throws IOException {
+        try(Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.length() > prefix.length()
+                            && name.substring(prefix.length()).chars().allMatch(Character::isDigit))
+                    .mapToLong(name -> Long.parseLong(name.substring(prefix.length())))
+                    .sorted()
+                    .toArray();
+        }
+    }
+
+    /**
+     * Получает путь к файлу снимка или сегмента.
+     * @param directory каталог журнала.
+     * @param prefix префикс имени файла.
+     * @param number номер сегмента.
+     * @return путь к файлу.
+     */
+    private static Path getPath(Path directory, String prefix, long number) {
+        return directory.resolve(String.format("%s%016d", prefix, number));
+    }
+}
@@ -0,0 +1,882 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+/**
+ * Отображение {@link NavigableMap} на основе красно-чёрного дерева {@link RBTree}.
+ * Все операции выполняются непосредственно над узлами дерева без копирования данных,
+ * в том числе операции представлений (headMap, tailMap, subMap, descendingMap, наборы ключей и пар).
+ * Представление задается границами диапазона ключей и направлением обхода и изменяет то же дерево.
+ * Ключи упорядочены в соответствии с их естественным порядком, ключ null не поддерживается.
+ * Итераторы обходят дерево по стеку предков без поиска каждого следующего узла от корня.
+ * Изменение структуры дерева во время обхода допускается только через итератор: итераторы fail-fast
+ * по счетчику структурных изменений {@link binarySearchTree.BSTree#getModCount()} и при ином изменении
+ * выбрасывают {@link ConcurrentModificationException}.
+ * @param <K> тип ключей, поддерживаемых этим отображением.
+ * @param <V> тип соответствующих ключам данных.
+ */
+public class RBTreeMap<K extends Comparable<K>, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+    /**
+     * Красно-черное дерево.
+     */
+    private final RBTree<K, V> tree;
+
+    /**
+     * Наличие нижней границы диапазона ключей.
+     */
+    private final boolean hasLow;
+
+    /**
+     * Нижняя граница диапазона ключей.
+     */
+    private final K low;
+
+    /**
+     * Включение нижней границы в диапазон ключей.
+     */
+    private final boolean isLowInclusive;
+
+    /**
+     * Наличие верхней границы диапазона ключей.
+     */
+    private final boolean hasHigh;
+
+    /**
+     * Верхняя граница диапазона ключей.
+     */
+    private final K high;
+
+    /**
+     * Включение верхней границы в диапазон ключей.
+     */
+    private final boolean isHighInclusive;
+
+    /**
+     * Обратный порядок обхода ключей.
+     */
+    private final boolean isDescending;
+
+    /**
+     * Создает пустое отображение на новом красно-черном дереве.
+     */
+    public RBTreeMap() {
+        this(new RBTree<>());
+    }
+
+    /**
+     * Создает пустое отображение на новом красно-черном дереве с заданным порядком ключей.
+     * @param comparator порядок ключей или null (естественный порядок).
+     */
+    public RBTreeMap(Comparator<? super K> comparator) {
+        this(new RBTree<K, V>(comparator));
+    }
+
+    /**
+     * Создает отображение на заданном красно-черном дереве (без копирования).
+     * @param tree красно-черное дерево.
+     */
+    public RBTreeMap(RBTree<K, V> tree) {
+        this(Objects.requireNonNull(tree), false, null, false, false, null, false, false);
+    }
+
+    /**
+     * Создает отображение с копией пар заданного отображения.
+     * @param map отображение.
+     */
+    public RBTreeMap(Map<? extends K, ? extends V> map) {
+        this();
+        putAll(map);
+    }
+
+    private RBTreeMap(RBTree<K, V> tree, boolean hasLow, K low, boolean isLowInclusive,
+                      boolean hasHigh, K high, boolean isHighInclusive, boolean isDescending) {
+        this.tree = tree;
+        this.hasLow = hasLow;
+        this.low = low;
+        this.isLowInclusive = isLowInclusive;
+        this.hasHigh = hasHigh;
+        this.high = high;
+        this.isHighInclusive = isHighInclusive;
+        this.isDescending = isDescending;
+    }
+
+    /**
+     * Получает красно-черное дерево отображения.
+     * @return красно-черное дерево.
+     */
+    public RBTree<K, V> getTree() {
+        return tree;
+    }
+
+
+    // MAP
+
+    @Override
+    public int size() {
+        if(!hasLow && !hasHigh) {
+            return tree.size();
+        }
+        if(tree.isOrderStatistic()) {
+            return tree.countInRange(hasLow ? low : null, isLowInclusive, hasHigh ? high : null, isHighInclusive);
+        }
+        int count = 0;
+        for(RBTreeIterator<K, V> iterator = createTreeIterator(null); iterator.hasNext(); iterator.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getAbsLowest() == null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return getNode(key) != null;
+    }
+
+    @Override
+    public V get(Object key) {
+        BSNode<K, V> node = getNode(key);
+        return node != null ? node.getValue() : null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if(!isInRange(Objects.requireNonNull(key))) {
+            throw new IllegalArgumentException("key out of range: " + key);
+        }
+        // Один спуск от корня: добавление узла определяется по изменению размера дерева
+        int size = tree.size();
+        BSNode<K, V> node = tree.addIfAbsent(key, value);
+        if(tree.size() != size) {
+            return null;
+        }
+        V oldValue = node.getValue();
+        node.setValue(value);
+        return oldValue;
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        if(!isInRange(Objects.requireNonNull(key))) {
+            throw new IllegalArgumentException("key out of range: " + key);
+        }
+        int size = tree.size();
+        BSNode<K, V> node = tree.addIfAbsent(key, value);
+        if(tree.size() != size) {
+            return null;
+        }
+        V oldValue = node.getValue();
+        if(oldValue == null) {
+            node.setValue(value);
+        }
+        return oldValue;
+    }
+
+    @Override
+    public V remove(Object key) {
+        BSNode<K, V> node = getNode(key);
+        if(node == null) {
+            return null;
+        }
+        V oldValue = node.getValue();
+        tree.removeNode(node.getKey());
+        return oldValue;
+    }
+
+    @Override
+    public void clear() {
+        if(!hasLow && !hasHigh) {
+            tree.clear();
+        }
+        else {
+            // Удаление узлов диапазона по одному
+            for(BSNode<K, V> node = getAbsLowest(); node != null; node = getAbsHigher(node.getKey())) {
+                tree.removeNode(node.getKey());
+            }
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return navigableKeySet();
+    }
+
+
+    // SORTED MAP
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return isDescending ? Collections.reverseOrder(tree.comparator()) : tree.comparator();
+    }
+
+    @Override
+    public K firstKey() {
+        return getKeyOrThrow(getFirst());
+    }
+
+    @Override
+    public K lastKey() {
+        return getKeyOrThrow(getLast());
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+
+    // NAVIGABLE MAP
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return exportEntry(getLower(key));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return getKeyOrNull(getLower(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> floorEntry(K key) {
+        return exportEntry(getFloor(key));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return getKeyOrNull(getFloor(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return exportEntry(getCeiling(key));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return getKeyOrNull(getCeiling(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> higherEntry(K key) {
+        return exportEntry(getHigher(key));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return getKeyOrNull(getHigher(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> firstEntry() {
+        return exportEntry(getFirst());
+    }
+
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        return exportEntry(getLast());
+    }
+
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() {
+        return pollEntry(getFirst());
+    }
+
+    @Override
+    public Map.Entry<K, V> pollLastEntry() {
+        return pollEntry(getLast());
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return new RBTreeMap<>(tree, hasLow, low, isLowInclusive, hasHigh, high, isHighInclusive, !isDescending);
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return new KeySet();
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        if(isDescending) {
+            // В обратном порядке начальный ключ - верхняя граница диапазона
+            return createView(toKey, toInclusive, fromKey, fromInclusive);
+        }
+        return createView(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        checkBound(toKey, inclusive);
+        if(isDescending) {
+            return new RBTreeMap<>(tree, true, toKey, inclusive, hasHigh, high, isHighInclusive, true);
+        }
+        return new RBTreeMap<>(tree, hasLow, low, isLowInclusive, true, toKey, inclusive, false);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        checkBound(fromKey, inclusive);
+        if(isDescending) {
+            return new RBTreeMap<>(tree, hasLow, low, isLowInclusive, true, fromKey, inclusive, true);
+        }
+        return new RBTreeMap<>(tree, true, fromKey, inclusive, hasHigh, high, isHighInclusive, false);
+    }
+
+
+    // VIEW
+
+    /**
+     * Создает представление с заданными границами диапазона ключей (в порядке ключей дерева).
+     * @param lowKey нижняя граница.
+     * @param lowInclusive включение нижней границы.
+     * @param highKey верхняя граница.
+     * @param highInclusive включение верхней границы.
+     * @return представление.
+     */
+    private NavigableMap<K, V> createView(K lowKey, boolean lowInclusive, K highKey, boolean highInclusive) {
+        if(compare(lowKey, highKey) > 0) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        checkBound(lowKey, lowInclusive);
+        checkBound(highKey, highInclusive);
+        return new RBTreeMap<>(tree, true, lowKey, lowInclusive, true, highKey, highInclusive, isDescending);
+    }
+
+    /**
+     * Сравнивает ключи в порядке ключей дерева.
+     * @param key первый ключ.
+     * @param other второй ключ.
+     * @return значение сравнения ключей.
+     */
+    private int compare(K key, K other) {
+        Comparator<? super K> comparator = tree.comparator();
+        return comparator == null ? key.compareTo(other) : comparator.compare(key, other);
+    }
+
+    /**
+     * Проверяет, что граница нового представления не выходит за диапазон ключей текущего представления.
+     * @param key граница.
+     * @param inclusive включение границы.
+     */
+    private void checkBound(K key, boolean inclusive) {
+        Objects.requireNonNull(key);
+        if(hasLow) {
+            int cmp = compare(key, low);
+            if(cmp < 0 || (cmp == 0 && !isLowInclusive && inclusive)) {
+                throw new IllegalArgumentException("key out of range: " + key);
+            }
+        }
+        if(hasHigh) {
+            int cmp = compare(key, high);
+            if(cmp > 0 || (cmp == 0 && !isHighInclusive && inclusive)) {
+                throw new IllegalArgumentException("key out of range: " + key);
+            }
+        }
+    }
+
+    /**
+     * Проверяет, что ключ меньше нижней границы диапазона.
+     * @param key значение ключа.
+     * @return true - ключ вне диапазона снизу.
+     */
+    private boolean isTooLow(K key) {
+        if(!hasLow) {
+            return false;
+        }
+        int cmp = compare(key, low);
+        return cmp < 0 || (cmp == 0 && !isLowInclusive);
+    }
+
+    /**
+     * Проверяет, что ключ больше верхней границы диапазона.
+     * @param key значение ключа.
+     * @return true - ключ вне диапазона сверху.
+     */
+    private boolean isTooHigh(K key) {
+        if(!hasHigh) {
+            return false;
+        }
+        int cmp = compare(key, high);
+        return cmp > 0 || (cmp == 0 && !isHighInclusive);
+    }
+
+    /**
+     * Проверяет, что ключ находится в диапазоне представления.
+     * @param key значение ключа.
+     * @return true - ключ в диапазоне.
+     */
+    private boolean isInRange(K key) {
+        return !isTooLow(key) && !isTooHigh(key);
+    }
+
+    /**
+     * Находит узел по ключу в диапазоне представления.
+     * @param key значение ключа.
+     * @return найденный узел или null.
+     */
+    @SuppressWarnings("unchecked")
+    private BSNode<K, V> getNode(Object key) {
+        K k = (K) Objects.requireNonNull(key);
+        return isInRange(k) ? tree.findNode(k) : null;
+    }
+
+
+    /**
+     * Создает итератор узлов дерева в диапазоне и порядке обхода представления.
+     * @param after ключ, после которого начинается обход (не включается), или null - с начала диапазона.
+     * @return итератор узлов дерева.
+     */
+    private RBTreeIterator<K, V> createTreeIterator(K after) {
+        K lowKey = hasLow ? low : null;
+        boolean lowInclusive = isLowInclusive;
+        K highKey = hasHigh ? high : null;
+        boolean highInclusive = isHighInclusive;
+        if(after != null) {
+            if(isDescending) {
+                highKey = after;
+                highInclusive = false;
+            }
+            else {
+                lowKey = after;
+                lowInclusive = false;
+            }
+        }
+        return tree.rangeIterator(lowKey, lowInclusive, highKey, highInclusive, isDescending);
+    }
+
+
+    // ABSOLUTE NAVIGATION (в естественном порядке ключей с учетом границ диапазона)
+
+    private BSNode<K, V> getAbsLowest() {
+        BSNode<K, V> node = !hasLow ? tree.findFirstNode()
+                : isLowInclusive ? tree.findCeilingNode(low) : tree.findHigherNode(low);
+        return node == null || isTooHigh(node.getKey()) ? null : node;
+    }
+
+    private BSNode<K, V> getAbsHighest() {
+        BSNode<K, V> node = !hasHigh ? tree.findLastNode()
+                : isHighInclusive ? tree.findFloorNode(high) : tree.findLowerNode(high);
+        return node == null || isTooLow(node.getKey()) ? null : node;
+    }
+
+    private BSNode<K, V> getAbsCeiling(K key) {
+        if(isTooLow(key)) {
+            return getAbsLowest();
+        }
+        BSNode<K, V> node = tree.findCeilingNode(key);
+        return node == null || isTooHigh(node.getKey()) ? null : node;
+    }
+
+    private BSNode<K, V> getAbsHigher(K key) {
+        if(isTooLow(key)) {
+            return getAbsLowest();
+        }
+        BSNode<K, V> node = tree.findHigherNode(key);
+        return node == null || isTooHigh(node.getKey()) ? null : node;
+    }
+
+    private BSNode<K, V> getAbsFloor(K key) {
+        if(isTooHigh(key)) {
+            return getAbsHighest();
+        }
+        BSNode<K, V> node = tree.findFloorNode(key);
+        return node == null || isTooLow(node.getKey()) ? null : node;
+    }
+
+    private BSNode<K, V> getAbsLower(K key) {
+        if(isTooHigh(key)) {
+            return getAbsHighest();
+        }
+        BSNode<K, V> node = tree.findLowerNode(key);
+        return node == null || isTooLow(node.getKey()) ? null : node;
+    }
+
+
+    // RELATIVE NAVIGATION (в порядке обхода представления)
+
+    private BSNode<K, V> getFirst() {
+        return isDescending ? getAbsHighest() : getAbsLowest();
+    }
+
+    private BSNode<K, V> getLast() {
+        return isDescending ? getAbsLowest() : getAbsHighest();
+    }
+
+    private BSNode<K, V> getCeiling(K key) {
+        Objects.requireNonNull(key);
+        return isDescending ? getAbsFloor(key) : getAbsCeiling(key);
+    }
+
+    private BSNode<K, V> getHigher(K key) {
+        Objects.requireNonNull(key);
+        return isDescending ? getAbsLower(key) : getAbsHigher(key);
+    }
+
+    private BSNode<K, V> getFloor(K key) {
+        Objects.requireNonNull(key);
+        return isDescending ? getAbsCeiling(key) : getAbsFloor(key);
+    }
+
+    private BSNode<K, V> getLower(K key) {
+        Objects.requireNonNull(key);
+        return isDescending ? getAbsHigher(key) : getAbsLower(key);
+    }
+
+
+    // ENTRIES
+
+    /**
+     * Создает неизменяемую пару ключа и данных узла.
+     * @param node узел или null.
+     * @return пара или null.
+     */
+    private static <K extends Comparable<K>, V> Map.Entry<K, V> exportEntry(BSNode<K, V> node) {
+        return node == null ? null : new AbstractMap.SimpleImmutableEntry<>(node.getKey(), node.getValue());
+    }
+
+    private static <K extends Comparable<K>> K getKeyOrNull(BSNode<K, ?> node) {
+        return node == null ? null : node.getKey();
+    }
+
+    private static <K extends Comparable<K>> K getKeyOrThrow(BSNode<K, ?> node) {
+        if(node == null) {
+            throw new NoSuchElementException();
+        }
+        return node.getKey();
+    }
+
+    /**
+     * Удаляет узел и возвращает его пару ключа и данных.
+     * @param node узел или null.
+     * @return пара или null.
+     */
+    private Map.Entry<K, V> pollEntry(BSNode<K, V> node) {
+        Map.Entry<K, V> entry = exportEntry(node);
+        if(node != null) {
+            tree.removeNode(node.getKey());
+        }
+        return entry;
+    }
+
+    /**
+     * Пара ключа и данных узла дерева (изменение данных пары изменяет данные узла).
+     */
+    private static final class NodeEntry<K extends Comparable<K>, V> implements Map.Entry<K, V> {
+        private final BSNode<K, V> node;
+
+        NodeEntry(BSNode<K, V> node) {
+            this.node = node;
+        }
+
+        @Override
+        public K getKey() {
+            return node.getKey();
+        }
+
+        @Override
+        public V getValue() {
+            return node.getValue();
+        }
+
+        @Override
+        public V setValue(V value) {
+            V oldValue = node.getValue();
+            node.setValue(value);
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Map.Entry<?, ?> e && Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * Итератор узлов представления в порядке обхода.
+     */
+    private abstract class NodeIterator<T> implements Iterator<T> {
+        private RBTreeIterator<K, V> iterator = createTreeIterator(null);
+        private BSNode<K, V> lastReturned;
+
+        /**
+         * Счетчик изменений структуры дерева при создании итератора или удалении узла через итератор.
+         */
+        private int expectedModCount = tree.getModCount();
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        /**
+         * Получает следующий узел.
+         * @return следующий узел.
+         * @throws ConcurrentModificationException если структура дерева изменена не через итератор.
+         */
+        BSNode<K, V> nextNode() {
+            checkModCount();
+            lastReturned = iterator.next();
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if(lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            checkModCount();
+            K key = lastReturned.getKey();
+            tree.removeNode(key);
+            lastReturned = null;
+            expectedModCount = tree.getModCount();
+            // Удаление изменяет структуру дерева: обход продолжается от ключа удаленного узла
+            iterator = createTreeIterator(key);
+        }
+
+        /**
+         * Проверяет, что структура дерева не изменена в обход итератора.
+         * Изменение данных существующего узла структуру дерева не изменяет.
+         * @throws ConcurrentModificationException если структура дерева изменена.
+         */
+        private void checkModCount() {
+            if(tree.getModCount() != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * Набор пар ключей и данных представления.
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new NodeIterator<>() {
+                @Override
+                public Map.Entry<K, V> next() {
+                    return new NodeEntry<>(nextNode());
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return RBTreeMap.this.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return RBTreeMap.this.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            RBTreeMap.this.clear();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if(!(o instanceof Map.Entry<?, ?> entry) || entry.getKey() == null) {
+                return false;
+            }
+            BSNode<K, V> node = getNode(entry.getKey());
+            return node != null && Objects.equals(node.getValue(), entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if(!(o instanceof Map.Entry<?, ?> entry) || entry.getKey() == null) {
+                return false;
+            }
+            BSNode<K, V> node = getNode(entry.getKey());
+            if(node == null || !Objects.equals(node.getValue(), entry.getValue())) {
+                return false;
+            }
+            tree.removeNode(node.getKey());
+            return true;
+        }
+    }
+
+    /**
+     * Набор ключей отображения (представление того же дерева).
+     */
+    private final class KeySet extends AbstractSet<K> implements NavigableSet<K> {
+        private final RBTreeMap<K, V> map = RBTreeMap.this;
+
+        @Override
+        public Iterator<K> iterator() {
+            return new NodeIterator<>() {
+                @Override
+                public K next() {
+                    return nextNode().getKey();
+                }
+            };
+        }
+
+        @Override
+        public Iterator<K> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if(!map.containsKey(o)) {
+                return false;
+            }
+            map.remove(o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return map.comparator();
+        }
+
+        @Override
+        public K first() {
+            return map.firstKey();
+        }
+
+        @Override
+        public K last() {
+            return map.lastKey();
+        }
+
+        @Override
+        public K lower(K key) {
+            return map.lowerKey(key);
+        }
+
+        @Override
+        public K floor(K key) {
+            return map.floorKey(key);
+        }
+
+        @Override
+        public K ceiling(K key) {
+            return map.ceilingKey(key);
+        }
+
+        @Override
+        public K higher(K key) {
+            return map.higherKey(key);
+        }
+
+        @Override
+        public K pollFirst() {
+            Map.Entry<K, V> entry = map.pollFirstEntry();
+            return entry == null ? null : entry.getKey();
+        }
+
+        @Override
+        public K pollLast() {
+            Map.Entry<K, V> entry = map.pollLastEntry();
+            return entry == null ? null : entry.getKey();
+        }
+
+        @Override
+        public NavigableSet<K> descendingSet() {
+            return map.descendingMap().navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+            return map.subMap(fromElement, fromInclusive, toElement, toInclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+            return map.headMap(toElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+            return map.tailMap(fromElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public SortedSet<K> subSet(K fromElement, K toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> headSet(K toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> tailSet(K fromElement) {
+            return tailSet(fromElement, true);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+import utils.codec.Codec;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Снимок красно-черного дерева в файле: элементы дерева в порядке возрастания ключей в компактном двоичном формате.
+ * Формат: заголовок (признак формата, версия, флаги, количество элементов, фиксированные размеры ключа и данных),
+ * затем элементы. Ключ и данные кодировщика фиксированного размера записываются без длины,
+ * переменного размера - с предшествующей длиной (int). Если дерево содержит данные, каждому значению данных
+ * предшествует признак наличия (byte), иначе данные не записываются.
+ * Цвета узлов не записываются: дерево восстанавливается построением из упорядоченных массивов за O(n)
+ * ({@link RBTree#buildFromSortedArray}), которое само окрашивает узлы.
+ * Файл читается и записывается через {@link FileChannel} блоками большого прямого буфера (вне кучи Java).
+ * Снимок записывается во временный файл, сбрасывается на диск и атомарно переименовывается,
+ * поэтому при сбое записи прежний снимок сохраняется; после переименования на диск сбрасывается каталог,
+ * чтобы новое имя файла сохранилось при сбое до удаления файлов, замененных снимком.
+ */
+final class RBTreeSnapshot {
+    /**
+     * Признак формата снимка ("RBS1").
+     */
+    private static final int MAGIC = 0x52425331;
+
+    /**
+     * Версия формата снимка.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Флаг: элементы содержат данные.
+     */
+    private static final int FLAG_VALUES = 0x01;
+
+    /**
+     * Флаг: дерево поддерживает порядковые статистики.
+     */
+    private static final int FLAG_ORDER_STATISTIC = 0x02;
+
+    /**
+     * Размер заголовка снимка в байтах.
+     */
+    private static final int HEADER_SIZE = 5 * Integer.BYTES + Long.BYTES;
+
+    /**
+     * Емкость буфера чтения и записи.
+     */
+    private static final int BUFFER_CAPACITY = 1 << 22;
+
+    /**
+     * Признак Windows: каталог не открывается как файл для сброса на диск.
+     */
+    private static final boolean IS_WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
+    /**
+     * Создает снимок (не используется: класс содержит только статические методы).
+     */
+    private RBTreeSnapshot() {}
+
+    /**
+     * Прочитанные элементы снимка.
+     * @param keys ключи в порядке возрастания.
+     * @param values данные ключей или null (снимок без данных).
+     * @param isOrderStatistic признак поддержки порядковых статистик исходного дерева.
+     */
+    record Entries<K, V>(K[] keys, V[] values, boolean isOrderStatistic) {
+    }
+
+    /**
+     * Записывает элементы дерева в файл снимка.
+     * @param tree дерево.
+     * @param path путь к файлу снимка.
+     * @param keyCodec кодировщик ключей.
+     * @param valueCodec кодировщик данных.
+     * @throws IOException если при записи файла произошла ошибка ввода-вывода.
+     */
+    static <K extends Comparable<K>, V> void write(RBTree<K, V> tree, Path path, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        boolean hasValues = false;
+        for(BSNode<K, V> node : tree) {
+            if(node.getValue() != null) {
+                hasValues = true;
+                break;
+            }
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_CAPACITY);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt((hasValues ? FLAG_VALUES : 0) | (tree.isOrderStatistic() ? FLAG_ORDER_STATISTIC : 0));
+            buffer.putLong(tree.size());
+            buffer.putInt(keyCodec.getFixedSize());
+            buffer.putInt(valueCodec.getFixedSize());
+            for(BSNode<K, V> node : tree) {
+                int start = buffer.position();
+                try {
+                    writeEntry(buffer, node, keyCodec, valueCodec, hasValues);
+                }
+                catch(BufferOverflowException e) {
+                    // Элемент не поместился: буфер записывается, при необходимости увеличивается
+                    buffer.position(start);
+                    writeFully(channel, buffer);
+                    while(true) {
+                        try {
+                            writeEntry(buffer, node, keyCodec, valueCodec, hasValues);
+                            break;
+                        }
+                        catch(BufferOverflowException overflow) {
+                            buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+                        }
+                    }
+                }
+            }
+            writeFully(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(path);
+    }
+
+    /**
+     * Сбрасывает на диск каталог файла: созданное или переименованное имя файла сохраняется при сбое
+     * только после сброса каталога (сброс самого файла сохраняет лишь его содержимое).
+     * В Windows каталог не открывается как файл, и сброс не выполняется.
+     * @param path путь к файлу каталога.
+     * @throws IOException если при сбросе каталога произошла ошибка ввода-вывода.
+     */
+    static void forceDirectory(Path path) throws IOException {
+        if(IS_WINDOWS) {
+            return;
+        }
+        try(FileChannel channel = FileChannel.open(path.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Записывает элемент в буфер.
+     * @param buffer буфер записи.
+     * @param node узел дерева.
+     * @param keyCodec кодировщик ключей.
+     * @param valueCodec кодировщик данных.
+     * @param hasValues признак записи данных.
+     * @throws BufferOverflowException если элемент не помещается в буфер.
+     */
+    private static <K extends Comparable<K>, V> void writeEntry(ByteBuffer buffer, BSNode<K, V> node, Codec<K> keyCodec,
+                                                                Codec<V> valueCodec, boolean hasValues) {
+        writeValue(buffer, node.getKey(), keyCodec);
+        if(hasValues) {
+            V value = node.getValue();
+            buffer.put((byte) (value != null ? 1 : 0));
+            if(value != null) {
+                writeValue(buffer, value, valueCodec);
+            }
+        }
+    }
+
+    /**
+     * Записывает значение в буфер: значение переменного размера - с предшествующей длиной.
+     * @param buffer буфер записи.
+     * @param value значение.
+     * @param codec кодировщик значений.
+     * @throws BufferOverflowException если значение не помещается в буфер.
+     */
+    static <T> void writeValue(ByteBuffer buffer, T value, Codec<T> codec) {
+        if(codec.getFixedSize() > 0) {
+            codec.write(value, buffer);
+            return;
+        }
+        if(buffer.remaining() < Integer.BYTES) {
+            throw new BufferOverflowException();
+        }
+        int start = buffer.position();
+        buffer.position(start + Integer.BYTES);
+        codec.write(value, buffer);
+        buffer.putInt(start, buffer.position() - start - Integer.BYTES);
+    }
+
+    /**
+     * Записывает содержимое буфера в канал и очищает буфер.
+     * @param channel канал файла.
+     * @param buffer буфер записи.
+     * @throws IOException если при записи произошла ошибка ввода-вывода.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Читает элементы из файла снимка.
+     * @param path путь к файлу снимка.
+     * @param keyCodec кодировщик ключей.
+     * @param valueCodec кодировщик данных.
+     * @return прочитанные элементы.
+     * @throws IOException если при чтении файла произошла ошибка ввода-вывода или файл имеет несовместимый формат.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <K extends Comparable<K>, V> Entries<K, V> read(Path path, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Reader reader = new Reader(channel);
+            reader.require(HEADER_SIZE);
+            ByteBuffer buffer = reader.buffer;
+            if(buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Файл не является снимком красно-черного дерева версии " + VERSION);
+            }
+            int flags = buffer.getInt();
+            long size = buffer.getLong();
+            if(buffer.getInt() != keyCodec.getFixedSize() || buffer.getInt() != valueCodec.getFixedSize()) {
+                throw new IOException("Кодировщики ключей и данных не соответствуют снимку");
+            }
+            boolean hasValues = (flags & FLAG_VALUES) != 0;
+            // Массивы элементов выделяются до чтения элементов: количество элементов поврежденного снимка
+            // ограничивается размером файла по минимальному размеру элемента
+            long minEntrySize = (keyCodec.getFixedSize() > 0 ? keyCodec.getFixedSize() : Integer.BYTES) + (hasValues ? 1 : 0);
+            if(size < 0 || size > Integer.MAX_VALUE || size > (channel.size() - HEADER_SIZE) / minEntrySize) {
+                throw new IOException("Некорректное количество элементов снимка: " + size);
+            }
+            K[] keys = (K[]) new Comparable[(int) size];
+            V[] values = hasValues ? (V[]) new Object[(int) size] : null;
+            for(int j = 0; j < keys.length; ++j) {
+                keys[j] = readValue(reader, keyCodec);
+                if(hasValues) {
+                    reader.require(1);
+                    if(reader.buffer.get() != 0) {
+                        values[j] = readValue(reader, valueCodec);
+                    }
+                }
+            }
+            return new Entries<>(keys, values, (flags & FLAG_ORDER_STATISTIC) != 0);
+        }
+    }
+
+    /**
+     * Читает значение: значение переменного размера - после его длины.
+     * @param reader чтение файла.
+     * @param codec кодировщик значений.
+     * @return прочитанное значение.
+     * @throws IOException если при чтении произошла ошибка ввода-вывода или файл закончился.
+     */
+    private static <T> T readValue(Reader reader, Codec<T> codec) throws IOException {
+        int length = codec.getFixedSize();
+        if(length == 0) {
+            reader.require(Integer.BYTES);
+            length = reader.buffer.getInt();
+            if(length < 0) {
+                throw new IOException("Некорректная длина значения снимка: " + length);
+            }
+        }
+        reader.require(length);
+        return codec.read(reader.buffer, length);
+    }
+
+    /**
+     * Чтение файла блоками прямого буфера.
+     */
+    private static final class Reader {
+        /**
+         * Канал файла.
+         */
+        private final FileChannel channel;
+
+        /**
+         * Буфер чтения (непрочитанные байты - между позицией и пределом).
+         */
+        private ByteBuffer buffer;
+
+        /**
+         * Создает чтение файла.
+         * @param channel канал файла.
+         */
+        private Reader(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_CAPACITY).limit(0);
+        }
+
+        /**
+         * Обеспечивает наличие в буфере заданного количества непрочитанных байт (при необходимости читает файл).
+         * @param count количество байт.
+         * @throws IOException если при чтении произошла ошибка ввода-вывода или файл закончился.
+         */
+        private void require(int count) throws IOException {
+            if(buffer.remaining() >= count) {
+                return;
+            }
+            // Длина значения поврежденного снимка не должна увеличивать буфер сверх размера файла
+            if(count - buffer.remaining() > channel.size() - channel.position()) {
+                throw new IOException("Снимок красно-черного дерева поврежден: неожиданный конец файла");
+            }
+            if(count > buffer.capacity()) {
+                ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(count, buffer.capacity() * 2));
+                larger.put(buffer);
+                buffer = larger;
+            }
+            else {
+                buffer.compact();
+            }
+            while(buffer.position() < count) {
+                if(channel.read(buffer) < 0) {
+                    throw new IOException("Снимок красно-черного дерева поврежден: неожиданный конец файла");
+                }
+            }
+            buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package redBlackTree;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Счетчики операций красно-черного дерева: сравнения ключей, спуски, поиски, повороты и перекрашивания.
+ * Счетчики включаются системным свойством {@code -DredBlackTree.stats=true} при запуске JVM.
+ * Признак {@link #IS_ENABLED} - статическая константа, поэтому при отключенных счетчиках
+ * проверки {@code if(RBTreeStats.IS_ENABLED)} на горячем пути исключаются JIT-компилятором вместе со счетом.
+ * Счетчики изменяются деревом без синхронизации (как и само дерево): при чтении из другого потока
+ * (например, через JMX) значения приблизительны.
+ */
+public final class RBTreeStats implements RBTreeStatsMBean {
+    /**
+     * Признак включенных счетчиков (системное свойство {@code redBlackTree.stats}).
+     */
+    public static final boolean IS_ENABLED = Boolean.getBoolean("redBlackTree.stats");
+
+    /**
+     * Домен имен JMX счетчиков.
+     */
+    private static final String JMX_DOMAIN = "redBlackTree";
+
+    /**
+     * Количество сравнений ключей.
+     */
+    private long comparisons;
+
+    /**
+     * Количество спусков от корня.
+     */
+    private long descents;
+
+    /**
+     * Количество поисков узла.
+     */
+    private long lookups;
+
+    /**
+     * Количество поворотов влево.
+     */
+    private long leftRotations;
+
+    /**
+     * Количество поворотов вправо.
+     */
+    private long rightRotations;
+
+    /**
+     * Количество двойных поворотов.
+     */
+    private long doubleRotations;
+
+    /**
+     * Количество переключений цветов треугольников.
+     */
+    private long colorFlips;
+
+    /**
+     * Количество перекрашиваний без поворотов при удалении.
+     */
+    private long recolors;
+
+    /**
+     * Создает обнуленные счетчики.
+     */
+    RBTreeStats() {
+    }
+
+    /**
+     * Учитывает спуск от корня.
+     * @param comparisons количество сравнений ключей спуска.
+     */
+    void addDescent(int comparisons) {
+        this.comparisons += comparisons;
+        descents++;
+    }
+
+    /**
+     * Учитывает поиск узла.
+     * @param comparisons количество сравнений ключей поиска.
+     */
+    void addLookup(int comparisons) {
+        this.comparisons += comparisons;
+        lookups++;
+    }
+
+    /**
+     * Учитывает одиночный поворот.
+     * @param isLeft признак поворота влево.
+     */
+    void addRotation(boolean isLeft) {
+        if(isLeft) {
+            leftRotations++;
+        }
+        else {
+            rightRotations++;
+        }
+    }
+
+    /**
+     * Учитывает двойной поворот.
+     */
+    void addDoubleRotation() {
+        doubleRotations++;
+    }
+
+    /**
+     * Учитывает переключение цветов треугольника.
+     */
+    void addColorFlip() {
+        colorFlips++;
+    }
+
+    /**
+     * Учитывает перекрашивание без поворота при удалении.
+     */
+    void addRecolor() {
+        recolors++;
+    }
+
+    @Override
+    public long getComparisons() {
+        return comparisons;
+    }
+
+    @Override
+    public long getDescents() {
+        return descents;
+    }
+
+    @Override
+    public long getLookups() {
+        return lookups;
+    }
+
+    @Override
+    public long getLeftRotations() {
+        return leftRotations;
+    }
+
+    @Override
+    public long getRightRotations() {
+        return rightRotations;
+    }
+
+    @Override
+    public long getDoubleRotations() {
+        return doubleRotations;
+    }
+
+    @Override
+    public long getColorFlips() {
+        return colorFlips;
+    }
+
+    @Override
+    public long getRecolors() {
+        return recolors;
+    }
+
+    @Override
+    public void reset() {
+        comparisons = 0;
+        descents = 0;
+        lookups = 0;
+        leftRotations = 0;
+        rightRotations = 0;
+        doubleRotations = 0;
+        colorFlips = 0;
+        recolors = 0;
+    }
+
+    /**
+     * Регистрирует счетчики в платформенном сервере JMX с именем {@code redBlackTree:type=RBTreeStats,name=<name>}.
+     * @param name наименование дерева.
+     * @return имя зарегистрированного объекта JMX (для отмены регистрации).
+     * @throws JMException если имя некорректно или уже зарегистрировано.
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=RBTreeStats,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public String toString() {
+        return "comparisons = " + comparisons + "; descents = " + descents + "; lookups = " + lookups
+                + "; rotations (left/right/double) = " + leftRotations + "/" + rightRotations + "/" + doubleRotations
+                + "; color flips = " + colorFlips + "; recolors = " + recolors;
+    }
+}
@@ -0,0 +1,59 @@
+package redBlackTree;
+
+/**
+ * Интерфейс JMX (стандартный MBean) счетчиков операций красно-черного дерева {@link RBTreeStats}.
+ */
+public interface RBTreeStatsMBean {
+    /**
+     * Получает количество сравнений ключей при добавлении, удалении и поиске узлов.
+     * @return количество сравнений ключей.
+     */
+    long getComparisons();
+
+    /**
+     * Получает количество спусков от корня при добавлении и удалении узлов.
+     * @return количество спусков.
+     */
+    long getDescents();
+
+    /**
+     * Получает количество поисков узла по ключу ({@link RBTree#findNode}).
+     * @return количество поисков.
+     */
+    long getLookups();
+
+    /**
+     * Получает количество одиночных поворотов влево (включая повороты в составе двойных поворотов).
+     * @return количество поворотов влево.
+     */
+    long getLeftRotations();
+
+    /**
+     * Получает количество одиночных поворотов вправо (включая повороты в составе двойных поворотов).
+     * @return количество поворотов вправо.
+     */
+    long getRightRotations();
+
+    /**
+     * Получает количество двойных поворотов "красных линий" с внутренним внуком при добавлении (случаи 4 и 5 wiki).
+     * @return количество двойных поворотов.
+     */
+    long getDoubleRotations();
+
+    /**
+     * Получает количество переключений цветов треугольников при добавлении (случаи 1 - 3 wiki).
+     * @return количество переключений цветов.
+     */
+    long getColorFlips();
+
+    /**
+     * Получает количество перекрашиваний без поворотов при удалении (случаи 3 и 4 wiki).
+     * @return количество перекрашиваний.
+     */
+    long getRecolors();
+
+    /**
+     * Обнуляет счетчики.
+     */
+    void reset();
+}
@@ -0,0 +1,293 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Проверка свойств красно-черного дерева за один обход узлов: порядок ключей, отсутствие "красных линий",
+ * равенство черных высот всех путей, черный корень и соответствие количества узлов размеру дерева.
+ * Узлы обходятся с явным стеком (глубина стека не превышает высоту дерева), поэтому проверка не ограничена
+ * глубиной стека вызовов и для поврежденного (вырожденного) дерева.
+ * Обход обратный (потомки, затем узел): черные высоты поддеревьев потомков сравниваются в их общем родителе,
+ * поэтому одно нарушение черной высоты отмечается один раз - в узле, где различаются черные высоты потомков.
+ * Верхние уровни большого дерева могут проверяться параллельно (fork-join): поддеревья независимы.
+ * @param <K> тип ключей дерева.
+ * @param <V> тип соответствующих ключам данных.
+ */
+final class RBTreeValidator<K extends Comparable<K>, V> {
+    /**
+     * Начальная емкость стека обхода (см. {@link RBTreeIterator}).
+     */
+    private static final int STACK_CAPACITY = 64;
+
+    /**
+     * Минимальный размер дерева, при котором проверка выполняется параллельно.
+     */
+    private static final int PARALLEL_SIZE = 1 << 16;
+
+    /**
+     * Количество верхних уровней дерева, поддеревья которых проверяются в отдельных задачах (до 2^6 задач).
+     */
+    private static final int PARALLEL_LEVELS = 6;
+
+    /**
+     * Порядок ключей или null (естественный порядок).
+     */
+    private final Comparator<? super K> comparator;
+
+    /**
+     * Размер дерева: обход прекращается, если количество узлов превысило размер дерева (возможен цикл).
+     */
+    private final int size;
+
+    /**
+     * Создает проверку свойств дерева.
+     * @param comparator порядок ключей или null (естественный порядок).
+     * @param size размер дерева.
+     */
+    RBTreeValidator(Comparator<? super K> comparator, int size) {
+        this.comparator = comparator;
+        this.size = size;
+    }
+
+    /**
+     * Проверяет свойства дерева.
+     * @param root корневой узел дерева или null.
+     * @param isParallel параллельная проверка в пуле ForkJoinPool (общем пуле) для большого дерева.
+     * @return отчет о проверке.
+     */
+    ValidationReport<K> validate(BSNode<K, V> root, boolean isParallel) {
+        Part<K> part;
+        if(isParallel && size >= PARALLEL_SIZE) {
+            part = ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> validateParallel(root, null, null, 1)));
+        }
+        else {
+            part = validateSubtree(root, null, null, 1);
+        }
+        Part<K> result = new Part<>();
+        if(root != null && root.getIsRed()) {
+            result.addViolation(ValidationReport.Type.RED_ROOT, root.getKey());
+        }
+        result.addViolations(part);
+        if(part.nodeCount != size) {
+            result.addViolation(ValidationReport.Type.SIZE, null);
+        }
+        return new ValidationReport<>(part.nodeCount, size, part.blackHeight, part.height,
+                result.violationCount, List.copyOf(result.violations));
+    }
+
+    /**
+     * Проверяет поддерево: поддеревья верхних уровней проверяются в отдельных задачах.
+     * Должен вызываться из задачи пула ForkJoinPool.
+     * @param node корневой узел поддерева или null.
+     * @param low ближайший меньший предок (нижняя граница ключей поддерева) или null.
+     * @param high ближайший больший предок (верхняя граница ключей поддерева) или null.
+     * @param level уровень корневого узла поддерева (1 - корень дерева).
+     * @return результат проверки поддерева.
+     */
+    private Part<K> validateParallel(BSNode<K, V> node, BSNode<K, V> low, BSNode<K, V> high, int level) {
+        if(node == null || level > PARALLEL_LEVELS) {
+            return validateSubtree(node, low, high, level);
+        }
+        Part<K> part = new Part<>();
+        part.nodeCount = 1;
+        part.height = level;
+        checkNode(node, low, high, part);
+        ForkJoinTask<Part<K>> rightTask = ForkJoinTask.adapt(
+                () -> validateParallel(node.getRightChild(), node, high, level + 1)).fork();
+        Part<K> left = validateParallel(node.getLeftChild(), low, node, level + 1);
+        Part<K> right = rightTask.join();
+        part.merge(left);
+        part.merge(right);
+        part.blackHeight = getBlackHeight(node, left.blackHeight, right.blackHeight, part);
+        return part;
+    }
+
+    /**
+     * Проверяет поддерево последовательно (обратный обход с явным стеком).
+     * @param root корневой узел поддерева или null.
+     * @param rootLow нижняя граница ключей поддерева или null.
+     * @param rootHigh верхняя граница ключей поддерева или null.
+     * @param rootLevel уровень корневого узла поддерева (1 - корень дерева).
+     * @return результат проверки поддерева.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Part<K> validateSubtree(BSNode<K, V> root, BSNode<K, V> rootLow, BSNode<K, V> rootHigh, int rootLevel) {
+        Part<K> part = new Part<>();
+        if(root == null) {
+            return part;
+        }
+        BSNode<K, V>[] nodes = (BSNode<K, V>[]) new BSNode[STACK_CAPACITY];
+        BSNode<K, V>[] lows = (BSNode<K, V>[]) new BSNode[STACK_CAPACITY];
+        BSNode<K, V>[] highs = (BSNode<K, V>[]) new BSNode[STACK_CAPACITY];
+        // Черная высота левого поддерева узла (после возврата из левого поддерева)
+        int[] leftHeights = new int[STACK_CAPACITY];
+        // Количество проверенных поддеревьев потомков узла: 0, 1 (левое) или 2 (оба)
+        byte[] states = new byte[STACK_CAPACITY];
+        nodes[0] = root;
+        lows[0] = rootLow;
+        highs[0] = rootHigh;
+        int top = 1;
+        // Черная высота последнего проверенного поддерева (пустого поддерева - 0)
+        int blackHeight = 0;
+        while(top > 0) {
+            int frame = top - 1;
+            BSNode<K, V> node = nodes[frame];
+            BSNode<K, V> child;
+            if(states[frame] == 0) {
+                // Вход в узел: проверка узла и спуск в левое поддерево
+                if(++part.nodeCount > size) {
+                    // Узлов больше размера дерева: поврежденное дерево может содержать цикл
+                    return part;
+                }
+                part.height = Math.max(part.height, rootLevel + frame);
+                checkNode(node, lows[frame], highs[frame], part);
+                child = node.getLeftChild();
+            }
+            else if(states[frame] == 1) {
+                // Возврат из левого поддерева: спуск в правое поддерево
+                leftHeights[frame] = blackHeight;
+                child = node.getRightChild();
+            }
+            else {
+                // Возврат из правого поддерева: сравнение черных высот поддеревьев потомков
+                blackHeight = getBlackHeight(node, leftHeights[frame], blackHeight, part);
+                nodes[frame] = null;
+                lows[frame] = null;
+                highs[frame] = null;
+                top--;
+                continue;
+            }
+            boolean isLeft = states[frame] == 0;
+            states[frame]++;
+            if(child == null) {
+                blackHeight = 0;
+                continue;
+            }
+            if(top == nodes.length) {
+                nodes = Arrays.copyOf(nodes, top * 2);
+                lows = Arrays.copyOf(lows, top * 2);
+                highs = Arrays.copyOf(highs, top * 2);
+                leftHeights = Arrays.copyOf(leftHeights, top * 2);
+                states = Arrays.copyOf(states, top * 2);
+            }
+            nodes[top] = child;
+            lows[top] = isLeft ? lows[frame] : node;
+            highs[top] = isLeft ? node : highs[frame];
+            states[top] = 0;
+            top++;
+        }
+        part.blackHeight = blackHeight;
+        return part;
+    }
+
+    /**
+     * Сравнивает черные высоты поддеревьев потомков узла и получает черную высоту поддерева узла.
+     * При различии черных высот нарушение отмечается в узле, а для предков используется большая высота,
+     * поэтому нарушение не повторяется в предках узла.
+     * @param node узел дерева.
+     * @param left черная высота левого поддерева.
+     * @param right черная высота правого поддерева.
+     * @param part результат проверки поддерева.
+     * @return черная высота поддерева узла.
+     */
+    private int getBlackHeight(BSNode<K, V> node, int left, int right, Part<K> part) {
+        if(left != right) {
+            part.addViolation(ValidationReport.Type.BLACK_HEIGHT, node.getKey());
+        }
+        return Math.max(left, right) + (node.getIsRed() ? 0 : 1);
+    }
+
+    /**
+     * Проверяет порядок ключа узла относительно границ поддерева и отсутствие красного потомка у красного узла.
+     * @param node узел дерева.
+     * @param low нижняя граница ключей или null.
+     * @param high верхняя граница ключей или null.
+     * @param part результат проверки поддерева.
+     */
+    private void checkNode(BSNode<K, V> node, BSNode<K, V> low, BSNode<K, V> high, Part<K> part) {
+        if((low != null && node.compareToOther(low.getKey(), comparator) <= 0)
+                || (high != null && node.compareToOther(high.getKey(), comparator) >= 0)) {
+            part.addViolation(ValidationReport.Type.ORDER, node.getKey());
+        }
+        if(node.getIsRed()) {
+            BSNode<K, V> left = node.getLeftChild();
+            BSNode<K, V> right = node.getRightChild();
+            if(left != null && left.getIsRed()) {
+                part.addViolation(ValidationReport.Type.RED_LINE, left.getKey());
+            }
+            if(right != null && right.getIsRed()) {
+                part.addViolation(ValidationReport.Type.RED_LINE, right.getKey());
+            }
+        }
+    }
+
+    /**
+     * Результат проверки поддерева.
+     * @param <K> тип ключей дерева.
+     */
+    private static final class Part<K> {
+        /**
+         * Количество узлов поддерева.
+         */
+        private int nodeCount;
+
+        /**
+         * Наибольший уровень узлов поддерева.
+         */
+        private int height;
+
+        /**
+         * Черная высота поддерева.
+         */
+        private int blackHeight;
+
+        /**
+         * Общее количество нарушений.
+         */
+        private long violationCount;
+
+        /**
+         * Первые найденные нарушения.
+         */
+        private final List<ValidationReport.Violation<K>> violations = new ArrayList<>();
+
+        /**
+         * Добавляет нарушение.
+         * @param type вид нарушения.
+         * @param key ключ узла нарушения или null.
+         */
+        private void addViolation(ValidationReport.Type type, K key) {
+            violationCount++;
+            if(violations.size() < ValidationReport.MAX_VIOLATIONS) {
+                violations.add(new ValidationReport.Violation<>(type, key));
+            }
+        }
+
+        /**
+         * Добавляет нарушения другого результата.
+         * @param other другой результат.
+         */
+        private void addViolations(Part<K> other) {
+            violationCount += other.violationCount;
+            int count = Math.min(other.violations.size(), ValidationReport.MAX_VIOLATIONS - violations.size());
+            violations.addAll(other.violations.subList(0, count));
+        }
+
+        /**
+         * Присоединяет результат проверки поддерева потомка.
+         * @param child результат проверки поддерева потомка.
+         */
+        private void merge(Part<K> child) {
+            nodeCount += child.nodeCount;
+            height = Math.max(height, child.height);
+            addViolations(child);
+        }
+    }
+}
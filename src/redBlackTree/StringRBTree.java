@@ -0,0 +1,44 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+import binarySearchTree.BSStringNode;
+
+/**
+ * Красно-чёрное дерево со строковыми ключами в естественном порядке и кэшем префиксов ключей в узлах.
+ * Узлы дерева хранят первые символы ключа, упакованные в число long (см. {@link BSStringNode}),
+ * поэтому поиск, добавление и удаление узла сравнивают строки только при совпадении префиксов: для коротких ключей
+ * (например, символов emoji) строка узла читается один раз - в найденном узле.
+ * Алгоритмы поиска, добавления и удаления узлов совпадают с {@link RBTree}; порядковые статистики не поддерживаются.
+ * @param <V> тип соответствующих ключам данных.
+ */
+public class StringRBTree<V> extends RBTree<String, V> {
+    /**
+     * Создает пустое красно-черное дерево со строковыми ключами.
+     */
+    public StringRBTree() {
+        super();
+    }
+
+    @Override
+    protected BSNode<String, V> createNode(String key, V value) {
+        return new BSStringNode<>(key, value);
+    }
+
+    @Override
+    protected long prefixOf(String key) {
+        return BSStringNode.prefixOf(key);
+    }
+
+    /**
+     * Сравнивает ключ узла с заданным ключом: сначала по префиксам, строки - только при совпадении префиксов.
+     * Узлы без префикса (перенесенные из других деревьев при соединении) сравниваются по строке.
+     * @param key значение ключа.
+     * @param prefix префикс ключа.
+     * @param node узел дерева.
+     * @return результат сравнения ключа узла с заданным ключом.
+     */
+    @Override
+    protected int compareToNode(String key, long prefix, BSNode<String, V> node) {
+        return node instanceof BSStringNode<V> stringNode ? stringNode.compareToOther(key, prefix) : node.compareToOther(key);
+    }
+}
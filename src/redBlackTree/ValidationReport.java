@@ -0,0 +1,72 @@
+package redBlackTree;
+
+import java.util.List;
+
+/**
+ * Результат проверки свойств красно-черного дерева (см. {@link RBTree#validate(boolean)}).
+ * Отчет хранит не более {@link #MAX_VIOLATIONS} первых найденных нарушений и общее количество нарушений.
+ * @param nodeCount количество обойденных узлов (при превышении размера дерева обход прекращается: возможен цикл).
+ * @param size размер дерева ({@link RBTree#size()}).
+ * @param blackHeight черная высота дерева (при нарушении - наибольшая из черных высот поддеревьев; 0 - пустое дерево).
+ * @param height количество уровней дерева.
+ * @param violationCount общее количество нарушений.
+ * @param violations первые найденные нарушения.
+ * @param <K> тип ключей дерева.
+ */
+public record ValidationReport<K>(int nodeCount, int size, int blackHeight, int height,
+                                  long violationCount, List<Violation<K>> violations) {
+    /**
+     * Максимальное количество нарушений, сохраняемых в отчете.
+     */
+    public static final int MAX_VIOLATIONS = 100;
+
+    /**
+     * Вид нарушения свойств дерева.
+     */
+    public enum Type {
+        /**
+         * Ключ узла нарушает порядок ключей двоичного дерева поиска относительно предков.
+         */
+        ORDER,
+        /**
+         * Красный узел имеет красного родителя ("красная линия").
+         */
+        RED_LINE,
+        /**
+         * Путь от корня до пустого потомка узла содержит другое количество черных узлов.
+         */
+        BLACK_HEIGHT,
+        /**
+         * Корневой узел красный.
+         */
+        RED_ROOT,
+        /**
+         * Количество узлов не совпадает с размером дерева.
+         */
+        SIZE
+    }
+
+    /**
+     * Нарушение свойств дерева.
+     * @param type вид нарушения.
+     * @param key ключ узла нарушения или null (нарушение размера дерева).
+     * @param <K> тип ключей дерева.
+     */
+    public record Violation<K>(Type type, K key) {
+    }
+
+    /**
+     * Проверяет отсутствие нарушений свойств дерева.
+     * @return true - дерево корректно.
+     */
+    public boolean isValid() {
+        return violationCount == 0;
+    }
+
+    @Override
+    public String toString() {
+        return (isValid() ? "OK" : "INVALID") + ": nodes = " + nodeCount + "; size = " + size
+                + "; black height = " + blackHeight + "; height = " + height
+                + "; violations = " + violationCount + (violations.isEmpty() ? "" : " " + violations);
+    }
+}
@@ -0,0 +1,63 @@
+package utils.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Интерфейс преобразования значений в двоичное представление и обратно (сериализация).
+ * Значение записывается в буфер с его текущей позиции и читается из буфера с его текущей позиции.
+ * Кодировщик фиксированного размера всегда записывает ровно {@link #getFixedSize()} байт,
+ * что позволяет хранить значения в слотах фиксированной ширины (например, в файле, отображенном в память).
+ * @param <T> тип преобразуемых значений.
+ */
+public interface Codec<T> {
+    /**
+     * Получает фиксированный размер двоичного представления значения.
+     * @return размер в байтах или 0 для представления переменного размера.
+     */
+    int getFixedSize();
+
+    /**
+     * Записывает двоичное представление значения в буфер.
+     * @param value записываемое значение (не null).
+     * @param buffer буфер записи.
+     * @throws IllegalArgumentException если значение не помещается в фиксированный размер.
+     */
+    void write(T value, ByteBuffer buffer);
+
+    /**
+     * Читает значение из двоичного представления в буфере.
+     * @param buffer буфер чтения.
+     * @param length размер двоичного представления в байтах.
+     * @return прочитанное значение.
+     */
+    T read(ByteBuffer buffer, int length);
+
+    /**
+     * Читает значение из двоичного представления по абсолютному индексу буфера, не изменяя позицию буфера
+     * (буфер может использоваться совместно). Реализация по умолчанию читает значение из фрагмента буфера.
+     * @param buffer буфер чтения.
+     * @param index индекс начала двоичного представления.
+     * @param length размер двоичного представления в байтах.
+     * @return прочитанное значение.
+     */
+    default T read(ByteBuffer buffer, int index, int length) {
+        return read(buffer.slice(index, length), length);
+    }
+
+    /**
+     * Сравнивает значение со значением, двоичное представление которого находится по абсолютному индексу буфера,
+     * в естественном порядке значений ({@link Comparable}), не изменяя позицию буфера.
+     * Кодировщики стандартных типов сравнивают значение с двоичным представлением без создания объекта значения;
+     * реализация по умолчанию читает значение ({@link #read(ByteBuffer, int, int)}).
+     * @param value сравниваемое значение (не null).
+     * @param buffer буфер с двоичным представлением значения.
+     * @param index индекс начала двоичного представления.
+     * @param length размер двоичного представления в байтах.
+     * @return отрицательное число, 0 или положительное число, если значение меньше, равно или больше значения в буфере.
+     * @throws ClassCastException если значения не реализуют {@link Comparable}.
+     */
+    @SuppressWarnings("unchecked")
+    default int compare(T value, ByteBuffer buffer, int index, int length) {
+        return ((Comparable<? super T>) value).compareTo(read(buffer, index, length));
+    }
+}
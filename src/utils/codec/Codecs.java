@@ -0,0 +1,248 @@
+package utils.codec;
+
+import utils.constants.AppConstants;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Стандартные кодировщики значений.
+ */
+public final class Codecs {
+    /**
+     * Создает стандартные кодировщики.
+     */
+    private Codecs() {}
+
+    /**
+     * Результат сравнения со строкой в некорректной кодировке UTF-8 (сравнение выполняется после декодирования).
+     */
+    private static final int MALFORMED = Integer.MIN_VALUE;
+
+    /**
+     * Кодировщик целого числа int (4 байта).
+     */
+    private static final Codec<Integer> INT = new Codec<>() {
+        @Override
+        public int getFixedSize() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(Integer value, ByteBuffer buffer) {
+            buffer.putInt(value);
+        }
+
+        @Override
+        public Integer read(ByteBuffer buffer, int length) {
+            return buffer.getInt();
+        }
+
+        @Override
+        public Integer read(ByteBuffer buffer, int index, int length) {
+            return buffer.getInt(index);
+        }
+
+        @Override
+        public int compare(Integer value, ByteBuffer buffer, int index, int length) {
+            return Integer.compare(value, buffer.getInt(index));
+        }
+    };
+
+    /**
+     * Кодировщик целого числа long (8 байт).
+     */
+    private static final Codec<Long> LONG = new Codec<>() {
+        @Override
+        public int getFixedSize() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void write(Long value, ByteBuffer buffer) {
+            buffer.putLong(value);
+        }
+
+        @Override
+        public Long read(ByteBuffer buffer, int length) {
+            return buffer.getLong();
+        }
+
+        @Override
+        public Long read(ByteBuffer buffer, int index, int length) {
+            return buffer.getLong(index);
+        }
+
+        @Override
+        public int compare(Long value, ByteBuffer buffer, int index, int length) {
+            return Long.compare(value, buffer.getLong(index));
+        }
+    };
+
+    /**
+     * Кодировщик строки переменного размера в стандартной кодировке символов.
+     */
+    private static final Codec<String> STRING = new Codec<>() {
+        @Override
+        public int getFixedSize() {
+            return 0;
+        }
+
+        @Override
+        public void write(String value, ByteBuffer buffer) {
+            buffer.put(value.getBytes(AppConstants.STD_CHARSET));
+        }
+
+        @Override
+        public String read(ByteBuffer buffer, int length) {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, AppConstants.STD_CHARSET);
+        }
+    };
+
+    /**
+     * Получает кодировщик целого числа int (4 байта).
+     * @return кодировщик.
+     */
+    public static Codec<Integer> ofInt() {
+        return INT;
+    }
+
+    /**
+     * Получает кодировщик целого числа long (8 байт).
+     * @return кодировщик.
+     */
+    public static Codec<Long> ofLong() {
+        return LONG;
+    }
+
+    /**
+     * Получает кодировщик строки переменного размера в стандартной кодировке символов.
+     * @return кодировщик.
+     */
+    public static Codec<String> ofString() {
+        return STRING;
+    }
+
+    /**
+     * Создает кодировщик строки фиксированного размера в стандартной кодировке символов.
+     * Короткая строка дополняется нулевыми байтами, которые отбрасываются при чтении,
+     * поэтому строка с символом '\0' не записывается (иначе "a" и "a\0" имели бы одно представление).
+     * @param maxBytes максимальный размер строки в байтах.
+     * @return кодировщик.
+     */
+    public static Codec<String> ofString(int maxBytes) {
+        if(maxBytes <= 0) {
+            throw new IllegalArgumentException("Размер строки должен быть больше 0: " + maxBytes);
+        }
+        return new Codec<>() {
+            @Override
+            public int getFixedSize() {
+                return maxBytes;
+            }
+
+            @Override
+            public void write(String value, ByteBuffer buffer) {
+                if(value.indexOf('\0') >= 0) {
+                    throw new IllegalArgumentException("Строка содержит символ '\\0': " + value);
+                }
+                byte[] bytes = value.getBytes(AppConstants.STD_CHARSET);
+                if(bytes.length > maxBytes) {
+                    throw new IllegalArgumentException("Строка длиннее " + maxBytes + " байт: " + value);
+                }
+                buffer.put(bytes);
+                for(int j = bytes.length; j < maxBytes; ++j) {
+                    buffer.put((byte) 0);
+                }
+            }
+
+            @Override
+            public String read(ByteBuffer buffer, int length) {
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                int end = length;
+                while(end > 0 && bytes[end - 1] == 0) {
+                    end--;
+                }
+                return new String(bytes, 0, end, AppConstants.STD_CHARSET);
+            }
+
+            @Override
+            public int compare(String value, ByteBuffer buffer, int index, int length) {
+                int end = index + length;
+                while(end > index && buffer.get(end - 1) == 0) {
+                    end--;
+                }
+                int cmp = compareUtf8(value, buffer, index, end);
+                return cmp != MALFORMED ? cmp : value.compareTo(read(buffer, index, length));
+            }
+        };
+    }
+
+    /**
+     * Сравнивает строку со строкой в кодировке UTF-8 в буфере в порядке {@link String#compareTo} (по символам UTF-16),
+     * декодируя символы буфера по мере сравнения без создания строки.
+     * @param value сравниваемая строка.
+     * @param buffer буфер со строкой в кодировке UTF-8.
+     * @param index индекс начала строки в буфере.
+     * @param end индекс конца строки в буфере.
+     * @return результат сравнения или {@link #MALFORMED}, если байты буфера не являются корректной кодировкой UTF-8.
+     */
+    private static int compareUtf8(String value, ByteBuffer buffer, int index, int end) {
+        int j = 0;
+        int position = index;
+        while(position < end) {
+            int lead = buffer.get(position) & 0xFF;
+            int codePoint;
+            int count;
+            if(lead < 0x80) {
+                codePoint = lead;
+                count = 1;
+            }
+            else if(lead >= 0xC2 && lead < 0xE0) {
+                codePoint = lead & 0x1F;
+                count = 2;
+            }
+            else if(lead >= 0xE0 && lead < 0xF0) {
+                codePoint = lead & 0x0F;
+                count = 3;
+            }
+            else if(lead >= 0xF0 && lead < 0xF5) {
+                codePoint = lead & 0x07;
+                count = 4;
+            }
+            else {
+                return MALFORMED;
+            }
+            if(position + count > end) {
+                return MALFORMED;
+            }
+            for(int k = 1; k < count; ++k) {
+                int next = buffer.get(position + k);
+                if((next & 0xC0) != 0x80) {
+                    return MALFORMED;
+                }
+                codePoint = codePoint << 6 | next & 0x3F;
+            }
+            if(count == 3 && (codePoint < 0x800 || Character.isSurrogate((char) codePoint))
+                    || count == 4 && (codePoint < 0x10000 || codePoint > Character.MAX_CODE_POINT)) {
+                // Избыточная кодировка или суррогат
+                return MALFORMED;
+            }
+            position += count;
+            // Символ за пределами BMP - два символа UTF-16 (суррогатная пара)
+            char unit = codePoint < 0x10000 ? (char) codePoint : Character.highSurrogate(codePoint);
+            for(int k = codePoint < 0x10000 ? 1 : 2; k > 0; --k) {
+                if(j == value.length()) {
+                    return -1;
+                }
+                char c = value.charAt(j++);
+                if(c != unit) {
+                    return c - unit;
+                }
+                unit = Character.lowSurrogate(codePoint);
+            }
+        }
+        return j < value.length() ? 1 : 0;
+    }
+}
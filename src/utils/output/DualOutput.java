@@ -10,10 +10,27 @@ import java.nio.charset.Charset;
  * Как Декоратор реализует Выбор потока вывода в зависимости от параметров конструктора {@code DualOutput}.
  * Унифицирует вывод в поток как для отдельного объекта, так и для связанных объектов,
  * с передачей выбранного потока по цепочке вывода.
+ * Сообщения накапливаются в буфере и передаются в поток крупными блоками (при заполнении буфера,
+ * при вызове {@link #flush()} и при закрытии), поэтому короткие сообщения не приводят к отдельным записям в поток.
  * При работе с {@code DualOutput}, реализующим AutoCloseable, рекомендуется
- * использовать try-with-resources для корректного закрытия ресурса {@code PrintWriter}.
+ * использовать try-with-resources для корректного закрытия ресурса {@code PrintWriter} и вывода буфера.
  */
 public class DualOutput extends OutputDecorator implements AutoCloseable {
+    /**
+     * Размер буфера вывода (количество символов), при превышении которого буфер передается в поток.
+     */
+    private static final int BUFFER_CAPACITY = 1 << 16;
+
+    /**
+     * Разделитель строк.
+     */
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    /**
+     * Буфер вывода.
+     */
+    private final StringBuilder buffer = new StringBuilder(BUFFER_CAPACITY);
+
     /**
      * Стандартный выходной поток (консоль).
      */
@@ -147,28 +164,70 @@ public class DualOutput extends OutputDecorator implements AutoCloseable {
 
     @Override
     public void print(String message) {
-        if(useFile) {
-            fileWriter.print(message);
-        }
-        else {
-            console.print(message);
-        }
+        buffer.append(message);
+        flushIfFull();
     }
 
     @Override
     public void println(String message) {
+        println((CharSequence) message);
+    }
+
+    /**
+     * Выводит последовательность символов (например, строку, сформированную в {@code StringBuilder})
+     * с завершающим символом новой строки без создания промежуточной строки.
+     * @param message последовательность символов.
+     */
+    public void println(CharSequence message) {
+        if(message.length() >= BUFFER_CAPACITY) {
+            // Длинная строка передается в поток напрямую, без копирования в буфер
+            flush();
+            if(useFile) {
+                fileWriter.append(message).append(LINE_SEPARATOR);
+            }
+            else {
+                console.append(message).append(LINE_SEPARATOR);
+            }
+            return;
+        }
+        buffer.append(message).append(LINE_SEPARATOR);
+        flushIfFull();
+    }
+
+    /**
+     * Передает содержимое буфера в поток вывода.
+     */
+    public void flush() {
+        if(!buffer.isEmpty()) {
+            if(useFile) {
+                fileWriter.append(buffer);
+            }
+            else {
+                console.append(buffer);
+            }
+            buffer.setLength(0);
+        }
         if(useFile) {
-            fileWriter.println(message);
+            fileWriter.flush();
         }
         else {
-            console.println(message);
+            console.flush();
+        }
+    }
+
+    /**
+     * Передает содержимое буфера в поток вывода при заполнении буфера.
+     */
+    private void flushIfFull() {
+        if(buffer.length() >= BUFFER_CAPACITY) {
+            flush();
         }
     }
 
     @Override
     public void close() {
+        flush();
         if(fileWriter != null) {
-            fileWriter.flush();
             fileWriter.close();
         }
     }
@@ -0,0 +1,379 @@
+package utils.output;
+
+import utils.calculations.MathUtils;
+import utils.constants.AppConstants;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Вывод в поток двоичного дерева по уровням.
+ * Общий для всех деревьев проекта: узлы не хранят собственных средств вывода,
+ * а дерево передает свой корневой узел разделяемому (статическому) экземпляру вывода.
+ * Каждый уровень дерева позиционируется пробелами, количество которых уменьшается вдвое с каждым следующим уровнем.
+ * Отсутствующие узлы выводятся как "--".
+ * Для больших деревьев предназначен вывод только существующих узлов (см. {@link #displaySparse}).
+ * @param <N> тип узлов дерева.
+ */
+public abstract class TreeRenderer<N> {
+    /**
+     * Блок пробелов для позиционирования узлов.
+     */
+    private static final String BLANKS = " ".repeat(256);
+
+    /**
+     * Начальная емкость стека обхода при измерении дерева.
+     */
+    private static final int STACK_CAPACITY = 64;
+
+    /**
+     * Ветвь к потомку, за которым следует другой потомок того же родителя (вывод существующих узлов).
+     */
+    private static final String SPARSE_BRANCH = "├── ";
+
+    /**
+     * Ветвь к последнему потомку родителя (вывод существующих узлов).
+     */
+    private static final String SPARSE_LAST = "└── ";
+
+    /**
+     * Отступ под потомком, за которым следует другой потомок того же родителя (вывод существующих узлов).
+     */
+    private static final String SPARSE_LINE = "│   ";
+
+    /**
+     * Отступ под последним потомком родителя (вывод существующих узлов).
+     */
+    private static final String SPARSE_SPACE = "    ";
+
+    /**
+     * Признак вывода цвета узлов красно-черного дерева.
+     */
+    private final boolean isColored;
+
+    /**
+     * Создает вывод в поток двоичного дерева.
+     * @param isColored признак вывода цвета узлов красно-черного дерева:
+     *                  в консоль - кодом цвета, в файл - символом {@code AppConstants.SYMBOL_RED}.
+     */
+    protected TreeRenderer(boolean isColored) {
+        this.isColored = isColored;
+    }
+
+    /**
+     * Получает левый дочерний узел.
+     * @param node узел дерева.
+     * @return левый дочерний узел или null.
+     */
+    protected abstract N getLeftChild(N node);
+
+    /**
+     * Получает правый дочерний узел.
+     * @param node узел дерева.
+     * @return правый дочерний узел или null.
+     */
+    protected abstract N getRightChild(N node);
+
+    /**
+     * Получает признак красного узла.
+     * @param node узел дерева.
+     * @return значение признака красного узла.
+     */
+    protected abstract boolean getIsRed(N node);
+
+    /**
+     * Получает строковое значение ключа узла.
+     * @param node узел дерева.
+     * @return строковое значение ключа.
+     */
+    protected abstract String getKeyText(N node);
+
+    /**
+     * Получает данные узла.
+     * @param node узел дерева.
+     * @return данные узла или null.
+     */
+    protected abstract Object getValue(N node);
+
+    /**
+     * Получает длину выводимого значения узла (ключ и данные, без цвета узла).
+     * @param node узел дерева.
+     * @return длина выводимого значения узла.
+     */
+    public int getNodeLength(N node) {
+        return getKeyText(node).length() + getValueLength(node);
+    }
+
+    /**
+     * Измеряет дерево за один обход всех узлов: количество уровней и максимальную длину выводимого значения узлов.
+     * Узлы обходятся с явным стеком (глубина стека не превышает высоту дерева), значения узлов не копируются.
+     * @param root корневой узел дерева.
+     * @return размеры дерева.
+     */
+    @SuppressWarnings("unchecked")
+    public Shape measure(N root) {
+        int nLevel = 0;
+        int maxValue = 0;
+        Object[] nodes = new Object[STACK_CAPACITY];
+        int[] levels = new int[STACK_CAPACITY];
+        int top = 0;
+        if(root != null) {
+            nodes[top] = root;
+            levels[top++] = 1;
+        }
+        while(top > 0) {
+            top--;
+            N node = (N) nodes[top];
+            int level = levels[top];
+            nodes[top] = null;
+            nLevel = Math.max(nLevel, level);
+            maxValue = Math.max(maxValue, getNodeLength(node));
+            if(top + 2 > nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                levels = Arrays.copyOf(levels, levels.length * 2);
+            }
+            N right = getRightChild(node);
+            if(right != null) {
+                nodes[top] = right;
+                levels[top++] = level + 1;
+            }
+            N left = getLeftChild(node);
+            if(left != null) {
+                nodes[top] = left;
+                levels[top++] = level + 1;
+            }
+        }
+        return new Shape(nLevel, maxValue);
+    }
+
+    /**
+     * Размеры дерева для расчета позиционирования вывода.
+     * @param nLevel количество уровней дерева.
+     * @param maxValue максимальная длина выводимого значения узлов (ключ и данные, без цвета узла).
+     */
+    public record Shape(int nLevel, int maxValue) {
+    }
+
+    /**
+     * Получает длину выводимых данных узла (см. {@link #appendNode}).
+     * @param node узел дерева.
+     * @return длина выводимых данных узла.
+     */
+    private int getValueLength(N node) {
+        Object data = getValue(node);
+        if(data == null) {
+            return 0;
+        }
+        String value = data.toString();
+        return value.equals(AppConstants.UNIX_NEW_ROW) ? AppConstants.PRINT_NEW_ROW.length() : value.length() + 1;
+    }
+
+    /**
+     * Рассчитывает позиционирование дерева, влияющее на получение оптимальной ширины вывода дерева.
+     * @param nLevel количество уровней дерева.
+     * @param nMax максимальная длина выводимого значения узлов.
+     * @param out заданный поток вывода.
+     * @return количество пробелов позиционирования дерева.
+     */
+    public int getCalcBlanks(int nLevel, int nMax, DualOutput out) {
+        if(!isColored) {
+            nLevel = nLevel + (nMax) - 1;
+        }
+        else if(out.getUseFile()) {
+            // при выводе в файл
+            nMax = nMax + AppConstants.SYMBOL_RED.length();
+            nLevel = nLevel + (nMax) / 3 - 1;
+        }
+        else {
+            // при выводе в консоль
+            nLevel = nLevel + (nMax) / 2 - 1;
+        }
+        return (int) Math.pow(2, nLevel);
+    }
+
+    /**
+     * Выводит дерево в заданный поток.
+     * Каждый уровень дерева формируется в одном буфере строки и выводится в поток целиком.
+     * @param root корневой узел дерева.
+     * @param blanks 2^N значение количества пробелов позиционирования дерева, начиная с корневого узла дерева.
+     *              При значении 0 (или меньше 0) производится автоматический расчет значения {@code blanks}.
+     * @param header верхнее оформление сообщения.
+     * @param footer нижнее оформление сообщения.
+     * @param out заданный поток вывода.
+     */
+    public void display(N root, int blanks, String header, String footer, DualOutput out) {
+        List<N> level = new ArrayList<>();
+        List<N> next = new ArrayList<>();
+        level.add(root);
+        int nBlank;
+        if(blanks > 0) {
+            nBlank = MathUtils.getBinaryRound(blanks);
+        } else {
+            // Расчет позиционирования
+            Shape shape = measure(root);
+            nBlank = getCalcBlanks(shape.nLevel(), shape.maxValue(), out);
+        }
+        if(AppConstants.MAX_BLANKS > 0 && nBlank > AppConstants.MAX_BLANKS) {
+            nBlank = MathUtils.getBinaryRound(AppConstants.MAX_BLANKS);
+        }
+        boolean isNewRow = true;
+        StringBuilder row = new StringBuilder();
+
+        // header
+        out.println(header + "(blanks = " + nBlank + "): ");
+
+        while(isNewRow) {
+            isNewRow = false;
+            row.setLength(0);
+            appendBlanks(row, nBlank);
+            for(N current : level) {
+                int len;
+                if(current != null) {
+                    len = appendNode(row, current, out);
+                    N left = getLeftChild(current);
+                    N right = getRightChild(current);
+                    next.add(left);
+                    next.add(right);
+                    if (left != null || right != null) {
+                        isNewRow = true;
+                    }
+                }
+                else {
+                    row.append("--");
+                    len = 2;
+                    next.add(null);
+                    next.add(null);
+                }
+                appendBlanks(row, nBlank * 2 - len);
+            }
+            out.println(row);
+            nBlank /= 2;
+            // Следующий уровень становится текущим, список текущего уровня переиспользуется
+            List<N> done = level;
+            level = next;
+            next = done;
+            next.clear();
+        }
+        // footer
+        out.println(footer);
+    }
+
+    /**
+     * Выводит в заданный поток только существующие узлы дерева (поддерева): по одному узлу в строке,
+     * с отступом по уровню узла, в порядке "узел, левое поддерево, правое поддерево".
+     * Объем работы и вывода пропорционален количеству выводимых узлов, а не 2^(высота дерева):
+     * отсутствующий узел выводится как "--" только при наличии другого потомка (для различения левого и правого),
+     * поддерево ниже последнего выводимого уровня обозначается одной строкой "...".
+     * Узлы обходятся с явным стеком, поэтому вывод не ограничен высотой дерева (глубиной стека вызовов).
+     * @param root корневой узел дерева (поддерева).
+     * @param levels количество выводимых уровней, начиная с корневого узла (0 или меньше 0 - все уровни).
+     * @param header верхнее оформление сообщения.
+     * @param footer нижнее оформление сообщения.
+     * @param out заданный поток вывода.
+     */
+    public void displaySparse(N root, int levels, String header, String footer, DualOutput out) {
+        out.println(header + "(levels = " + (levels > 0 ? String.valueOf(levels) : "all") + "): ");
+        StringBuilder row = new StringBuilder();
+        StringBuilder indent = new StringBuilder();
+        Deque<SparseItem<N>> stack = new ArrayDeque<>();
+        stack.push(new SparseItem<>(root, 0, true, root == null));
+        while(!stack.isEmpty()) {
+            SparseItem<N> item = stack.pop();
+            // Отступ узла - отступ родителя и ветвь к узлу (все элементы отступа одной длины)
+            indent.setLength(item.level() == 0 ? 0 : (item.level() - 1) * SPARSE_LAST.length());
+            row.setLength(0);
+            row.append(indent);
+            if(item.level() > 0) {
+                row.append(item.isLast() ? SPARSE_LAST : SPARSE_BRANCH);
+                indent.append(item.isLast() ? SPARSE_SPACE : SPARSE_LINE);
+            }
+            N node = item.node();
+            if(node == null) {
+                row.append(item.isEmpty() ? "--" : "...");
+                out.println(row);
+                continue;
+            }
+            appendNode(row, node, out);
+            out.println(row);
+            N left = getLeftChild(node);
+            N right = getRightChild(node);
+            if(left == null && right == null) {
+                continue;
+            }
+            int childLevel = item.level() + 1;
+            if(levels > 0 && childLevel >= levels) {
+                stack.push(new SparseItem<>(null, childLevel, true, false));
+                continue;
+            }
+            // Правый потомок выводится после левого, поэтому помещается в стек первым
+            stack.push(new SparseItem<>(right, childLevel, true, right == null));
+            stack.push(new SparseItem<>(left, childLevel, false, left == null));
+        }
+        // footer
+        out.println(footer);
+    }
+
+    /**
+     * Элемент обхода при выводе существующих узлов.
+     * @param node узел или null (отсутствующий узел или невыводимое поддерево).
+     * @param level уровень элемента (0 - корневой узел).
+     * @param isLast последний потомок родителя.
+     * @param isEmpty отсутствующий узел (иначе при node == null - невыводимое поддерево).
+     * @param <N> тип узлов дерева.
+     */
+    private record SparseItem<N>(N node, int level, boolean isLast, boolean isEmpty) {
+    }
+
+    /**
+     * Добавляет в строку значение узла: ключ и данные, с цветом красного узла (кодом цвета или символом).
+     * @param row строка.
+     * @param node узел дерева.
+     * @param out заданный поток вывода.
+     * @return видимая длина значения узла (без кодов цвета).
+     */
+    private int appendNode(StringBuilder row, N node, DualOutput out) {
+        String value = "";
+        int valLenght = 0;
+        Object data = getValue(node);
+        if (data != null) {
+            value = data.toString();
+            if(value.equals(AppConstants.UNIX_NEW_ROW)) {
+                value = AppConstants.PRINT_NEW_ROW;
+            }
+            else {
+                value = "/" + value;
+            }
+            valLenght = value.length();
+        }
+        String key = getKeyText(node);
+        String sRed = "";
+        if(!isColored) {
+            row.append(key).append(value);
+        }
+        else if(out.getUseFile()) {
+            sRed = getIsRed(node) ? AppConstants.SYMBOL_RED : "";
+            row.append(sRed).append(key).append(value);
+        }
+        else {
+            String color = getIsRed(node) ? AppConstants.COLOR_RED : AppConstants.COLOR_WHITE;
+            row.append(color).append(key).append(value).append(AppConstants.COLOR_WHITE);
+        }
+        return key.length() + valLenght + sRed.length();
+    }
+
+    /**
+     * Добавляет в строку заданное количество пробелов (блоками, без вывода по одному символу).
+     * @param row строка.
+     * @param count количество пробелов (при значении 0 или меньше 0 пробелы не добавляются).
+     */
+    private static void appendBlanks(StringBuilder row, int count) {
+        while(count > 0) {
+            int n = Math.min(count, BLANKS.length());
+            row.append(BLANKS, 0, n);
+            count -= n;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Одновременные поиски и изменения дерева: оптимистичный поиск всегда находит неизменяемые ключи,
+ * данные найденных узлов согласованы с ключами, после изменений дерево сохраняет свои свойства.
+ */
+class ConcurrentRBTreeTest {
+    /**
+     * Количество неизменяемых (четных) ключей.
+     */
+    private static final int STABLE_COUNT = 20_000;
+
+    /**
+     * Количество потоков поиска.
+     */
+    private static final int READERS = 4;
+
+    /**
+     * Количество потоков изменения.
+     */
+    private static final int WRITERS = 2;
+
+    @Test
+    void readersFindStableKeysWhileWritersChangeTree() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(READERS + WRITERS);
+        try {
+            for(int round = 0; round < 5; ++round) {
+                ConcurrentRBTree<Integer, Integer> tree = new ConcurrentRBTree<>();
+                for(int j = 0; j < STABLE_COUNT; ++j) {
+                    tree.add(2 * j, 2 * j);
+                }
+                run(executor, tree, round);
+
+                // Свойства дерева и размер после завершения изменений
+                tree.read(rbTree -> assertTrue(rbTree.validate().isValid(), () -> rbTree.validate().toString()));
+                int present = 0;
+                for(int j = 0; j < STABLE_COUNT; ++j) {
+                    present += tree.containsKey(2 * j + 1) ? 1 : 0;
+                }
+                assertEquals(STABLE_COUNT + present, tree.size());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Выполняет одновременные поиски и изменения дерева: потоки изменения добавляют и удаляют нечетные ключи,
+     * потоки поиска ищут четные ключи и проверяют данные найденных нечетных ключей.
+     * @param executor исполнитель потоков.
+     * @param tree дерево с неизменяемыми четными ключами.
+     * @param round номер повторения (начальное значение генераторов).
+     */
+    private static void run(ExecutorService executor, ConcurrentRBTree<Integer, Integer> tree, int round)
+            throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+        for(int thread = 0; thread < WRITERS; ++thread) {
+            Random random = new Random(round * 100L + thread);
+            writers.add(executor.submit(() -> {
+                start.await();
+                for(int step = 0; step < 100_000; ++step) {
+                    int key = 2 * random.nextInt(STABLE_COUNT) + 1;
+                    if(random.nextBoolean()) {
+                        tree.add(key, key);
+                    }
+                    else {
+                        tree.remove(key);
+                    }
+                }
+                return null;
+            }));
+        }
+        for(int thread = 0; thread < READERS; ++thread) {
+            Random random = new Random(round * 100L + 50 + thread);
+            readers.add(executor.submit(() -> {
+                start.await();
+                // Поиск продолжается, пока изменяется дерево, но не меньше заданного количества шагов
+                for(int step = 0; step < 50_000 || isWriting.get(); ++step) {
+                    int key = 2 * random.nextInt(STABLE_COUNT);
+                    BSNode<Integer, Integer> node = tree.findNode(key);
+                    assertNotNull(node, () -> "Не найден неизменяемый ключ " + key);
+                    assertEquals(key, node.getKey());
+                    assertEquals(key, tree.get(key));
+
+                    Integer value = tree.get(key + 1);
+                    assertTrue(value == null || value == key + 1, () -> "Данные " + value + " ключа " + (key + 1));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for(Future<?> writer : writers) {
+            writer.get();
+        }
+        isWriting.set(false);
+        for(Future<?> reader : readers) {
+            reader.get();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Гистограмма глубин узлов (см. {@link RBTree#getDepthHistogram(boolean)}): количество узлов на каждой глубине
+ * и длины путей поиска совпадают с рекурсивным подсчетом, последовательный и параллельный обходы дают
+ * одинаковый результат, формат экспорта в CSV и JSON закреплен на дереве из трех узлов.
+ */
+class DepthHistogramTest {
+    /**
+     * Количество узлов дерева (не меньше порога параллельного обхода 2^16).
+     */
+    private static final int SIZE = (1 << 16) + 1000;
+
+    @Test
+    void randomTreeMatchesRecursiveCount() {
+        RBTree<Integer, Integer> tree = new RBTree<>();
+        Random random = new Random(23);
+        while(tree.size() < SIZE) {
+            int key = random.nextInt();
+            tree.add(key, key);
+        }
+        assertMatchesRecursiveCount(tree);
+    }
+
+    @Test
+    void increasingTreeMatchesRecursiveCount() {
+        RBTree<Integer, Integer> tree = new RBTree<>();
+        for(int key = 0; key < SIZE; ++key) {
+            tree.add(key, key);
+        }
+        assertMatchesRecursiveCount(tree);
+    }
+
+    @Test
+    void emptyTree() {
+        DepthHistogram histogram = new RBTree<Integer, Integer>().getDepthHistogram();
+        assertEquals(0, histogram.getNodeCount());
+        assertEquals(0, histogram.getMaxDepth());
+        assertEquals(0, histogram.getAverageMissPathLength());
+        assertEquals("depth,count,percent,cumulative_percent\n", histogram.toCsv());
+    }
+
+    @Test
+    void exportOfThreeNodeTree() {
+        RBTree<Integer, Integer> tree = new RBTree<>();
+        tree.add(1, 1);
+        tree.add(2, 2);
+        tree.add(3, 3);
+        DepthHistogram histogram = tree.getDepthHistogram();
+        assertEquals("depth,count,percent,cumulative_percent\n"
+                + "1,1,33.3333,33.3333\n"
+                + "2,2,66.6667,100.0000\n", histogram.toCsv());
+        assertEquals("{\"nodes\": 3, \"maxDepth\": 2, \"blackHeight\": 1, \"averagePathLength\": 1.6667, "
+                + "\"averageMissPathLength\": 2.0000, "
+                + "\"histogram\": [{\"depth\": 1, \"count\": 1}, {\"depth\": 2, \"count\": 2}]}", histogram.toJson());
+    }
+
+    /**
+     * Сравнивает гистограммы последовательного и параллельного обходов с рекурсивным подсчетом глубин.
+     * @param tree дерево.
+     */
+    private static void assertMatchesRecursiveCount(RBTree<Integer, Integer> tree) {
+        long[] counts = new long[2 * tree.getBlackHeight() + 2];
+        long[] missPathLength = new long[1];
+        count(tree.getRoot(), 1, counts, missPathLength);
+        int maxDepth = counts.length - 1;
+        while(counts[maxDepth] == 0) {
+            maxDepth--;
+        }
+        long pathLength = 0;
+        for(int depth = 1; depth < counts.length; ++depth) {
+            pathLength += depth * counts[depth];
+        }
+
+        for(boolean isParallel : new boolean[] {false, true}) {
+            DepthHistogram histogram = tree.getDepthHistogram(isParallel);
+            assertEquals(tree.size(), histogram.getNodeCount());
+            assertEquals(maxDepth, histogram.getMaxDepth());
+            for(int depth = 0; depth <= maxDepth + 1; ++depth) {
+                assertEquals(depth < counts.length ? counts[depth] : 0, histogram.getCount(depth), "depth " + depth);
+            }
+            assertEquals((double) pathLength / tree.size(), histogram.getAveragePathLength());
+            assertEquals((double) missPathLength[0] / (tree.size() + 1), histogram.getAverageMissPathLength());
+            assertEquals(tree.getBlackHeight(), histogram.getBlackHeight());
+        }
+        assertEquals(tree.getDepthHistogram(false).toJson(), tree.getDepthHistogram(true).toJson());
+    }
+
+    /**
+     * Рекурсивно подсчитывает количество узлов на каждой глубине и сумму глубин родителей пустых потомков.
+     * @param node узел дерева или null.
+     * @param depth глубина узла.
+     * @param counts количество узлов на каждой глубине.
+     * @param missPathLength сумма глубин родителей пустых потомков (единственный элемент).
+     */
+    private static void count(BSNode<Integer, Integer> node, int depth, long[] counts, long[] missPathLength) {
+        if(node == null) {
+            missPathLength[0] += depth - 1;
+            return;
+        }
+        counts[depth]++;
+        count(node.getLeftChild(), depth + 1, counts, missPathLength);
+        count(node.getRightChild(), depth + 1, counts, missPathLength);
+    }
+}
@@ -0,0 +1,113 @@
+package redBlackTree;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.codec.Codecs;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Дерево с журналом изменений: восстановление после закрытия, объединения сегментов и прерванной записи.
+ */
+class DurableRBTreeTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversChanges() throws IOException {
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        try(DurableRBTree<Integer, String> tree = open(false, 4096)) {
+            applyRandom(tree, expected, new Random(25), 5_000);
+        }
+        try(DurableRBTree<Integer, String> tree = open(true, 4096)) {
+            assertContent(expected, tree);
+            applyRandom(tree, expected, new Random(26), 1_000);
+            tree.checkpoint();
+        }
+        try(Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(file -> file.getFileName().toString().startsWith("snapshot-")).count());
+        }
+        try(DurableRBTree<Integer, String> tree = open(true, 4096)) {
+            assertContent(expected, tree);
+        }
+    }
+
+    @Test
+    void dropsTornTail() throws IOException {
+        try(DurableRBTree<Integer, String> tree = open(true, DurableRBTree.DEFAULT_SEGMENT_SIZE)) {
+            for(int key = 0; key < 100; ++key) {
+                tree.add(key, "v" + key);
+            }
+        }
+        Path segment;
+        try(Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.getFileName().toString().startsWith("log-")).max(Path::compareTo).orElseThrow();
+        }
+        try(FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        long truncated = Files.size(segment);
+        try(DurableRBTree<Integer, String> tree = open(true, DurableRBTree.DEFAULT_SEGMENT_SIZE)) {
+            assertEquals(99, tree.size());
+            assertNull(tree.get(99));
+            assertEquals("v98", tree.get(98));
+            assertTrue(Files.size(segment) < truncated);
+            tree.add(99, "again");
+        }
+        try(DurableRBTree<Integer, String> tree = open(true, DurableRBTree.DEFAULT_SEGMENT_SIZE)) {
+            assertEquals(100, tree.size());
+            assertEquals("again", tree.get(99));
+        }
+    }
+
+    @Test
+    void rejectsChangesAfterClose() throws IOException {
+        DurableRBTree<Integer, String> tree = open(true, DurableRBTree.DEFAULT_SEGMENT_SIZE);
+        tree.add(1, "one");
+        tree.close();
+        assertThrows(IllegalStateException.class, () -> tree.add(2, "two"));
+        assertThrows(IllegalStateException.class, () -> tree.removeNode(1));
+        assertNull(tree.findNode(2));
+        assertEquals("one", tree.get(1));
+    }
+
+    private DurableRBTree<Integer, String> open(boolean isSync, long segmentSize) throws IOException {
+        return DurableRBTree.open(directory, Codecs.ofInt(), Codecs.ofString(), null, isSync, segmentSize);
+    }
+
+    private static void applyRandom(DurableRBTree<Integer, String> tree, TreeMap<Integer, String> expected, Random random, int count) {
+        for(int j = 0; j < count; ++j) {
+            int key = random.nextInt(1_000);
+            if(random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), tree.remove(key));
+            }
+            else {
+                String value = random.nextInt(10) == 0 ? null : Integer.toString(random.nextInt());
+                tree.add(key, value);
+                expected.put(key, value);
+            }
+        }
+    }
+
+    private static void assertContent(TreeMap<Integer, String> expected, DurableRBTree<Integer, String> tree) {
+        assertEquals(expected.size(), tree.size());
+        for(Map.Entry<Integer, String> entry : expected.entrySet()) {
+            assertTrue(tree.containsKey(entry.getKey()));
+            assertEquals(entry.getValue(), tree.get(entry.getKey()));
+        }
+        tree.read(rbTree -> assertTrue(rbTree.validate().isValid()));
+    }
+}
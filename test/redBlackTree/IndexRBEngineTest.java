@@ -0,0 +1,178 @@
+package redBlackTree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Общие алгоритмы деревьев на индексах узлов: ключи-объекты ({@link ArrayRBTree}),
+ * ключи примитивных типов ({@link IntRBTree}, {@link LongRBTree}) в сравнении с {@link TreeMap},
+ * одновременный поиск несколькими потоками.
+ */
+class IndexRBEngineTest {
+    @Test
+    void intTreeMatchesTreeMap() {
+        Random random = new Random(5);
+        IntRBTree<Integer> tree = new IntRBTree<>(16);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for(int step = 0; step < 20_000; ++step) {
+            int key = random.nextInt(4_000) - 2_000;
+            if(random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), tree.remove(key));
+            }
+            else {
+                int node = tree.add(key, step);
+                expected.put(key, step);
+                assertEquals(key, tree.getKey(node));
+            }
+            assertEquals(expected.get(key), tree.get(key));
+        }
+        assertEquals(expected.size(), tree.size());
+        StringBuilder keys = new StringBuilder();
+        forEachInOrder(tree, tree.getRoot(), node -> keys.append(tree.getKey(node)).append(' '));
+        StringBuilder expectedKeys = new StringBuilder();
+        expected.keySet().forEach(key -> expectedKeys.append(key).append(' '));
+        assertEquals(expectedKeys.toString(), keys.toString());
+        checkColors(tree);
+    }
+
+    @Test
+    void longTreeComparesFullRange() {
+        LongRBTree<String> tree = new LongRBTree<>();
+        long[] keys = {Long.MIN_VALUE, -1L, 0L, 1L, Long.MAX_VALUE, 1L << 40, -(1L << 40)};
+        for(long key : keys) {
+            tree.add(key, Long.toString(key));
+        }
+        assertEquals(keys.length, tree.size());
+        for(long key : keys) {
+            assertEquals(Long.toString(key), tree.get(key));
+        }
+        long[] previous = {Long.MIN_VALUE};
+        boolean[] isFirst = {true};
+        forEachInOrder(tree, tree.getRoot(), node -> {
+            assertTrue(isFirst[0] || previous[0] < tree.getKey(node));
+            isFirst[0] = false;
+            previous[0] = tree.getKey(node);
+        });
+        assertEquals("0", tree.remove(0L));
+        assertEquals(IndexRBEngine.NIL, tree.findNode(0L));
+        checkColors(tree);
+    }
+
+    @Test
+    void arrayTreeReusesFreedSlots() {
+        ArrayRBTree<String, Integer> tree = new ArrayRBTree<>(4);
+        for(int j = 0; j < 1_000; ++j) {
+            tree.add("k" + j, j);
+        }
+        int capacity = tree.capacity();
+        for(int j = 0; j < 1_000; j += 2) {
+            assertEquals(j, tree.remove("k" + j));
+        }
+        for(int j = 0; j < 1_000; j += 2) {
+            tree.add("n" + j, j);
+        }
+        assertEquals(capacity, tree.capacity());
+        assertEquals(1_000, tree.size());
+        assertEquals(1, tree.get("k1"));
+        assertEquals(IndexRBEngine.NIL, tree.findNode("k0"));
+        checkColors(tree);
+    }
+
+    @Test
+    void arrayTreeRejectsNullKeys() {
+        ArrayRBTree<String, Integer> tree = new ArrayRBTree<>();
+        // Пустое дерево не сравнивает ключ, поэтому null отвергается до спуска
+        assertThrows(NullPointerException.class, () -> tree.add(null, 1));
+        assertThrows(NullPointerException.class, () -> tree.findNode(null));
+        assertThrows(NullPointerException.class, () -> tree.remove(null));
+        assertEquals(0, tree.size());
+        assertEquals(IndexRBEngine.NIL, tree.getRoot());
+    }
+
+    @Test
+    void concurrentLookupsDoNotInterfere() throws Exception {
+        int count = 50_000;
+        IntRBTree<Integer> intTree = new IntRBTree<>();
+        ArrayRBTree<Integer, Integer> arrayTree = new ArrayRBTree<>();
+        for(int j = 0; j < count; ++j) {
+            intTree.add(2 * j, j);
+            arrayTree.add(2 * j, j);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for(int thread = 0; thread < 4; ++thread) {
+                int seed = thread;
+                futures.add(executor.submit(() -> {
+                    // Каждый поток ищет свои ключи: искомый ключ не должен смешиваться с ключами других потоков
+                    Random random = new Random(seed);
+                    for(int step = 0; step < 200_000; ++step) {
+                        int key = random.nextInt(2 * count);
+                        Integer expected = key % 2 == 0 ? key / 2 : null;
+                        assertEquals(expected, intTree.get(key));
+                        assertEquals(expected, arrayTree.get(key));
+                    }
+                }));
+            }
+            for(Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Обходит узлы дерева в порядке ключей.
+     * @param tree дерево.
+     * @param node индекс корня поддерева.
+     * @param visitor обработчик индекса узла.
+     */
+    private static void forEachInOrder(IndexRBEngine<?> tree, int node, IntConsumer visitor) {
+        if(node == IndexRBEngine.NIL) {
+            return;
+        }
+        forEachInOrder(tree, tree.getLeftChild(node), visitor);
+        visitor.accept(node);
+        forEachInOrder(tree, tree.getRightChild(node), visitor);
+    }
+
+    /**
+     * Проверяет черный корень, отсутствие "красных линий" и равенство черных высот.
+     * @param tree дерево.
+     */
+    private static void checkColors(IndexRBEngine<?> tree) {
+        int root = tree.getRoot();
+        assertTrue(root == IndexRBEngine.NIL || !tree.getIsRed(root));
+        blackHeight(tree, root);
+    }
+
+    private static int blackHeight(IndexRBEngine<?> tree, int node) {
+        if(node == IndexRBEngine.NIL) {
+            return 1;
+        }
+        int left = tree.getLeftChild(node);
+        int right = tree.getRightChild(node);
+        if(tree.getIsRed(node)) {
+            assertFalse(left != IndexRBEngine.NIL && tree.getIsRed(left));
+            assertFalse(right != IndexRBEngine.NIL && tree.getIsRed(right));
+        }
+        int height = blackHeight(tree, left);
+        assertEquals(height, blackHeight(tree, right));
+        return height + (tree.getIsRed(node) ? 0 : 1);
+    }
+}
@@ -0,0 +1,86 @@
+package redBlackTree;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.codec.Codecs;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Дерево в файле, отображенном в память: порядок ключей, повторное открытие, ошибки кодирования.
+ */
+class MappedRBTreeTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepsStringOrderAcrossReopen() throws IOException {
+        Path path = directory.resolve("strings.rbt");
+        Random random = new Random(7);
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        try(MappedRBTree<String, Integer> tree = MappedRBTree.open(path, Codecs.ofString(16), Codecs.ofInt())) {
+            for(int j = 0; j < 3_000; ++j) {
+                String key = randomString(random);
+                if(random.nextInt(4) == 0) {
+                    assertEquals(expected.remove(key), tree.remove(key));
+                }
+                else {
+                    tree.add(key, j);
+                    expected.put(key, j);
+                }
+            }
+        }
+        try(MappedRBTree<String, Integer> tree = MappedRBTree.open(path, Codecs.ofString(16), Codecs.ofInt())) {
+            assertEquals(expected.size(), tree.size());
+            for(Map.Entry<String, Integer> entry : expected.entrySet()) {
+                assertEquals(entry.getValue(), tree.get(entry.getKey()));
+            }
+            StringBuilder order = new StringBuilder();
+            appendInOrder(tree, tree.getRoot(), order);
+            assertEquals(String.join("|", expected.keySet()) + "|", order.toString());
+        }
+    }
+
+    @Test
+    void oversizedKeyDoesNotTakeSlot() throws IOException {
+        try(MappedRBTree<String, String> tree = MappedRBTree.open(directory.resolve("keys.rbt"), Codecs.ofString(4), Codecs.ofString(4))) {
+            assertEquals(0, tree.add("a", "x"));
+            assertThrows(IllegalArgumentException.class, () -> tree.add("too long", "x"));
+            assertThrows(IllegalArgumentException.class, () -> tree.add("b", "too long"));
+            assertEquals(1, tree.add("b", "y"));
+            assertThrows(IllegalArgumentException.class, () -> tree.add("b", "too long"));
+            assertEquals("y", tree.get("b"));
+            assertNull(tree.get("too long"));
+            assertEquals(2, tree.size());
+        }
+    }
+
+    private static void appendInOrder(MappedRBTree<String, Integer> tree, int node, StringBuilder out) {
+        if(node == IndexRBEngine.NIL) {
+            return;
+        }
+        appendInOrder(tree, tree.getLeftChild(node), out);
+        out.append(tree.getKey(node)).append('|');
+        appendInOrder(tree, tree.getRightChild(node), out);
+    }
+
+    /**
+     * Строка из символов ASCII, кириллицы, символов BMP выше суррогатов и emoji (суррогатные пары).
+     */
+    private static String randomString(Random random) {
+        int[] alphabet = {'a', 'z', 'Я', 'ж', 0xFF21, 0xE000, 0x1F600, 0x1F9FF};
+        StringBuilder builder = new StringBuilder();
+        for(int length = random.nextInt(4); length > 0; --length) {
+            builder.appendCodePoint(alphabet[random.nextInt(alphabet.length)]);
+        }
+        return builder.toString();
+    }
+}
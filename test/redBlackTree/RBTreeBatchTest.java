@@ -0,0 +1,106 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Пакетное добавление: построение и объединение большого пакета, поиск от предыдущей позиции для малого пакета.
+ */
+class RBTreeBatchTest {
+    @Test
+    void matchesTreeMap() {
+        Random random = new Random(15);
+        for(boolean isOrderStatistic : new boolean[] {false, true}) {
+            RBTree<Integer, Integer> tree = new RBTree<>(isOrderStatistic);
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            for(int batch = 0; batch < 200; ++batch) {
+                // Пакеты разного размера: больше дерева (объединение) и меньше дерева (поиск от позиции)
+                int count = batch < 3 ? 2_000 : 1 + random.nextInt(300);
+                Integer[] keys = new Integer[count];
+                Integer[] values = new Integer[count];
+                for(int j = 0; j < count; ++j) {
+                    keys[j] = random.nextInt(50_000);
+                    values[j] = batch * 1_000 + j;
+                    expected.put(keys[j], values[j]);
+                }
+                tree.addAll(keys, values);
+                if(random.nextInt(4) == 0) {
+                    for(int j = 0; j < 50; ++j) {
+                        int key = random.nextInt(50_000);
+                        tree.removeNode(key);
+                        expected.remove(key);
+                    }
+                }
+            }
+            assertContent(expected, tree);
+            if(isOrderStatistic) {
+                for(int index = 0; index < tree.size(); index += 97) {
+                    assertEquals(new ArrayList<>(expected.keySet()).get(index), tree.select(index).getKey());
+                }
+            }
+        }
+    }
+
+    @Test
+    void addsMapWithComparator() {
+        RBTree<String, Integer> tree = new RBTree<>(Comparator.<String>reverseOrder());
+        StringRBTree<Integer> stringTree = new StringRBTree<>();
+        TreeMap<String, Integer> expected = new TreeMap<>(Comparator.reverseOrder());
+        Random random = new Random(16);
+        for(int batch = 0; batch < 50; ++batch) {
+            Map<String, Integer> map = new HashMap<>();
+            for(int j = 0; j < 1 + random.nextInt(200); ++j) {
+                map.put("k" + random.nextInt(20_000), j);
+            }
+            tree.addAll(map);
+            stringTree.addAll(map);
+            expected.putAll(map);
+        }
+        assertContent(expected, tree);
+        assertEquals(expected.size(), stringTree.size());
+        assertTrue(stringTree.validate().isValid());
+    }
+
+    @Test
+    void smallBatchSearchesFromPreviousKey() {
+        long[] comparisons = new long[1];
+        RBTree<Integer, Integer> tree = new RBTree<>((a, b) -> {
+            comparisons[0]++;
+            return Integer.compare(a, b);
+        });
+        for(int key = 0; key < 200_000; key += 2) {
+            tree.add(key, key);
+        }
+        Integer[] keys = new Integer[2_000];
+        for(int j = 0; j < keys.length; ++j) {
+            keys[j] = 50_001 + 2 * j;
+        }
+        comparisons[0] = 0;
+        tree.addAll(keys, keys);
+        // Спуск от корня для каждого ключа - не менее log2(100 000) = 17 сравнений
+        assertTrue(comparisons[0] < 8L * keys.length, () -> "Сравнений: " + comparisons[0]);
+        assertEquals(102_000, tree.size());
+        assertTrue(tree.validate().isValid());
+    }
+
+    private static <K extends Comparable<K>> void assertContent(TreeMap<K, Integer> expected, RBTree<K, Integer> tree) {
+        assertTrue(tree.validate().isValid());
+        assertEquals(expected.size(), tree.size());
+        List<Map.Entry<K, Integer>> entries = new ArrayList<>();
+        for(BSNode<K, Integer> node : tree) {
+            entries.add(Map.entry(node.getKey(), node.getValue()));
+        }
+        assertEquals(new ArrayList<>(expected.entrySet()), entries);
+    }
+}
@@ -0,0 +1,79 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Проверки свойств красно-черного дерева для тестов, независимые от проверяемых алгоритмов дерева:
+ * черный корень, отсутствие "красных линий", равенство черных высот и размер дерева.
+ */
+final class RBTreeChecks {
+    /**
+     * Создает проверки (не используется: класс содержит только статические методы).
+     */
+    private RBTreeChecks() {}
+
+    /**
+     * Проверяет свойства красно-черного дерева и соответствие размера дерева количеству узлов.
+     * @param tree дерево.
+     */
+    static <K extends Comparable<K>, V> void assertRedBlack(RBTree<K, V> tree) {
+        BSNode<K, V> root = tree.getRoot();
+        assertFalse(root != null && root.getIsRed(), "Красный корень");
+        int[] count = new int[1];
+        blackHeight(root, count);
+        assertEquals(tree.size(), count[0], "Размер дерева не совпадает с количеством узлов");
+    }
+
+    /**
+     * Получает ключи поддерева в порядке обхода (слева направо).
+     * @param root корень поддерева или null.
+     * @return ключи.
+     */
+    static <K extends Comparable<K>, V> List<K> keys(BSNode<K, V> root) {
+        List<K> keys = new ArrayList<>();
+        collectKeys(root, keys);
+        return keys;
+    }
+
+    /**
+     * Вычисляет черную высоту поддерева, проверяя отсутствие "красных линий" и равенство черных высот.
+     * @param node корень поддерева или null.
+     * @param count счетчик узлов (count[0]).
+     * @return черная высота поддерева.
+     */
+    private static <K extends Comparable<K>, V> int blackHeight(BSNode<K, V> node, int[] count) {
+        if(node == null) {
+            return 1;
+        }
+        count[0]++;
+        BSNode<K, V> left = node.getLeftChild();
+        BSNode<K, V> right = node.getRightChild();
+        if(node.getIsRed()) {
+            assertFalse(left != null && left.getIsRed(), () -> "Красная линия: " + node.getKey());
+            assertFalse(right != null && right.getIsRed(), () -> "Красная линия: " + node.getKey());
+        }
+        int height = blackHeight(left, count);
+        assertEquals(height, blackHeight(right, count), () -> "Черные высоты различаются: " + node.getKey());
+        return height + (node.getIsRed() ? 0 : 1);
+    }
+
+    /**
+     * Собирает ключи поддерева в порядке обхода.
+     * @param node корень поддерева или null.
+     * @param keys ключи.
+     */
+    private static <K extends Comparable<K>, V> void collectKeys(BSNode<K, V> node, List<K> keys) {
+        if(node == null) {
+            return;
+        }
+        collectKeys(node.getLeftChild(), keys);
+        keys.add(node.getKey());
+        collectKeys(node.getRightChild(), keys);
+    }
+}
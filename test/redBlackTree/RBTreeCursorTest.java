@@ -0,0 +1,90 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Курсор красно-чёрного дерева: поиск и переходы к соседним узлам, в том числе после изменения дерева.
+ */
+class RBTreeCursorTest {
+    @Test
+    void editInGapOfReverseTree() {
+        RBTree<Integer, Integer> tree = new RBTree<>(Comparator.<Integer>reverseOrder());
+        for(int key : new int[] {50, 45, 17, 10}) {
+            tree.add(key, key);
+        }
+        RBTreeCursor<Integer, Integer> cursor = tree.cursor();
+        assertNull(cursor.seek(42));
+        tree.add(39, 39);
+        assertEquals(39, cursor.next().getKey());
+        assertEquals(17, cursor.next().getKey());
+    }
+
+    @Test
+    void soughtKeyAddedInGap() {
+        RBTree<Integer, Integer> tree = new RBTree<>();
+        for(int key = 0; key < 100; key += 10) {
+            tree.add(key, key);
+        }
+        RBTreeCursor<Integer, Integer> cursor = tree.cursor();
+        assertNull(cursor.seek(42));
+        tree.add(42, 42);
+        assertEquals(42, cursor.next().getKey());
+
+        assertNull(cursor.seek(55));
+        tree.add(55, 55);
+        assertEquals(50, cursor.prev().getKey());
+    }
+
+    @Test
+    void neighboursRemovedInGap() {
+        RBTree<Integer, Integer> tree = new RBTree<>();
+        for(int key = 0; key < 100; key += 10) {
+            tree.add(key, key);
+        }
+        RBTreeCursor<Integer, Integer> cursor = tree.cursor();
+        assertNull(cursor.seek(42));
+        tree.removeNode(40);
+        tree.removeNode(50);
+        assertEquals(60, cursor.next().getKey());
+        assertNull(cursor.seek(42));
+        tree.removeNode(30);
+        assertEquals(20, cursor.prev().getKey());
+    }
+
+    @Test
+    void movesAfterRandomEdits() {
+        Random random = new Random(16);
+        RBTree<Integer, Integer> tree = new RBTree<>();
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        RBTreeCursor<Integer, Integer> cursor = tree.cursor();
+        for(int step = 0; step < 20_000; ++step) {
+            int key = random.nextInt(500);
+            boolean isFound = cursor.seek(key) != null;
+            assertEquals(map.containsKey(key), isFound);
+            for(int edit = random.nextInt(4); edit > 0; --edit) {
+                int other = random.nextInt(500);
+                if(random.nextBoolean()) {
+                    tree.add(other, other);
+                    map.put(other, other);
+                }
+                else {
+                    tree.removeNode(other);
+                    map.remove(other);
+                }
+            }
+            // Найденный узел предшествует курсору, промежуток - следующему узлу с искомым ключом
+            boolean isForward = random.nextBoolean();
+            Integer expected = isForward ? (isFound ? map.higherKey(key) : map.ceilingKey(key)) : map.lowerKey(key);
+            BSNode<Integer, Integer> node = isForward ? cursor.next() : cursor.prev();
+            assertEquals(expected, node == null ? null : node.getKey());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Соединение, разделение и операции над множествами деревьев в сравнении с {@link TreeMap}:
+ * содержимое, свойства красно-черного дерева, размеры и порядковые статистики частей.
+ */
+class RBTreeJoinTest {
+    @Test
+    void splitAndJoinRestoreTree() {
+        Random random = new Random(13);
+        for(boolean isOrderStatistic : new boolean[] {false, true}) {
+            for(int round = 0; round < 200; ++round) {
+                TreeMap<Integer, Integer> expected = new TreeMap<>();
+                RBTree<Integer, Integer> tree = randomTree(random, random.nextInt(300), isOrderStatistic, expected);
+                // Ключ разделения - существующий ключ, отсутствующий ключ или ключ вне диапазона
+                int key = random.nextInt(1_200) - 100;
+
+                RBTree<Integer, Integer> right = tree.split(key);
+                assertMatches(expected.headMap(key, false), tree);
+                assertMatches(expected.tailMap(key, true), right);
+
+                Integer value = right.remove(key);
+                RBTree<Integer, Integer> joined = RBTree.join(tree, key, value, right);
+                TreeMap<Integer, Integer> rejoined = new TreeMap<>(expected);
+                rejoined.put(key, value);
+                assertMatches(rejoined, joined);
+                assertEquals(0, tree.size());
+                assertEquals(0, right.size());
+            }
+        }
+    }
+
+    @Test
+    void joinRejectsUnorderedTrees() {
+        RBTree<Integer, Integer> low = new RBTree<>();
+        RBTree<Integer, Integer> high = new RBTree<>();
+        low.add(10, 0);
+        high.add(20, 0);
+        assertThrows(IllegalArgumentException.class, () -> RBTree.join(low, 25, 0, high));
+        assertThrows(IllegalArgumentException.class, () -> RBTree.join(new RBTree<>(true), 0, 0, new RBTree<>()));
+    }
+
+    @Test
+    void setOperationsMatchTreeMap() {
+        Random random = new Random(14);
+        for(boolean isOrderStatistic : new boolean[] {false, true}) {
+            for(int round = 0; round < 100; ++round) {
+                TreeMap<Integer, Integer> first = new TreeMap<>();
+                TreeMap<Integer, Integer> second = new TreeMap<>();
+                // Деревья разного размера: объединение по ключу корня меньшего дерева
+                int firstSize = random.nextInt(500);
+                int secondSize = random.nextInt(round % 2 == 0 ? 20 : 500);
+
+                RBTree<Integer, Integer> union = randomTree(random, firstSize, isOrderStatistic, first);
+                union.union(randomTree(random, secondSize, isOrderStatistic, second), Integer::sum);
+                TreeMap<Integer, Integer> expected = new TreeMap<>(first);
+                second.forEach((key, value) -> expected.merge(key, value, Integer::sum));
+                assertMatches(expected, union);
+
+                RBTree<Integer, Integer> intersection = copy(first, isOrderStatistic);
+                intersection.intersection(copy(second, isOrderStatistic), Integer::sum);
+                expected.clear();
+                first.forEach((key, value) -> {
+                    if(second.containsKey(key)) {
+                        expected.put(key, value + second.get(key));
+                    }
+                });
+                assertMatches(expected, intersection);
+
+                RBTree<Integer, Integer> difference = copy(first, isOrderStatistic);
+                RBTree<Integer, Integer> other = copy(second, isOrderStatistic);
+                difference.difference(other);
+                expected.clear();
+                expected.putAll(first);
+                expected.keySet().removeAll(second.keySet());
+                assertMatches(expected, difference);
+                assertEquals(0, other.size());
+            }
+        }
+    }
+
+    @Test
+    void parallelUnionMatchesSequentialUnion() {
+        Random random = new Random(15);
+        List<RBTree<Integer, Integer>> shards = new ArrayList<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for(int j = 0; j < 9; ++j) {
+            TreeMap<Integer, Integer> shard = new TreeMap<>();
+            shards.add(randomTree(random, 5_000, true, shard));
+            shard.forEach((key, value) -> expected.merge(key, value, Integer::sum));
+        }
+        RBTree<Integer, Integer> union = RBTree.parallelUnion(shards, Integer::sum);
+        assertMatches(expected, union);
+        for(RBTree<Integer, Integer> shard : shards) {
+            assertEquals(0, shard.size());
+        }
+    }
+
+    /**
+     * Создает дерево случайных ключей и заполняет ожидаемое отображение.
+     * @param random генератор ключей.
+     * @param count количество добавлений (ключи повторяются).
+     * @param isOrderStatistic поддержка порядковых статистик.
+     * @param expected ожидаемое отображение.
+     * @return дерево.
+     */
+    private static RBTree<Integer, Integer> randomTree(Random random, int count, boolean isOrderStatistic,
+                                                      TreeMap<Integer, Integer> expected) {
+        RBTree<Integer, Integer> tree = new RBTree<>(isOrderStatistic);
+        for(int j = 0; j < count; ++j) {
+            int key = random.nextInt(1_000);
+            int value = random.nextInt(100);
+            tree.add(key, value);
+            expected.put(key, value);
+        }
+        return tree;
+    }
+
+    /**
+     * Создает дерево с элементами отображения.
+     * @param map отображение.
+     * @param isOrderStatistic поддержка порядковых статистик.
+     * @return дерево.
+     */
+    private static RBTree<Integer, Integer> copy(TreeMap<Integer, Integer> map, boolean isOrderStatistic) {
+        RBTree<Integer, Integer> tree = new RBTree<>(isOrderStatistic);
+        map.forEach(tree::add);
+        return tree;
+    }
+
+    /**
+     * Проверяет содержимое, размер, свойства дерева и порядковые статистики.
+     * @param expected ожидаемое отображение.
+     * @param tree дерево.
+     */
+    private static void assertMatches(SortedMap<Integer, Integer> expected, RBTree<Integer, Integer> tree) {
+        RBTreeChecks.assertRedBlack(tree);
+        List<Integer> keys = new ArrayList<>();
+        for(BSNode<Integer, Integer> node : tree) {
+            keys.add(node.getKey());
+            assertEquals(expected.get(node.getKey()), node.getValue());
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+        if(tree.isOrderStatistic()) {
+            for(int j = 0; j < keys.size(); ++j) {
+                assertEquals(keys.get(j), tree.select(j).getKey());
+                assertEquals(j, tree.rank(keys.get(j)));
+            }
+        }
+    }
+}
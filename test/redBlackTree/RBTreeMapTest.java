@@ -0,0 +1,139 @@
+package redBlackTree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Отображение на основе красно-черного дерева в сравнении с {@link TreeMap}: изменение, навигация,
+ * представления диапазонов и fail-fast итераторы.
+ */
+class RBTreeMapTest {
+    @Test
+    void matchesTreeMap() {
+        Random random = new Random(10);
+        RBTreeMap<Integer, Integer> map = new RBTreeMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for(int step = 0; step < 20_000; ++step) {
+            int key = random.nextInt(2_000);
+            switch(random.nextInt(4)) {
+                case 0, 1 -> assertEquals(expected.put(key, step), map.put(key, step));
+                case 2 -> assertEquals(expected.remove(key), map.remove(key));
+                default -> assertEquals(expected.putIfAbsent(key, step), map.putIfAbsent(key, step));
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.floorKey(key), map.floorKey(key));
+            assertEquals(expected.ceilingKey(key), map.ceilingKey(key));
+            assertEquals(expected.lowerKey(key), map.lowerKey(key));
+            assertEquals(expected.higherKey(key), map.higherKey(key));
+        }
+        assertEquals(expected, map);
+        assertTrue(map.getTree().validate().isValid());
+    }
+
+    @Test
+    void putDescendsOnce() {
+        RBTree<Integer, String> tree = new RBTree<>();
+        RBTreeMap<Integer, String> map = new RBTreeMap<>(tree);
+        for(int j = 0; j < 1_000; ++j) {
+            assertNull(map.put(j, "a" + j));
+        }
+        int modCount = tree.getModCount();
+        assertEquals("a7", map.put(7, "b7"));
+        // Переписывание данных не изменяет структуру дерева
+        assertEquals(modCount, tree.getModCount());
+        assertEquals("b7", map.get(7));
+        assertEquals(1_000, map.size());
+    }
+
+    @Test
+    void viewsMatchTreeMap() {
+        Random random = new Random(11);
+        RBTreeMap<Integer, Integer> map = new RBTreeMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for(int j = 0; j < 500; ++j) {
+            int key = random.nextInt(1_000);
+            map.put(key, j);
+            expected.put(key, j);
+        }
+        for(int j = 0; j < 100; ++j) {
+            int low = random.nextInt(1_000);
+            int high = low + random.nextInt(1_000 - low + 1);
+            boolean isLowInclusive = random.nextBoolean();
+            boolean isHighInclusive = random.nextBoolean();
+            NavigableMap<Integer, Integer> view = map.subMap(low, isLowInclusive, high, isHighInclusive);
+            NavigableMap<Integer, Integer> expectedView = expected.subMap(low, isLowInclusive, high, isHighInclusive);
+            assertEquals(expectedView, view);
+            assertEquals(new ArrayList<>(expectedView.descendingMap().keySet()), new ArrayList<>(view.descendingMap().keySet()));
+            assertEquals(expectedView.firstEntry(), view.firstEntry());
+            assertEquals(expectedView.lastEntry(), view.lastEntry());
+            assertEquals(new ArrayList<>(expected.headMap(high, isHighInclusive).keySet()),
+                         new ArrayList<>(map.headMap(high, isHighInclusive).keySet()));
+            assertEquals(new ArrayList<>(expected.tailMap(low, isLowInclusive).keySet()),
+                         new ArrayList<>(map.tailMap(low, isLowInclusive).keySet()));
+            if(!isLowInclusive) {
+                assertThrows(IllegalArgumentException.class, () -> view.put(low, 0));
+            }
+        }
+    }
+
+    @Test
+    void iteratorRemovesThroughView() {
+        RBTreeMap<Integer, Integer> map = new RBTreeMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for(int j = 0; j < 1_000; ++j) {
+            map.put(j, j);
+            expected.put(j, j);
+        }
+        // Удаление через итератор представления не нарушает обход
+        Iterator<Map.Entry<Integer, Integer>> iterator = map.subMap(100, 900).entrySet().iterator();
+        List<Integer> visited = new ArrayList<>();
+        while(iterator.hasNext()) {
+            int key = iterator.next().getKey();
+            visited.add(key);
+            if(key % 3 == 0) {
+                iterator.remove();
+                expected.remove(key);
+            }
+        }
+        assertEquals(800, visited.size());
+        assertEquals(expected, map);
+        assertTrue(map.getTree().validate().isValid());
+    }
+
+    @Test
+    void iteratorsAreFailFast() {
+        RBTreeMap<Integer, Integer> map = new RBTreeMap<>();
+        for(int j = 0; j < 100; ++j) {
+            map.put(j, j);
+        }
+        Iterator<Integer> keys = map.keySet().iterator();
+        keys.next();
+        map.put(1_000, 0);
+        assertThrows(ConcurrentModificationException.class, keys::next);
+
+        Iterator<Map.Entry<Integer, Integer>> entries = map.descendingMap().entrySet().iterator();
+        entries.next();
+        map.remove(50);
+        assertThrows(ConcurrentModificationException.class, entries::remove);
+
+        // Переписывание данных существующего ключа не является структурным изменением
+        Iterator<Integer> values = map.values().iterator();
+        values.next();
+        map.put(10, -1);
+        values.next();
+    }
+}
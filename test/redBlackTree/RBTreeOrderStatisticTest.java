@@ -0,0 +1,80 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Красно-чёрное дерево с порядковыми статистиками: размеры поддеревьев после добавления, перезаписи и удаления,
+ * rank, select и countInRange в сравнении с {@link TreeMap}.
+ */
+class RBTreeOrderStatisticTest {
+    @Test
+    void keepsSubtreeSizes() {
+        Random random = new Random(12);
+        RBTree<Integer, Integer> tree = new RBTree<>(true);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for(int j = 0; j < 20_000; ++j) {
+            int key = random.nextInt(2_000);
+            if(random.nextInt(3) == 0) {
+                tree.removeNode(key);
+                expected.remove(key);
+            }
+            else {
+                // Ключи повторяются: часть добавлений перезаписывает данные существующего узла
+                tree.add(key, j);
+                expected.put(key, j);
+            }
+            if(j % 1_000 == 0) {
+                assertEquals(tree.size(), checkSizes(tree, tree.getRoot()));
+                assertTrue(tree.validate().isValid());
+            }
+        }
+        assertEquals(expected.size(), checkSizes(tree, tree.getRoot()));
+
+        List<Integer> keys = new ArrayList<>(expected.keySet());
+        for(int index = 0; index < keys.size(); ++index) {
+            assertEquals(keys.get(index), tree.select(index).getKey());
+        }
+        for(int j = 0; j < 1_000; ++j) {
+            int lo = random.nextInt(2_100) - 50;
+            int hi = lo + random.nextInt(500);
+            assertEquals(expected.headMap(lo).size(), tree.rank(lo));
+            assertEquals(expected.subMap(lo, hi).size(), tree.countInRange(lo, hi));
+        }
+        assertEquals(keys.get((keys.size() - 1) / 2), tree.median().getKey());
+    }
+
+    @Test
+    void reverseComparator() {
+        RBTree<Integer, Integer> tree = new RBTree<>(Comparator.<Integer>reverseOrder(), true);
+        for(int key = 0; key < 100; ++key) {
+            tree.add(key, key);
+            tree.add(key, -key);
+        }
+        assertEquals(100, checkSizes(tree, tree.getRoot()));
+        assertEquals(99, tree.select(0).getKey());
+        assertEquals(90, tree.rank(9));
+    }
+
+    /**
+     * Проверяет размеры поддеревьев всех узлов поддерева.
+     * @return количество узлов поддерева.
+     */
+    private static int checkSizes(RBTree<Integer, Integer> tree, BSNode<Integer, Integer> node) {
+        if(node == null) {
+            return 0;
+        }
+        int size = 1 + checkSizes(tree, node.getLeftChild()) + checkSizes(tree, node.getRightChild());
+        assertEquals(size, tree.getSubtreeSize(node), () -> "Размер поддерева узла " + node.getKey());
+        return size;
+    }
+}
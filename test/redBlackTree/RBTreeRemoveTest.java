@@ -0,0 +1,154 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+import binarySearchTree.BSTree;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Удаление узлов: свойства красно-черного дерева после каждого удаления, удаленный узел,
+ * удаление отсутствующего ключа и удаление всех узлов в разном порядке в сравнении с {@link TreeMap}.
+ */
+class RBTreeRemoveTest {
+    @Test
+    void keepsInvariantsAfterEachRemove() {
+        Random random = new Random(2);
+        for(Comparator<Integer> comparator : List.of(Comparator.<Integer>naturalOrder(), Comparator.<Integer>reverseOrder())) {
+            RBTree<Integer, Integer> tree = new RBTree<>(comparator);
+            TreeMap<Integer, Integer> expected = new TreeMap<>(comparator);
+            for(int step = 0; step < 5_000; ++step) {
+                int key = random.nextInt(500);
+                if(random.nextInt(2) == 0) {
+                    assertRemoved(key, expected.remove(key), tree.removeNode(key));
+                }
+                else {
+                    tree.add(key, step);
+                    expected.put(key, step);
+                }
+                RBTreeChecks.assertRedBlack(tree);
+            }
+            assertEquals(new ArrayList<>(expected.keySet()), RBTreeChecks.keys(tree.getRoot()));
+        }
+    }
+
+    @Test
+    void removesAllNodesInAnyOrder() {
+        List<Integer> ascending = new ArrayList<>();
+        for(int j = 0; j < 2_000; ++j) {
+            ascending.add(j);
+        }
+        List<Integer> descending = new ArrayList<>(ascending);
+        Collections.reverse(descending);
+        List<Integer> shuffled = new ArrayList<>(ascending);
+        Collections.shuffle(shuffled, new Random(3));
+        for(List<Integer> order : List.of(ascending, descending, shuffled)) {
+            for(boolean isOrderStatistic : new boolean[] {false, true}) {
+                RBTree<Integer, Integer> tree = new RBTree<>(isOrderStatistic);
+                for(int key : ascending) {
+                    tree.add(key, key);
+                }
+                int size = tree.size();
+                for(int key : order) {
+                    assertEquals(key, tree.remove(key));
+                    assertEquals(--size, tree.size());
+                    if(size % 97 == 0) {
+                        RBTreeChecks.assertRedBlack(tree);
+                        if(isOrderStatistic && size > 0) {
+                            assertEquals(size - 1, tree.rank(tree.select(size - 1).getKey()));
+                        }
+                    }
+                }
+                assertNull(tree.getRoot());
+            }
+        }
+    }
+
+    @Test
+    void missingKeyLeavesTreeUnchanged() {
+        RBTree<Integer, Integer> tree = new RBTree<>();
+        assertNull(tree.removeNode(1));
+        for(int j = 0; j < 100; j += 2) {
+            tree.add(j, j);
+        }
+        List<Integer> keys = RBTreeChecks.keys(tree.getRoot());
+        int modCount = tree.getModCount();
+        for(int j = -1; j <= 101; j += 2) {
+            assertNull(tree.removeNode(j));
+        }
+        assertEquals(modCount, tree.getModCount());
+        assertEquals(50, tree.size());
+        assertEquals(keys, RBTreeChecks.keys(tree.getRoot()));
+        RBTreeChecks.assertRedBlack(tree);
+    }
+
+    @Test
+    void maxValueFollowsAddsAndRemoves() {
+        Random random = new Random(5);
+        RBTree<Integer, String> tree = new RBTree<>();
+        for(int step = 0; step < 3_000; ++step) {
+            int key = random.nextInt(400);
+            if(random.nextInt(3) == 0) {
+                tree.remove(key);
+            }
+            else {
+                // Данные разной длины: самый длинный узел удаляется и переписывается более коротким
+                tree.add(key, "v".repeat(random.nextInt(12)));
+            }
+            if(step % 10 == 0) {
+                assertEquals(tree.measureShape().maxValue(), tree.getEstimateMaxValue());
+            }
+        }
+        for(int key = 0; key < 400; ++key) {
+            if(tree.findNode(key) != null) {
+                tree.remove(key);
+                assertEquals(tree.measureShape().maxValue(), tree.getEstimateMaxValue());
+            }
+        }
+        assertEquals(0, tree.getEstimateMaxValue());
+    }
+
+    @Test
+    void binarySearchTreeRemovesBySuccessor() {
+        Random random = new Random(4);
+        BSTree<Integer, Integer> tree = new BSTree<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for(int step = 0; step < 5_000; ++step) {
+            int key = random.nextInt(300);
+            if(random.nextInt(2) == 0) {
+                assertEquals(expected.remove(key), tree.remove(key));
+            }
+            else {
+                tree.add(key, step);
+                expected.put(key, step);
+            }
+            assertEquals(expected.size(), tree.size());
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), RBTreeChecks.keys(tree.getRoot()));
+    }
+
+    /**
+     * Проверяет удаленный узел: узел с заданным ключом и данными, отсоединенный от дерева.
+     * @param key ключ удаления.
+     * @param value ожидаемые данные или null, если ключ отсутствовал.
+     * @param removed удаленный узел или null.
+     */
+    private static void assertRemoved(int key, Integer value, BSNode<Integer, Integer> removed) {
+        if(removed == null) {
+            assertNull(value);
+            return;
+        }
+        assertEquals(key, removed.getKey());
+        assertEquals(value, removed.getValue());
+        assertNull(removed.getLeftChild());
+        assertNull(removed.getRightChild());
+    }
+}
@@ -0,0 +1,138 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.codec.Codecs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Снимок дерева: восстановление, отказ при усеченном и поврежденном файле, сохранение прежнего снимка.
+ */
+class RBTreeSnapshotTest {
+    /**
+     * Смещение количества элементов в заголовке снимка.
+     */
+    private static final int SIZE_OFFSET = 3 * Integer.BYTES;
+
+    /**
+     * Размер заголовка снимка.
+     */
+    private static final int HEADER_SIZE = 5 * Integer.BYTES + Long.BYTES;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresTree() throws IOException {
+        Path path = directory.resolve("tree.snapshot");
+        RBTree<String, Integer> tree = new RBTree<>(true);
+        for(int j = 0; j < 5_000; ++j) {
+            tree.add("key" + j, j % 7 == 0 ? null : j);
+        }
+        tree.writeSnapshot(path, Codecs.ofString(), Codecs.ofInt());
+        RBTree<String, Integer> restored = RBTree.readSnapshot(path, Codecs.ofString(), Codecs.ofInt());
+        assertEquals(tree.size(), restored.size());
+        assertTrue(restored.isOrderStatistic());
+        assertTrue(restored.validate().isValid());
+        for(BSNode<String, Integer> node : tree) {
+            BSNode<String, Integer> found = restored.findNode(node.getKey());
+            assertEquals(node.getValue(), found.getValue());
+        }
+        assertFalse(Files.exists(directory.resolve("tree.snapshot.tmp")));
+    }
+
+    @Test
+    void rejectsTruncatedFile() throws IOException {
+        Path path = writeIntSnapshot(1_000);
+        byte[] bytes = Files.readAllBytes(path);
+        for(int length : new int[] {0, HEADER_SIZE - 1, HEADER_SIZE, bytes.length / 2, bytes.length - 1}) {
+            Files.write(path, Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> RBTree.readSnapshot(path, Codecs.ofInt(), Codecs.ofInt()));
+        }
+    }
+
+    @Test
+    void rejectsCorruptHeader() throws IOException {
+        Path path = writeIntSnapshot(100);
+        byte[] bytes = Files.readAllBytes(path);
+
+        byte[] magic = bytes.clone();
+        magic[0] ^= 1;
+        Files.write(path, magic);
+        assertThrows(IOException.class, () -> RBTree.readSnapshot(path, Codecs.ofInt(), Codecs.ofInt()));
+
+        // Количество элементов, превышающее размер файла, отвергается до выделения массивов
+        for(long size : new long[] {-1, Integer.MAX_VALUE, Integer.MAX_VALUE + 1L, 101}) {
+            byte[] corrupt = bytes.clone();
+            ByteBuffer.wrap(corrupt).putLong(SIZE_OFFSET, size);
+            Files.write(path, corrupt);
+            assertThrows(IOException.class, () -> RBTree.readSnapshot(path, Codecs.ofInt(), Codecs.ofInt()));
+        }
+
+        // Кодировщики, не соответствующие снимку
+        Files.write(path, bytes);
+        assertThrows(IOException.class, () -> RBTree.readSnapshot(path, Codecs.ofLong(), Codecs.ofInt()));
+    }
+
+    @Test
+    void rejectsCorruptEntries() throws IOException {
+        Path path = directory.resolve("strings.snapshot");
+        RBTree<String, Integer> tree = new RBTree<>();
+        for(int j = 0; j < 100; ++j) {
+            tree.add("key" + (1_000 + j), j);
+        }
+        tree.writeSnapshot(path, Codecs.ofString(), Codecs.ofInt());
+        byte[] bytes = Files.readAllBytes(path);
+
+        // Длина первого ключа, превышающая размер файла
+        byte[] length = bytes.clone();
+        ByteBuffer.wrap(length).putInt(HEADER_SIZE, Integer.MAX_VALUE - 8);
+        Files.write(path, length);
+        assertThrows(IOException.class, () -> RBTree.readSnapshot(path, Codecs.ofString(), Codecs.ofInt()));
+
+        // Нарушенный порядок ключей: первый ключ становится больше второго
+        byte[] order = bytes.clone();
+        order[HEADER_SIZE + Integer.BYTES + "key".length()] = '9';
+        Files.write(path, order);
+        assertThrows(IOException.class, () -> RBTree.readSnapshot(path, Codecs.ofString(), Codecs.ofInt()));
+    }
+
+    @Test
+    void keepsPreviousSnapshotOnFailedWrite() throws IOException {
+        Path path = writeIntSnapshot(10);
+        byte[] before = Files.readAllBytes(path);
+        RBTree<Integer, String> tree = new RBTree<>();
+        tree.add(1, "a");
+        tree.add(2, "too long");
+        // Ошибка кодирования второго элемента прерывает запись временного файла
+        assertThrows(RuntimeException.class, () -> tree.writeSnapshot(path, Codecs.ofInt(), Codecs.ofString(1)));
+        assertTrue(Arrays.equals(before, Files.readAllBytes(path)));
+        assertEquals(10, RBTree.readSnapshot(path, Codecs.ofInt(), Codecs.ofInt()).size());
+    }
+
+    /**
+     * Записывает снимок дерева с заданным количеством ключей int.
+     * @param count количество ключей.
+     * @return путь к файлу снимка.
+     */
+    private Path writeIntSnapshot(int count) throws IOException {
+        Path path = directory.resolve("ints.snapshot");
+        RBTree<Integer, Integer> tree = new RBTree<>();
+        for(int j = 0; j < count; ++j) {
+            tree.add(j, -j);
+        }
+        tree.writeSnapshot(path, Codecs.ofInt(), Codecs.ofInt());
+        return path;
+    }
+}
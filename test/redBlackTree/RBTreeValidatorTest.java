@@ -0,0 +1,139 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверка свойств дерева (см. {@link RBTree#validate(boolean)}): дерево, поврежденное через сеттеры узлов,
+ * дает нарушение ожидаемого вида при последовательной и параллельной проверке.
+ * Размер деревьев не меньше порога параллельной проверки (2^16 узлов).
+ */
+class RBTreeValidatorTest {
+    /**
+     * Количество узлов дерева.
+     */
+    private static final int SIZE = (1 << 16) + 1000;
+
+    @Test
+    void intactTreeIsValid() {
+        RBTree<Integer, Integer> tree = newTree();
+        ValidationReport<Integer> sequential = tree.validate();
+        ValidationReport<Integer> parallel = tree.validate(true);
+        assertTrue(sequential.isValid(), sequential::toString);
+        assertTrue(parallel.isValid(), parallel::toString);
+        assertEquals(SIZE, sequential.nodeCount());
+        assertEquals(SIZE, parallel.nodeCount());
+        assertEquals(tree.getBlackHeight(), sequential.blackHeight());
+        assertEquals(sequential.blackHeight(), parallel.blackHeight());
+        assertEquals(sequential.height(), parallel.height());
+    }
+
+    @Test
+    void redRootIsReported() {
+        RBTree<Integer, Integer> tree = newTree();
+        tree.getRoot().setIsRed(true);
+        assertSameViolations(tree, ValidationReport.Type.RED_ROOT);
+    }
+
+    @Test
+    void blackHeightBreakIsReported() {
+        RBTree<Integer, Integer> tree = newTree();
+        // Перекрашенный черный узел уменьшает черную высоту своего поддерева относительно поддерева брата
+        BSNode<Integer, Integer> node = tree.getRoot().getLeftChild();
+        while(node.getIsRed()) {
+            node = node.getLeftChild();
+        }
+        node.setIsRed(true);
+        assertSameViolations(tree, ValidationReport.Type.BLACK_HEIGHT);
+    }
+
+    @Test
+    void orderBreakIsReported() {
+        RBTree<Integer, Integer> tree = newTree();
+        // Наименьший ключ заменяется ключом больше всех ключей дерева
+        BSNode<Integer, Integer> node = tree.getRoot();
+        while(node.getLeftChild() != null) {
+            node = node.getLeftChild();
+        }
+        node.setKey(Integer.MAX_VALUE);
+        ValidationReport<Integer> report = assertSameViolations(tree, ValidationReport.Type.ORDER);
+        assertEquals(Set.of(ValidationReport.Type.ORDER), types(report));
+    }
+
+    @Test
+    void cycleStopsTraversal() {
+        RBTree<Integer, Integer> tree = newTree();
+        // Ссылка наибольшего узла на корень образует цикл: обход прекращается после превышения размера дерева
+        BSNode<Integer, Integer> node = tree.getRoot();
+        while(node.getRightChild() != null) {
+            node = node.getRightChild();
+        }
+        node.setRightChild(tree.getRoot());
+        for(boolean isParallel : new boolean[] {false, true}) {
+            ValidationReport<Integer> report = tree.validate(isParallel);
+            assertFalse(report.isValid());
+            assertTrue(report.nodeCount() > SIZE, report::toString);
+            assertTrue(types(report).contains(ValidationReport.Type.SIZE), report::toString);
+        }
+    }
+
+    /**
+     * Проверяет, что последовательная и параллельная проверки находят одинаковые нарушения, включая ожидаемое.
+     * @param tree поврежденное дерево.
+     * @param expected ожидаемый вид нарушения.
+     * @return отчет последовательной проверки.
+     */
+    private static ValidationReport<Integer> assertSameViolations(RBTree<Integer, Integer> tree,
+                                                                  ValidationReport.Type expected) {
+        ValidationReport<Integer> sequential = tree.validate();
+        ValidationReport<Integer> parallel = tree.validate(true);
+        assertFalse(sequential.isValid());
+        assertTrue(types(sequential).contains(expected), sequential::toString);
+        assertEquals(SIZE, sequential.nodeCount());
+        assertEquals(sequential.nodeCount(), parallel.nodeCount());
+        assertEquals(sequential.violationCount(), parallel.violationCount());
+        assertEquals(types(sequential), types(parallel));
+        return sequential;
+    }
+
+    /**
+     * Получает виды нарушений отчета.
+     * @param report отчет о проверке.
+     * @return множество видов нарушений.
+     */
+    private static Set<ValidationReport.Type> types(ValidationReport<Integer> report) {
+        Set<ValidationReport.Type> types = EnumSet.noneOf(ValidationReport.Type.class);
+        for(ValidationReport.Violation<Integer> violation : report.violations()) {
+            types.add(violation.type());
+        }
+        return types;
+    }
+
+    /**
+     * Создает дерево из ключей 0..SIZE-1, добавленных в случайном порядке.
+     * @return дерево.
+     */
+    private static RBTree<Integer, Integer> newTree() {
+        List<Integer> keys = new ArrayList<>(SIZE);
+        for(int key = 0; key < SIZE; ++key) {
+            keys.add(key);
+        }
+        Collections.shuffle(keys, new Random(21));
+        RBTree<Integer, Integer> tree = new RBTree<>();
+        for(Integer key : keys) {
+            tree.add(key, key);
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,55 @@
+package redBlackTree;
+
+import binarySearchTree.BSNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Дерево со строковыми ключами: добавление, удаление и поиск по префиксам ключей в сравнении с {@link TreeMap}.
+ */
+class StringRBTreeTest {
+    @Test
+    void matchesTreeMap() {
+        Random random = new Random(17);
+        StringRBTree<Integer> tree = new StringRBTree<>();
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        for(int j = 0; j < 20_000; ++j) {
+            String key = randomKey(random);
+            if(random.nextInt(3) == 0) {
+                BSNode<String, Integer> node = tree.removeNode(key);
+                assertEquals(expected.remove(key), node != null ? node.getValue() : null);
+            }
+            else {
+                tree.add(key, j);
+                expected.put(key, j);
+            }
+            BSNode<String, Integer> found = tree.findNode(key);
+            assertEquals(expected.get(key), found != null ? found.getValue() : null);
+        }
+        assertTrue(tree.validate().isValid());
+        List<String> keys = new ArrayList<>();
+        for(BSNode<String, Integer> node : tree) {
+            keys.add(node.getKey());
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+    }
+
+    /**
+     * Ключ с общими префиксами длиннее кэшируемого префикса и символами emoji.
+     */
+    private static String randomKey(Random random) {
+        String[] parts = {"", "a", "ab", "abcd", "abcde", "😀", "😁", "я"};
+        StringBuilder builder = new StringBuilder();
+        for(int length = 1 + random.nextInt(3); length > 0; --length) {
+            builder.append(parts[random.nextInt(parts.length)]);
+        }
+        return builder.toString();
+    }
+}
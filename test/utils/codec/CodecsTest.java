@@ -0,0 +1,68 @@
+package utils.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Стандартные кодировщики: сравнение с двоичным представлением совпадает с естественным порядком значений.
+ */
+class CodecsTest {
+    @Test
+    void comparesEncodedValues() {
+        Random random = new Random(3);
+        for(int j = 0; j < 10_000; ++j) {
+            assertCompare(Codecs.ofInt(), random.nextInt(), random.nextInt());
+            assertCompare(Codecs.ofLong(), random.nextLong(), random.nextLong());
+            String a = randomString(random);
+            String b = random.nextInt(4) == 0 ? a : randomString(random);
+            assertCompare(Codecs.ofString(24), a, b);
+            assertCompare(Codecs.ofString(), a, b);
+        }
+    }
+
+    @Test
+    void comparesMalformedBytesAfterDecoding() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] {'a', (byte) 0xC0, (byte) 0x80, 'b'});
+        Codec<String> codec = Codecs.ofString(4);
+        String decoded = codec.read(buffer, 0, 4);
+        assertEquals(0, codec.compare(decoded, buffer, 0, 4));
+        assertEquals(Integer.signum("a".compareTo(decoded)), Integer.signum(codec.compare("a", buffer, 0, 4)));
+    }
+
+    @Test
+    void fixedStringRejectsNulCharacter() {
+        Codec<String> codec = Codecs.ofString(4);
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        // Строка "a\0" совпала бы с дополненной нулями строкой "a"
+        assertThrows(IllegalArgumentException.class, () -> codec.write("a\0", buffer));
+        assertEquals(0, buffer.position());
+        codec.write("a", buffer);
+        assertEquals("a", codec.read(buffer, 0, 4));
+        assertEquals(1, Integer.signum(codec.compare("a\0", buffer, 0, 4)));
+    }
+
+    private static <T extends Comparable<T>> void assertCompare(Codec<T> codec, T value, T other) {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.position(5);
+        codec.write(other, buffer);
+        int length = buffer.position() - 5;
+        buffer.position(1);
+        assertEquals(Integer.signum(value.compareTo(other)), Integer.signum(codec.compare(value, buffer, 5, length)));
+        assertEquals(other, codec.read(buffer, 5, length));
+        assertEquals(1, buffer.position());
+    }
+
+    private static String randomString(Random random) {
+        int[] alphabet = {'a', 'b', 'Я', 0xFF21, 0xE000, 0x1F600, 0x10FFFF};
+        StringBuilder builder = new StringBuilder();
+        for(int length = random.nextInt(5); length > 0; --length) {
+            builder.appendCodePoint(alphabet[random.nextInt(alphabet.length)]);
+        }
+        return builder.toString();
+    }
+}